@@ -521,6 +521,8 @@ public class ActionDBAccessorImpl implements ActionDBAccessor {
     long now = System.currentTimeMillis();
 
     List<Long> requestsToCheck = new ArrayList<>();
+    List<HostRoleCommandEntity> updatedEntities = new ArrayList<>();
+    List<HostRoleCommandEntity> completedEntities = new ArrayList<>();
 
     List<HostRoleCommandEntity> commandEntities;
     try {
@@ -566,22 +568,9 @@ public class ActionDBAccessorImpl implements ActionDBAccessor {
           commandEntity.setEndTime(now);
         }
 
-        try {
-          hrcOperationsLock.writeLock().lock();
-          hostRoleCommandDAO.merge(commandEntity);
-        } finally {
-          hrcOperationsLock.writeLock().unlock();
-        }
-
+        updatedEntities.add(commandEntity);
         if (commandEntity.getStatus().isCompletedState()) {
-          String actionId = report.getActionId();
-          long[] requestStageIds = StageUtils.getRequestStage(actionId);
-          long requestId = requestStageIds[0];
-          long stageId = requestStageIds[1];
-          auditLog(commandEntity, requestId);
-          if (requestDAO.getLastStageId(requestId).equals(stageId)) {
-            requestsToCheck.add(requestId);
-          }
+          completedEntities.add(commandEntity);
         }
       } else {
        LOG.warn(String.format("Request for invalid transition of host role command status received for task id %d from " +
@@ -589,6 +578,28 @@ public class ActionDBAccessorImpl implements ActionDBAccessor {
       }
     }
 
+    // all updates are written in one transaction, the status summary cache is invalidated once per request
+    // and a single task update event is published for the whole batch
+    if (!updatedEntities.isEmpty()) {
+      try {
+        hrcOperationsLock.writeLock().lock();
+        hostRoleCommandDAO.mergeAll(updatedEntities);
+      } finally {
+        hrcOperationsLock.writeLock().unlock();
+      }
+    }
+
+    for (HostRoleCommandEntity commandEntity : completedEntities) {
+      String actionId = taskReports.get(commandEntity.getTaskId()).getActionId();
+      long[] requestStageIds = StageUtils.getRequestStage(actionId);
+      long requestId = requestStageIds[0];
+      long stageId = requestStageIds[1];
+      auditLog(commandEntity, requestId);
+      if (requestDAO.getLastStageId(requestId).equals(stageId) && !requestsToCheck.contains(requestId)) {
+        requestsToCheck.add(requestId);
+      }
+    }
+
     for (Long requestId : requestsToCheck) {
       endRequestIfCompleted(requestId);
     }
@@ -51,6 +51,13 @@ public class ActionManager {
   private final RequestFactory requestFactory;
   private static TopologyManager topologyManager;
 
+  /**
+   * Accumulates command reports of all hosts, {@code null} when the manager is
+   * not created by Guice, reports are written directly in this case.
+   */
+  @Inject
+  private CommandReportBatcher commandReportBatcher;
+
 
   /**
    * Guice-injected Constructor.
@@ -166,7 +173,11 @@ public class ActionManager {
       reportsToProcess.add(report);
     }
 
-    db.updateHostRoleStates(reportsToProcess);
+    if (commandReportBatcher != null) {
+      commandReportBatcher.submit(reportsToProcess);
+    } else {
+      db.updateHostRoleStates(reportsToProcess);
+    }
   }
 
   /**
@@ -28,7 +28,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -47,11 +53,17 @@ import org.apache.shpurdp.server.agent.ExecutionCommand;
 import org.apache.shpurdp.server.configuration.Configuration;
 import org.apache.shpurdp.server.controller.HostsMap;
 import org.apache.shpurdp.server.events.ActionFinalReportReceivedEvent;
+import org.apache.shpurdp.server.events.HostRegisteredEvent;
+import org.apache.shpurdp.server.events.HostStateUpdateEvent;
+import org.apache.shpurdp.server.events.HostsRemovedEvent;
+import org.apache.shpurdp.server.events.TaskCreateEvent;
+import org.apache.shpurdp.server.events.TaskUpdateEvent;
 import org.apache.shpurdp.server.events.jpa.EntityManagerCacheInvalidationEvent;
 import org.apache.shpurdp.server.events.listeners.tasks.TaskStatusListener;
 import org.apache.shpurdp.server.events.publishers.AgentCommandsPublisher;
 import org.apache.shpurdp.server.events.publishers.ShpurdpEventPublisher;
 import org.apache.shpurdp.server.events.publishers.JPAEventPublisher;
+import org.apache.shpurdp.server.events.publishers.TaskEventPublisher;
 import org.apache.shpurdp.server.metadata.RoleCommandOrder;
 import org.apache.shpurdp.server.metadata.RoleCommandOrderProvider;
 import org.apache.shpurdp.server.metadata.RoleCommandPair;
@@ -67,6 +79,8 @@ import org.apache.shpurdp.server.state.Service;
 import org.apache.shpurdp.server.state.ServiceComponent;
 import org.apache.shpurdp.server.state.ServiceComponentHost;
 import org.apache.shpurdp.server.state.ServiceComponentHostEvent;
+import org.apache.shpurdp.server.state.cluster.ClusterHostInfoSnapshot;
+import org.apache.shpurdp.server.state.cluster.ClusterHostInfoSnapshotService;
 import org.apache.shpurdp.server.state.fsm.InvalidStateTransitionException;
 import org.apache.shpurdp.server.state.svccomphost.ServiceComponentHostOpFailedEvent;
 import org.apache.shpurdp.server.utils.StageUtils;
@@ -85,6 +99,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -143,6 +158,16 @@ class ActionScheduler implements Runnable {
   @Inject
   private AgentCommandsPublisher agentCommandsPublisher;
 
+  /**
+   * Shares the clusterHostInfo structures of the current topology between
+   * requests. Not set when the scheduler is created outside of Guice.
+   */
+  @Inject
+  private ClusterHostInfoSnapshotService clusterHostInfoSnapshotService;
+
+  @Inject
+  private TaskEventPublisher taskEventPublisher;
+
   /**
    * The current thread's reference to the {@link EntityManager}.
    */
@@ -185,6 +210,62 @@ class ActionScheduler implements Runnable {
 
   private AtomicBoolean taskStatusLoaded = new AtomicBoolean();
 
+  /**
+   * {@code true} if the scheduler thread is woken up by task, request and host
+   * events and otherwise only when the earliest task timeout is due, instead
+   * of running every {@link #sleepTime} milliseconds.
+   */
+  private volatile boolean eventDriven = false;
+
+  /**
+   * The maximum time the event driven scheduler stays idle.
+   */
+  private long maxIdleTime;
+
+  /**
+   * Set when tasks, requests or hosts have changed since the stages in
+   * progress were loaded the last time.
+   */
+  private final AtomicBoolean stagesChanged = new AtomicBoolean(true);
+
+  /**
+   * {@code true} if the next iteration should run after {@link #sleepTime}
+   * and reload the stages even when no changes have been received. Events are
+   * published before the changes are committed, so the iteration triggered by
+   * them may not see the changes yet.
+   */
+  private boolean recheckStages = false;
+
+  /**
+   * The first stage in progress per request, kept between iterations of the
+   * event driven scheduler until tasks, requests or hosts change.
+   */
+  private List<Stage> residentStages = null;
+
+  /**
+   * The time the resident stages were loaded; they are reloaded at least
+   * every {@link #maxIdleTime} as a safety net for changes without events.
+   */
+  private long residentStagesLoadTime = 0;
+
+  /**
+   * The timeout deadlines of the queued and in progress tasks, only the tasks
+   * whose deadline has passed are checked for a timeout.
+   */
+  private final TaskTimeoutWheel taskTimeouts = new TaskTimeoutWheel();
+
+  /**
+   * Processes stages of different requests concurrently, created on first use
+   * if parallel dispatch is enabled.
+   */
+  private ExecutorService dispatchExecutor = null;
+
+  /**
+   * Serializes the handling of service component host events of the stages
+   * of the same cluster processed by different dispatcher threads.
+   */
+  private final ConcurrentMap<String, Object> clusterEventLocks = new ConcurrentHashMap<>();
+
   //Cache for clusterHostinfo, key - stageId-requestId
   private Cache<String, Map<String, Set<String>>> clusterHostInfoCache;
   private Cache<String, Map<String, String>> commandParamsStageCache;
@@ -303,6 +384,17 @@ class ActionScheduler implements Runnable {
   }
 
   public void start() {
+    // task events are the only source of task status changes, without them
+    // the scheduler keeps polling
+    eventDriven = null != taskEventPublisher && null != configuration
+        && configuration.isExecutionSchedulerEventDriven();
+
+    if (eventDriven) {
+      maxIdleTime = Math.max(configuration.getExecutionSchedulerMaxIdle(), sleepTime);
+      taskEventPublisher.register(this);
+      shpurdpEventPublisher.register(this);
+    }
+
     schedulerThread = new Thread(this, "shpurdp-action-scheduler");
     schedulerThread.start();
 
@@ -315,6 +407,12 @@ class ActionScheduler implements Runnable {
     shouldRun = false;
     schedulerThread.interrupt();
 
+    synchronized (clusterEventLocks) {
+      if (null != dispatchExecutor) {
+        dispatchExecutor.shutdownNow();
+      }
+    }
+
     // Stop the ServerActionExecutor. Since it is directly related to the ActionScheduler it should
     // be started and stopped along with it.
     serverActionExecutor.stop();
@@ -338,12 +436,16 @@ class ActionScheduler implements Runnable {
       try {
         synchronized (wakeupSyncObject) {
           if (!activeAwakeRequest) {
-            wakeupSyncObject.wait(sleepTime);
+            wakeupSyncObject.wait(getWaitTime());
           }
           activeAwakeRequest = false;
         }
 
-        doWork();
+        if (eventDriven) {
+          doEventDrivenWork();
+        } else {
+          doWork();
+        }
 
       } catch (InterruptedException ex) {
         LOG.warn("Scheduler thread is interrupted going to stop", ex);
@@ -351,14 +453,63 @@ class ActionScheduler implements Runnable {
       } catch (Exception ex) {
         LOG.warn("Exception received", ex);
         requestsInProgress.clear();
+        residentStages = null;
       } catch (Throwable t) {
         LOG.warn("ERROR", t);
         requestsInProgress.clear();
+        residentStages = null;
       }
     }
   }
 
+  /**
+   * Gets the time the scheduler thread waits for an {@link #awake()} request
+   * before the next iteration. The polling scheduler waits for
+   * {@link #sleepTime}, or less if a task timeout is due earlier. The event
+   * driven scheduler waits until the earliest task timeout is due, but at most
+   * {@link #maxIdleTime}.
+   *
+   * @return the time to wait in milliseconds
+   */
+  private long getWaitTime() {
+    long timeoutTime = taskTimeouts.getNextExpiration();
+    long timeoutWait = timeoutTime == Long.MAX_VALUE ? Long.MAX_VALUE
+        : timeoutTime - System.currentTimeMillis();
+
+    if (!eventDriven || recheckStages) {
+      return Math.max(1, Math.min(timeoutWait, sleepTime));
+    }
+
+    return Math.max(sleepTime, Math.min(timeoutWait, maxIdleTime));
+  }
+
+  /**
+   * Runs an iteration of the event driven scheduler. The stages in progress
+   * are reloaded only when a task or host event changed them, when the previous
+   * iteration has to be checked again or when they are older than
+   * {@link #maxIdleTime}; otherwise the resident stages are processed.
+   */
+  void doEventDrivenWork() throws ShpurdpException {
+    boolean changed = stagesChanged.getAndSet(false);
+    doWork(changed || recheckStages
+        || System.currentTimeMillis() - residentStagesLoadTime >= maxIdleTime);
+    recheckStages = changed;
+  }
+
   public void doWork() throws ShpurdpException {
+    doWork(true);
+  }
+
+  /**
+   * Runs a single iteration of the scheduler.
+   *
+   * @param reloadStages
+   *          {@code true} to load the stages in progress from the database,
+   *          {@code false} to reuse the ones loaded by the previous iteration
+   *          if there are any
+   * @throws ShpurdpException
+   */
+  private void doWork(boolean reloadStages) throws ShpurdpException {
     try {
       unitOfWork.begin();
 
@@ -377,11 +528,18 @@ class ActionScheduler implements Runnable {
           LOG.debug("There are no stages currently in progress.");
         }
 
+        taskTimeouts.clear();
+        residentStages = null;
         return;
       }
 
       Set<Long> runningRequestIds = new HashSet<>();
-      List<Stage> firstStageInProgressPerRequest = db.getFirstStageInProgressPerRequest();
+      if (reloadStages || null == residentStages) {
+        residentStages = db.getFirstStageInProgressPerRequest();
+        residentStagesLoadTime = System.currentTimeMillis();
+      }
+
+      List<Stage> firstStageInProgressPerRequest = residentStages;
       if (LOG.isDebugEnabled()) {
         LOG.debug("Scheduler wakes up");
         LOG.debug("Processing {} in progress stages", firstStageInProgressPerRequest.size());
@@ -405,6 +563,8 @@ class ActionScheduler implements Runnable {
       List<Stage> stages = filterParallelPerHostStages(firstStageInProgressPerRequest);
 
       boolean exclusiveRequestIsGoing = false;
+      boolean parallelDispatch = isParallelDispatchEnabled();
+      List<Stage> stagesToDispatch = new ArrayList<>();
       // This loop greatly depends on the fact that order of stages in
       // a list does not change between invocations
       for (Stage stage : stages) {
@@ -436,131 +596,272 @@ class ActionScheduler implements Runnable {
           }
         }
 
-        // Commands that will be scheduled in current scheduler wakeup
-        List<ExecutionCommand> commandsToSchedule = new ArrayList<>();
-        Multimap<Long, AgentCommand> commandsToEnqueue = ArrayListMultimap.create();
-        Map<String, RoleStats> roleStats = processInProgressStage(stage, commandsToSchedule, commandsToEnqueue);
+        if (parallelDispatch) {
+          // processed together with the stages of the other requests below
+          stagesToDispatch.add(stage);
+        } else if (!processStage(request, stage)) {
+          return;
+        }
 
-        // Check if stage is failed
-        boolean failed = false;
-        for (Map.Entry<String, RoleStats> entry : roleStats.entrySet()) {
+        if (!configuration.getParallelStageExecution()) { // If disabled
+          dispatchStages(stagesToDispatch);
+          return;
+        }
 
-          String role = entry.getKey();
-          RoleStats stats = entry.getValue();
+        if (exclusiveRequestIsGoing) {
+          // As a result, we will prevent any further stages from being executed
+          LOG.debug("Stage requires exclusive execution, skipping all executing any further stages");
+          break;
+        }
+      }
 
-          if (LOG.isDebugEnabled()) {
-            LOG.debug("Stats for role: {}, stats={}", role, stats);
-          }
+      dispatchStages(stagesToDispatch);
 
-          // only fail the request if the role failed and the stage is not
-          // skippable
-          if (stats.isRoleFailed() && !stage.isSkippable()) {
-            LOG.warn("{} failed, request {} will be aborted", role, request.getRequestId());
+      requestsInProgress.retainAll(runningRequestIds);
 
-            failed = true;
-            break;
-          }
-        }
+    } finally {
+      // forget the timed out tasks which have not been processed by this
+      // iteration, they are scheduled again if they are still in progress
+      taskTimeouts.purge();
 
-        if (!failed) {
-          // Prior stage may have failed and it may need to fail the whole request
-          failed = hasPreviousStageFailed(stage);
-        }
+      LOG.debug("Scheduler finished work.");
+      unitOfWork.end();
+    }
+  }
 
-        if (failed) {
-          LOG.error("Operation completely failed, aborting request id: {}", stage.getRequestId());
-          cancelHostRoleCommands(stage.getOrderedHostRoleCommands(), FAILED_TASK_ABORT_REASONING);
-          abortOperationsForStage(stage);
-          return;
-        }
+  /**
+   * Schedules the commands of a stage in progress: processes timeouts,
+   * checks whether the stage has failed, and sends the pending commands to
+   * the agents.
+   *
+   * @param request
+   *          the request of the stage
+   * @param stage
+   *          the first stage in progress of the request
+   * @return {@code false} if the stage has failed and the request has been
+   *         aborted
+   * @throws ShpurdpException
+   */
+  private boolean processStage(RequestEntity request, Stage stage) throws ShpurdpException {
+    // Commands that will be scheduled in current scheduler wakeup
+    List<ExecutionCommand> commandsToSchedule = new ArrayList<>();
+    Multimap<Long, AgentCommand> commandsToEnqueue = ArrayListMultimap.create();
+    Map<String, RoleStats> roleStats = processInProgressStage(stage, commandsToSchedule, commandsToEnqueue);
 
-        List<ExecutionCommand> commandsToStart = new ArrayList<>();
-        List<ExecutionCommand> commandsToUpdate = new ArrayList<>();
+    // Check if stage is failed
+    boolean failed = false;
+    for (Map.Entry<String, RoleStats> entry : roleStats.entrySet()) {
 
-        //Schedule what we have so far
+      String role = entry.getKey();
+      RoleStats stats = entry.getValue();
 
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Stats for role: {}, stats={}", role, stats);
+      }
 
-        for (ExecutionCommand cmd : commandsToSchedule) {
-          processHostRole(request, stage, cmd, commandsToStart, commandsToUpdate);
-        }
+      // only fail the request if the role failed and the stage is not
+      // skippable
+      if (stats.isRoleFailed() && !stage.isSkippable()) {
+        LOG.warn("{} failed, request {} will be aborted", role, request.getRequestId());
 
-        LOG.debug("==> Commands to start: {}", commandsToStart.size());
-        LOG.debug("==> Commands to update: {}", commandsToUpdate.size());
+        failed = true;
+        break;
+      }
+    }
 
-        //Multimap is analog of Map<Object, List<Object>> but allows to avoid nested loop
-        ListMultimap<String, ServiceComponentHostEvent> eventMap = formEventMap(stage, commandsToStart);
-        Map<ExecutionCommand, String> commandsToAbort = new HashMap<>();
-        if (!eventMap.isEmpty()) {
-          LOG.debug("==> processing {} serviceComponentHostEvents...", eventMap.size());
-          Cluster cluster = clusters.getCluster(stage.getClusterName());
-          if (cluster != null) {
-            Map<ServiceComponentHostEvent, String> failedEvents = cluster.processServiceComponentHostEvents(eventMap);
+    if (!failed) {
+      // Prior stage may have failed and it may need to fail the whole request
+      failed = hasPreviousStageFailed(stage);
+    }
 
-            if (failedEvents.size() > 0) {
-              LOG.error("==> {} events failed.", failedEvents.size());
-            }
+    if (failed) {
+      LOG.error("Operation completely failed, aborting request id: {}", stage.getRequestId());
+      cancelHostRoleCommands(stage.getOrderedHostRoleCommands(), FAILED_TASK_ABORT_REASONING);
+      abortOperationsForStage(stage);
+      return false;
+    }
 
-            for (Iterator<ExecutionCommand> iterator = commandsToUpdate.iterator(); iterator.hasNext(); ) {
-              ExecutionCommand cmd = iterator.next();
-              for (ServiceComponentHostEvent event : failedEvents.keySet()) {
-                if (StringUtils.equals(event.getHostName(), cmd.getHostname()) &&
-                  StringUtils.equals(event.getServiceComponentName(), cmd.getRole())) {
-                  iterator.remove();
-                  commandsToAbort.put(cmd, failedEvents.get(event));
-                  break;
-                }
-              }
-            }
-          } else {
-            LOG.warn("There was events to process but cluster {} not found", stage.getClusterName());
-          }
-        }
+    List<ExecutionCommand> commandsToStart = new ArrayList<>();
+    List<ExecutionCommand> commandsToUpdate = new ArrayList<>();
 
-        LOG.debug("==> Scheduling {} tasks...", commandsToUpdate.size());
-        db.bulkHostRoleScheduled(stage, commandsToUpdate);
+    //Schedule what we have so far
 
-        if (commandsToAbort.size() > 0) { // Code branch may be a bit slow, but is extremely rarely used
-          LOG.debug("==> Aborting {} tasks...", commandsToAbort.size());
-          // Build a list of HostRoleCommands
-          List<Long> taskIds = new ArrayList<>();
-          for (ExecutionCommand command : commandsToAbort.keySet()) {
-            taskIds.add(command.getTaskId());
-          }
-          Collection<HostRoleCommand> hostRoleCommands = db.getTasks(taskIds);
 
-          cancelHostRoleCommands(hostRoleCommands, FAILED_TASK_ABORT_REASONING);
-          db.bulkAbortHostRole(stage, commandsToAbort);
+    for (ExecutionCommand cmd : commandsToSchedule) {
+      processHostRole(request, stage, cmd, commandsToStart, commandsToUpdate);
+    }
+
+    LOG.debug("==> Commands to start: {}", commandsToStart.size());
+    LOG.debug("==> Commands to update: {}", commandsToUpdate.size());
+
+    //Multimap is analog of Map<Object, List<Object>> but allows to avoid nested loop
+    ListMultimap<String, ServiceComponentHostEvent> eventMap = formEventMap(stage, commandsToStart);
+    Map<ExecutionCommand, String> commandsToAbort = new HashMap<>();
+    if (!eventMap.isEmpty()) {
+      LOG.debug("==> processing {} serviceComponentHostEvents...", eventMap.size());
+      Cluster cluster = clusters.getCluster(stage.getClusterName());
+      if (cluster != null) {
+        Map<ServiceComponentHostEvent, String> failedEvents;
+        synchronized (clusterEventLocks.computeIfAbsent(stage.getClusterName(), name -> new Object())) {
+          failedEvents = cluster.processServiceComponentHostEvents(eventMap);
         }
 
-        LOG.debug("==> Adding {} tasks to queue...", commandsToUpdate.size());
-        for (ExecutionCommand cmd : commandsToUpdate) {
-          // Do not queue up server actions; however if we encounter one, wake up the ServerActionExecutor
-          if (Role.SHPURDP_SERVER_ACTION.name().equals(cmd.getRole())) {
-            serverActionExecutor.awake();
-          } else {
-            commandsToEnqueue.put(clusters.getHost(cmd.getHostname()).getHostId(), cmd);
-          }
+        if (failedEvents.size() > 0) {
+          LOG.error("==> {} events failed.", failedEvents.size());
         }
-        if (!commandsToEnqueue.isEmpty()) {
-          agentCommandsPublisher.sendAgentCommand(commandsToEnqueue);
+
+        for (Iterator<ExecutionCommand> iterator = commandsToUpdate.iterator(); iterator.hasNext(); ) {
+          ExecutionCommand cmd = iterator.next();
+          for (ServiceComponentHostEvent event : failedEvents.keySet()) {
+            if (StringUtils.equals(event.getHostName(), cmd.getHostname()) &&
+              StringUtils.equals(event.getServiceComponentName(), cmd.getRole())) {
+              iterator.remove();
+              commandsToAbort.put(cmd, failedEvents.get(event));
+              break;
+            }
+          }
         }
-        LOG.debug("==> Finished.");
+      } else {
+        LOG.warn("There was events to process but cluster {} not found", stage.getClusterName());
+      }
+    }
 
-        if (!configuration.getParallelStageExecution()) { // If disabled
-          return;
+    LOG.debug("==> Scheduling {} tasks...", commandsToUpdate.size());
+    db.bulkHostRoleScheduled(stage, commandsToUpdate);
+
+    if (commandsToAbort.size() > 0) { // Code branch may be a bit slow, but is extremely rarely used
+      LOG.debug("==> Aborting {} tasks...", commandsToAbort.size());
+      // Build a list of HostRoleCommands
+      List<Long> taskIds = new ArrayList<>();
+      for (ExecutionCommand command : commandsToAbort.keySet()) {
+        taskIds.add(command.getTaskId());
+      }
+      Collection<HostRoleCommand> hostRoleCommands = db.getTasks(taskIds);
+
+      cancelHostRoleCommands(hostRoleCommands, FAILED_TASK_ABORT_REASONING);
+      db.bulkAbortHostRole(stage, commandsToAbort);
+    }
+
+    LOG.debug("==> Adding {} tasks to queue...", commandsToUpdate.size());
+    for (ExecutionCommand cmd : commandsToUpdate) {
+      // Do not queue up server actions; however if we encounter one, wake up the ServerActionExecutor
+      if (Role.SHPURDP_SERVER_ACTION.name().equals(cmd.getRole())) {
+        serverActionExecutor.awake();
+      } else {
+        commandsToEnqueue.put(clusters.getHost(cmd.getHostname()).getHostId(), cmd);
+      }
+    }
+    if (!commandsToEnqueue.isEmpty()) {
+      agentCommandsPublisher.sendAgentCommand(commandsToEnqueue);
+    }
+    LOG.debug("==> Finished.");
+    return true;
+  }
+
+  /**
+   * Gets whether the stages of different requests are processed by the
+   * {@link #dispatchExecutor} instead of one by one in the scheduler thread.
+   */
+  private boolean isParallelDispatchEnabled() {
+    return null != configuration && configuration.getParallelStageExecution()
+        && configuration.getParallelStageDispatchThreads() > 1;
+  }
+
+  /**
+   * Processes the stages of different requests using the
+   * {@link #dispatchExecutor}. Every stage is reloaded and processed in the
+   * {@link UnitOfWork} of its dispatcher thread, so entities are never shared
+   * between entity managers and a stage with many hosts does not hold back
+   * the stages of small unrelated requests. A failed stage aborts only its
+   * own request.
+   *
+   * @param stages
+   *          the stages to process, which may run in parallel as determined
+   *          by {@link #filterParallelPerHostStages(List)}
+   * @throws ShpurdpException
+   *           if processing of any of the stages failed
+   */
+  private void dispatchStages(List<Stage> stages) throws ShpurdpException {
+    if (stages.isEmpty()) {
+      return;
+    }
+
+    if (stages.size() == 1) {
+      Stage stage = stages.get(0);
+      processStage(db.getRequestEntity(stage.getRequestId()), stage);
+      return;
+    }
+
+    List<Callable<Boolean>> stageTasks = new ArrayList<>();
+    for (Stage stage : stages) {
+      final String actionId = stage.getActionId();
+      final long requestId = stage.getRequestId();
+      stageTasks.add(() -> inUnitOfWork(() -> {
+        Stage workerStage = db.getStage(actionId);
+        if (null == workerStage) {
+          LOG.debug("Stage {} no longer exists, skipping it", actionId);
+          return true;
         }
+        return processStage(db.getRequestEntity(requestId), workerStage);
+      }));
+    }
 
-        if (exclusiveRequestIsGoing) {
-          // As a result, we will prevent any further stages from being executed
-          LOG.debug("Stage requires exclusive execution, skipping all executing any further stages");
-          break;
+    // the workers change their own copies of the stages, the resident ones
+    // are reloaded by the next iteration
+    residentStages = null;
+
+    List<Throwable> failures = invokeAll(stageTasks);
+    if (!failures.isEmpty()) {
+      for (Throwable failure : failures) {
+        LOG.warn("Unable to process stage", failure);
+      }
+      throw new ShpurdpException("Unable to process " + failures.size() + " of " + stages.size() + " stages",
+        failures.get(0));
+    }
+  }
+
+  /**
+   * Runs the tasks using the {@link #dispatchExecutor} and waits for them.
+   *
+   * @return the exceptions thrown by the tasks
+   * @throws ShpurdpException
+   *           if the scheduler thread has been interrupted
+   */
+  private List<Throwable> invokeAll(List<Callable<Boolean>> tasks) throws ShpurdpException {
+    List<Throwable> failures = new ArrayList<>();
+    try {
+      for (Future<Boolean> future : getDispatchExecutor().invokeAll(tasks)) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          failures.add(e.getCause());
         }
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ShpurdpException("Interrupted while processing stages", e);
+    }
+    return failures;
+  }
 
-      requestsInProgress.retainAll(runningRequestIds);
+  private ExecutorService getDispatchExecutor() {
+    synchronized (clusterEventLocks) {
+      if (null == dispatchExecutor) {
+        dispatchExecutor = Executors.newFixedThreadPool(configuration.getParallelStageDispatchThreads(),
+            new ThreadFactoryBuilder().setNameFormat("shpurdp-action-dispatcher-%d").setDaemon(true).build());
+      }
+      return dispatchExecutor;
+    }
+  }
 
+  /**
+   * Runs the task of a dispatcher thread in its own {@link UnitOfWork}.
+   */
+  private <T> T inUnitOfWork(Callable<T> task) throws Exception {
+    unitOfWork.begin();
+    try {
+      return task.call();
     } finally {
-      LOG.debug("Scheduler finished work.");
       unitOfWork.end();
     }
   }
@@ -732,6 +1033,7 @@ class ActionScheduler implements Runnable {
     // Map to track role status
     Map<String, RoleStats> roleStats = initRoleStats(s);
     long now = System.currentTimeMillis();
+    taskTimeouts.advance(now);
     Set<RoleCommandPair> rolesCommandsInProgress = s.getHostRolesInProgress();
 
     Cluster cluster = null;
@@ -807,6 +1109,15 @@ class ActionScheduler implements Runnable {
           }
         }
 
+        // only the tasks whose deadline has passed are checked for a timeout
+        boolean timeoutDue = false;
+        if (status == HostRoleStatus.QUEUED || status == HostRoleStatus.IN_PROGRESS) {
+          taskTimeouts.schedule(c.getTaskId(), s.getLastAttemptTime(host, roleStr) + commandTimeout);
+          timeoutDue = taskTimeouts.isDue(c.getTaskId());
+        } else {
+          taskTimeouts.cancel(c.getTaskId());
+        }
+
         // Check that service host component is not deleted
         boolean isHostStateUnknown = false;
         if (hostDeleted) {
@@ -826,7 +1137,7 @@ class ActionScheduler implements Runnable {
             processActionDeath(cluster.getClusterName(), c.getHostname(), roleStr);
           }
           status = HostRoleStatus.ABORTED;
-        } else if (timeOutActionNeeded(status, s, hostObj, roleStr, now, commandTimeout)
+        } else if ((timeoutDue && timeOutActionNeeded(status, s, hostObj, roleStr, now, commandTimeout))
           || (isHostStateUnknown = isHostStateUnknown(s, hostObj, roleStr))) {
           // Process command timeouts
           if (s.getAttemptCount(host, roleStr) >= maxAttempts || isHostStateUnknown) {
@@ -1137,8 +1448,15 @@ class ActionScheduler implements Runnable {
     Map<String, Set<String>> clusterHostInfo = clusterHostInfoCache.getIfPresent(requestPK);
 
     if (clusterHostInfo == null) {
-      Type type = new TypeToken<Map<String, Set<String>>>() {}.getType();
-      clusterHostInfo = StageUtils.getGson().fromJson(r.getClusterHostInfo(), type);
+      // requests created from the current topology share its snapshot
+      ClusterHostInfoSnapshot snapshot = null == clusterHostInfoSnapshotService ? null
+          : clusterHostInfoSnapshotService.findSnapshot(r.getClusterHostInfo());
+      if (null != snapshot) {
+        clusterHostInfo = snapshot.getClusterHostInfo();
+      } else {
+        Type type = new TypeToken<Map<String, Set<String>>>() {}.getType();
+        clusterHostInfo = StageUtils.getGson().fromJson(r.getClusterHostInfo(), type);
+      }
       clusterHostInfoCache.put(requestPK, clusterHostInfo);
     }
 
@@ -1373,6 +1691,7 @@ class ActionScheduler implements Runnable {
    */
   @Subscribe
   public void onEvent(EntityManagerCacheInvalidationEvent event) {
+    stagesChanged.set(true);
     try {
       if (null != threadEntityManager && threadEntityManager.isOpen()) {
         threadEntityManager.clear();
@@ -1382,6 +1701,79 @@ class ActionScheduler implements Runnable {
     }
   }
 
+  /**
+   * Handles {@link TaskCreateEvent} instances by waking up the scheduler to
+   * schedule the tasks of the new request.
+   *
+   * @param event
+   *          the event to handle (not {@code null}).
+   */
+  @Subscribe
+  public void onTaskCreateEvent(TaskCreateEvent event) {
+    stagesChanged.set(true);
+    awake();
+  }
+
+  /**
+   * Handles {@link TaskUpdateEvent} instances. The stages in progress are
+   * reloaded by the next iteration, the scheduler is woken up only when a task
+   * has completed since only then the next tasks or stages can be scheduled.
+   *
+   * @param event
+   *          the event to handle (not {@code null}).
+   */
+  @Subscribe
+  public void onTaskUpdateEvent(TaskUpdateEvent event) {
+    stagesChanged.set(true);
+    for (HostRoleCommand hostRoleCommand : event.getHostRoleCommands()) {
+      if (hostRoleCommand.getStatus().isCompletedState()) {
+        awake();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Handles {@link HostStateUpdateEvent} instances by waking up the scheduler
+   * to abort the tasks of the hosts which have lost heartbeat.
+   *
+   * @param event
+   *          the event to handle (not {@code null}).
+   */
+  @Subscribe
+  public void onHostStateUpdateEvent(HostStateUpdateEvent event) {
+    if (event.getHostState() == HostState.HEARTBEAT_LOST) {
+      stagesChanged.set(true);
+      awake();
+    }
+  }
+
+  /**
+   * Handles {@link HostRegisteredEvent} instances by waking up the scheduler
+   * to abort the tasks of the agents which have been restarted.
+   *
+   * @param event
+   *          the event to handle (not {@code null}).
+   */
+  @Subscribe
+  public void onHostRegisteredEvent(HostRegisteredEvent event) {
+    stagesChanged.set(true);
+    awake();
+  }
+
+  /**
+   * Handles {@link HostsRemovedEvent} instances by waking up the scheduler to
+   * abort the tasks of the removed hosts.
+   *
+   * @param event
+   *          the event to handle (not {@code null}).
+   */
+  @Subscribe
+  public void onHostsRemovedEvent(HostsRemovedEvent event) {
+    stagesChanged.set(true);
+    awake();
+  }
+
   static class RoleStats {
     int numInProgress;
     int numQueued = 0;
@@ -0,0 +1,344 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.actionmanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.shpurdp.server.agent.CommandReport;
+import org.apache.shpurdp.server.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.UnitOfWork;
+
+/**
+ * The {@link CommandReportBatcher} accumulates command reports of all hosts for
+ * a short window and applies them with a single
+ * {@link ActionDBAccessor#updateHostRoleStates(Collection)} call, so the task
+ * updates are written in one transaction with JDBC batches, the status summary
+ * cache is invalidated once per request and a single task update event is
+ * published for the whole batch. Reports of the same task received during the
+ * window are coalesced, only the latest one is written.
+ * <p/>
+ * Reports of a batch which failed to be written are put back in front of the
+ * pending reports and written again after a delay growing with each
+ * consecutive failure, a report is dropped after {@link #MAX_WRITE_ATTEMPTS}
+ * failed writes.
+ * <p/>
+ * The time from submitting a report till its task update event is published
+ * is collected into a histogram with {@link #LATENCY_BUCKETS} bounds.
+ */
+@Singleton
+public class CommandReportBatcher {
+  private static final Logger LOG = LoggerFactory.getLogger(CommandReportBatcher.class);
+
+  /**
+   * Upper bounds, in milliseconds, of the latency histogram buckets. The last
+   * bucket counts everything above the last bound.
+   */
+  public static final long[] LATENCY_BUCKETS = {10, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+  /**
+   * The amount of failed writes after which a report is dropped.
+   */
+  static final int MAX_WRITE_ATTEMPTS = 10;
+
+  /**
+   * The max delay, in milliseconds, before writing a failed batch again.
+   */
+  private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+  @Inject
+  private ActionDBAccessor db;
+
+  @Inject
+  private UnitOfWork unitOfWork;
+
+  /**
+   * The time, in milliseconds, reports are accumulated.
+   */
+  private final long window;
+
+  /**
+   * The amount of reports causing immediate write.
+   */
+  private final int batchSize;
+
+  /**
+   * Writes batches after the window, {@code null} if the window is disabled.
+   */
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Ensures batches are written one by one in order of forming.
+   */
+  private final Object writeLock = new Object();
+
+  /**
+   * Reports waiting for the write keyed by task id, guarded by {@code this}.
+   */
+  private Map<Long, PendingReport> pendingReports = new LinkedHashMap<>();
+
+  /**
+   * The amount of consecutive failed writes, guarded by {@code this}.
+   */
+  private int failedWrites = 0;
+
+  private final AtomicLong submittedReports = new AtomicLong();
+  private final AtomicLong coalescedReports = new AtomicLong();
+  private final AtomicLong writtenBatches = new AtomicLong();
+  private final AtomicLong droppedReports = new AtomicLong();
+  private final AtomicLong writeTime = new AtomicLong();
+  private final AtomicLong maxLatency = new AtomicLong();
+  private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS.length + 1);
+
+  @Inject
+  public CommandReportBatcher(Configuration configuration) {
+    window = configuration.getAgentsCommandReportsBatchWindow();
+    batchSize = configuration.getAgentsCommandReportsBatchSize();
+    scheduler = window <= 0 ? null : Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("command-report-batcher-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Adds reports of one agent message to the batch. If the window is disabled
+   * the reports are written right away in the calling thread.
+   *
+   * @param reports reports of tasks which are still in progress
+   */
+  public void submit(Collection<CommandReport> reports) {
+    if (reports.isEmpty()) {
+      return;
+    }
+    submittedReports.addAndGet(reports.size());
+    long submitTime = System.nanoTime();
+
+    if (scheduler == null) {
+      long startTime = System.nanoTime();
+      db.updateHostRoleStates(reports);
+      recordWrite(startTime, reports.size(), submitTime);
+      return;
+    }
+
+    boolean writeNow;
+    boolean scheduleWrite;
+    synchronized (this) {
+      scheduleWrite = pendingReports.isEmpty();
+      for (CommandReport report : reports) {
+        PendingReport previous = pendingReports.put(report.getTaskId(), new PendingReport(report, submitTime));
+        if (previous != null) {
+          coalescedReports.incrementAndGet();
+        }
+      }
+      writeNow = pendingReports.size() >= batchSize;
+    }
+
+    if (writeNow) {
+      try {
+        write();
+      } catch (RuntimeException e) {
+        scheduleRetry(e);
+      }
+    } else if (scheduleWrite) {
+      scheduler.schedule(this::writeQuietly, window, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Writes accumulated reports to the database.
+   */
+  public void write() {
+    synchronized (writeLock) {
+      Map<Long, PendingReport> batch;
+      synchronized (this) {
+        batch = pendingReports;
+        if (batch.isEmpty()) {
+          return;
+        }
+        pendingReports = new LinkedHashMap<>();
+      }
+
+      List<CommandReport> reports = new ArrayList<>(batch.size());
+      for (PendingReport pendingReport : batch.values()) {
+        reports.add(pendingReport.report);
+      }
+
+      long startTime = System.nanoTime();
+      try {
+        db.updateHostRoleStates(reports);
+      } catch (RuntimeException e) {
+        requeue(batch);
+        throw e;
+      }
+      synchronized (this) {
+        failedWrites = 0;
+      }
+      writtenBatches.incrementAndGet();
+      writeTime.addAndGet(System.nanoTime() - startTime);
+
+      long now = System.nanoTime();
+      for (PendingReport pendingReport : batch.values()) {
+        recordLatency(now - pendingReport.submitTime);
+      }
+    }
+  }
+
+  private void writeQuietly() {
+    try {
+      unitOfWork.begin();
+      try {
+        write();
+      } finally {
+        unitOfWork.end();
+      }
+    } catch (Exception e) {
+      scheduleRetry(e);
+    }
+  }
+
+  /**
+   * Puts reports of the failed batch back in front of the pending ones,
+   * reports received during the write are newer and replace them.
+   */
+  private void requeue(Map<Long, PendingReport> batch) {
+    synchronized (this) {
+      failedWrites++;
+      Map<Long, PendingReport> reports = new LinkedHashMap<>();
+      for (Map.Entry<Long, PendingReport> entry : batch.entrySet()) {
+        PendingReport pendingReport = entry.getValue();
+        if (++pendingReport.failedAttempts >= MAX_WRITE_ATTEMPTS) {
+          droppedReports.incrementAndGet();
+          LOG.error("Dropping report of task {} after {} failed writes", entry.getKey(), MAX_WRITE_ATTEMPTS);
+        } else {
+          reports.put(entry.getKey(), pendingReport);
+        }
+      }
+      reports.putAll(pendingReports);
+      pendingReports = reports;
+    }
+  }
+
+  private void scheduleRetry(Exception e) {
+    long retryDelay;
+    synchronized (this) {
+      retryDelay = Math.min(window << Math.min(failedWrites, 10), MAX_RETRY_DELAY);
+    }
+    LOG.error("Unable to write command reports to the database, retrying in {} ms", retryDelay, e);
+    scheduler.schedule(this::writeQuietly, retryDelay, TimeUnit.MILLISECONDS);
+  }
+
+  private void recordWrite(long startTime, int reports, long submitTime) {
+    long now = System.nanoTime();
+    writtenBatches.incrementAndGet();
+    writeTime.addAndGet(now - startTime);
+    for (int i = 0; i < reports; i++) {
+      recordLatency(now - submitTime);
+    }
+  }
+
+  private void recordLatency(long latencyNanos) {
+    long latency = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+    int bucket = 0;
+    while (bucket < LATENCY_BUCKETS.length && latency > LATENCY_BUCKETS[bucket]) {
+      bucket++;
+    }
+    latencyHistogram.incrementAndGet(bucket);
+    maxLatency.accumulateAndGet(latency, Math::max);
+  }
+
+  /**
+   * @return the amount of command reports submitted.
+   */
+  public long getSubmittedReports() {
+    return submittedReports.get();
+  }
+
+  /**
+   * @return the amount of reports replaced by a newer report of the same task before the write.
+   */
+  public long getCoalescedReports() {
+    return coalescedReports.get();
+  }
+
+  /**
+   * @return the amount of batches written.
+   */
+  public long getWrittenBatches() {
+    return writtenBatches.get();
+  }
+
+  /**
+   * @return the amount of reports dropped after {@link #MAX_WRITE_ATTEMPTS} failed writes.
+   */
+  public long getDroppedReports() {
+    return droppedReports.get();
+  }
+
+  /**
+   * @return total time, in milliseconds, spent on writing batches.
+   */
+  public long getWriteTime() {
+    return TimeUnit.NANOSECONDS.toMillis(writeTime.get());
+  }
+
+  /**
+   * Returns the latency histogram collected since the previous call and resets it.
+   *
+   * @return amount of reports per bucket of {@link #LATENCY_BUCKETS}, the last
+   * element counts reports slower than the last bound.
+   */
+  public long[] getAndResetLatencyHistogram() {
+    long[] histogram = new long[latencyHistogram.length()];
+    for (int i = 0; i < histogram.length; i++) {
+      histogram[i] = latencyHistogram.getAndSet(i, 0);
+    }
+    return histogram;
+  }
+
+  /**
+   * Returns the max latency since the previous call and resets it.
+   *
+   * @return max time, in milliseconds, from submitting a report till its write.
+   */
+  public long getAndResetMaxLatency() {
+    return maxLatency.getAndSet(0);
+  }
+
+  private static final class PendingReport {
+    private final CommandReport report;
+    private final long submitTime;
+    private int failedAttempts = 0;
+
+    private PendingReport(CommandReport report, long submitTime) {
+      this.report = report;
+      this.submitTime = submitTime;
+    }
+  }
+}
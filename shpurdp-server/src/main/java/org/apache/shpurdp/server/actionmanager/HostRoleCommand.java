@@ -17,10 +17,14 @@
  */
 package org.apache.shpurdp.server.actionmanager;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.shpurdp.server.Role;
 import org.apache.shpurdp.server.RoleCommand;
 import org.apache.shpurdp.server.orm.dao.ExecutionCommandDAO;
 import org.apache.shpurdp.server.orm.dao.HostDAO;
+import org.apache.shpurdp.server.orm.dao.HostRoleCommandDAO;
 import org.apache.shpurdp.server.orm.entities.ExecutionCommandEntity;
 import org.apache.shpurdp.server.orm.entities.HostEntity;
 import org.apache.shpurdp.server.orm.entities.HostRoleCommandEntity;
@@ -71,9 +75,18 @@ public class HostRoleCommand {
   private boolean isBackgroundCommand = false;
   private String opsDisplayName;
 
+  /**
+   * {@code false} if the command was created from an entity loaded without
+   * its output, stdout, stderr and structured output are read on first access.
+   */
+  private volatile boolean outputLoaded = true;
+
   @Inject
   private ExecutionCommandDAO executionCommandDAO;
 
+  @Inject
+  private HostRoleCommandDAO hostRoleCommandDAO;
+
   @Inject
   private HostDAO hostDAO;
 
@@ -164,11 +177,13 @@ public class HostRoleCommand {
     hostName = hostRoleCommandEntity.getHostName();
     role = hostRoleCommandEntity.getRole();
     status = hostRoleCommandEntity.getStatus();
-    stdout = hostRoleCommandEntity.getStdOut() != null ? new String(hostRoleCommandEntity.getStdOut()) : "";
-    stderr = hostRoleCommandEntity.getStdError() != null ? new String(hostRoleCommandEntity.getStdError()) : "";
+    if (hostRoleCommandEntity.isOutputLoaded()) {
+      setOutput(hostRoleCommandEntity);
+    } else {
+      outputLoaded = false;
+    }
     outputLog = hostRoleCommandEntity.getOutputLog();
     errorLog = hostRoleCommandEntity.getErrorLog();
-    structuredOut = hostRoleCommandEntity.getStructuredOut() != null ? new String(hostRoleCommandEntity.getStructuredOut()) : "";
     exitCode = hostRoleCommandEntity.getExitcode();
     startTime = hostRoleCommandEntity.getStartTime() != null ? hostRoleCommandEntity.getStartTime() : -1L;
     originalStartTime = hostRoleCommandEntity.getOriginalStartTime() != null ? hostRoleCommandEntity.getOriginalStartTime() : -1L;
@@ -191,10 +206,10 @@ public class HostRoleCommand {
     HostRoleCommandEntity hostRoleCommandEntity = new HostRoleCommandEntity();
     hostRoleCommandEntity.setRole(role);
     hostRoleCommandEntity.setStatus(status);
-    hostRoleCommandEntity.setStdError(stderr.getBytes());
+    hostRoleCommandEntity.setStdError(getStderr().getBytes());
     hostRoleCommandEntity.setExitcode(exitCode);
-    hostRoleCommandEntity.setStdOut(stdout.getBytes());
-    hostRoleCommandEntity.setStructuredOut(structuredOut.getBytes());
+    hostRoleCommandEntity.setStdOut(getStdout().getBytes());
+    hostRoleCommandEntity.setStructuredOut(getStructuredOut().getBytes());
     hostRoleCommandEntity.setStartTime(startTime);
     hostRoleCommandEntity.setOriginalStartTime(originalStartTime);
     hostRoleCommandEntity.setEndTime(endTime);
@@ -236,7 +251,7 @@ public class HostRoleCommand {
 
   ExecutionCommandEntity constructExecutionCommandEntity() {
     ExecutionCommandEntity executionCommandEntity = new ExecutionCommandEntity();
-    executionCommandEntity.setCommand(executionCommandWrapper.getJson().getBytes());
+    executionCommandEntity.setCommand(executionCommandDAO.toCommand(requestId, executionCommandWrapper.getJson()));
     return executionCommandEntity;
   }
 
@@ -325,21 +340,64 @@ public class HostRoleCommand {
   }
 
   public String getStdout() {
+    ensureOutputLoaded();
     return stdout;
   }
 
   public void setStdout(String stdout) {
+    ensureOutputLoaded();
     this.stdout = stdout;
   }
 
   public String getStderr() {
+    ensureOutputLoaded();
     return stderr;
   }
 
   public void setStderr(String stderr) {
+    ensureOutputLoaded();
     this.stderr = stderr;
   }
 
+  /**
+   * Sets stdout, stderr and structured output from the entity.
+   *
+   * @param hostRoleCommandEntity entity with loaded output, such as the ones
+   *                              returned by {@link HostRoleCommandDAO#findOutputsByPKs}
+   */
+  public synchronized void setOutput(HostRoleCommandEntity hostRoleCommandEntity) {
+    stdout = hostRoleCommandEntity.getStdOut() != null ? new String(hostRoleCommandEntity.getStdOut()) : "";
+    stderr = hostRoleCommandEntity.getStdError() != null ? new String(hostRoleCommandEntity.getStdError()) : "";
+    structuredOut = hostRoleCommandEntity.getStructuredOut() != null ? new String(hostRoleCommandEntity.getStructuredOut()) : "";
+    outputLoaded = true;
+  }
+
+  /**
+   * @return {@code true} if the output is set, {@code false} if it is read from
+   *         the database on first access.
+   */
+  public boolean isOutputLoaded() {
+    return outputLoaded;
+  }
+
+  private void ensureOutputLoaded() {
+    if (outputLoaded) {
+      return;
+    }
+    synchronized (this) {
+      if (outputLoaded) {
+        return;
+      }
+      List<HostRoleCommandEntity> outputs = hostRoleCommandDAO == null ? Collections.emptyList()
+          : hostRoleCommandDAO.findOutputsByPKs(Collections.singleton(taskId));
+      if (outputs.isEmpty()) {
+        outputLoaded = true;
+      } else {
+        setOutput(outputs.get(0));
+      }
+    }
+  }
+
   public String getOutputLog() { return outputLog; }
 
   public void setOutputLog(String outputLog)  {
@@ -397,10 +455,12 @@ public class HostRoleCommand {
   }
 
   public String getStructuredOut() {
+    ensureOutputLoaded();
     return structuredOut;
   }
 
   public void setStructuredOut(String structuredOut) {
+    ensureOutputLoaded();
     this.structuredOut = structuredOut;
   }
 
@@ -419,7 +479,7 @@ public class HostRoleCommand {
         throw new RuntimeException("Invalid DB state, broken one-to-one relation for taskId=" + taskId);
       }
 
-      executionCommandWrapper = ecwFactory.createFromJson(new String(commandEntity.getCommand()));
+      executionCommandWrapper = ecwFactory.createFromJson(executionCommandDAO.toJson(requestId, commandEntity.getCommand()));
     }
 
     return executionCommandWrapper;
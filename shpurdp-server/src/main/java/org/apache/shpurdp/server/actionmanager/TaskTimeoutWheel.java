@@ -0,0 +1,390 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.actionmanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link TaskTimeoutWheel} holds the timeout deadlines of queued and in
+ * progress tasks in a hierarchical timer wheel. Each level has
+ * {@link #WHEEL_SIZE} slots, a slot of the first level spans
+ * {@link #TICK_DURATION} milliseconds and a slot of every further level spans
+ * a whole revolution of the level below it. A deadline is placed on the lowest
+ * level which covers it and moves down a level each time the slot it is in is
+ * reached, so advancing the wheel only visits the deadlines that are due
+ * instead of all of the tracked tasks.
+ * <p/>
+ * Tasks whose deadline has passed stay due until they are rescheduled with a
+ * new deadline, cancelled or not scheduled again before {@link #purge()} is
+ * called.
+ * <p/>
+ * The wheel is thread safe, stages of different requests may be processed
+ * concurrently.
+ */
+public class TaskTimeoutWheel {
+
+  /**
+   * The time span of a slot of the first level, in milliseconds.
+   */
+  static final long TICK_DURATION = 1000L;
+
+  /**
+   * The number of bits of a tick used for the slot index on each level.
+   */
+  private static final int WHEEL_BITS = 6;
+
+  /**
+   * The number of slots on each level.
+   */
+  static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+  /**
+   * The number of levels. Deadlines further away than the top level covers
+   * are placed in its last slot and rescheduled when it is reached.
+   */
+  private static final int LEVELS = 4;
+
+  /**
+   * The maximum number of ticks the wheel is advanced one by one, the slots
+   * are rebuilt when it has not been advanced for longer.
+   */
+  private static final long MAX_ADVANCE_TICKS = (long) WHEEL_SIZE * WHEEL_SIZE;
+
+  /**
+   * The slots of each level, holding the tasks which are not yet due.
+   */
+  private final List<List<Set<Entry>>> wheel = new ArrayList<>(LEVELS);
+
+  /**
+   * All of the tracked tasks by task id.
+   */
+  private final Map<Long, Entry> entries = new HashMap<>();
+
+  /**
+   * The tasks whose deadline has passed.
+   */
+  private final Set<Entry> due = new HashSet<>();
+
+  /**
+   * The tick the wheel has been advanced to.
+   */
+  private long currentTick = 0;
+
+  /**
+   * The time the wheel has been advanced to.
+   */
+  private long currentTime = 0;
+
+  /**
+   * Incremented by every {@link #purge()}, used to find the due tasks which
+   * have not been scheduled again since the last purge.
+   */
+  private long round = 0;
+
+  public TaskTimeoutWheel() {
+    for (int level = 0; level < LEVELS; level++) {
+      List<Set<Entry>> slots = new ArrayList<>(WHEEL_SIZE);
+      for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+        slots.add(new HashSet<>());
+      }
+      wheel.add(slots);
+    }
+  }
+
+  /**
+   * Sets the timeout deadline of a task. Scheduling a task again with the same
+   * deadline only marks it as still being tracked.
+   *
+   * @param taskId   the id of the task
+   * @param deadline the time the task times out at, in milliseconds
+   */
+  public synchronized void schedule(long taskId, long deadline) {
+    Entry entry = entries.get(taskId);
+    if (null == entry) {
+      entry = new Entry(taskId, deadline);
+      entries.put(taskId, entry);
+    } else if (entry.deadline != deadline) {
+      unlink(entry);
+      entry.deadline = deadline;
+    } else {
+      entry.round = round;
+      return;
+    }
+
+    entry.round = round;
+    insert(entry);
+  }
+
+  /**
+   * Stops tracking the timeout of a task.
+   *
+   * @param taskId the id of the task
+   */
+  public synchronized void cancel(long taskId) {
+    Entry entry = entries.remove(taskId);
+    if (null != entry) {
+      unlink(entry);
+    }
+  }
+
+  /**
+   * @param taskId the id of the task
+   * @return {@code true} if the deadline of the task is not later than the
+   *         time the wheel has been advanced to
+   */
+  public synchronized boolean isDue(long taskId) {
+    Entry entry = entries.get(taskId);
+    return null != entry && null == entry.slot;
+  }
+
+  /**
+   * Advances the wheel, the tasks whose deadline is not later than the given
+   * time become due. Times before the current time of the wheel are ignored.
+   *
+   * @param now the current time, in milliseconds
+   */
+  public synchronized void advance(long now) {
+    if (now <= currentTime) {
+      return;
+    }
+
+    long nowTick = now / TICK_DURATION;
+    currentTime = now;
+    if (entries.size() == due.size()) {
+      // nothing is waiting in the slots, there is no need to visit them
+      currentTick = nowTick;
+    } else if (nowTick - currentTick > MAX_ADVANCE_TICKS) {
+      rebuild(nowTick);
+    }
+
+    while (currentTick < nowTick) {
+      // every deadline in the slot of the passed tick is due
+      Set<Entry> slot = slot(0, currentTick);
+      for (Entry entry : slot) {
+        entry.slot = null;
+        due.add(entry);
+      }
+      slot.clear();
+
+      currentTick++;
+      cascade();
+    }
+
+    // the deadlines of the current tick are checked one by one
+    Iterator<Entry> iterator = slot(0, currentTick).iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (entry.deadline <= now) {
+        iterator.remove();
+        entry.slot = null;
+        due.add(entry);
+      }
+    }
+  }
+
+  /**
+   * Gets the earliest time at which one of the tasks becomes due, or the
+   * wheel needs to be advanced to move a deadline down a level. Tasks which
+   * are already due are not taken into account.
+   *
+   * @return the time in milliseconds, {@link Long#MAX_VALUE} if no task is
+   *         waiting for its deadline
+   */
+  public synchronized long getNextExpiration() {
+    if (entries.size() == due.size()) {
+      return Long.MAX_VALUE;
+    }
+
+    for (int i = 0; i < WHEEL_SIZE; i++) {
+      Set<Entry> slot = slot(0, currentTick + i);
+      if (!slot.isEmpty()) {
+        long nextExpiration = Long.MAX_VALUE;
+        for (Entry entry : slot) {
+          nextExpiration = Math.min(nextExpiration, entry.deadline);
+        }
+        return nextExpiration;
+      }
+    }
+
+    for (int level = 1; level < LEVELS; level++) {
+      int shift = WHEEL_BITS * level;
+      long block = currentTick >> shift;
+      for (int i = 1; i <= WHEEL_SIZE; i++) {
+        if (!wheel.get(level).get((int) ((block + i) & WHEEL_MASK)).isEmpty()) {
+          return ((block + i) << shift) * TICK_DURATION;
+        }
+      }
+    }
+
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Stops tracking the due tasks which have not been scheduled since the
+   * previous purge, they are no longer in progress or not processed any more.
+   * A task which is scheduled again after being purged becomes due as soon as
+   * it is scheduled.
+   */
+  public synchronized void purge() {
+    Iterator<Entry> iterator = due.iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (entry.round != round) {
+        iterator.remove();
+        entries.remove(entry.taskId);
+      }
+    }
+    round++;
+  }
+
+  /**
+   * Stops tracking all of the tasks.
+   */
+  public synchronized void clear() {
+    for (List<Set<Entry>> slots : wheel) {
+      for (Set<Entry> slot : slots) {
+        slot.clear();
+      }
+    }
+    entries.clear();
+    due.clear();
+  }
+
+  /**
+   * @return the number of tracked tasks
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Places a task into the slot of its deadline, or into the due tasks if the
+   * deadline has already passed.
+   */
+  private void insert(Entry entry) {
+    if (entry.deadline <= currentTime) {
+      entry.slot = null;
+      due.add(entry);
+      return;
+    }
+
+    long deadlineTick = entry.deadline / TICK_DURATION;
+    long delta = deadlineTick - currentTick;
+    for (int level = 0; level < LEVELS; level++) {
+      int shift = WHEEL_BITS * (level + 1);
+      if (delta < (1L << shift)) {
+        link(entry, slot(level, deadlineTick >> (WHEEL_BITS * level)));
+        return;
+      }
+    }
+
+    // beyond the range of the wheel, rescheduled once the last slot of the top
+    // level is reached
+    int topShift = WHEEL_BITS * (LEVELS - 1);
+    long lastTick = currentTick + (1L << (WHEEL_BITS * LEVELS)) - 1;
+    link(entry, slot(LEVELS - 1, lastTick >> topShift));
+  }
+
+  /**
+   * Moves the deadlines of the higher level slots which start at the current
+   * tick down to the lower levels.
+   */
+  private void cascade() {
+    for (int level = 1; level < LEVELS; level++) {
+      int shift = WHEEL_BITS * level;
+      if ((currentTick & ((1L << shift) - 1)) != 0) {
+        return;
+      }
+
+      Set<Entry> slot = slot(level, currentTick >> shift);
+      if (!slot.isEmpty()) {
+        List<Entry> cascaded = new ArrayList<>(slot);
+        slot.clear();
+        for (Entry entry : cascaded) {
+          entry.slot = null;
+          insert(entry);
+        }
+      }
+    }
+  }
+
+  /**
+   * Places all of the tasks which are not due again relative to the given
+   * tick.
+   */
+  private void rebuild(long tick) {
+    List<Entry> waiting = new ArrayList<>(entries.size() - due.size());
+    for (List<Set<Entry>> slots : wheel) {
+      for (Set<Entry> slot : slots) {
+        waiting.addAll(slot);
+        slot.clear();
+      }
+    }
+
+    currentTick = tick;
+    for (Entry entry : waiting) {
+      entry.slot = null;
+      insert(entry);
+    }
+  }
+
+  private Set<Entry> slot(int level, long index) {
+    return wheel.get(level).get((int) (index & WHEEL_MASK));
+  }
+
+  private void link(Entry entry, Set<Entry> slot) {
+    entry.slot = slot;
+    slot.add(entry);
+  }
+
+  private void unlink(Entry entry) {
+    if (null == entry.slot) {
+      due.remove(entry);
+    } else {
+      entry.slot.remove(entry);
+      entry.slot = null;
+    }
+  }
+
+  /**
+   * A tracked task.
+   */
+  private static final class Entry {
+    private final long taskId;
+    private long deadline;
+    private long round;
+
+    /**
+     * The slot holding the task, {@code null} if the task is due.
+     */
+    private Set<Entry> slot;
+
+    private Entry(long taskId, long deadline) {
+      this.taskId = taskId;
+      this.deadline = deadline;
+    }
+  }
+}
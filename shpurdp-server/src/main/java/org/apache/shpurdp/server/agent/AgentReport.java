@@ -22,7 +22,7 @@ import org.apache.shpurdp.server.ShpurdpException;
 public abstract class AgentReport<R> {
 
   private final String hostName;
-  private final R report;
+  private R report;
 
   public AgentReport(String hostName, R report) {
     this.hostName = hostName;
@@ -33,9 +33,34 @@ public abstract class AgentReport<R> {
     return hostName;
   }
 
+  protected R getReport() {
+    return report;
+  }
+
+  protected void setReport(R report) {
+    this.report = report;
+  }
+
   public final void process() throws ShpurdpException {
     process(report, hostName);
   }
 
+  /**
+   * Merges newer report of the same host into this one while this report is waiting for processing.
+   * @param newerReport report received after this one
+   * @return true if newer report was merged and should not be processed separately
+   */
+  public boolean coalesce(AgentReport<?> newerReport) {
+    return false;
+  }
+
+  /**
+   * @return true if the report carries the current state of the host or its components. Only the latest state
+   * matters, so a pending report can be coalesced with newer reports of the same type.
+   */
+  public boolean isStatusReport() {
+    return false;
+  }
+
   protected abstract void process(R report, String hostName) throws ShpurdpException;
 }
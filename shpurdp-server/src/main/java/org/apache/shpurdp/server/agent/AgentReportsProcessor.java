@@ -17,35 +17,65 @@
  */
 package org.apache.shpurdp.server.agent;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.shpurdp.server.ShpurdpException;
 import org.apache.shpurdp.server.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.persist.UnitOfWork;
 
+/**
+ * Processes agent reports on a shared work-stealing pool. Reports of the same host are queued in a host lane and
+ * are processed one by one in order of arrival, lanes of different hosts are processed concurrently. A lane is
+ * removed once it has no reports left. Lane queues are bounded: status reports arriving to a full lane are merged
+ * into the pending status report, other reports are rejected, so the agent sends them again. Status reports waiting
+ * for processing are coalesced, so only the latest state of each host component is processed.
+ */
 @Singleton
 public class AgentReportsProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(AgentReportsProcessor.class);
 
-  private final int poolSize;
+  /**
+   * Max amount of reports a lane processes in a row before giving the thread to other lanes.
+   */
+  private static final int LANE_DRAIN_BATCH_SIZE = 10;
+
+  private final ForkJoinPool pool;
+  private final int laneCapacity;
+  private final boolean statusCoalescing;
+
+  private final ConcurrentMap<String, HostLane> lanes = new ConcurrentHashMap<>();
 
-  private final List<ExecutorService> executors;
+  private final AtomicLong processedReports = new AtomicLong();
+  private final AtomicLong totalLatency = new AtomicLong();
+  private final AtomicLong maxLatency = new AtomicLong();
+  private final AtomicLong coalescedReports = new AtomicLong();
+  private final AtomicLong rejectedReports = new AtomicLong();
 
-  public void addAgentReport(AgentReport agentReport) {
-    int hash = agentReport.getHostName().hashCode();
-    hash = hash == Integer.MIN_VALUE ? 0 : hash;
-    int executorNumber = Math.abs(hash) % poolSize;
-    executors.get(executorNumber).execute(new AgentReportProcessingTask(agentReport));
+  /**
+   * Queues the report for processing.
+   *
+   * @param agentReport report to process
+   * @throws ShpurdpException if the queue of the host is full and the report can't be coalesced
+   */
+  public void addAgentReport(AgentReport agentReport) throws ShpurdpException {
+    // a lane removed while the report was being added can't take it, a new lane is created then
+    while (!lanes.computeIfAbsent(agentReport.getHostName(), HostLane::new).add(agentReport)) {
+      LOG.debug("Reports lane of host {} was removed, retrying", agentReport.getHostName());
+    }
   }
 
   @Inject
@@ -53,35 +83,235 @@ public class AgentReportsProcessor {
 
   @Inject
   public AgentReportsProcessor(Configuration configuration) {
+    pool = new ForkJoinPool(configuration.getAgentsReportThreadPoolSize(), p -> {
+      ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+      worker.setName("agent-report-processor-" + worker.getPoolIndex());
+      return worker;
+    }, null, true);
+    laneCapacity = Math.max(1, configuration.getAgentsReportHostQueueSize());
+    statusCoalescing = configuration.isAgentsReportStatusCoalescingEnabled();
+  }
 
-    ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("agent-report-processor-%d").build();
-    poolSize = configuration.getAgentsReportThreadPoolSize();
-    executors = new ArrayList<>();
-    for (int i = 0; i < poolSize; i++) {
-      executors.add(Executors.newSingleThreadExecutor(threadFactory));
+  /**
+   * Returns statistics of all lanes collected since the previous call and resets them.
+   *
+   * @return amount of processed, coalesced and rejected reports, average and max time in milliseconds from
+   * receiving a report till the end of its processing, amount of queued reports and of hosts with queued reports.
+   */
+  public ReportsStatistics getAndResetStatistics() {
+    int queueDepth = 0;
+    int maxQueueDepth = 0;
+    int activeLanes = 0;
+    for (HostLane lane : lanes.values()) {
+      int laneDepth = lane.getQueueDepth();
+      queueDepth += laneDepth;
+      maxQueueDepth = Math.max(maxQueueDepth, laneDepth);
+      activeLanes++;
     }
+    long processed = processedReports.getAndSet(0);
+    long total = totalLatency.getAndSet(0);
+    long max = maxLatency.getAndSet(0);
+    long average = processed == 0 ? 0 : total / processed;
+    return new ReportsStatistics(processed, coalescedReports.getAndSet(0), rejectedReports.getAndSet(0),
+        TimeUnit.NANOSECONDS.toMillis(average), TimeUnit.NANOSECONDS.toMillis(max), queueDepth, maxQueueDepth,
+        activeLanes);
   }
 
-  private class AgentReportProcessingTask implements Runnable {
+  private void processReport(AgentReport agentReport) {
+    try {
+      unitOfWork.begin();
+      try {
+        agentReport.process();
+      } catch (ShpurdpException | RuntimeException e) {
+        LOG.error("Error processing agent reports", e);
+      }
+    } finally {
+      unitOfWork.end();
+    }
+  }
 
-    private final AgentReport agentReport;
+  private void recordLatency(long latencyNanos) {
+    processedReports.incrementAndGet();
+    totalLatency.addAndGet(latencyNanos);
+    maxLatency.accumulateAndGet(latencyNanos, Math::max);
+  }
 
-    public AgentReportProcessingTask(AgentReport agentReport) {
-      this.agentReport = agentReport;
+  /**
+   * Serial queue of reports of one host.
+   */
+  private class HostLane {
+    private final String hostName;
+
+    private final Deque<PendingReport> queue = new ArrayDeque<>();
+
+    /**
+     * Pending status reports newer reports of the same type can be merged into. Is cleared when a non-status report
+     * is queued, so merging never moves a state change ahead of a command report.
+     */
+    private final Map<Class<?>, PendingReport> coalescingCandidates = new HashMap<>();
+
+    private boolean scheduled = false;
+
+    /**
+     * Is set once the lane is removed, reports can't be added to the lane anymore.
+     */
+    private boolean removed = false;
+
+    private HostLane(String hostName) {
+      this.hostName = hostName;
     }
 
-    @Override
-    public void run() {
-      try {
-        unitOfWork.begin();
-        try {
-          agentReport.process();
-        } catch (ShpurdpException e) {
-          LOG.error("Error processing agent reports", e);
+    /**
+     * Queues the report without ever blocking the caller.
+     *
+     * @return false if the lane was removed and the report should be added to a new lane
+     * @throws ShpurdpException if the queue is full and the report was rejected
+     */
+    private boolean add(AgentReport agentReport) throws ShpurdpException {
+      synchronized (this) {
+        if (removed) {
+          return false;
+        }
+        boolean full = queue.size() >= laneCapacity;
+        if (agentReport.isStatusReport() && (statusCoalescing || full)) {
+          PendingReport candidate = coalescingCandidates.get(agentReport.getClass());
+          if (candidate != null && candidate.agentReport.coalesce(agentReport)) {
+            coalescedReports.incrementAndGet();
+            return true;
+          }
+        }
+        if (full) {
+          rejectedReports.incrementAndGet();
+          throw new ShpurdpException(String.format("Reports queue of host %s is full, report %s was rejected",
+              hostName, agentReport.getClass().getSimpleName()));
+        }
+        PendingReport pendingReport = new PendingReport(agentReport);
+        queue.addLast(pendingReport);
+        if (agentReport.isStatusReport()) {
+          coalescingCandidates.put(agentReport.getClass(), pendingReport);
+        } else {
+          coalescingCandidates.clear();
+        }
+        if (scheduled) {
+          return true;
         }
-      } finally {
-        unitOfWork.end();
+        scheduled = true;
       }
+      pool.execute(this::drain);
+      return true;
+    }
+
+    private void drain() {
+      for (int i = 0; i < LANE_DRAIN_BATCH_SIZE; i++) {
+        PendingReport pendingReport;
+        synchronized (this) {
+          pendingReport = queue.pollFirst();
+          if (pendingReport == null) {
+            remove();
+            return;
+          }
+          coalescingCandidates.remove(pendingReport.agentReport.getClass(), pendingReport);
+        }
+        processReport(pendingReport.agentReport);
+        recordLatency(System.nanoTime() - pendingReport.addedTime);
+      }
+      synchronized (this) {
+        if (queue.isEmpty()) {
+          remove();
+          return;
+        }
+      }
+      pool.execute(this::drain);
+    }
+
+    /**
+     * Removes the idle lane, so lanes of removed or silent hosts are not kept.
+     */
+    private void remove() {
+      scheduled = false;
+      removed = true;
+      lanes.remove(hostName, this);
+    }
+
+    private synchronized int getQueueDepth() {
+      return queue.size();
+    }
+  }
+
+  private static class PendingReport {
+    private final AgentReport agentReport;
+    private final long addedTime = System.nanoTime();
+
+    private PendingReport(AgentReport agentReport) {
+      this.agentReport = agentReport;
+    }
+  }
+
+  /**
+   * Statistics of all host lanes for a period of time.
+   */
+  public static class ReportsStatistics {
+    private final long processedReports;
+    private final long coalescedReports;
+    private final long rejectedReports;
+    private final long averageLatency;
+    private final long maxLatency;
+    private final int queueDepth;
+    private final int maxQueueDepth;
+    private final int activeLanes;
+
+    public ReportsStatistics(long processedReports, long coalescedReports, long rejectedReports,
+                             long averageLatency, long maxLatency, int queueDepth, int maxQueueDepth,
+                             int activeLanes) {
+      this.processedReports = processedReports;
+      this.coalescedReports = coalescedReports;
+      this.rejectedReports = rejectedReports;
+      this.averageLatency = averageLatency;
+      this.maxLatency = maxLatency;
+      this.queueDepth = queueDepth;
+      this.maxQueueDepth = maxQueueDepth;
+      this.activeLanes = activeLanes;
+    }
+
+    public long getProcessedReports() {
+      return processedReports;
+    }
+
+    public long getCoalescedReports() {
+      return coalescedReports;
+    }
+
+    public long getRejectedReports() {
+      return rejectedReports;
+    }
+
+    public long getAverageLatency() {
+      return averageLatency;
+    }
+
+    public long getMaxLatency() {
+      return maxLatency;
+    }
+
+    /**
+     * @return amount of reports of all hosts waiting for processing.
+     */
+    public int getQueueDepth() {
+      return queueDepth;
+    }
+
+    /**
+     * @return the largest amount of reports of a single host waiting for processing.
+     */
+    public int getMaxQueueDepth() {
+      return maxQueueDepth;
+    }
+
+    /**
+     * @return amount of hosts with reports waiting for processing or being processed.
+     */
+    public int getActiveLanes() {
+      return activeLanes;
     }
   }
 }
@@ -17,7 +17,11 @@
  */
 package org.apache.shpurdp.server.agent;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.shpurdp.server.ShpurdpException;
 
@@ -25,10 +29,40 @@ public class ComponentStatusAgentReport extends AgentReport<List<ComponentStatus
   private final HeartBeatHandler hh;
 
   public ComponentStatusAgentReport(HeartBeatHandler hh, String hostName, List<ComponentStatus> componentStatuses) {
-    super(hostName, componentStatuses);
+    super(hostName, new ArrayList<>(componentStatuses));
     this.hh = hh;
   }
 
+  /**
+   * Newer statuses replace statuses of the same components, statuses of other components are appended.
+   */
+  @Override
+  public boolean coalesce(AgentReport<?> newerReport) {
+    if (!(newerReport instanceof ComponentStatusAgentReport)) {
+      return false;
+    }
+    List<ComponentStatus> statuses = getReport();
+    Map<List<Object>, ComponentStatus> merged = new LinkedHashMap<>();
+    for (ComponentStatus status : statuses) {
+      merged.put(getComponentKey(status), status);
+    }
+    for (ComponentStatus status : ((ComponentStatusAgentReport) newerReport).getReport()) {
+      merged.put(getComponentKey(status), status);
+    }
+    statuses.clear();
+    statuses.addAll(merged.values());
+    return true;
+  }
+
+  @Override
+  public boolean isStatusReport() {
+    return true;
+  }
+
+  private static List<Object> getComponentKey(ComponentStatus status) {
+    return Arrays.asList(status.getClusterId(), status.getServiceName(), status.getComponentName());
+  }
+
   @Override
   protected void process(List<ComponentStatus> report, String hostName) throws ShpurdpException {
     hh.handleComponentReportStatus(report, hostName);
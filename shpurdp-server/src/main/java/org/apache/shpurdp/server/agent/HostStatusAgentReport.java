@@ -28,6 +28,23 @@ public class HostStatusAgentReport extends AgentReport<HostStatusReport> {
     this.hh = hh;
   }
 
+  /**
+   * Newer host status replaces the pending one.
+   */
+  @Override
+  public boolean coalesce(AgentReport<?> newerReport) {
+    if (!(newerReport instanceof HostStatusAgentReport)) {
+      return false;
+    }
+    setReport(((HostStatusAgentReport) newerReport).getReport());
+    return true;
+  }
+
+  @Override
+  public boolean isStatusReport() {
+    return true;
+  }
+
   @Override
   protected void process(HostStatusReport report, String hostName) throws ShpurdpException {
     hh.handleHostReportStatus(report, hostName);
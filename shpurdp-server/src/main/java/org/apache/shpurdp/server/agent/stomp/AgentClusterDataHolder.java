@@ -18,7 +18,11 @@
 
 package org.apache.shpurdp.server.agent.stomp;
 
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 
 import javax.inject.Inject;
 
@@ -38,6 +42,16 @@ public abstract class AgentClusterDataHolder<T extends STOMPEvent & Hashable> ex
 
   private volatile T data;
 
+  /**
+   * Hashes of the independently hashable data parts by part ids. Are guarded by updateLock.
+   */
+  private final TreeMap<String, String> partHashes = new TreeMap<>();
+
+  /**
+   * Ids of the parts changed since the last hash regeneration. Are guarded by updateLock.
+   */
+  private final Set<String> changedParts = new HashSet<>();
+
   public T getUpdateIfChanged(String agentHash) throws ShpurdpException {
     initializeDataIfNeeded(true);
     return !Objects.equals(agentHash, data.getHash()) ? data : getEmptyData();
@@ -75,6 +89,52 @@ public abstract class AgentClusterDataHolder<T extends STOMPEvent & Hashable> ex
     }
   }
 
+  /**
+   * Returns the data parts which can be hashed independently, e.g. per cluster sub-trees.
+   * In case null is returned the data will be hashed as a whole.
+   */
+  protected Map<String, ?> getHashableParts(T data) {
+    return null;
+  }
+
+  /**
+   * Returns the value identifying data fields which are not included to any of hashable parts.
+   */
+  protected String getHashHeader(T data) {
+    return "";
+  }
+
+  /**
+   * Marks the data part as changed, so its hash will be recalculated during the next hash regeneration.
+   * Should be called from {@link #handleUpdate} for each part modified in place.
+   */
+  protected final void markPartChanged(String partId) {
+    changedParts.add(partId);
+  }
+
+  @Override
+  protected void regenerateDataIdentifiers(T data) {
+    Map<String, ?> parts = getHashableParts(data);
+    if (parts == null) {
+      super.regenerateDataIdentifiers(data);
+      return;
+    }
+    updateLock.lock();
+    try {
+      partHashes.keySet().retainAll(parts.keySet());
+      for (Map.Entry<String, ?> part : parts.entrySet()) {
+        String partId = part.getKey();
+        if (changedParts.contains(partId) || !partHashes.containsKey(partId)) {
+          partHashes.put(partId, calculateHash(part.getValue(), ""));
+        }
+      }
+      changedParts.clear();
+      data.setHash(combineHashes(getHashHeader(data), partHashes));
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
   protected final void initializeDataIfNeeded(boolean regenerateHash) throws ShpurdpException {
     if (data == null) {
       updateLock.lock();
@@ -17,11 +17,20 @@
  */
 package org.apache.shpurdp.server.agent.stomp;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import org.apache.shpurdp.server.ShpurdpException;
+import org.apache.shpurdp.server.ShpurdpRuntimeException;
+import org.apache.shpurdp.server.agent.stomp.dto.ClusterConfigs;
 import org.apache.shpurdp.server.events.AgentConfigsUpdateEvent;
 import org.apache.shpurdp.server.events.publishers.ShpurdpEventPublisher;
 import org.apache.shpurdp.server.security.encryption.Encryptor;
@@ -44,6 +53,12 @@ public class AgentConfigsHolder extends AgentHostDataHolder<AgentConfigsUpdateEv
   public static final Logger LOG = LoggerFactory.getLogger(AgentConfigsHolder.class);
   private final Encryptor<AgentConfigsUpdateEvent> encryptor;
 
+  /**
+   * Hashes calculated by the fan-out once per distinct payload, keyed by the updates being published.
+   */
+  private final Map<AgentConfigsUpdateEvent, String> payloadHashes =
+    Collections.synchronizedMap(new IdentityHashMap<>());
+
   @Inject
   private ConfigHelper configHelper;
 
@@ -84,10 +99,67 @@ public class AgentConfigsHolder extends AgentHostDataHolder<AgentConfigsUpdateEv
       }
     }
 
+    if (hostIds.size() == 1) {
+      updateData(configHelper.getHostActualConfigs(hostIds.get(0)));
+    } else {
+      fanOutUpdates(hostIds);
+    }
+  }
+
+  /**
+   * Generates configs updates for the set of hosts and publishes them in parallel. The configs are generated on
+   * the caller's thread, so they are read within the caller's transaction and include its uncommitted changes.
+   * Only the hashing, encryption and publishing of the updates run on the fan-out pool. Hosts with identical
+   * configs (i.e. all hosts from the same config group) are hashed only once, so the json serialization is
+   * performed per distinct payload instead of per host.
+   * @param hostIds hosts to update configs on
+   * @throws ShpurdpException in case configs can not be generated or published for any host
+   */
+  private void fanOutUpdates(List<Long> hostIds) throws ShpurdpException {
+    List<AgentConfigsUpdateEvent> updates = new ArrayList<>(hostIds.size());
     for (Long hostId : hostIds) {
-      AgentConfigsUpdateEvent agentConfigsUpdateEvent = configHelper.getHostActualConfigs(hostId);
-      updateData(agentConfigsUpdateEvent);
+      updates.add(configHelper.getHostActualConfigs(hostId));
+      // the current data is read from the database as well
+      initializeDataIfNeeded(hostId, true);
+    }
+
+    // group before publishing, the encryption of sensitive data changes the payloads
+    Collection<List<AgentConfigsUpdateEvent>> payloadGroups = groupByPayload(updates);
+    LOG.info("Configs update for {} hosts contains {} distinct payloads", updates.size(), payloadGroups.size());
+
+    try {
+      threadPools.getAgentConfigsFanOutPool().submit(() ->
+        payloadGroups.stream().parallel().forEach(payloadGroup -> {
+          String hash = getHash(payloadGroup.get(0), encryptor.getEncryptionKey());
+          payloadGroup.stream().parallel().forEach(update -> {
+            payloadHashes.put(update, hash);
+            try {
+              updateData(update);
+            } catch (ShpurdpException e) {
+              throw new ShpurdpRuntimeException("Error during publishing configs for host: " + update.getHostId(), e);
+            } finally {
+              payloadHashes.remove(update);
+            }
+          });
+        })
+      ).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ShpurdpException("Configs update was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new ShpurdpException("Error during configs update", e.getCause());
+    }
+  }
+
+  /**
+   * Groups configs updates by their content. Updates from the same group differ by host id only.
+   */
+  static Collection<List<AgentConfigsUpdateEvent>> groupByPayload(Collection<AgentConfigsUpdateEvent> updates) {
+    Map<SortedMap<String, ClusterConfigs>, List<AgentConfigsUpdateEvent>> payloadGroups = new HashMap<>();
+    for (AgentConfigsUpdateEvent update : updates) {
+      payloadGroups.computeIfAbsent(update.getClustersConfigs(), c -> new ArrayList<>()).add(update);
     }
+    return payloadGroups.values();
   }
 
   @Override
@@ -101,7 +173,9 @@ public class AgentConfigsHolder extends AgentHostDataHolder<AgentConfigsUpdateEv
 
   @Override
   protected void regenerateDataIdentifiers(AgentConfigsUpdateEvent data) {
-    data.setHash(getHash(data, encryptor.getEncryptionKey()));
+    // the fan-out already hashed the payload shared by the hosts of the same group
+    String hash = payloadHashes.get(data);
+    data.setHash(hash != null ? hash : getHash(data, encryptor.getEncryptionKey()));
     encryptor.encryptSensitiveData(data);
     data.setTimestamp(System.currentTimeMillis());
   }
@@ -18,9 +18,13 @@
 
 package org.apache.shpurdp.server.agent.stomp;
 
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.shpurdp.server.agent.stomp.dto.HashAndTimestampIgnoreMixIn;
@@ -29,7 +33,7 @@ import org.apache.shpurdp.server.agent.stomp.dto.Hashable;
 import org.apache.shpurdp.server.events.AgentConfigsUpdateEvent;
 import org.apache.commons.lang.StringUtils;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
@@ -42,6 +46,8 @@ public abstract class AgentDataHolder<T extends Hashable> {
   static {
     MAPPER.addMixIn(Hashable.class, HashIgnoreMixIn.class);
     MAPPER.addMixIn(AgentConfigsUpdateEvent.class, HashAndTimestampIgnoreMixIn.class);
+    // digest streams are created per hash calculation, there is no need to close them
+    MAPPER.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
   }
 
   protected abstract T getEmptyData();
@@ -59,25 +65,60 @@ public abstract class AgentDataHolder<T extends Hashable> {
   }
 
   protected String getHash(T data, String salt) {
-    String json = null;
+    return calculateHash(data, salt);
+  }
+
+  /**
+   * Calculates SHA-512 hash of object's json representation. Json is written by Jackson generator
+   * directly to the digest, so no intermediate String or byte array is created.
+   * @param data object to hash
+   * @param salt is used to salt the digest
+   * @return hex representation of the hash
+   */
+  protected final String calculateHash(Object data, String salt) {
+    MessageDigest md = createDigest();
+    md.update(salt.getBytes(StandardCharsets.UTF_8));
     try {
-      json = MAPPER.writeValueAsString(data);
-    } catch (JsonProcessingException e) {
+      MAPPER.writeValue(new DigestOutputStream(OutputStream.nullOutputStream(), md), data);
+    } catch (IOException e) {
       throw new RuntimeException("Error during mapping message to calculate hash", e);
     }
-    String generatedPassword = null;
+    return toHex(md.digest());
+  }
+
+  /**
+   * Combines already calculated hashes of the independent data parts into the hash of the whole data.
+   * Is used to avoid the full data re-serialization in case only some of parts were changed.
+   * @param header hash of the data fields not included to any of parts
+   * @param partHashes hashes of the data parts by part ids, should be sorted to get stable result
+   * @return hex representation of the hash
+   */
+  protected final String combineHashes(String header, Map<String, String> partHashes) {
+    MessageDigest md = createDigest();
+    md.update(header.getBytes(StandardCharsets.UTF_8));
+    for (Map.Entry<String, String> partHash : partHashes.entrySet()) {
+      md.update(partHash.getKey().getBytes(StandardCharsets.UTF_8));
+      md.update((byte) ':');
+      md.update(partHash.getValue().getBytes(StandardCharsets.UTF_8));
+      md.update((byte) ';');
+    }
+    return toHex(md.digest());
+  }
+
+  private static MessageDigest createDigest() {
     try {
-      MessageDigest md = MessageDigest.getInstance("SHA-512");
-      md.update(salt.getBytes("UTF-8"));
-      byte[] bytes = md.digest(json.getBytes("UTF-8"));
-      StringBuilder sb = new StringBuilder();
-      for (byte b : bytes) {
-        sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
-      }
-      generatedPassword = sb.toString();
-    } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
-      e.printStackTrace();
+      return MessageDigest.getInstance("SHA-512");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("SHA-512 algorithm is not available", e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder sb = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+      sb.append(Character.forDigit(b & 0xf, 16));
     }
-    return generatedPassword;
+    return sb.toString();
   }
 }
@@ -85,15 +85,20 @@ public class MetadataHolder extends AgentClusterDataHolder<MetadataUpdateEvent>
             changed = true;
           } else {
             MetadataCluster cluster = clusters.get(clusterId);
+            boolean clusterChanged = false;
             if (cluster.updateClusterLevelParams(updatedCluster.getClusterLevelParams())) {
-              changed = true;
+              clusterChanged = true;
             }
             if (cluster.updateServiceLevelParams(updatedCluster.getServiceLevelParams(), updatedCluster.isFullServiceLevelMetadata())) {
-              changed = true;
+              clusterChanged = true;
             }
             if (CollectionUtils.isNotEmpty(updatedCluster.getStatusCommandsToRun())
                 && !cluster.getStatusCommandsToRun().containsAll(updatedCluster.getStatusCommandsToRun())) {
               cluster.getStatusCommandsToRun().addAll(updatedCluster.getStatusCommandsToRun());
+              clusterChanged = true;
+            }
+            if (clusterChanged) {
+              markPartChanged(clusterId);
               changed = true;
             }
           }
@@ -110,6 +115,16 @@ public class MetadataHolder extends AgentClusterDataHolder<MetadataUpdateEvent>
     return changed;
   }
 
+  @Override
+  protected Map<String, ?> getHashableParts(MetadataUpdateEvent data) {
+    return data.getMetadataClusters();
+  }
+
+  @Override
+  protected String getHashHeader(MetadataUpdateEvent data) {
+    return String.valueOf(data.getEventType());
+  }
+
   @Override
   protected MetadataUpdateEvent getEmptyData() {
     return MetadataUpdateEvent.emptyUpdate();
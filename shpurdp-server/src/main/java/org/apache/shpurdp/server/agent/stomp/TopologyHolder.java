@@ -167,6 +167,7 @@ public class TopologyHolder extends AgentClusterDataHolder<TopologyUpdateEvent>
               update.getClusters().get(clusterId).getTopologyComponents(),
               update.getClusters().get(clusterId).getTopologyHosts(),
               eventType, report);
+          markPartChanged(clusterId);
         }
       } else {
         if (eventType.equals(UpdateEventType.UPDATE)) {
@@ -181,6 +182,16 @@ public class TopologyHolder extends AgentClusterDataHolder<TopologyUpdateEvent>
     return report.wasChanged();
   }
 
+  @Override
+  protected Map<String, ?> getHashableParts(TopologyUpdateEvent data) {
+    return data.getClusters();
+  }
+
+  @Override
+  protected String getHashHeader(TopologyUpdateEvent data) {
+    return String.valueOf(data.getEventType());
+  }
+
   private void prepareAgentTopology(TopologyUpdateEvent topologyUpdateEvent) {
     if (topologyUpdateEvent.getClusters() != null) {
       for (TopologyCluster topologyCluster : topologyUpdateEvent.getClusters().values()) {
@@ -18,15 +18,35 @@
 
 package org.apache.shpurdp.server.api.predicate;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.shpurdp.server.controller.spi.Predicate;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Compiler which takes a query expression as input and produces a predicate instance as output.
  */
 public class PredicateCompiler {
 
+  /**
+   * Maximum number of compiled query expressions to keep.
+   */
+  private static final int PREDICATE_CACHE_SIZE = 1000;
+
+  /**
+   * Compiled predicates keyed by query expression and ignored properties.
+   * Predicates are immutable, so the same instance is shared by all requests
+   * with the same query; UI polling repeats a small set of queries.
+   */
+  private static final Cache<List<Object>, Predicate> PREDICATE_CACHE =
+      CacheBuilder.newBuilder().maximumSize(PREDICATE_CACHE_SIZE).build();
+
   /**
    * Lexer instance used to translate expressions into stream of tokens.
    */
@@ -46,7 +66,7 @@ public class PredicateCompiler {
    * @throws InvalidQueryException if unable to compile the expression
    */
   public Predicate compile(String exp) throws InvalidQueryException {
-    return parser.parse(lexer.tokens(exp));
+    return compile(exp, Collections.emptySet());
   }
 
   /**
@@ -59,6 +79,15 @@ public class PredicateCompiler {
    * @throws InvalidQueryException if unable to compile the expression
    */
   public Predicate compile(String exp, Collection<String> ignoredProperties) throws InvalidQueryException {
-    return parser.parse(lexer.tokens(exp, ignoredProperties));
+    List<Object> key = Arrays.asList(exp, ImmutableSet.copyOf(ignoredProperties));
+
+    Predicate predicate = PREDICATE_CACHE.getIfPresent(key);
+    if (predicate == null) {
+      predicate = parser.parse(lexer.tokens(exp, ignoredProperties));
+      if (predicate != null) {
+        PREDICATE_CACHE.put(key, predicate);
+      }
+    }
+    return predicate;
   }
 }
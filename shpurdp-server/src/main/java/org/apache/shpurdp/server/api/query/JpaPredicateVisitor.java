@@ -40,6 +40,11 @@ import org.apache.shpurdp.server.controller.utilities.PredicateHelper;
 /**
  * The {@link JpaPredicateVisitor} is used to convert an Shpurdp
  * {@link Predicate} into a JPA {@link javax.persistence.criteria.Predicate}.
+ * <p/>
+ * Parts of the predicate which can not be translated are left out in a way
+ * that the JPA predicate never excludes an entity which the Shpurdp predicate
+ * matches; the Shpurdp predicate must still be evaluated against the results
+ * unless {@link JpaPushDown#isTranslatable} is {@code true} for it.
  */
 public abstract class JpaPredicateVisitor<T> implements PredicateVisitor {
   /**
@@ -55,7 +60,7 @@ public abstract class JpaPredicateVisitor<T> implements PredicateVisitor {
   /**
    * The root that the {@code from} clause requests from.
    */
-  final private Root<T> m_root;
+  private Root<T> m_root;
 
   /**
    * The query to submit to JPA.
@@ -129,6 +134,37 @@ public abstract class JpaPredicateVisitor<T> implements PredicateVisitor {
     return m_query;
   }
 
+  /**
+   * Creates a query which counts the entities matching the given predicate.
+   * The predicate is translated against the root of the count query, so this
+   * can be used whether or not the visitor has already visited a predicate.
+   *
+   * @param predicate
+   *          the Shpurdp predicate, or {@code null} to count all entities.
+   * @return the count query (not {@code null}).
+   */
+  public CriteriaQuery<Long> getCountQuery(Predicate predicate) {
+    CriteriaQuery<Long> countQuery = m_builder.createQuery(Long.class);
+    Root<T> countRoot = countQuery.from(getEntityClass());
+    countQuery.select(m_builder.count(countRoot));
+
+    Root<T> root = m_root;
+    javax.persistence.criteria.Predicate lastPredicate = m_lastPredicate;
+    m_root = countRoot;
+    m_lastPredicate = null;
+    try {
+      PredicateHelper.visit(predicate, this);
+      if (null != m_lastPredicate) {
+        countQuery.where(m_lastPredicate);
+      }
+    } finally {
+      m_root = root;
+      m_lastPredicate = lastPredicate;
+    }
+
+    return countQuery;
+  }
+
   /**
    * Gets the criteria builder used to construct the query and predicates.
    *
@@ -174,6 +210,11 @@ public abstract class JpaPredicateVisitor<T> implements PredicateVisitor {
     String operator = predicate.getOperator();
     Comparable value = predicate.getValue();
 
+    // comparisons with null are not the same in SQL
+    if (null == value) {
+      return;
+    }
+
     // convert string to enum for proper JPA comparisons
     if (lastSingularAttribute != null) {
       Class<?> clazz = lastSingularAttribute.getJavaType();
@@ -183,6 +224,7 @@ public abstract class JpaPredicateVisitor<T> implements PredicateVisitor {
       }
     }
 
+    // keep in sync with JpaPushDown.OPERATORS
     javax.persistence.criteria.Predicate jpaPredicate = null;
     if ("=".equals(operator)) {
       jpaPredicate = m_builder.equal(path, value);
@@ -230,7 +272,15 @@ public abstract class JpaPredicateVisitor<T> implements PredicateVisitor {
     javax.persistence.criteria.Predicate jpaPredicate = null;
     // the list is done; deque and apply logical AND or OR
     predicateList = m_queue.pollLast();
-    if (predicateList != null) {
+
+    // leaving out any part of an OR would exclude the entities matched by
+    // that part, so the whole OR has to be left out
+    if (predicateList != null && !"AND".equals(operator)
+        && predicateList.size() < predicates.length) {
+      predicateList = null;
+    }
+
+    if (predicateList != null && !predicateList.isEmpty()) {
       javax.persistence.criteria.Predicate[] array = new javax.persistence.criteria.Predicate[predicateList.size()];
       array = predicateList.toArray(array);
 
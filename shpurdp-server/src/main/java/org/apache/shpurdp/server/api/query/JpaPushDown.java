@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.api.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.apache.shpurdp.server.controller.internal.QueryResponseImpl;
+import org.apache.shpurdp.server.controller.predicate.AlwaysPredicate;
+import org.apache.shpurdp.server.controller.predicate.AndPredicate;
+import org.apache.shpurdp.server.controller.predicate.ArrayPredicate;
+import org.apache.shpurdp.server.controller.predicate.CategoryPredicate;
+import org.apache.shpurdp.server.controller.predicate.ComparisonPredicate;
+import org.apache.shpurdp.server.controller.predicate.PredicateVisitor;
+import org.apache.shpurdp.server.controller.predicate.UnaryPredicate;
+import org.apache.shpurdp.server.controller.spi.PageRequest;
+import org.apache.shpurdp.server.controller.spi.Predicate;
+import org.apache.shpurdp.server.controller.spi.QueryResponse;
+import org.apache.shpurdp.server.controller.spi.Request;
+import org.apache.shpurdp.server.controller.spi.Resource;
+import org.apache.shpurdp.server.controller.spi.SortRequest;
+import org.apache.shpurdp.server.controller.spi.SortRequestProperty;
+import org.apache.shpurdp.server.controller.utilities.PredicateHelper;
+
+/**
+ * The {@link JpaPushDown} class decides which parts of a resource request can
+ * be handed to JPA, based on the mapping of Shpurdp properties to entity
+ * attributes which a resource provider declares (see
+ * {@link JpaPredicateVisitor#getPredicateMapping(String)}).
+ * <p/>
+ * The predicate is always translated as far as possible. Sorting and paging
+ * are only done by JPA if the result is the same as if they were done in
+ * memory; a provider reports them as done in its {@link QueryResponse} only
+ * when {@link #isSortable} and {@link #isPageable} say so, together with the
+ * part of the predicate JPA could not apply (see
+ * {@link #getResidualPredicate}). The cluster controller sorts, pages and
+ * filters by that residual predicate whatever is left; see
+ * {@link #getQueryResponse}.
+ */
+public final class JpaPushDown {
+
+  /**
+   * The comparison operators which {@link JpaPredicateVisitor} translates.
+   */
+  static final Set<String> OPERATORS = new HashSet<>(Arrays.asList("=", "<", "<=", ">", ">="));
+
+  /**
+   * Constructor.
+   */
+  private JpaPushDown() {
+  }
+
+  /**
+   * Gets whether the given predicate can be translated into a JPA predicate
+   * which matches exactly the same entities.
+   *
+   * @param predicate
+   *          the predicate, or {@code null} for none.
+   * @param mapping
+   *          the mapping of property ids to entity attributes.
+   * @return {@code true} if no part of the predicate is left out by the
+   *         translation.
+   */
+  public static boolean isTranslatable(Predicate predicate,
+      Map<String, ? extends List<? extends SingularAttribute<?, ?>>> mapping) {
+    if (null == predicate) {
+      return true;
+    }
+
+    TranslatableVisitor visitor = new TranslatableVisitor(mapping);
+    PredicateHelper.visit(predicate, visitor);
+    return visitor.m_translatable;
+  }
+
+  /**
+   * Gets whether the given sort request can be done entirely by JPA.
+   *
+   * @param sortRequest
+   *          the sort request, or {@code null} for none.
+   * @param mapping
+   *          the mapping of property ids to entity attributes.
+   * @return {@code true} if there is a sort request and all of its properties
+   *         are mapped.
+   */
+  public static boolean isSortable(SortRequest sortRequest,
+      Map<String, ? extends List<? extends SingularAttribute<?, ?>>> mapping) {
+    if (null == sortRequest || null == sortRequest.getProperties()) {
+      return false;
+    }
+
+    for (SortRequestProperty property : sortRequest.getProperties()) {
+      if (!isMapped(property.getPropertyId(), mapping)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets whether the given page request can be applied by JPA. This is only
+   * the case for pages counted from the start, when both the predicate and the
+   * sort request are entirely translated. Without a sort request the order of
+   * the rows, and so the page, is not defined, so a sort request is required.
+   * The query should also be ordered by the entity id after the requested
+   * sort (see {@link JpaSortBuilder#buildSortOrders(SortRequest, JpaPredicateVisitor, SingularAttribute)})
+   * so that rows with equal sort values are paged in a stable order.
+   *
+   * @param predicate
+   *          the predicate, or {@code null} for none.
+   * @param pageRequest
+   *          the page request, or {@code null} for none.
+   * @param sortRequest
+   *          the sort request, or {@code null} for none.
+   * @param mapping
+   *          the mapping of property ids to entity attributes.
+   * @return {@code true} if the page can be selected by JPA.
+   */
+  public static boolean isPageable(Predicate predicate, PageRequest pageRequest,
+      SortRequest sortRequest,
+      Map<String, ? extends List<? extends SingularAttribute<?, ?>>> mapping) {
+    if (null == pageRequest) {
+      return false;
+    }
+
+    PageRequest.StartingPoint startingPoint = pageRequest.getStartingPoint();
+    if (startingPoint != PageRequest.StartingPoint.Beginning
+        && startingPoint != PageRequest.StartingPoint.OffsetStart) {
+      return false;
+    }
+
+    return isSortable(sortRequest, mapping) && isTranslatable(predicate, mapping);
+  }
+
+  /**
+   * Gets the part of the given predicate which JPA does not apply, and which
+   * therefore still has to be evaluated in memory. The conjuncts of an AND
+   * are translated independently, so only those which are not translatable
+   * are left; any other predicate is either translated entirely or not at
+   * all.
+   *
+   * @param predicate
+   *          the predicate, or {@code null} for none.
+   * @param mapping
+   *          the mapping of property ids to entity attributes.
+   * @return the residual predicate, or {@code null} if JPA applies the whole
+   *         predicate.
+   */
+  public static Predicate getResidualPredicate(Predicate predicate,
+      Map<String, ? extends List<? extends SingularAttribute<?, ?>>> mapping) {
+    if (isTranslatable(predicate, mapping)) {
+      return null;
+    }
+
+    if (!(predicate instanceof AndPredicate)) {
+      return predicate;
+    }
+
+    List<Predicate> residuals = new ArrayList<>();
+    for (Predicate conjunct : ((AndPredicate) predicate).getPredicates()) {
+      Predicate residual = getResidualPredicate(conjunct, mapping);
+      if (null != residual) {
+        residuals.add(residual);
+      }
+    }
+
+    return AndPredicate.instance(residuals.toArray(new Predicate[residuals.size()]));
+  }
+
+  /**
+   * Creates the response of a resource provider whose resources were queried
+   * by JPA with the given request and predicate. The response is marked as
+   * sorted and paged when JPA did so, and carries the residual predicate for
+   * the cluster controller to evaluate.
+   *
+   * @param resources
+   *          the resources created from the query results (not {@code null}).
+   * @param request
+   *          the request, with the sort and page requests given to JPA.
+   * @param predicate
+   *          the predicate given to JPA, or {@code null} for none.
+   * @param mapping
+   *          the mapping of property ids to entity attributes.
+   * @param counter
+   *          counts all entities matching the predicate; only called for a
+   *          paged response.
+   * @return the query response (never {@code null}).
+   */
+  public static QueryResponse getQueryResponse(Set<Resource> resources, Request request,
+      Predicate predicate, Map<String, ? extends List<? extends SingularAttribute<?, ?>>> mapping,
+      IntSupplier counter) {
+    boolean paged = isPageable(predicate, request.getPageRequest(), request.getSortRequest(),
+        mapping);
+
+    return new QueryResponseImpl(resources,
+        isSortable(request.getSortRequest(), mapping),
+        paged,
+        paged ? counter.getAsInt() : resources.size(),
+        predicate,
+        getResidualPredicate(predicate, mapping));
+  }
+
+  /**
+   * Applies the page request to the query.
+   *
+   * @param query
+   *          the query (not {@code null}).
+   * @param pageRequest
+   *          a page request for which {@link #isPageable} is {@code true}.
+   */
+  public static void applyPageRequest(TypedQuery<?> query, PageRequest pageRequest) {
+    int offset = 0;
+    if (pageRequest.getStartingPoint() == PageRequest.StartingPoint.OffsetStart) {
+      // prevent JPA errors when -1 is passed in by accident
+      offset = Math.max(0, pageRequest.getOffset());
+    }
+
+    query.setFirstResult(offset);
+    query.setMaxResults(pageRequest.getPageSize());
+  }
+
+  /**
+   * Gets whether the property is mapped to an entity attribute.
+   */
+  private static boolean isMapped(String propertyId,
+      Map<String, ? extends List<? extends SingularAttribute<?, ?>>> mapping) {
+    List<? extends SingularAttribute<?, ?>> attributes = mapping.get(propertyId);
+    return null != attributes && !attributes.isEmpty();
+  }
+
+  /**
+   * Checks every part of a predicate against the same rules as the
+   * {@link JpaPredicateVisitor} uses for the translation.
+   */
+  private static final class TranslatableVisitor implements PredicateVisitor {
+
+    private final Map<String, ? extends List<? extends SingularAttribute<?, ?>>> m_mapping;
+
+    private boolean m_translatable = true;
+
+    private TranslatableVisitor(
+        Map<String, ? extends List<? extends SingularAttribute<?, ?>>> mapping) {
+      m_mapping = mapping;
+    }
+
+    @Override
+    public void acceptComparisonPredicate(ComparisonPredicate predicate) {
+      if (!isMapped(predicate.getPropertyId(), m_mapping)
+          || !OPERATORS.contains(predicate.getOperator()) || null == predicate.getValue()) {
+        m_translatable = false;
+      }
+    }
+
+    @Override
+    public void acceptArrayPredicate(ArrayPredicate predicate) {
+      for (Predicate child : predicate.getPredicates()) {
+        PredicateHelper.visit(child, this);
+      }
+    }
+
+    @Override
+    public void acceptUnaryPredicate(UnaryPredicate predicate) {
+      m_translatable = false;
+    }
+
+    @Override
+    public void acceptAlwaysPredicate(AlwaysPredicate predicate) {
+      m_translatable = false;
+    }
+
+    @Override
+    public void acceptCategoryPredicate(CategoryPredicate predicate) {
+      m_translatable = false;
+    }
+  }
+}
@@ -88,32 +88,7 @@ public class JpaSortBuilder<T> {
       Path<?> path = null;
       for (SingularAttribute<?, ?> singularAttribute : singularAttributes) {
         if (null == path) {
-
-          CriteriaQuery<T> query = visitor.getCriteriaQuery();
-          Set<Root<?>> roots = query.getRoots();
-
-          // if there are existing roots; use the existing roots to prevent more
-          // roots from being added potentially causing a cartesian product
-          // where we don't want one
-          if (null != roots && !roots.isEmpty()) {
-            Iterator<Root<?>> iterator = roots.iterator();
-            while (iterator.hasNext()) {
-              Root<?> root = iterator.next();
-
-              Class<?> visitorEntityClass = visitor.getEntityClass();
-              if (ObjectUtils.equals(visitorEntityClass, root.getJavaType())
-                  || ObjectUtils.equals(visitorEntityClass, root.getModel().getJavaType())) {
-                path = root.get(singularAttribute.getName());
-                break;
-              }
-            }
-          }
-
-          // no roots exist already which match this entity class, create a new
-          // path
-          if (null == path) {
-            path = query.from(visitor.getEntityClass()).get(singularAttribute.getName());
-          }
+          path = getRoot(visitor).get(singularAttribute.getName());
         } else {
           path = path.get(singularAttribute.getName());
         }
@@ -131,4 +106,63 @@ public class JpaSortBuilder<T> {
 
     return sortOrders;
   }
+
+  /**
+   * Builds the list of sort orders based on the supplied request and JPA
+   * predicate visitor, followed by an ascending order on the given key
+   * attribute. Rows which are equal by the requested sort are then always
+   * returned in the same order, which paging with JPA relies on.
+   *
+   * @param sortRequest
+   *          the Shpurdp sort request properties to turn into a JPA sort
+   *          request, or {@code null} for none.
+   * @param visitor
+   *          a visitor that knows how to convert the Shpurdp properties into
+   *          {@link SingularAttribute} (not {@code null}).
+   * @param keyAttribute
+   *          the attribute which uniquely identifies the entity (not
+   *          {@code null}).
+   * @return a list of sorts ending with the key order (never {@code null}).
+   */
+  public List<Order> buildSortOrders(SortRequest sortRequest,
+      JpaPredicateVisitor<T> visitor, SingularAttribute<? super T, ?> keyAttribute) {
+    List<Order> sortOrders = new ArrayList<>(buildSortOrders(sortRequest, visitor));
+
+    CriteriaBuilder builder = visitor.getCriteriaBuilder();
+    sortOrders.add(builder.asc(getRoot(visitor).get(keyAttribute.getName())));
+
+    return sortOrders;
+  }
+
+  /**
+   * Gets the root of the visitor's query for the entity being queried.
+   *
+   * @param visitor
+   *          the visitor (not {@code null}).
+   * @return the root (never {@code null}).
+   */
+  private Root<?> getRoot(JpaPredicateVisitor<T> visitor) {
+    CriteriaQuery<T> query = visitor.getCriteriaQuery();
+    Set<Root<?>> roots = query.getRoots();
+
+    // if there are existing roots; use the existing roots to prevent more
+    // roots from being added potentially causing a cartesian product
+    // where we don't want one
+    if (null != roots && !roots.isEmpty()) {
+      Iterator<Root<?>> iterator = roots.iterator();
+      while (iterator.hasNext()) {
+        Root<?> root = iterator.next();
+
+        Class<?> visitorEntityClass = visitor.getEntityClass();
+        if (ObjectUtils.equals(visitorEntityClass, root.getJavaType())
+            || ObjectUtils.equals(visitorEntityClass, root.getModel().getJavaType())) {
+          return root;
+        }
+      }
+    }
+
+    // no roots exist already which match this entity class, create a new
+    // root
+    return query.from(visitor.getEntityClass());
+  }
 }
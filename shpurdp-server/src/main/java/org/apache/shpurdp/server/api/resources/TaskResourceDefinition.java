@@ -18,6 +18,10 @@
 
 package org.apache.shpurdp.server.api.resources;
 
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.shpurdp.server.controller.internal.TaskResourceProvider;
 import org.apache.shpurdp.server.controller.spi.Resource;
 
 
@@ -30,7 +34,8 @@ public class TaskResourceDefinition extends BaseResourceDefinition {
    * Constructor.
    */
   public TaskResourceDefinition() {
-    super(Resource.Type.Task);
+    super(Resource.Type.Task, null, Collections.singletonMap(DirectiveType.READ,
+        Arrays.asList(TaskResourceProvider.DIRECTIVE_OUTPUT_OFFSET, TaskResourceProvider.DIRECTIVE_OUTPUT_LENGTH)));
   }
 
   @Override
@@ -25,8 +25,10 @@ import java.util.Set;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
+import org.apache.shpurdp.server.api.predicate.QueryLexer;
 import org.apache.shpurdp.server.api.resources.ResourceInstance;
 import org.apache.shpurdp.server.api.resources.ResourceInstanceFactory;
 import org.apache.shpurdp.server.api.resources.ResourceInstanceFactoryImpl;
@@ -36,6 +38,7 @@ import org.apache.shpurdp.server.api.services.parsers.RequestBodyParser;
 import org.apache.shpurdp.server.api.services.serializers.CsvSerializer;
 import org.apache.shpurdp.server.api.services.serializers.JsonSerializer;
 import org.apache.shpurdp.server.api.services.serializers.ResultSerializer;
+import org.apache.shpurdp.server.api.services.serializers.StreamingResultSerializer;
 import org.apache.shpurdp.server.audit.request.RequestAuditLogger;
 import org.apache.shpurdp.server.controller.spi.Resource;
 import org.apache.shpurdp.server.utils.RetryHelper;
@@ -183,7 +186,7 @@ public abstract class BaseService {
     ResultSerializer serializer = mediaType == null ? getResultSerializer() : getResultSerializer(mediaType);
 
     Response.ResponseBuilder builder = Response.status(result.getStatus().getStatusCode()).entity(
-        serializer.serialize(result));
+        serializeResult(serializer, mediaType, result, uriInfo));
 
     if (mediaType != null) {
       builder.type(mediaType);
@@ -193,6 +196,39 @@ public abstract class BaseService {
     return builder.build();
   }
 
+  /**
+   * Serialize the result for the response entity.  Results of the default media type
+   * are streamed to the response and are only indented if 'pretty=true' is specified
+   * in the query string.
+   *
+   * @param serializer  the result serializer
+   * @param mediaType   the requested media type; may be null
+   * @param result      the result to serialize
+   * @param uriInfo     uri information
+   *
+   * @return the response entity
+   */
+  private Object serializeResult(final ResultSerializer serializer, MediaType mediaType,
+                                 final Result result, UriInfo uriInfo) {
+    if (mediaType == null && serializer instanceof StreamingResultSerializer) {
+      final boolean prettyPrint = isPrettyPrint(uriInfo);
+      return (StreamingOutput) out -> ((StreamingResultSerializer) serializer).serialize(result, out, prettyPrint);
+    }
+    return serializer.serialize(result);
+  }
+
+  /**
+   * Check to see if 'pretty=true' is specified in the query string.
+   *
+   * @param uriInfo  uri information; may be null
+   *
+   * @return true if 'pretty=true' is specified, false otherwise
+   */
+  private boolean isPrettyPrint(UriInfo uriInfo) {
+    String pretty = uriInfo == null ? null : uriInfo.getQueryParameters().getFirst(QueryLexer.QUERY_PRETTY);
+    return pretty != null && pretty.equalsIgnoreCase("true");
+  }
+
   /**
    * Obtain the factory from which to create Request instances.
    *
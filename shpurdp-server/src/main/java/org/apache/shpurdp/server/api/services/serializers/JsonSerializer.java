@@ -20,8 +20,7 @@ package org.apache.shpurdp.server.api.services.serializers;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.nio.charset.Charset;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -35,24 +34,30 @@ import org.apache.shpurdp.server.api.util.TreeNodeImpl;
 import org.apache.shpurdp.server.controller.internal.OperationStatusMetaData;
 import org.apache.shpurdp.server.controller.spi.Resource;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 /**
  * JSON serializer.
  * Responsible for representing a result as JSON.
  */
-public class JsonSerializer implements ResultSerializer {
+public class JsonSerializer implements StreamingResultSerializer {
 
   /**
    * Factory used to create JSON generator.
    */
   JsonFactory m_factory = new JsonFactory();
 
-  ObjectMapper m_mapper = new ObjectMapper(m_factory);
+  /**
+   * Mapper used to write property values.  The generator is flushed once the
+   * whole result is written rather than after every value.
+   */
+  ObjectMapper m_mapper = new ObjectMapper(m_factory).disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
 
   /**
    * Generator which writes JSON.
@@ -63,16 +68,8 @@ public class JsonSerializer implements ResultSerializer {
   @Override
   public Object serialize(Result result) {
     try {
-      ByteArrayOutputStream bytesOut = init();
-
-      if (result.getStatus().isErrorState()) {
-        return serializeError(result.getStatus());
-      }
-
-      TreeNode<Resource> treeNode = result.getResultTree();
-      processNode(treeNode);
-      processResultMetadata(result.getResultMetadata());
-      m_generator.close();
+      ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+      serialize(result, bytesOut, true);
       return bytesOut.toString("UTF-8");
     } catch (IOException e) {
       //todo: exception handling.  Create ResultStatus 500 and call serializeError
@@ -83,31 +80,46 @@ public class JsonSerializer implements ResultSerializer {
   @Override
   public Object serializeError(ResultStatus error) {
     try {
-      ByteArrayOutputStream bytesOut = init();
-      //m_mapper.writeValue(m_generator, error);
-      m_generator.writeStartObject();
-      m_generator.writeNumberField("status", error.getStatus().getStatus());
-      m_generator.writeStringField("message", error.getMessage());
-      m_generator.writeEndObject();
-      m_generator.close();
+      ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+      serializeError(error, bytesOut, true);
       return bytesOut.toString("UTF-8");
-
     } catch (IOException e) {
       //todo: exception handling
       throw new RuntimeException("Unable to serialize to json: " + e, e);
     }
   }
 
-  private ByteArrayOutputStream init() throws IOException {
-    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
-    m_generator = createJsonGenerator(bytesOut);
-    Lf2SpacesIndenter indenter = new Lf2SpacesIndenter();
-    DefaultPrettyPrinter p = new DefaultPrettyPrinter();
-    p.indentObjectsWith(indenter);
-    p.indentArraysWith(indenter);
-    m_generator.setPrettyPrinter(p);
+  @Override
+  public void serialize(Result result, OutputStream out, boolean prettyPrint) throws IOException {
+    if (result.getStatus().isErrorState()) {
+      serializeError(result.getStatus(), out, prettyPrint);
+      return;
+    }
 
-    return bytesOut;
+    m_generator = createJsonGenerator(out, prettyPrint);
+    TreeNode<Resource> treeNode = result.getResultTree();
+    processNode(treeNode);
+    processResultMetadata(result.getResultMetadata());
+    m_generator.close();
+  }
+
+  /**
+   * Write an error result to the given stream.
+   *
+   * @param error        the error result
+   * @param out          the stream to write to; it is flushed but not closed
+   * @param prettyPrint  whether or not to indent the output
+   *
+   * @throws IOException if the output can not be written
+   */
+  private void serializeError(ResultStatus error, OutputStream out, boolean prettyPrint) throws IOException {
+    m_generator = createJsonGenerator(out, prettyPrint);
+    //m_mapper.writeValue(m_generator, error);
+    m_generator.writeStartObject();
+    m_generator.writeNumberField("status", error.getStatus().getStatus());
+    m_generator.writeStringField("message", error.getMessage());
+    m_generator.writeEndObject();
+    m_generator.close();
   }
 
   private void processResultMetadata(ResultMetadata resultMetadata) throws IOException {
@@ -276,16 +288,19 @@ public class JsonSerializer implements ResultSerializer {
     }
   }
 
-  private JsonGenerator createJsonGenerator(ByteArrayOutputStream baos) throws IOException {
-    JsonGenerator generator = m_factory.createJsonGenerator(new OutputStreamWriter(baos,
-        Charset.forName("UTF-8").newEncoder()));
-
-    // Setup a pretty printer with an indenter (indenter has 2 spaces in this case)
-    Lf2SpacesIndenter indenter = new Lf2SpacesIndenter();
-    DefaultPrettyPrinter p = new DefaultPrettyPrinter();
-    p.indentObjectsWith(indenter);
-    p.indentArraysWith(indenter);
-    generator.setPrettyPrinter(p);
+  private JsonGenerator createJsonGenerator(OutputStream out, boolean prettyPrint) throws IOException {
+    JsonGenerator generator = m_factory.createGenerator(out, JsonEncoding.UTF8);
+    // the caller owns the stream, which may be the servlet output stream
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    if (prettyPrint) {
+      // Setup a pretty printer with an indenter (indenter has 2 spaces in this case)
+      Lf2SpacesIndenter indenter = new Lf2SpacesIndenter();
+      DefaultPrettyPrinter p = new DefaultPrettyPrinter();
+      p.indentObjectsWith(indenter);
+      p.indentArraysWith(indenter);
+      generator.setPrettyPrinter(p);
+    }
 
     return generator;
   }
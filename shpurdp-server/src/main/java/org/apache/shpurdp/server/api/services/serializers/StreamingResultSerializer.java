@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.shpurdp.server.api.services.serializers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.shpurdp.server.api.services.Result;
+
+/**
+ * Result serializer which is able to write the result directly to a stream
+ * instead of building the whole serialized form in memory first.
+ */
+public interface StreamingResultSerializer extends ResultSerializer {
+  /**
+   * Serialize the given result to the given stream.  Error results are
+   * serialized the same way as by {@link #serializeError}.
+   *
+   * @param result       internal result
+   * @param out          the stream to write to; it is flushed but not closed
+   * @param prettyPrint  whether or not to indent the output
+   *
+   * @throws IOException if the output can not be written
+   */
+  void serialize(Result result, OutputStream out, boolean prettyPrint) throws IOException;
+}
@@ -34,6 +34,7 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
@@ -417,8 +418,9 @@ public abstract class StackAdvisorCommand<T extends StackAdvisorResponse> extend
       LOG.info(String.format("Fire host info request for hosts: " + hostNames.toString()));
       String hostsURI = String.format(GET_HOSTS_INFO_URI, String.join(",", hostNames));
 
+      // plain text, the response is read as a String below
       Response response = handleRequest(null, null, new LocalUriInfo(hostsURI), Request.Type.GET,
-          createHostResource());
+          MediaType.TEXT_PLAIN_TYPE, createHostResource());
 
       if (response.getStatus() != Status.OK.getStatusCode()) {
         String message = String.format(
@@ -500,7 +502,7 @@ public abstract class StackAdvisorCommand<T extends StackAdvisorResponse> extend
         request.getServicesCommaSeparated());
 
     Response response = handleRequest(null, null, new LocalUriInfo(servicesURI),
-        Request.Type.GET, createStackVersionResource(stackName, stackVersion));
+        Request.Type.GET, MediaType.TEXT_PLAIN_TYPE, createStackVersionResource(stackName, stackVersion));
 
     if (response.getStatus() != Status.OK.getStatusCode()) {
       String message = String.format(
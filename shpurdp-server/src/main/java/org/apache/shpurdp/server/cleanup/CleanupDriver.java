@@ -46,11 +46,13 @@ public class CleanupDriver {
   private static final String DATE_PATTERN = "yyyy-MM-dd";
   private static final String CLUSTER_NAME_ARG = "cluster-name";
   private static final String FROM_DATE_ARG = "from-date";
+  private static final String PURGE_POLICY_ARG = "purge-policy";
 
   private static Options getOptions() {
     Options options = new Options();
     options.addOption(Option.builder().longOpt(CLUSTER_NAME_ARG).desc("The cluster name").required().type(String.class).hasArg().valueSeparator(' ').build());
     options.addOption(Option.builder().longOpt(FROM_DATE_ARG).desc("Date up until data will be purged.").required().type(String.class).hasArg().valueSeparator(' ').build());
+    options.addOption(Option.builder().longOpt(PURGE_POLICY_ARG).desc("DELETE (default) or ARCHIVE to keep completed requests readable from the request archive.").type(String.class).hasArg().valueSeparator(' ').build());
     return options;
   }
 
@@ -64,7 +66,8 @@ public class CleanupDriver {
       CommandLine line = cmdLineParser.parse(getOptions(), args);
       String clusterName = (String) line.getParsedOptionValue(CLUSTER_NAME_ARG);
       Date fromDate = df.parse(line.getOptionValue(FROM_DATE_ARG));
-      ctx = new CleanupContext(clusterName, fromDate.getTime());
+      PurgePolicy purgePolicy = PurgePolicy.valueOf(line.getOptionValue(PURGE_POLICY_ARG, PurgePolicy.DELETE.name()).toUpperCase());
+      ctx = new CleanupContext(clusterName, fromDate.getTime(), purgePolicy);
     } catch (Exception exp) {
       System.err.println("Parsing failed.  Reason: " + exp.getMessage());
       LOGGER.error("Parsing failed.  Reason: ", exp);
@@ -87,7 +90,8 @@ public class CleanupDriver {
     injector.getInstance(ShpurdpJpaPersistService.class).start();
 
     CleanupServiceImpl cleanupService = injector.getInstance(CleanupServiceImpl.class);
-    CleanupService.CleanupResult result = cleanupService.cleanup(new TimeBasedCleanupPolicy(cleanupContext.getClusterName(), cleanupContext.getFromDayTimestamp()));
+    CleanupService.CleanupResult result = cleanupService.cleanup(new TimeBasedCleanupPolicy(cleanupContext.getClusterName(),
+        cleanupContext.getFromDayTimestamp(), cleanupContext.getPurgePolicy()));
 
     // explicitly stopping the persist service
     injector.getInstance(ShpurdpJpaPersistService.class).stop();
@@ -107,10 +111,12 @@ public class CleanupDriver {
   private static class CleanupContext {
     private String clusterName;
     private Long fromDayTimestamp;
+    private PurgePolicy purgePolicy;
 
-    public CleanupContext(String clusterName, Long fromDayTimestamp) {
+    public CleanupContext(String clusterName, Long fromDayTimestamp, PurgePolicy purgePolicy) {
       this.clusterName = clusterName;
       this.fromDayTimestamp = fromDayTimestamp;
+      this.purgePolicy = purgePolicy;
     }
 
     public String getClusterName() {
@@ -120,5 +126,9 @@ public class CleanupDriver {
     public Long getFromDayTimestamp() {
       return fromDayTimestamp;
     }
+
+    public PurgePolicy getPurgePolicy() {
+      return purgePolicy;
+    }
   }
 }
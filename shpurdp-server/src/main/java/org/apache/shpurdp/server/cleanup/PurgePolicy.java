@@ -27,7 +27,8 @@ public enum PurgePolicy {
   DELETE,
 
   /**
-   * Archive records, but do not delete them
+   * Move completed records into the archive, from where they can still be
+   * read, and delete them from the database
    */
   ARCHIVE
 }
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.cleanup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.shpurdp.server.configuration.Configuration;
+import org.apache.shpurdp.server.orm.dao.HostRoleCommandStatusSummaryDTO;
+import org.apache.shpurdp.server.orm.entities.HostRoleCommandEntity;
+import org.apache.shpurdp.server.orm.entities.RequestEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * The archive of completed requests moved out of the database by the
+ * {@link PurgePolicy#ARCHIVE} purge policy. Each purge appends
+ * {@link RequestArchiveSegment}s to the archive directory, which are read-only
+ * afterwards. Segments written by the purge tool while the server is running
+ * are picked up with the next lookup.
+ */
+@Singleton
+public class RequestArchive {
+  private static final Logger LOG = LoggerFactory.getLogger(RequestArchive.class);
+
+  @Inject
+  private Configuration configuration;
+
+  /**
+   * The segment of each archived request by request id.
+   */
+  private final NavigableMap<Long, RequestArchiveSegment> segmentsByRequestId = new ConcurrentSkipListMap<>();
+
+  /**
+   * The names of the segment files which have been opened.
+   */
+  private final Set<String> segmentNames = new HashSet<>();
+
+  /**
+   * The modification time of the archive directory when it was scanned for
+   * segments the last time.
+   */
+  private long lastScanned = -1;
+
+  /**
+   * Writes the requests with their stages and tasks into a new segment.
+   *
+   * @param requests the completed requests to archive
+   * @throws IOException if the segment can not be written
+   */
+  public void archive(Collection<RequestEntity> requests) throws IOException {
+    if (requests.isEmpty()) {
+      return;
+    }
+
+    File directory = getDirectory();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Unable to create the request archive directory " + directory);
+    }
+
+    long firstRequestId = Long.MAX_VALUE;
+    long lastRequestId = Long.MIN_VALUE;
+    for (RequestEntity request : requests) {
+      firstRequestId = Math.min(firstRequestId, request.getRequestId());
+      lastRequestId = Math.max(lastRequestId, request.getRequestId());
+    }
+
+    File file = new File(directory, String.format("requests-%d-%d-%d%s", firstRequestId, lastRequestId,
+        System.currentTimeMillis(), RequestArchiveSegment.EXTENSION));
+    RequestArchiveSegment.write(file, requests);
+    LOG.info("Archived {} requests into {}", requests.size(), file);
+  }
+
+  /**
+   * Gets the ids of archived requests, the same way as
+   * {@link org.apache.shpurdp.server.orm.dao.RequestDAO#findAllRequestIds(int, boolean, Long)}.
+   *
+   * @param limit     the max number of ids
+   * @param ascending {@code true} for the oldest requests first
+   * @param clusterId the cluster of the requests, {@code null} for requests
+   *                  not for a cluster
+   * @return the request ids
+   */
+  public List<Long> findRequestIds(int limit, boolean ascending, Long clusterId) {
+    refresh();
+
+    List<Long> requestIds = new ArrayList<>();
+    NavigableMap<Long, RequestArchiveSegment> segments = ascending ? segmentsByRequestId
+        : segmentsByRequestId.descendingMap();
+    for (Map.Entry<Long, RequestArchiveSegment> entry : segments.entrySet()) {
+      if (requestIds.size() >= limit) {
+        break;
+      }
+
+      Long requestClusterId = entry.getValue().getClusterId(entry.getKey());
+      boolean noCluster = null == requestClusterId || -1L == requestClusterId;
+      if (null == clusterId ? noCluster : clusterId.equals(requestClusterId)) {
+        requestIds.add(entry.getKey());
+      }
+    }
+    return requestIds;
+  }
+
+  /**
+   * @param requestId the request id
+   * @return {@code true} if the request is archived
+   */
+  public boolean contains(long requestId) {
+    refresh();
+    return segmentsByRequestId.containsKey(requestId);
+  }
+
+  /**
+   * Gets the archived requests with the given ids.
+   *
+   * @param requestIds          the request ids
+   * @param withClusterHostInfo {@code true} to read the cluster host info,
+   *                            which is stored with the output of the tasks
+   * @return the detached entities of the archived requests, without stages
+   */
+  public List<RequestEntity> findRequests(Collection<Long> requestIds, boolean withClusterHostInfo) {
+    refresh();
+
+    List<RequestEntity> requests = new ArrayList<>();
+    for (Long requestId : requestIds) {
+      RequestArchiveSegment segment = segmentsByRequestId.get(requestId);
+      if (null != segment) {
+        try {
+          requests.add(segment.getRequest(requestId, withClusterHostInfo));
+        } catch (IOException e) {
+          LOG.error("Unable to read archived request {} from {}", requestId, segment.getFile(), e);
+        }
+      }
+    }
+    return requests;
+  }
+
+  /**
+   * Gets the tasks of an archived request.
+   *
+   * @param requestId the request id
+   * @return the detached entities of the tasks, with output, empty if the
+   *         request is not archived
+   */
+  public List<HostRoleCommandEntity> findTasks(long requestId) {
+    refresh();
+
+    RequestArchiveSegment segment = segmentsByRequestId.get(requestId);
+    if (null == segment) {
+      return Collections.emptyList();
+    }
+
+    try {
+      return segment.getTasks(requestId);
+    } catch (IOException e) {
+      LOG.error("Unable to read the tasks of archived request {} from {}", requestId, segment.getFile(), e);
+      return Collections.emptyList();
+    }
+  }
+
+  /**
+   * Summarizes the tasks of an archived request per stage.
+   *
+   * @param requestId the request id
+   * @return the summaries by stage id, empty if the request is not archived
+   * @see org.apache.shpurdp.server.orm.dao.HostRoleCommandDAO#findAggregateCounts(Long)
+   */
+  public Map<Long, HostRoleCommandStatusSummaryDTO> findAggregateCounts(long requestId) {
+    refresh();
+
+    RequestArchiveSegment segment = segmentsByRequestId.get(requestId);
+    return null == segment ? Collections.emptyMap() : segment.getAggregateCounts(requestId);
+  }
+
+  /**
+   * Opens the segments added to the archive directory since it was scanned
+   * the last time.
+   */
+  private synchronized void refresh() {
+    File directory = getDirectory();
+    long lastModified = directory.lastModified();
+    if (lastModified == lastScanned) {
+      return;
+    }
+    lastScanned = lastModified;
+
+    File[] files = directory.listFiles((dir, name) -> name.endsWith(RequestArchiveSegment.EXTENSION));
+    if (null == files) {
+      return;
+    }
+
+    for (File file : files) {
+      if (segmentNames.contains(file.getName())) {
+        continue;
+      }
+
+      try {
+        RequestArchiveSegment segment = RequestArchiveSegment.open(file);
+        for (long requestId : segment.getRequestIds()) {
+          segmentsByRequestId.put(requestId, segment);
+        }
+        segmentNames.add(file.getName());
+      } catch (IOException e) {
+        LOG.error("Unable to open request archive segment {}", file, e);
+      }
+    }
+  }
+
+  private File getDirectory() {
+    return new File(configuration.getRequestArchiveDir());
+  }
+}
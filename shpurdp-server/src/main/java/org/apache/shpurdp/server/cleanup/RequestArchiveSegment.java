@@ -0,0 +1,757 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.cleanup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.shpurdp.server.Role;
+import org.apache.shpurdp.server.RoleCommand;
+import org.apache.shpurdp.server.actionmanager.HostRoleStatus;
+import org.apache.shpurdp.server.actionmanager.RequestType;
+import org.apache.shpurdp.server.orm.dao.HostRoleCommandStatusSummaryDTO;
+import org.apache.shpurdp.server.orm.entities.HostEntity;
+import org.apache.shpurdp.server.orm.entities.HostRoleCommandEntity;
+import org.apache.shpurdp.server.orm.entities.RequestEntity;
+import org.apache.shpurdp.server.orm.entities.RequestResourceFilterEntity;
+import org.apache.shpurdp.server.orm.entities.StageEntity;
+
+/**
+ * A read-only file holding archived requests with their tasks.
+ * <p/>
+ * The requests and tasks are stored column by column, each column holds a
+ * single field of all of the requests or tasks. Numbers are delta and
+ * variable length encoded and strings, including enum names, are references
+ * into a dictionary of the segment, so the status and timestamp columns are
+ * small and compress well. The columns are kept in memory once the segment is
+ * opened. The output of the tasks and the cluster host info of each request
+ * are compressed separately per request and only read when the tasks of the
+ * request are requested.
+ * <p/>
+ * Layout of the file:
+ * <pre>
+ * MAGIC VERSION
+ * compressed output of request 1
+ * ...
+ * compressed output of request n
+ * compressed dictionary and columns
+ * columns offset, columns length, MAGIC
+ * </pre>
+ */
+public class RequestArchiveSegment {
+
+  /**
+   * The file extension of segment files.
+   */
+  public static final String EXTENSION = ".segment";
+
+  private static final int MAGIC = 0x53485241;
+
+  private static final int VERSION = 1;
+
+  private static final int FOOTER_SIZE = 16;
+
+  private static final byte FLAG_SKIPPABLE = 1;
+  private static final byte FLAG_RETRY_ALLOWED = 2;
+  private static final byte FLAG_AUTO_SKIP_ON_FAILURE = 4;
+  private static final byte FLAG_BACKGROUND = 8;
+
+  private final File file;
+
+  // request columns
+  private long[] requestIds;
+  private long[] clusterIds;
+  private long[] requestScheduleIds;
+  private long[] createTimes;
+  private long[] requestStartTimes;
+  private long[] requestEndTimes;
+  private String[] requestStatuses;
+  private String[] displayStatuses;
+  private String[] requestTypes;
+  private String[] requestContexts;
+  private String[] commandNames;
+  private String[] inputs;
+  private String[] userNames;
+  private byte[] exclusive;
+  private int[] firstFilters;
+  private int[] firstTasks;
+  private long[] outputOffsets;
+  private int[] outputLengths;
+
+  // request resource filter columns
+  private String[] filterServices;
+  private String[] filterComponents;
+  private String[] filterHosts;
+
+  // task columns
+  private long[] taskIds;
+  private long[] stageIds;
+  private long[] hostIds;
+  private String[] hostNames;
+  private String[] roles;
+  private String[] roleCommands;
+  private String[] taskStatuses;
+  private long[] taskStartTimes;
+  private long[] originalStartTimes;
+  private long[] taskEndTimes;
+  private long[] lastAttemptTimes;
+  private long[] attemptCounts;
+  private long[] exitCodes;
+  private byte[] flags;
+  private String[] events;
+  private String[] outputLogs;
+  private String[] errorLogs;
+  private String[] commandDetails;
+  private String[] customCommandNames;
+  private String[] opsDisplayNames;
+
+  /**
+   * The index of each request in the request columns by request id.
+   */
+  private final Map<Long, Integer> requestIndexes = new HashMap<>();
+
+  private RequestArchiveSegment(File file) {
+    this.file = file;
+  }
+
+  /**
+   * @return the segment file
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * @return the ids of the requests in the segment
+   */
+  public long[] getRequestIds() {
+    return requestIds.clone();
+  }
+
+  /**
+   * @param requestId the request id
+   * @return {@code true} if the request is in the segment
+   */
+  public boolean contains(long requestId) {
+    return requestIndexes.containsKey(requestId);
+  }
+
+  /**
+   * @param requestId the id of a request in the segment
+   * @return the cluster id of the request, {@code null} if the request is not
+   *         for a cluster
+   */
+  public Long getClusterId(long requestId) {
+    return toLong(clusterIds[requestIndexes.get(requestId)]);
+  }
+
+  /**
+   * Creates a detached request entity with the archived fields of a request.
+   * The stages of the entity are not set.
+   *
+   * @param requestId the request id
+   * @param withClusterHostInfo {@code true} to read the cluster host info,
+   *                            which is stored with the output of the tasks
+   * @return the request, {@code null} if it is not in the segment
+   * @throws IOException if the cluster host info can not be read
+   */
+  public RequestEntity getRequest(long requestId, boolean withClusterHostInfo) throws IOException {
+    Integer index = requestIndexes.get(requestId);
+    if (null == index) {
+      return null;
+    }
+
+    RequestEntity request = new RequestEntity();
+    request.setRequestId(requestIds[index]);
+    request.setClusterId(toLong(clusterIds[index]));
+    request.setRequestScheduleId(toLong(requestScheduleIds[index]));
+    request.setCreateTime(toLong(createTimes[index]));
+    request.setStartTime(toLong(requestStartTimes[index]));
+    request.setEndTime(toLong(requestEndTimes[index]));
+    request.setStatus(HostRoleStatus.valueOf(requestStatuses[index]));
+    request.setDisplayStatus(HostRoleStatus.valueOf(displayStatuses[index]));
+    request.setRequestType(null == requestTypes[index] ? null : RequestType.valueOf(requestTypes[index]));
+    request.setRequestContext(requestContexts[index]);
+    request.setCommandName(commandNames[index]);
+    request.setInputs(inputs[index]);
+    request.setUserName(userNames[index]);
+    request.setExclusive(exclusive[index] != 0);
+
+    List<RequestResourceFilterEntity> filters = new ArrayList<>();
+    for (int i = firstFilters[index]; i < firstFilters[index + 1]; i++) {
+      RequestResourceFilterEntity filter = new RequestResourceFilterEntity();
+      filter.setRequestId(requestId);
+      filter.setServiceName(filterServices[i]);
+      filter.setComponentName(filterComponents[i]);
+      filter.setHosts(filterHosts[i]);
+      filters.add(filter);
+    }
+    request.setResourceFilterEntities(filters);
+
+    if (withClusterHostInfo) {
+      try (DataInputStream in = readOutput(index)) {
+        request.setClusterHostInfo(readString(in));
+      }
+    }
+    return request;
+  }
+
+  /**
+   * Creates detached task entities with the archived fields and output of the
+   * tasks of a request.
+   *
+   * @param requestId the request id
+   * @return the tasks ordered by task id, empty if the request is not in the
+   *         segment
+   * @throws IOException if the output can not be read
+   */
+  public List<HostRoleCommandEntity> getTasks(long requestId) throws IOException {
+    Integer index = requestIndexes.get(requestId);
+    if (null == index) {
+      return Collections.emptyList();
+    }
+
+    List<HostRoleCommandEntity> tasks = new ArrayList<>(firstTasks[index + 1] - firstTasks[index]);
+    try (DataInputStream in = readOutput(index)) {
+      // skip the cluster host info
+      readString(in);
+
+      for (int i = firstTasks[index]; i < firstTasks[index + 1]; i++) {
+        HostRoleCommandEntity task = new HostRoleCommandEntity();
+        task.setTaskId(taskIds[i]);
+        task.setRequestId(requestId);
+        task.setStageId(stageIds[i]);
+        if (null != hostNames[i]) {
+          HostEntity host = new HostEntity();
+          host.setHostId(hostIds[i]);
+          host.setHostName(hostNames[i]);
+          task.setHostEntity(host);
+        }
+        task.setRole(Role.valueOf(roles[i]));
+        task.setRoleCommand(null == roleCommands[i] ? null : RoleCommand.valueOf(roleCommands[i]));
+        task.setStatus(HostRoleStatus.valueOf(taskStatuses[i]));
+        task.setStartTime(toLong(taskStartTimes[i]));
+        task.setOriginalStartTime(toLong(originalStartTimes[i]));
+        task.setEndTime(toLong(taskEndTimes[i]));
+        task.setLastAttemptTime(toLong(lastAttemptTimes[i]));
+        Long attemptCount = toLong(attemptCounts[i]);
+        task.setAttemptCount(null == attemptCount ? null : attemptCount.shortValue());
+        Long exitCode = toLong(exitCodes[i]);
+        task.setExitcode(null == exitCode ? null : exitCode.intValue());
+        task.setRetryAllowed((flags[i] & FLAG_RETRY_ALLOWED) != 0);
+        task.setAutoSkipOnFailure((flags[i] & FLAG_AUTO_SKIP_ON_FAILURE) != 0);
+        task.setBackgroundCommand((flags[i] & FLAG_BACKGROUND) != 0);
+        task.setEvent(events[i]);
+        task.setOutputLog(outputLogs[i]);
+        task.setErrorLog(errorLogs[i]);
+        task.setCommandDetail(commandDetails[i]);
+        task.setCustomCommandName(customCommandNames[i]);
+        task.setOpsDisplayName(opsDisplayNames[i]);
+        task.setStdOut(readBytes(in));
+        task.setStdError(readBytes(in));
+        task.setStructuredOut(readBytes(in));
+        tasks.add(task);
+      }
+    }
+    return tasks;
+  }
+
+  /**
+   * Summarizes the task statuses of a request per stage, the same way as
+   * {@link org.apache.shpurdp.server.orm.dao.HostRoleCommandDAO#findAggregateCounts(Long)}.
+   * Only the task columns are read.
+   *
+   * @param requestId the request id
+   * @return the summaries by stage id, empty if the request is not in the
+   *         segment
+   */
+  public Map<Long, HostRoleCommandStatusSummaryDTO> getAggregateCounts(long requestId) {
+    Integer index = requestIndexes.get(requestId);
+    if (null == index) {
+      return Collections.emptyMap();
+    }
+
+    Map<Long, List<Integer>> tasksByStage = new TreeMap<>();
+    for (int i = firstTasks[index]; i < firstTasks[index + 1]; i++) {
+      tasksByStage.computeIfAbsent(stageIds[i], stageId -> new ArrayList<>()).add(i);
+    }
+
+    Map<Long, HostRoleCommandStatusSummaryDTO> summaries = new HashMap<>();
+    for (Map.Entry<Long, List<Integer>> entry : tasksByStage.entrySet()) {
+      int skippable = 0;
+      Long minStartTime = null;
+      Long maxEndTime = null;
+      Map<HostRoleStatus, Integer> counts = new HashMap<>();
+      for (int i : entry.getValue()) {
+        if ((flags[i] & FLAG_SKIPPABLE) != 0) {
+          skippable = 1;
+        }
+        Long startTime = toLong(taskStartTimes[i]);
+        if (null != startTime && (null == minStartTime || startTime < minStartTime)) {
+          minStartTime = startTime;
+        }
+        Long endTime = toLong(taskEndTimes[i]);
+        if (null != endTime && (null == maxEndTime || endTime > maxEndTime)) {
+          maxEndTime = endTime;
+        }
+        counts.merge(HostRoleStatus.valueOf(taskStatuses[i]), 1, Integer::sum);
+      }
+
+      summaries.put(entry.getKey(), new HostRoleCommandStatusSummaryDTO(skippable, minStartTime, maxEndTime,
+          entry.getKey(), counts.get(HostRoleStatus.ABORTED), counts.get(HostRoleStatus.COMPLETED),
+          counts.get(HostRoleStatus.FAILED), counts.get(HostRoleStatus.HOLDING),
+          counts.get(HostRoleStatus.HOLDING_FAILED), counts.get(HostRoleStatus.HOLDING_TIMEDOUT),
+          counts.get(HostRoleStatus.IN_PROGRESS), counts.get(HostRoleStatus.PENDING),
+          counts.get(HostRoleStatus.QUEUED), counts.get(HostRoleStatus.TIMEDOUT),
+          counts.get(HostRoleStatus.SKIPPED_FAILED)));
+    }
+    return summaries;
+  }
+
+  /**
+   * Reads the columns of a segment file.
+   *
+   * @param file the segment file
+   * @return the segment
+   * @throws IOException if the file can not be read or is not a segment
+   */
+  public static RequestArchiveSegment open(File file) throws IOException {
+    RequestArchiveSegment segment = new RequestArchiveSegment(file);
+
+    byte[] columns;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      if (raf.length() < 8 + FOOTER_SIZE || raf.readInt() != MAGIC) {
+        throw new IOException("Not a request archive segment: " + file);
+      }
+      int version = raf.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported version " + version + " of request archive segment " + file);
+      }
+
+      raf.seek(raf.length() - FOOTER_SIZE);
+      long columnsOffset = raf.readLong();
+      int columnsLength = raf.readInt();
+      if (raf.readInt() != MAGIC) {
+        throw new IOException("Incomplete request archive segment: " + file);
+      }
+
+      columns = new byte[columnsLength];
+      raf.seek(columnsOffset);
+      raf.readFully(columns);
+    }
+
+    try (DataInputStream in = inflate(columns)) {
+      segment.readColumns(in);
+    }
+
+    for (int i = 0; i < segment.requestIds.length; i++) {
+      segment.requestIndexes.put(segment.requestIds[i], i);
+    }
+    return segment;
+  }
+
+  /**
+   * Writes requests with their stages and tasks into a new segment file. The
+   * file is written under a temporary name and renamed once it is complete.
+   *
+   * @param file     the segment file
+   * @param requests the requests
+   * @throws IOException if the file can not be written
+   */
+  public static void write(File file, Collection<RequestEntity> requests) throws IOException {
+    ColumnWriter columns = new ColumnWriter();
+    List<StageEntity> stages = new ArrayList<>();
+    List<HostRoleCommandEntity> tasks = new ArrayList<>();
+    List<RequestResourceFilterEntity> filters = new ArrayList<>();
+
+    File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmpFile))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      long offset = 8;
+
+      long[] outputOffsets = new long[requests.size()];
+      long[] outputLengths = new long[requests.size()];
+      long[] firstFilters = new long[requests.size() + 1];
+      long[] firstTasks = new long[requests.size() + 1];
+      int index = 0;
+      for (RequestEntity request : requests) {
+        firstFilters[index] = filters.size();
+        firstTasks[index] = tasks.size();
+        if (null != request.getResourceFilterEntities()) {
+          filters.addAll(request.getResourceFilterEntities());
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (DataOutputStream compressed = new DataOutputStream(new DeflaterOutputStream(output))) {
+          writeString(compressed, request.getClusterHostInfo());
+          List<StageEntity> requestStages = new ArrayList<>(request.getStages());
+          requestStages.sort((s1, s2) -> Long.compare(s1.getStageId(), s2.getStageId()));
+          for (StageEntity stage : requestStages) {
+            List<HostRoleCommandEntity> stageTasks = new ArrayList<>(stage.getHostRoleCommands());
+            stageTasks.sort((t1, t2) -> Long.compare(t1.getTaskId(), t2.getTaskId()));
+            for (HostRoleCommandEntity task : stageTasks) {
+              writeBytes(compressed, task.getStdOut());
+              writeBytes(compressed, task.getStdError());
+              writeBytes(compressed, task.getStructuredOut());
+              stages.add(stage);
+              tasks.add(task);
+            }
+          }
+        }
+        output.writeTo(out);
+        outputOffsets[index] = offset;
+        outputLengths[index] = output.size();
+        offset += output.size();
+        index++;
+      }
+      firstFilters[index] = filters.size();
+      firstTasks[index] = tasks.size();
+
+      columns.writeLongs(requests, RequestEntity::getRequestId);
+      columns.writeLongs(requests, RequestEntity::getClusterId);
+      columns.writeLongs(requests, RequestEntity::getRequestScheduleId);
+      columns.writeLongs(requests, RequestEntity::getCreateTime);
+      columns.writeLongs(requests, RequestEntity::getStartTime);
+      columns.writeLongs(requests, RequestEntity::getEndTime);
+      columns.writeStrings(requests, request -> name(request.getStatus()));
+      columns.writeStrings(requests, request -> name(request.getDisplayStatus()));
+      columns.writeStrings(requests, request -> name(request.getRequestType()));
+      columns.writeStrings(requests, RequestEntity::getRequestContext);
+      columns.writeStrings(requests, RequestEntity::getCommandName);
+      columns.writeStrings(requests, RequestEntity::getInputs);
+      columns.writeStrings(requests, RequestEntity::getUserName);
+      columns.writeLongs(requests, request -> Boolean.TRUE.equals(request.isExclusive()) ? 1L : 0L);
+      columns.writeLongs(firstFilters);
+      columns.writeLongs(firstTasks);
+      columns.writeLongs(outputOffsets);
+      columns.writeLongs(outputLengths);
+
+      columns.writeStrings(filters, RequestResourceFilterEntity::getServiceName);
+      columns.writeStrings(filters, RequestResourceFilterEntity::getComponentName);
+      columns.writeStrings(filters, RequestResourceFilterEntity::getHosts);
+
+      columns.writeLongs(tasks, HostRoleCommandEntity::getTaskId);
+      columns.writeLongs(tasks, HostRoleCommandEntity::getStageId);
+      columns.writeLongs(tasks, HostRoleCommandEntity::getHostId);
+      columns.writeStrings(tasks, HostRoleCommandEntity::getHostName);
+      columns.writeStrings(tasks, task -> name(task.getRole()));
+      columns.writeStrings(tasks, task -> name(task.getRoleCommand()));
+      columns.writeStrings(tasks, task -> name(task.getStatus()));
+      columns.writeLongs(tasks, HostRoleCommandEntity::getStartTime);
+      columns.writeLongs(tasks, HostRoleCommandEntity::getOriginalStartTime);
+      columns.writeLongs(tasks, HostRoleCommandEntity::getEndTime);
+      columns.writeLongs(tasks, HostRoleCommandEntity::getLastAttemptTime);
+      columns.writeLongs(tasks, task -> null == task.getAttemptCount() ? null : task.getAttemptCount().longValue());
+      columns.writeLongs(tasks, task -> null == task.getExitcode() ? null : task.getExitcode().longValue());
+      long[] taskFlags = new long[tasks.size()];
+      for (int i = 0; i < taskFlags.length; i++) {
+        HostRoleCommandEntity task = tasks.get(i);
+        taskFlags[i] = (stages.get(i).isSkippable() ? FLAG_SKIPPABLE : 0)
+            | (task.isRetryAllowed() ? FLAG_RETRY_ALLOWED : 0)
+            | (task.isFailureAutoSkipped() ? FLAG_AUTO_SKIP_ON_FAILURE : 0)
+            | (task.isBackgroundCommand() ? FLAG_BACKGROUND : 0);
+      }
+      columns.writeLongs(taskFlags);
+      columns.writeStrings(tasks, HostRoleCommandEntity::getEvent);
+      columns.writeStrings(tasks, HostRoleCommandEntity::getOutputLog);
+      columns.writeStrings(tasks, HostRoleCommandEntity::getErrorLog);
+      columns.writeStrings(tasks, HostRoleCommandEntity::getCommandDetail);
+      columns.writeStrings(tasks, HostRoleCommandEntity::getCustomCommandName);
+      columns.writeStrings(tasks, HostRoleCommandEntity::getOpsDisplayName);
+
+      ByteArrayOutputStream columnsBytes = new ByteArrayOutputStream();
+      try (DataOutputStream compressed = new DataOutputStream(new DeflaterOutputStream(columnsBytes))) {
+        compressed.writeInt(requests.size());
+        compressed.writeInt(filters.size());
+        compressed.writeInt(tasks.size());
+        columns.writeTo(compressed);
+      }
+      columnsBytes.writeTo(out);
+
+      out.writeLong(offset);
+      out.writeInt(columnsBytes.size());
+      out.writeInt(MAGIC);
+    } catch (IOException | RuntimeException e) {
+      tmpFile.delete();
+      throw e;
+    }
+
+    if (!tmpFile.renameTo(file)) {
+      tmpFile.delete();
+      throw new IOException("Unable to rename " + tmpFile + " to " + file);
+    }
+  }
+
+  private void readColumns(DataInputStream in) throws IOException {
+    int requestCount = in.readInt();
+    int filterCount = in.readInt();
+    int taskCount = in.readInt();
+    ColumnReader columns = new ColumnReader(in);
+
+    requestIds = columns.readLongs(requestCount);
+    clusterIds = columns.readLongs(requestCount);
+    requestScheduleIds = columns.readLongs(requestCount);
+    createTimes = columns.readLongs(requestCount);
+    requestStartTimes = columns.readLongs(requestCount);
+    requestEndTimes = columns.readLongs(requestCount);
+    requestStatuses = columns.readStrings(requestCount);
+    displayStatuses = columns.readStrings(requestCount);
+    requestTypes = columns.readStrings(requestCount);
+    requestContexts = columns.readStrings(requestCount);
+    commandNames = columns.readStrings(requestCount);
+    inputs = columns.readStrings(requestCount);
+    userNames = columns.readStrings(requestCount);
+    exclusive = toBytes(columns.readLongs(requestCount));
+    firstFilters = toInts(columns.readLongs(requestCount + 1));
+    firstTasks = toInts(columns.readLongs(requestCount + 1));
+    outputOffsets = columns.readLongs(requestCount);
+    outputLengths = toInts(columns.readLongs(requestCount));
+
+    filterServices = columns.readStrings(filterCount);
+    filterComponents = columns.readStrings(filterCount);
+    filterHosts = columns.readStrings(filterCount);
+
+    taskIds = columns.readLongs(taskCount);
+    stageIds = columns.readLongs(taskCount);
+    hostIds = columns.readLongs(taskCount);
+    hostNames = columns.readStrings(taskCount);
+    roles = columns.readStrings(taskCount);
+    roleCommands = columns.readStrings(taskCount);
+    taskStatuses = columns.readStrings(taskCount);
+    taskStartTimes = columns.readLongs(taskCount);
+    originalStartTimes = columns.readLongs(taskCount);
+    taskEndTimes = columns.readLongs(taskCount);
+    lastAttemptTimes = columns.readLongs(taskCount);
+    attemptCounts = columns.readLongs(taskCount);
+    exitCodes = columns.readLongs(taskCount);
+    flags = toBytes(columns.readLongs(taskCount));
+    events = columns.readStrings(taskCount);
+    outputLogs = columns.readStrings(taskCount);
+    errorLogs = columns.readStrings(taskCount);
+    commandDetails = columns.readStrings(taskCount);
+    customCommandNames = columns.readStrings(taskCount);
+    opsDisplayNames = columns.readStrings(taskCount);
+  }
+
+  private DataInputStream readOutput(int index) throws IOException {
+    byte[] output = new byte[outputLengths[index]];
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      raf.seek(outputOffsets[index]);
+      raf.readFully(output);
+    }
+    return inflate(output);
+  }
+
+  private static DataInputStream inflate(byte[] bytes) {
+    return new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)));
+  }
+
+  private static String name(Enum<?> value) {
+    return null == value ? null : value.name();
+  }
+
+  /**
+   * Nullable numbers are stored as {@link Long#MIN_VALUE}.
+   */
+  private static Long toLong(long value) {
+    return value == Long.MIN_VALUE ? null : value;
+  }
+
+  private static int[] toInts(long[] values) {
+    int[] ints = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      ints[i] = (int) values[i];
+    }
+    return ints;
+  }
+
+  private static byte[] toBytes(long[] values) {
+    byte[] bytes = new byte[values.length];
+    for (int i = 0; i < values.length; i++) {
+      bytes[i] = (byte) values[i];
+    }
+    return bytes;
+  }
+
+  private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+    if (null == bytes) {
+      writeVarLong(out, 0);
+    } else {
+      writeVarLong(out, bytes.length + 1);
+      out.write(bytes);
+    }
+  }
+
+  private static byte[] readBytes(DataInput in) throws IOException {
+    int length = (int) readVarLong(in) - 1;
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static void writeString(DataOutput out, String value) throws IOException {
+    writeBytes(out, null == value ? null : value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String readString(DataInput in) throws IOException {
+    byte[] bytes = readBytes(in);
+    return null == bytes ? null : new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes an unsigned number with 7 bits per byte.
+   */
+  private static void writeVarLong(DataOutput out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static long readVarLong(DataInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable length number");
+  }
+
+  /**
+   * Encodes the columns of a segment, the strings are collected into a
+   * dictionary which is written before the columns.
+   */
+  private static final class ColumnWriter {
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    private <T> void writeLongs(Collection<T> rows, Function<T, Long> column) throws IOException {
+      long[] values = new long[rows.size()];
+      int i = 0;
+      for (T row : rows) {
+        Long value = column.apply(row);
+        values[i++] = null == value ? Long.MIN_VALUE : value;
+      }
+      writeLongs(values);
+    }
+
+    /**
+     * Stores the difference to the previous value, zig-zag encoded so that
+     * small negative differences are short too.
+     */
+    private void writeLongs(long[] values) throws IOException {
+      long previous = 0;
+      for (long value : values) {
+        long delta = value - previous;
+        writeVarLong(out, (delta << 1) ^ (delta >> 63));
+        previous = value;
+      }
+    }
+
+    private <T> void writeStrings(Collection<T> rows, Function<T, String> column) throws IOException {
+      for (T row : rows) {
+        String value = column.apply(row);
+        if (null == value) {
+          writeVarLong(out, 0);
+        } else {
+          Integer reference = dictionary.get(value);
+          if (null == reference) {
+            reference = strings.size();
+            dictionary.put(value, reference);
+            strings.add(value);
+          }
+          writeVarLong(out, reference + 1);
+        }
+      }
+    }
+
+    private void writeTo(DataOutputStream target) throws IOException {
+      out.flush();
+      target.writeInt(strings.size());
+      for (String value : strings) {
+        writeString(target, value);
+      }
+      bytes.writeTo(target);
+    }
+  }
+
+  /**
+   * Decodes the columns written by {@link ColumnWriter}.
+   */
+  private static final class ColumnReader {
+    private final DataInputStream in;
+    private final String[] dictionary;
+
+    private ColumnReader(DataInputStream in) throws IOException {
+      this.in = in;
+      dictionary = new String[in.readInt()];
+      for (int i = 0; i < dictionary.length; i++) {
+        dictionary[i] = readString(in);
+      }
+    }
+
+    private long[] readLongs(int count) throws IOException {
+      long[] values = new long[count];
+      long previous = 0;
+      for (int i = 0; i < count; i++) {
+        long encoded = readVarLong(in);
+        previous += (encoded >>> 1) ^ -(encoded & 1);
+        values[i] = previous;
+      }
+      return values;
+    }
+
+    private String[] readStrings(int count) throws IOException {
+      String[] values = new String[count];
+      for (int i = 0; i < count; i++) {
+        int reference = (int) readVarLong(in);
+        values[i] = reference == 0 ? null : dictionary[reference - 1];
+      }
+      return values;
+    }
+  }
+}
@@ -24,6 +24,7 @@ public class TimeBasedCleanupPolicy {
 
   private String clusterName;
   private Long toDateInMillis;
+  private PurgePolicy purgePolicy;
 
   /**
    * Constructs an instance based on the given arguments.
@@ -32,8 +33,20 @@ public class TimeBasedCleanupPolicy {
    * @param toDateInMillis timestamp before that entities are purged.
    */
   public TimeBasedCleanupPolicy(String clusterName, Long toDateInMillis) {
+    this(clusterName, toDateInMillis, PurgePolicy.DELETE);
+  }
+
+  /**
+   * Constructs an instance based on the given arguments.
+   *
+   * @param clusterName    the cluster name
+   * @param toDateInMillis timestamp before that entities are purged.
+   * @param purgePolicy    whether the entities are deleted or archived
+   */
+  public TimeBasedCleanupPolicy(String clusterName, Long toDateInMillis, PurgePolicy purgePolicy) {
     this.clusterName = clusterName;
     this.toDateInMillis = toDateInMillis;
+    this.purgePolicy = purgePolicy;
   }
 
   /**
@@ -56,6 +69,6 @@ public class TimeBasedCleanupPolicy {
    * @return The used purge policy
    */
   public PurgePolicy getPurgePolicy() {
-    return PurgePolicy.DELETE;
+    return purgePolicy;
   }
 }
@@ -1573,6 +1573,46 @@ public class Configuration {
   public static final ConfigurationProperty<Long> EXECUTION_SCHEDULER_WAIT = new ConfigurationProperty<>(
       "server.execution.scheduler.wait", 1L);
 
+  /**
+   * Determines whether the action scheduler is woken up by task, request and
+   * host events instead of polling the database on every
+   * {@link #EXECUTION_SCHEDULER_WAIT} interval.
+   */
+  @Markdown(description = "Determines whether the action scheduler reacts to task status changes, new requests and host state changes instead of checking for commands to schedule on every `server.execution.scheduler.wait` interval.")
+  public static final ConfigurationProperty<Boolean> EXECUTION_SCHEDULER_EVENT_DRIVEN = new ConfigurationProperty<>(
+      "server.execution.scheduler.event.driven", Boolean.TRUE);
+
+  /**
+   * The maximum time that the event driven action scheduler stays idle before
+   * checking for commands to schedule. Measure in {@link TimeUnit#SECONDS}.
+   */
+  @Markdown(description = "The maximum time, in seconds, that the event driven action scheduler will stay idle when no events have been received before checking for commands to schedule.")
+  public static final ConfigurationProperty<Integer> EXECUTION_SCHEDULER_MAX_IDLE = new ConfigurationProperty<>(
+      "server.execution.scheduler.max.idle.seconds", 30);
+
+  /**
+   * Determines whether large parts of execution commands are stored once per
+   * request as compressed, content addressed fragments.
+   */
+  @Markdown(description = "Determines whether the parts of execution commands which are shared between the commands of a request, such as the cluster host info, are stored only once per request in a compressed form.")
+  public static final ConfigurationProperty<Boolean> EXECUTION_COMMAND_FRAGMENTS_ENABLED = new ConfigurationProperty<>(
+      "server.execution.command.fragments.enabled", Boolean.TRUE);
+
+  /**
+   * The minimum size of a serialized execution command element, in characters,
+   * to be stored as a shared fragment.
+   */
+  @Markdown(description = "The minimum size, in characters, of a top level element of an execution command to be stored as a shared fragment.")
+  public static final ConfigurationProperty<Integer> EXECUTION_COMMAND_FRAGMENT_MIN_SIZE = new ConfigurationProperty<>(
+      "server.execution.command.fragment.min.size", 1024);
+
+  /**
+   * The number of decoded execution command fragments to keep in memory.
+   */
+  @Markdown(description = "The number of decoded execution command fragments which are cached in memory.")
+  public static final ConfigurationProperty<Integer> EXECUTION_COMMAND_FRAGMENT_CACHE_SIZE = new ConfigurationProperty<>(
+      "server.execution.command.fragment.cache.size", 1000);
+
   /**
    * The location on the Shpurdp Server where temporary artifacts can be created.
    */
@@ -1729,6 +1769,15 @@ public class Configuration {
   public static final ConfigurationProperty<Boolean> PARALLEL_STAGE_EXECUTION = new ConfigurationProperty<>(
       "server.stages.parallel", Boolean.TRUE);
 
+  /**
+   * The number of threads which process stages of different requests and
+   * build the execution commands of their hosts concurrently. A value of
+   * {@code 1} keeps processing stages one by one in the scheduler thread.
+   */
+  @Markdown(description = "The number of threads used by the action scheduler to process stages of different requests and to build execution commands of their hosts concurrently. Applies only when `server.stages.parallel` is enabled. A value of `1` processes stages one by one.")
+  public static final ConfigurationProperty<Integer> PARALLEL_STAGE_DISPATCH_THREADS = new ConfigurationProperty<>(
+      "server.stages.parallel.dispatch.threads", 1);
+
   /**
    *
    * Property driving the view extraction.
@@ -1892,6 +1941,55 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> SUBSCRIPTION_REGISTRY_CACHE_MAX_SIZE = new ConfigurationProperty<>(
       "subscription.registry.cache.size", 1500);
 
+  /**
+   * Maximal amount of serialized broadcast STOMP events kept to be reused by agent and API message brokers.
+   */
+  @Markdown(description = "Maximal amount of serialized broadcast STOMP events kept to be reused by agent and API message brokers.")
+  public static final ConfigurationProperty<Integer> STOMP_PAYLOAD_CACHE_MAX_SIZE = new ConfigurationProperty<>(
+      "stomp.payload.cache.size", 500);
+
+  /**
+   * Amount of threads dispatching agent STOMP events, events for the same host are always dispatched in order.
+   */
+  @Markdown(description = "Amount of threads dispatching agent STOMP events, events for the same host are always dispatched in order.")
+  public static final ConfigurationProperty<Integer> STOMP_AGENT_BUS_PARTITIONS = new ConfigurationProperty<>(
+      "stomp.agent.bus.partitions", 4);
+
+  /**
+   * Amount of threads dispatching API STOMP events, events for the same topic are always dispatched in order.
+   */
+  @Markdown(description = "Amount of threads dispatching API STOMP events, events for the same topic are always dispatched in order.")
+  public static final ConfigurationProperty<Integer> STOMP_API_BUS_PARTITIONS = new ConfigurationProperty<>(
+      "stomp.api.bus.partitions", 4);
+
+  /**
+   * Time in seconds serialized broadcast STOMP event is kept in cache after serialization.
+   */
+  @Markdown(description = "Time in seconds serialized broadcast STOMP event is kept in cache after serialization.")
+  public static final ConfigurationProperty<Integer> STOMP_PAYLOAD_CACHE_EXPIRATION = new ConfigurationProperty<>(
+      "stomp.payload.cache.expiration", 30);
+
+  /**
+   * Minimal delay in milliseconds buffered STOMP updates are collected before merging and posting.
+   */
+  @Markdown(description = "Minimal delay in milliseconds buffered STOMP updates (host components, services, requests) are collected before merging and posting. Is used while the updates rate is low.")
+  public static final ConfigurationProperty<Integer> STOMP_BUFFERED_PUBLISHERS_MIN_DELAY = new ConfigurationProperty<>(
+      "stomp.buffered.publishers.min.delay", 100);
+
+  /**
+   * Maximal delay in milliseconds buffered STOMP updates are collected before merging and posting.
+   */
+  @Markdown(description = "Maximal delay in milliseconds buffered STOMP updates (host components, services, requests) are collected before merging and posting. Is reached under bursts of updates.")
+  public static final ConfigurationProperty<Integer> STOMP_BUFFERED_PUBLISHERS_MAX_DELAY = new ConfigurationProperty<>(
+      "stomp.buffered.publishers.max.delay", 1000);
+
+  /**
+   * Amount of buffered STOMP updates causing the buffer to be merged and posted without waiting for delay.
+   */
+  @Markdown(description = "Amount of buffered STOMP updates causing the buffer to be merged and posted without waiting for the delay.")
+  public static final ConfigurationProperty<Integer> STOMP_BUFFERED_PUBLISHERS_BATCH_SIZE = new ConfigurationProperty<>(
+      "stomp.buffered.publishers.batch.size", 1000);
+
   /**
    * Queue size for agents in registration.
    */
@@ -1921,6 +2019,42 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> AGENTS_REPORT_THREAD_POOL_SIZE = new ConfigurationProperty<>(
       "agents.reports.thread.pool.size", 10);
 
+  /**
+   * Max amount of reports of a single host waiting for processing.
+   */
+  @Markdown(description = "Max amount of reports of a single host waiting for processing. Status reports arriving to a full queue are merged into the pending ones, other reports are rejected, so the agent sends them again.")
+  public static final ConfigurationProperty<Integer> AGENTS_REPORT_HOST_QUEUE_SIZE = new ConfigurationProperty<>(
+      "agents.reports.host.queue.size", 100);
+
+  /**
+   * Whether component and host status reports waiting for processing are merged with newer ones.
+   */
+  @Markdown(description = "Whether component and host status reports waiting for processing are merged with newer status reports of the same host, so only the latest state of each component is processed.")
+  public static final ConfigurationProperty<Boolean> AGENTS_REPORT_STATUS_COALESCING_ENABLED = new ConfigurationProperty<>(
+      "agents.reports.status.coalescing.enabled", true);
+
+  /**
+   * The time, in milliseconds, command reports are accumulated before their task updates are written.
+   */
+  @Markdown(description = "The time, in milliseconds, command reports received from all agents are accumulated before the task status updates are written to the database in a single transaction. A value of 0 writes the reports of every agent message separately.")
+  public static final ConfigurationProperty<Integer> AGENTS_COMMAND_REPORTS_BATCH_WINDOW = new ConfigurationProperty<>(
+      "agents.reports.commands.batch.window", 100);
+
+  /**
+   * The amount of accumulated command reports which are written without waiting for the window.
+   */
+  @Markdown(description = "The amount of accumulated command reports which are written to the database without waiting for agents.reports.commands.batch.window.")
+  public static final ConfigurationProperty<Integer> AGENTS_COMMAND_REPORTS_BATCH_SIZE = new ConfigurationProperty<>(
+      "agents.reports.commands.batch.size", 500);
+
+  /**
+   * The directory holding the segments of archived requests.
+   */
+  @Markdown(description = "The directory holding the segment files of requests archived by the database purge "
+      + "with the `ARCHIVE` purge policy. Archived requests and their tasks are still readable through the REST API.")
+  public static final ConfigurationProperty<String> REQUEST_ARCHIVE_DIR = new ConfigurationProperty<>(
+      "server.requests.archive.dir", ShpurdpPath.getPath("/var/lib/shpurdp-server/archive/requests"));
+
   /**
    * Server to API STOMP endpoint heartbeat interval in milliseconds.
    */
@@ -2246,6 +2380,27 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> ALERTS_CACHE_SIZE = new ConfigurationProperty<>(
       "alerts.cache.size", 50000);
 
+  /**
+   * The time, in milliseconds, alert state changes are accumulated before being written to the database.
+   */
+  @Markdown(description = "The time, in milliseconds, alert state changes received from agents are accumulated before being written to the database in a single transaction. A value of 0 writes the changes of every alert event separately.")
+  public static final ConfigurationProperty<Integer> ALERTS_WRITE_BATCH_WINDOW = new ConfigurationProperty<>(
+      "alerts.write.batch.window", 250);
+
+  /**
+   * The amount of accumulated alert state changes which are written to the database without waiting for the window.
+   */
+  @Markdown(description = "The amount of accumulated alert state changes which are written to the database without waiting for alerts.write.batch.window.")
+  public static final ConfigurationProperty<Integer> ALERTS_WRITE_BATCH_SIZE = new ConfigurationProperty<>(
+      "alerts.write.batch.size", 1000);
+
+  /**
+   * Determines whether alert summaries are calculated from the in-memory index of current alerts.
+   */
+  @Markdown(description = "Determines whether alert summaries and alert state counts are calculated from the in-memory index of current alerts instead of querying the database.")
+  public static final ConfigurationProperty<Boolean> ALERTS_SUMMARY_INDEX_ENABLED = new ConfigurationProperty<>(
+      "alerts.summary.index.enabled", Boolean.TRUE);
+
   /**
    * When using SSL, this will be used to set the {@code Strict-Transport-Security} response header.
    */
@@ -2686,6 +2841,10 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> AGENT_COMMAND_PUBLISHER_THREADPOOL_SIZE = new ConfigurationProperty<>(
     "server.pools.agent.command.publisher.size", 5);
 
+  @Markdown(description = "The Agent configs fan-out pool. Affects degree of parallelization for generating and publishing the configs to hosts on cluster configs change.")
+  public static final ConfigurationProperty<Integer> AGENT_CONFIGS_FANOUT_THREADPOOL_SIZE = new ConfigurationProperty<>(
+    "server.pools.agent.configs.fanout.size", 5);
+
   @Markdown(description = "Configures size of the default JOIN Fork pool used for Streams.")
   public static final ConfigurationProperty<Integer> DEFAULT_FORK_JOIN_THREADPOOL_SIZE = new ConfigurationProperty<>(
     "server.pools.default.size", 5);
@@ -4671,6 +4830,41 @@ public class Configuration {
     return sleepTime*1000;
   }
 
+  /**
+   * Gets whether the action scheduler is driven by task, request and host events.
+   */
+  public boolean isExecutionSchedulerEventDriven() {
+    return Boolean.parseBoolean(getProperty(EXECUTION_SCHEDULER_EVENT_DRIVEN));
+  }
+
+  /**
+   * Gets the maximum idle time of the event driven action scheduler in milliseconds.
+   */
+  public long getExecutionSchedulerMaxIdle() {
+    return TimeUnit.SECONDS.toMillis(Integer.parseInt(getProperty(EXECUTION_SCHEDULER_MAX_IDLE)));
+  }
+
+  /**
+   * Gets whether execution commands are stored as compressed, shared fragments.
+   */
+  public boolean isExecutionCommandFragmentsEnabled() {
+    return Boolean.parseBoolean(getProperty(EXECUTION_COMMAND_FRAGMENTS_ENABLED));
+  }
+
+  /**
+   * Gets the minimum size of an execution command element stored as a shared fragment.
+   */
+  public int getExecutionCommandFragmentMinSize() {
+    return Integer.parseInt(getProperty(EXECUTION_COMMAND_FRAGMENT_MIN_SIZE));
+  }
+
+  /**
+   * Gets the number of decoded execution command fragments cached in memory.
+   */
+  public int getExecutionCommandFragmentCacheSize() {
+    return Integer.parseInt(getProperty(EXECUTION_COMMAND_FRAGMENT_CACHE_SIZE));
+  }
+
   public Integer getExternalScriptTimeout() {
     return Integer.parseInt(getProperty(EXTERNAL_SCRIPT_TIMEOUT));
   }
@@ -4689,6 +4883,13 @@ public class Configuration {
     return Boolean.parseBoolean(configsMap.get(PARALLEL_STAGE_EXECUTION.getKey()));
   }
 
+  /**
+   * @return the number of threads the action scheduler processes stages of different requests with
+   */
+  public int getParallelStageDispatchThreads() {
+    return Integer.parseInt(getProperty(PARALLEL_STAGE_DISPATCH_THREADS));
+  }
+
   public String getCustomActionDefinitionPath() {
     return getProperty(CUSTOM_ACTION_DEFINITION);
   }
@@ -4794,6 +4995,55 @@ public class Configuration {
     return Integer.parseInt(getProperty(SUBSCRIPTION_REGISTRY_CACHE_MAX_SIZE));
   }
 
+  /**
+   * @return max amount of serialized broadcast STOMP events in cache.
+   */
+  public int getStompPayloadCacheSize() {
+    return Integer.parseInt(getProperty(STOMP_PAYLOAD_CACHE_MAX_SIZE));
+  }
+
+  /**
+   * @return amount of threads dispatching agent STOMP events.
+   */
+  public int getStompAgentBusPartitions() {
+    return Integer.parseInt(getProperty(STOMP_AGENT_BUS_PARTITIONS));
+  }
+
+  /**
+   * @return amount of threads dispatching API STOMP events.
+   */
+  public int getStompApiBusPartitions() {
+    return Integer.parseInt(getProperty(STOMP_API_BUS_PARTITIONS));
+  }
+
+  /**
+   * @return time in seconds serialized broadcast STOMP event is kept in cache.
+   */
+  public int getStompPayloadCacheExpiration() {
+    return Integer.parseInt(getProperty(STOMP_PAYLOAD_CACHE_EXPIRATION));
+  }
+
+  /**
+   * @return minimal delay in milliseconds buffered STOMP updates are collected before posting.
+   */
+  public int getBufferedPublisherMinFlushDelay() {
+    return Integer.parseInt(getProperty(STOMP_BUFFERED_PUBLISHERS_MIN_DELAY));
+  }
+
+  /**
+   * @return maximal delay in milliseconds buffered STOMP updates are collected before posting.
+   */
+  public int getBufferedPublisherMaxFlushDelay() {
+    return Integer.parseInt(getProperty(STOMP_BUFFERED_PUBLISHERS_MAX_DELAY));
+  }
+
+  /**
+   * @return amount of buffered STOMP updates causing immediate posting.
+   */
+  public int getBufferedPublisherFlushThreshold() {
+    return Integer.parseInt(getProperty(STOMP_BUFFERED_PUBLISHERS_BATCH_SIZE));
+  }
+
   /**
    * @return queue size for agents in registration.
    */
@@ -4823,6 +5073,41 @@ public class Configuration {
     return Integer.parseInt(getProperty(AGENTS_REPORT_THREAD_POOL_SIZE));
   }
 
+  /**
+   * @return max amount of reports of a single host waiting for processing.
+   */
+  public int getAgentsReportHostQueueSize() {
+    return Integer.parseInt(getProperty(AGENTS_REPORT_HOST_QUEUE_SIZE));
+  }
+
+  /**
+   * @return true if pending status reports are merged with newer ones.
+   */
+  public boolean isAgentsReportStatusCoalescingEnabled() {
+    return Boolean.parseBoolean(getProperty(AGENTS_REPORT_STATUS_COALESCING_ENABLED));
+  }
+
+  /**
+   * @return the time, in milliseconds, command reports are accumulated before being written.
+   */
+  public int getAgentsCommandReportsBatchWindow() {
+    return Integer.parseInt(getProperty(AGENTS_COMMAND_REPORTS_BATCH_WINDOW));
+  }
+
+  /**
+   * @return the amount of accumulated command reports causing immediate write.
+   */
+  public int getAgentsCommandReportsBatchSize() {
+    return Integer.parseInt(getProperty(AGENTS_COMMAND_REPORTS_BATCH_SIZE));
+  }
+
+  /**
+   * @return the directory holding the segments of archived requests
+   */
+  public String getRequestArchiveDir() {
+    return getProperty(REQUEST_ARCHIVE_DIR);
+  }
+
   /**
    * @return server to API STOMP endpoint heartbeat interval in milliseconds.
    */
@@ -5411,6 +5696,27 @@ public class Configuration {
     return Integer.parseInt(getProperty(ALERTS_CACHE_SIZE));
   }
 
+  /**
+   * Gets the time, in milliseconds, alert state changes are accumulated before being written to the database.
+   */
+  public int getAlertWriteBatchWindow() {
+    return Integer.parseInt(getProperty(ALERTS_WRITE_BATCH_WINDOW));
+  }
+
+  /**
+   * Gets the amount of accumulated alert state changes causing immediate write to the database.
+   */
+  public int getAlertWriteBatchSize() {
+    return Integer.parseInt(getProperty(ALERTS_WRITE_BATCH_SIZE));
+  }
+
+  /**
+   * Gets whether alert summaries are calculated from the in-memory index of current alerts.
+   */
+  public boolean isAlertSummaryIndexEnabled() {
+    return Boolean.parseBoolean(getProperty(ALERTS_SUMMARY_INDEX_ENABLED));
+  }
+
   /**
    * Get the shpurdp display URL
    * @return
@@ -5733,6 +6039,13 @@ public class Configuration {
     return Integer.parseInt(getProperty(AGENT_COMMAND_PUBLISHER_THREADPOOL_SIZE));
   }
 
+  /**
+   * Determines the amount of threads dedicated for {@link org.apache.shpurdp.server.agent.stomp.AgentConfigsHolder} fan-out
+   */
+  public int getAgentConfigsFanOutThreadPoolSize() {
+    return Integer.parseInt(getProperty(AGENT_CONFIGS_FANOUT_THREADPOOL_SIZE));
+  }
+
   /**
    * Determines the amount of threads used by default ForJoin Pool
    */
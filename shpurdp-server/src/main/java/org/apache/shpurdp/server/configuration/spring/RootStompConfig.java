@@ -27,6 +27,7 @@ import org.apache.shpurdp.server.agent.AgentSessionManager;
 import org.apache.shpurdp.server.agent.stomp.ShpurdpSubscriptionRegistry;
 import org.apache.shpurdp.server.api.ShpurdpSendToMethodReturnValueHandler;
 import org.apache.shpurdp.server.events.DefaultMessageEmitter;
+import org.apache.shpurdp.server.events.STOMPPayloadCache;
 import org.apache.shpurdp.server.events.publishers.ShpurdpEventPublisher;
 import org.eclipse.jetty.websocket.server.WebSocketServerFactory;
 import org.slf4j.Logger;
@@ -70,6 +71,7 @@ public class RootStompConfig {
     return new DefaultMessageEmitter(injector.getInstance(AgentSessionManager.class),
         brokerTemplate,
         injector.getInstance(ShpurdpEventPublisher.class),
+        injector.getInstance(STOMPPayloadCache.class),
         configuration.getExecutionCommandsRetryCount(),
         configuration.getExecutionCommandsRetryInterval());
   }
@@ -122,6 +122,7 @@ import org.apache.shpurdp.server.state.ServiceInfo;
 import org.apache.shpurdp.server.state.StackId;
 import org.apache.shpurdp.server.state.State;
 import org.apache.shpurdp.server.state.ValueAttributesInfo;
+import org.apache.shpurdp.server.state.cluster.ClusterHostInfoSnapshotService;
 import org.apache.shpurdp.server.state.kerberos.AbstractKerberosDescriptorContainer;
 import org.apache.shpurdp.server.state.kerberos.KerberosComponentDescriptor;
 import org.apache.shpurdp.server.state.kerberos.KerberosConfigurationDescriptor;
@@ -178,6 +179,9 @@ public class KerberosHelperImpl implements KerberosHelper {
   @Inject
   private ShpurdpMetaInfo shpurdpMetaInfo;
 
+  @Inject
+  private ClusterHostInfoSnapshotService clusterHostInfoSnapshotService;
+
   @Inject
   private ActionManager actionManager;
 
@@ -2345,8 +2349,7 @@ public class KerberosHelperImpl implements KerberosHelper {
     // Always set up the necessary stages to perform the tasks needed to complete the operation.
     // Some stages may be no-ops, this is expected.
     // Gather data needed to create stages and tasks...
-    Map<String, Set<String>> clusterHostInfo = StageUtils.getClusterHostInfo(cluster);
-    String clusterHostInfoJson = StageUtils.getGson().toJson(clusterHostInfo);
+    String clusterHostInfoJson = clusterHostInfoSnapshotService.getSnapshot(cluster).getJson();
 
     @Experimental(feature = ExperimentalFeature.MULTI_SERVICE, comment = "The cluster stack id is deprecated")
     Map<String, String> hostParams = customCommandExecutionHelper.createDefaultHostParams(cluster, cluster.getDesiredStackVersion());
@@ -2513,8 +2516,7 @@ public class KerberosHelperImpl implements KerberosHelper {
       // Always set up the necessary stages to perform the tasks needed to complete the operation.
       // Some stages may be no-ops, this is expected.
       // Gather data needed to create stages and tasks...
-      Map<String, Set<String>> clusterHostInfo = StageUtils.getClusterHostInfo(cluster);
-      String clusterHostInfoJson = StageUtils.getGson().toJson(clusterHostInfo);
+      String clusterHostInfoJson = clusterHostInfoSnapshotService.getSnapshot(cluster).getJson();
 
       @Experimental(feature = ExperimentalFeature.MULTI_SERVICE, comment = "The cluster stack id is deprecated")
       Map<String, String> hostParams = customCommandExecutionHelper.createDefaultHostParams(cluster, cluster.getDesiredStackVersion());
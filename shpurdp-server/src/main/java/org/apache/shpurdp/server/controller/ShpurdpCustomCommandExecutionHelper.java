@@ -92,6 +92,7 @@ import org.apache.shpurdp.server.state.ServiceInfo;
 import org.apache.shpurdp.server.state.StackId;
 import org.apache.shpurdp.server.state.StackInfo;
 import org.apache.shpurdp.server.state.State;
+import org.apache.shpurdp.server.state.cluster.ClusterHostInfoSnapshotService;
 import org.apache.shpurdp.server.state.svccomphost.ServiceComponentHostOpInProgressEvent;
 import org.apache.shpurdp.server.utils.StageUtils;
 import org.apache.commons.lang.StringUtils;
@@ -146,6 +147,9 @@ public class ShpurdpCustomCommandExecutionHelper {
   @Inject
   private Gson gson;
 
+  @Inject
+  private ClusterHostInfoSnapshotService clusterHostInfoSnapshotService;
+
   @Inject
   private Configuration configs;
 
@@ -984,8 +988,7 @@ public class ShpurdpCustomCommandExecutionHelper {
         clusterName, actionExecutionContext.getActionName(), resourceFilters
       );
 
-      String clusterHostInfoJson = StageUtils.getGson().toJson(
-          StageUtils.getClusterHostInfo(cluster));
+      String clusterHostInfoJson = clusterHostInfoSnapshotService.getSnapshot(cluster).getJson();
 
       // Reset cluster host info as it has changed
       if (executeCommandJson != null) {
@@ -1182,11 +1185,10 @@ public class ShpurdpCustomCommandExecutionHelper {
 
     Map<String, String> commandParamsStage = StageUtils.getCommandParamsStage(actionExecContext, requestContext);
     Map<String, String> hostParamsStage = new HashMap<>();
-    Map<String, Set<String>> clusterHostInfo;
     String clusterHostInfoJson = "{}";
 
     if (null != cluster) {
-      clusterHostInfo = StageUtils.getClusterHostInfo(cluster);
+      clusterHostInfoJson = clusterHostInfoSnapshotService.getSnapshot(cluster).getJson();
 
       // Important, because this runs during Stack Uprade, it needs to use the effective Stack Id.
       hostParamsStage = createDefaultHostParams(cluster, stackId);
@@ -1214,8 +1216,6 @@ public class ShpurdpCustomCommandExecutionHelper {
         String clientsToUpdateConfigs = gson.toJson(clientsToUpdateConfigsList);
         hostParamsStage.put(CLIENTS_TO_UPDATE_CONFIGS, clientsToUpdateConfigs);
       }
-
-      clusterHostInfoJson = StageUtils.getGson().toJson(clusterHostInfo);
     }
 
     String hostParamsStageJson = StageUtils.getGson().toJson(hostParamsStage);
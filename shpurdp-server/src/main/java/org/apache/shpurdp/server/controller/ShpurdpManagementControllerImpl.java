@@ -229,6 +229,7 @@ import org.apache.shpurdp.server.state.StackId;
 import org.apache.shpurdp.server.state.StackInfo;
 import org.apache.shpurdp.server.state.State;
 import org.apache.shpurdp.server.state.UnlimitedKeyJCERequirement;
+import org.apache.shpurdp.server.state.cluster.ClusterHostInfoSnapshotService;
 import org.apache.shpurdp.server.state.configgroup.ConfigGroupFactory;
 import org.apache.shpurdp.server.state.fsm.InvalidStateTransitionException;
 import org.apache.shpurdp.server.state.quicklinksprofile.QuickLinkVisibilityController;
@@ -320,6 +321,8 @@ public class ShpurdpManagementControllerImpl implements ShpurdpManagementControl
   @Inject
   private StageFactory stageFactory;
   @Inject
+  private ClusterHostInfoSnapshotService clusterHostInfoSnapshotService;
+  @Inject
   private RequestFactory requestFactory;
   @Inject
   private ActionMetadata actionMetadata;
@@ -2917,9 +2920,7 @@ public class ShpurdpManagementControllerImpl implements ShpurdpManagementControl
 
       // FIXME cannot work with a single stage
       // multiple stages may be needed for reconfigure
-      Map<String, Set<String>> clusterHostInfo = StageUtils.getClusterHostInfo(cluster);
-
-      String clusterHostInfoJson = StageUtils.getGson().toJson(clusterHostInfo);
+      String clusterHostInfoJson = clusterHostInfoSnapshotService.getSnapshot(cluster).getJson();
 
       Stage stage = createNewStage(requestStages.getLastStageId(), cluster,
           requestStages.getId(), requestProperties.get(RequestResourceProvider.CONTEXT),
@@ -3993,6 +3994,10 @@ public class ShpurdpManagementControllerImpl implements ShpurdpManagementControl
 
     if (Boolean.TRUE.equals(request.getIsCurrent()) && serviceName != null) {
       serviceConfigVersionResponses.addAll(cluster.getActiveServiceConfigVersionResponse(serviceName));
+    } else if (serviceName != null) {
+      // only the versions of the service are read, instead of those of every
+      // service in the cluster together with their configurations
+      serviceConfigVersionResponses.addAll(cluster.getServiceConfigVersions(serviceName));
     } else {
       serviceConfigVersionResponses.addAll(cluster.getServiceConfigVersions());
     }
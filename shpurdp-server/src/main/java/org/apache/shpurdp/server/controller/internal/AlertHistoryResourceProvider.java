@@ -27,6 +27,7 @@ import java.util.Set;
 
 import org.apache.shpurdp.server.ShpurdpException;
 import org.apache.shpurdp.server.StaticallyInject;
+import org.apache.shpurdp.server.api.query.JpaPushDown;
 import org.apache.shpurdp.server.controller.AlertHistoryRequest;
 import org.apache.shpurdp.server.controller.ShpurdpManagementController;
 import org.apache.shpurdp.server.controller.spi.ExtendedResourceProvider;
@@ -44,6 +45,7 @@ import org.apache.shpurdp.server.orm.dao.AlertDefinitionDAO;
 import org.apache.shpurdp.server.orm.dao.AlertsDAO;
 import org.apache.shpurdp.server.orm.entities.AlertDefinitionEntity;
 import org.apache.shpurdp.server.orm.entities.AlertHistoryEntity;
+import org.apache.shpurdp.server.orm.entities.AlertHistoryEntity_;
 import org.apache.shpurdp.server.orm.entities.ClusterEntity;
 import org.apache.commons.lang.StringUtils;
 
@@ -220,11 +222,11 @@ public class AlertHistoryResourceProvider extends ReadOnlyResourceProvider imple
       throws SystemException, UnsupportedPropertyException,
       NoSuchResourceException, NoSuchParentResourceException {
 
-    return new QueryResponseImpl(
-        getResources(request, predicate),
-        request.getSortRequest() != null,
-        request.getPageRequest() != null,
-        s_dao.getCount(predicate));
+    // the results are only sorted and paged by JPA when the translation is
+    // exact; only the part of the predicate JPA did not apply is left
+    Set<Resource> resources = getResources(request, predicate);
+    return JpaPushDown.getQueryResponse(resources, request, predicate,
+        AlertHistoryEntity_.getPredicateMapping(), () -> s_dao.getCount(predicate));
   }
 
   /**
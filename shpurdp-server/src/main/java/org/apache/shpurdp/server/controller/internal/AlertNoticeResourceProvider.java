@@ -27,6 +27,7 @@ import java.util.Set;
 
 import org.apache.shpurdp.server.ShpurdpException;
 import org.apache.shpurdp.server.StaticallyInject;
+import org.apache.shpurdp.server.api.query.JpaPushDown;
 import org.apache.shpurdp.server.controller.AlertNoticeRequest;
 import org.apache.shpurdp.server.controller.ShpurdpManagementController;
 import org.apache.shpurdp.server.controller.spi.ExtendedResourceProvider;
@@ -44,6 +45,7 @@ import org.apache.shpurdp.server.orm.dao.AlertDispatchDAO;
 import org.apache.shpurdp.server.orm.entities.AlertDefinitionEntity;
 import org.apache.shpurdp.server.orm.entities.AlertHistoryEntity;
 import org.apache.shpurdp.server.orm.entities.AlertNoticeEntity;
+import org.apache.shpurdp.server.orm.entities.AlertNoticeEntity_;
 import org.apache.shpurdp.server.orm.entities.AlertTargetEntity;
 import org.apache.shpurdp.server.orm.entities.ClusterEntity;
 import org.apache.commons.lang.StringUtils;
@@ -195,11 +197,11 @@ public class AlertNoticeResourceProvider extends AbstractControllerResourceProvi
       throws SystemException, UnsupportedPropertyException,
       NoSuchResourceException, NoSuchParentResourceException {
 
-    return new QueryResponseImpl(
-        getResources(request, predicate),
-        request.getSortRequest() != null,
-        request.getPageRequest() != null,
-        s_dao.getNoticesCount(predicate));
+    // the results are only sorted and paged by JPA when the translation is
+    // exact; only the part of the predicate JPA did not apply is left
+    Set<Resource> resources = getResources(request, predicate);
+    return JpaPushDown.getQueryResponse(resources, request, predicate,
+        AlertNoticeEntity_.getPredicateMapping(), () -> s_dao.getNoticesCount(predicate));
   }
 
   /**
@@ -26,8 +26,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.persistence.metamodel.SingularAttribute;
+
 import org.apache.shpurdp.server.ShpurdpException;
 import org.apache.shpurdp.server.StaticallyInject;
+import org.apache.shpurdp.server.api.query.JpaPushDown;
 import org.apache.shpurdp.server.controller.AlertCurrentRequest;
 import org.apache.shpurdp.server.controller.ShpurdpManagementController;
 import org.apache.shpurdp.server.controller.spi.ExtendedResourceProvider;
@@ -39,9 +42,11 @@ import org.apache.shpurdp.server.controller.spi.Request;
 import org.apache.shpurdp.server.controller.spi.Resource;
 import org.apache.shpurdp.server.controller.spi.SystemException;
 import org.apache.shpurdp.server.controller.spi.UnsupportedPropertyException;
+import org.apache.shpurdp.server.orm.dao.AlertCurrentIndex.IndexedAlert;
 import org.apache.shpurdp.server.orm.dao.AlertDefinitionDAO;
 import org.apache.shpurdp.server.orm.dao.AlertsDAO;
 import org.apache.shpurdp.server.orm.entities.AlertCurrentEntity;
+import org.apache.shpurdp.server.orm.entities.AlertCurrentEntity_;
 import org.apache.shpurdp.server.orm.entities.AlertDefinitionEntity;
 import org.apache.shpurdp.server.orm.entities.AlertHistoryEntity;
 import org.apache.shpurdp.server.state.AlertState;
@@ -92,6 +97,16 @@ public class AlertResourceProvider extends ReadOnlyResourceProvider implements
   private static final Set<String> pkPropertyIds = new HashSet<>(
     Arrays.asList(ALERT_ID, ALERT_DEFINITION_NAME));
 
+  /**
+   * The property ids which are kept by the in-memory index of current alerts,
+   * requests for only these properties are served without querying the
+   * database.
+   */
+  private static final Set<String> INDEXED_PROPERTY_IDS = new HashSet<>(
+    Arrays.asList(ALERT_ID, ALERT_STATE, ALERT_ORIGINAL_TIMESTAMP, ALERT_MAINTENANCE_STATE,
+        ALERT_DEFINITION_ID, ALERT_DEFINITION_NAME, ALERT_CLUSTER_NAME, ALERT_COMPONENT,
+        ALERT_HOST, ALERT_SERVICE));
+
   @Inject
   private static AlertsDAO alertsDAO;
 
@@ -163,9 +178,20 @@ public class AlertResourceProvider extends ReadOnlyResourceProvider implements
       throws SystemException, UnsupportedPropertyException, NoSuchResourceException,
       NoSuchParentResourceException {
 
-    return new QueryResponseImpl(getResources(request, predicate),
-        request.getSortRequest() != null, request.getPageRequest() != null,
-        alertsDAO.getCount(predicate));
+    // the results are only sorted and paged by JPA when the translation is
+    // exact and a single query is run; the total count is only used for the
+    // responses paged by the provider. The whole predicate is evaluated again
+    // since the queried alerts are replaced by cached ones, which may have
+    // changed since they were written
+    Set<Resource> resources = getResources(request, predicate);
+    Map<String, List<? extends SingularAttribute<?, ?>>> mapping = AlertCurrentEntity_.getPredicateMapping();
+    boolean singleQuery = getPropertyMaps(predicate).size() == 1;
+    boolean paged = singleQuery && JpaPushDown.isPageable(predicate, request.getPageRequest(),
+        request.getSortRequest(), mapping);
+    boolean sorted = singleQuery && JpaPushDown.isSortable(request.getSortRequest(), mapping);
+
+    return new QueryResponseImpl(resources, sorted, paged,
+        paged ? alertsDAO.getCurrentCount(predicate) : resources.size());
   }
 
   @Override
@@ -197,8 +223,9 @@ public class AlertResourceProvider extends ReadOnlyResourceProvider implements
 
       } else {
         // Verify authorization to retrieve the requested data
+        Long clusterId;
         try {
-          Long clusterId = getClusterId(clusterName);
+          clusterId = getClusterId(clusterName);
           String definitionName = (String) propertyMap.get(ALERT_DEFINITION_NAME);
           String definitionId = (String) propertyMap.get(ALERT_DEFINITION_ID);
 
@@ -224,6 +251,23 @@ public class AlertResourceProvider extends ReadOnlyResourceProvider implements
           throw new SystemException(e.getMessage(), e);
         }
 
+        // summaries and state counts are served from the index of current alerts
+        List<IndexedAlert> indexedAlerts = null;
+        if (null != clusterId && null == request.getPageRequest() && null == request.getSortRequest()
+            && INDEXED_PROPERTY_IDS.containsAll(requestPropertyIds)) {
+          indexedAlerts = alertsDAO.findIndexedCurrentByCluster(clusterId);
+        }
+
+        if (null != indexedAlerts) {
+          for (IndexedAlert indexedAlert : indexedAlerts) {
+            Resource resource = toResource(clusterName, indexedAlert, requestPropertyIds);
+            if (null == predicate || predicate.evaluate(resource)) {
+              results.add(resource);
+            }
+          }
+          continue;
+        }
+
         List<AlertCurrentEntity> entities = null;
         AlertCurrentRequest alertCurrentRequest = new AlertCurrentRequest();
         alertCurrentRequest.Predicate = predicate;
@@ -305,6 +349,33 @@ public class AlertResourceProvider extends ReadOnlyResourceProvider implements
     return resource;
   }
 
+  /**
+   * Converts an indexed alert to a resource of the collection.
+   *
+   * @param clusterName the cluster name
+   * @param alert the indexed alert
+   * @param requestedIds the requested ids, expected to be a subset of {@link #INDEXED_PROPERTY_IDS}
+   * @return the resource
+   */
+  private Resource toResource(String clusterName, IndexedAlert alert, Set<String> requestedIds) {
+    Resource resource = new ResourceImpl(Resource.Type.Alert);
+    setResourceProperty(resource, ALERT_CLUSTER_NAME, clusterName, requestedIds);
+    setResourceProperty(resource, ALERT_ID, alert.getAlertId() == 0 ? null : alert.getAlertId(), requestedIds);
+    setResourceProperty(resource, ALERT_MAINTENANCE_STATE, alert.getMaintenanceState(), requestedIds);
+    setResourceProperty(resource, ALERT_ORIGINAL_TIMESTAMP, alert.getOriginalTimestamp(), requestedIds);
+    setResourceProperty(resource, ALERT_STATE, alert.getState(), requestedIds);
+    setResourceProperty(resource, ALERT_COMPONENT, alert.getComponentName(), requestedIds);
+    setResourceProperty(resource, ALERT_HOST, alert.getHostName(), requestedIds);
+    setResourceProperty(resource, ALERT_SERVICE, alert.getServiceName(), requestedIds);
+
+    // !!! want name/id to be populated as if it were a PK when requesting the
+    // collection
+    resource.setProperty(ALERT_DEFINITION_ID, alert.getDefinitionId());
+    resource.setProperty(ALERT_DEFINITION_NAME, alert.getDefinitionName());
+
+    return resource;
+  }
+
   /**
    * Gets the repeat tolerance value for the specified definition. This method
    * will return the override from the definition if
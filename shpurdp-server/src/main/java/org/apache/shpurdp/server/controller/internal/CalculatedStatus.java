@@ -25,6 +25,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.apache.shpurdp.server.Role;
 import org.apache.shpurdp.server.actionmanager.HostRoleCommand;
@@ -654,9 +655,24 @@ public class CalculatedStatus {
    */
   public static HostRoleStatus calculateStageStatus(List <HostRoleCommand> hostRoleCommands, Map<HostRoleStatus, Integer> counters, Map<Role, Float> successFactors,
                                                     boolean skippable) {
+    return calculateStageStatus(hostRoleCommands.size(), () -> hostRoleCommands, counters, successFactors, skippable);
+  }
+
+  /**
+   *
+   * @param total total number of tasks of the stage
+   * @param hostRoleCommands supplies list of {@link HostRoleCommand} for a stage, is called only
+   *                         if there are failed, timed out or aborted tasks to check the success factors
+   * @param counters counts of resources that are in various states
+   * @param successFactors Map of roles to their successfactor for a stage
+   * @param skippable {Boolean} <code>TRUE<code/> if failure of any of the task should not fail the stage
+   * @return {@link HostRoleStatus} based on success factor
+   */
+  public static HostRoleStatus calculateStageStatus(int total, Supplier<List<HostRoleCommand>> hostRoleCommands,
+                                                    Map<HostRoleStatus, Integer> counters, Map<Role, Float> successFactors,
+                                                    boolean skippable) {
 
     // when there are 0 tasks, return COMPLETED
-    int total = hostRoleCommands.size();
     if (total == 0) {
       return HostRoleStatus.COMPLETED;
     }
@@ -674,15 +690,17 @@ public class CalculatedStatus {
 
 
     if (counters.get(HostRoleStatus.FAILED) > 0 && !skippable) {
-      Set<Role> rolesWithFailedTasks = getRolesOfFailedTasks(hostRoleCommands);
-      Boolean didStageFailed = didStageFailed(hostRoleCommands, rolesWithFailedTasks, successFactors);
+      List<HostRoleCommand> tasks = hostRoleCommands.get();
+      Set<Role> rolesWithFailedTasks = getRolesOfFailedTasks(tasks);
+      Boolean didStageFailed = didStageFailed(tasks, rolesWithFailedTasks, successFactors);
       if (didStageFailed) return HostRoleStatus.FAILED;
     }
 
 
     if (counters.get(HostRoleStatus.TIMEDOUT) > 0  && !skippable) {
-      Set<Role> rolesWithTimedOutTasks = getRolesOfTimedOutTasks(hostRoleCommands);
-      Boolean didStageFailed = didStageFailed(hostRoleCommands, rolesWithTimedOutTasks, successFactors);
+      List<HostRoleCommand> tasks = hostRoleCommands.get();
+      Set<Role> rolesWithTimedOutTasks = getRolesOfTimedOutTasks(tasks);
+      Boolean didStageFailed = didStageFailed(tasks, rolesWithTimedOutTasks, successFactors);
       if (didStageFailed) return HostRoleStatus.TIMEDOUT;
     }
 
@@ -691,8 +709,9 @@ public class CalculatedStatus {
     if (numActiveTasks > 0) {
       return HostRoleStatus.IN_PROGRESS;
     } else if (counters.get(HostRoleStatus.ABORTED) > 0) {
-      Set<Role> rolesWithTimedOutTasks = getRolesOfAbortedTasks(hostRoleCommands);
-      Boolean didStageFailed = didStageFailed(hostRoleCommands, rolesWithTimedOutTasks, successFactors);
+      List<HostRoleCommand> tasks = hostRoleCommands.get();
+      Set<Role> rolesWithTimedOutTasks = getRolesOfAbortedTasks(tasks);
+      Boolean didStageFailed = didStageFailed(tasks, rolesWithTimedOutTasks, successFactors);
       if (didStageFailed) return HostRoleStatus.ABORTED;
     }
 
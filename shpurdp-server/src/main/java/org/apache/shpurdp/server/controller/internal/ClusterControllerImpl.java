@@ -18,6 +18,7 @@
 
 package org.apache.shpurdp.server.controller.internal;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -181,6 +182,10 @@ public class ClusterControllerImpl implements ClusterController {
     int totalCount = 0;
     Set<Resource> resources = providerResources;
 
+    // only the part of the predicate which the provider did not apply when
+    // querying is evaluated here
+    Predicate residualPredicate = queryResponse.getResidualPredicate(predicate);
+
     if (!providerResources.isEmpty()) {
       // determine if the provider has already paged & sorted the results
       boolean providerAlreadyPaged  = queryResponse.isPagedResponse();
@@ -193,6 +198,22 @@ public class ClusterControllerImpl implements ClusterController {
         resourceComparator = new ResourceComparator(sortRequest);
       }
 
+      // pages from the start are selected while filtering, so only the resources
+      // up to the end of the page are kept in sort order
+      Comparator<Resource> pageComparator = providerAlreadySorted ? null : resourceComparator;
+      if (null != pageRequest && !providerAlreadyPaged) {
+        switch (pageRequest.getStartingPoint()) {
+          case Beginning:
+            return getPageFromOffset(pageRequest.getPageSize(), 0, providerResources,
+                residualPredicate, provider, pageComparator);
+          case OffsetStart:
+            return getPageFromOffset(pageRequest.getPageSize(),
+                pageRequest.getOffset(), providerResources, residualPredicate, provider, pageComparator);
+          default:
+            break;
+        }
+      }
+
       // if the provider did not already sort the set, then sort it based
       // on the comparator
       if (!providerAlreadySorted) {
@@ -210,18 +231,12 @@ public class ClusterControllerImpl implements ClusterController {
       // conditionally page the results
       if (null != pageRequest && !providerAlreadyPaged) {
         switch (pageRequest.getStartingPoint()) {
-          case Beginning:
-            return getPageFromOffset(pageRequest.getPageSize(), 0, resources,
-                predicate, provider);
           case End:
             return getPageToOffset(pageRequest.getPageSize(), -1, resources,
-                predicate, provider);
-          case OffsetStart:
-            return getPageFromOffset(pageRequest.getPageSize(),
-                pageRequest.getOffset(), resources, predicate, provider);
+                residualPredicate, provider);
           case OffsetEnd:
             return getPageToOffset(pageRequest.getPageSize(),
-                pageRequest.getOffset(), resources, predicate, provider);
+                pageRequest.getOffset(), resources, residualPredicate, provider);
           case PredicateStart:
           case PredicateEnd:
             // TODO : need to support the following cases for pagination
@@ -234,7 +249,7 @@ public class ClusterControllerImpl implements ClusterController {
       }
     }
 
-    return new PageResponseImpl(new ResourceIterable(resources, predicate,
+    return new PageResponseImpl(new ResourceIterable(resources, residualPredicate,
         provider), 0, null, null, totalCount);
   }
 
@@ -591,42 +606,66 @@ public class ClusterControllerImpl implements ClusterController {
 
   /**
    * Get one page of resources from the given set of resources starting at the given offset.
+   * The resources are filtered and counted in a single pass; only the resources up to the
+   * end of the page are retained.
    *
-   * @param pageSize   the page size
-   * @param offset     the offset
-   * @param resources  the set of resources
-   * @param predicate  the predicate
+   * @param pageSize    the page size
+   * @param offset      the offset
+   * @param resources   the set of resources
+   * @param predicate   the predicate
+   * @param comparator  the comparator to sort the resources with; null if the resources
+   *                    are already sorted
    *
    * @return a page response containing a page of resources
    */
   private PageResponse getPageFromOffset(int pageSize, int offset,
-      Set<Resource> resources,
+                                         Set<Resource> resources,
                                          Predicate predicate,
-                                         ResourcePredicateEvaluator evaluator) {
+                                         ResourcePredicateEvaluator evaluator,
+                                         Comparator<Resource> comparator) {
 
-    int currentOffset = 0;
-    Resource previous      = null;
-    Set<Resource> pageResources = new LinkedHashSet<>();
-    LinkedList<Resource> filteredResources =
-      getEvaluatedResources(new ResourceIterable(resources, predicate, evaluator));
-    Iterator<Resource> iterator = filteredResources.iterator();
+    // the resources up to the end of the page and the one following it
+    long limit = (long) offset + pageSize + 1;
+    int totalCount = 0;
+    List<Resource> headResources;
 
-    // skip till offset
-    while (currentOffset < offset && iterator.hasNext()) {
-      previous = iterator.next();
-      ++currentOffset;
+    if (comparator == null) {
+      headResources = new ArrayList<>();
+      for (Resource resource : new ResourceIterable(resources, predicate, evaluator)) {
+        if (headResources.size() < limit) {
+          headResources.add(resource);
+        }
+        ++totalCount;
+      }
+    } else {
+      TreeSet<Resource> sortedResources = new TreeSet<>(comparator);
+      for (Resource resource : new ResourceIterable(resources, predicate, evaluator)) {
+        if (sortedResources.size() == limit) {
+          int compare = comparator.compare(resource, sortedResources.last());
+          if (compare >= 0) {
+            // beyond the page; a resource equal to a kept one is a duplicate
+            totalCount += compare > 0 ? 1 : 0;
+            continue;
+          }
+        }
+        if (sortedResources.add(resource)) {
+          ++totalCount;
+          if (sortedResources.size() > limit) {
+            sortedResources.pollLast();
+          }
+        }
+      }
+      headResources = new ArrayList<>(sortedResources);
     }
 
-    // get a page worth of resources
-    for (int i = 0; i < pageSize && iterator.hasNext(); ++i) {
-      pageResources.add(iterator.next());
-    }
+    int currentOffset = Math.min(offset, headResources.size());
+    int pageEnd       = (int) Math.min(headResources.size(), (long) currentOffset + pageSize);
 
-    return new PageResponseImpl(pageResources,
+    return new PageResponseImpl(new LinkedHashSet<>(headResources.subList(currentOffset, pageEnd)),
         currentOffset,
-        previous,
-        iterator.hasNext() ? iterator.next() : null,
-        filteredResources.size()
+        currentOffset > 0 ? headResources.get(currentOffset - 1) : null,
+        pageEnd < headResources.size() ? headResources.get(pageEnd) : null,
+        totalCount
       );
   }
 
@@ -62,6 +62,7 @@ import org.apache.shpurdp.server.state.Host;
 import org.apache.shpurdp.server.state.RepositoryVersionState;
 import org.apache.shpurdp.server.state.ServiceComponentHost;
 import org.apache.shpurdp.server.state.StackId;
+import org.apache.shpurdp.server.state.cluster.ClusterHostInfoSnapshotService;
 import org.apache.shpurdp.server.utils.StageUtils;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang.BooleanUtils;
@@ -163,6 +164,9 @@ public class HostStackVersionResourceProvider extends AbstractControllerResource
   @Inject
   private static RepositoryVersionHelper repoVersionHelper;
 
+  @Inject
+  private static ClusterHostInfoSnapshotService clusterHostInfoSnapshotService;
+
   /**
    * Constructor.
    */
@@ -463,8 +467,7 @@ public class HostStackVersionResourceProvider extends AbstractControllerResource
     // Generate cluster host info
     String clusterHostInfoJson;
     try {
-      clusterHostInfoJson = StageUtils.getGson().toJson(
-        StageUtils.getClusterHostInfo(cluster));
+      clusterHostInfoJson = clusterHostInfoSnapshotService.getSnapshot(cluster).getJson();
     } catch (ShpurdpException e) {
       throw new SystemException("Could not build cluster topology", e);
     }
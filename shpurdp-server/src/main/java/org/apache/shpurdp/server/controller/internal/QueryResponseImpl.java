@@ -19,6 +19,7 @@ package org.apache.shpurdp.server.controller.internal;
 
 import java.util.Set;
 
+import org.apache.shpurdp.server.controller.spi.Predicate;
 import org.apache.shpurdp.server.controller.spi.QueryResponse;
 import org.apache.shpurdp.server.controller.spi.Resource;
 
@@ -47,6 +48,17 @@ public class QueryResponseImpl implements QueryResponse {
    */
   private final int totalResourceCount;
 
+  /**
+   * The predicate the resources were queried with.
+   */
+  private final Predicate queryPredicate;
+
+  /**
+   * The part of the query predicate which the resources still have to be
+   * filtered with.
+   */
+  private final Predicate residualPredicate;
+
 
   // ----- Constructors ------------------------------------------------------
 
@@ -60,6 +72,8 @@ public class QueryResponseImpl implements QueryResponse {
     this.sortedResponse     = false;
     this.pagedResponse      = false;
     this.totalResourceCount = 0;
+    this.queryPredicate     = null;
+    this.residualPredicate  = null;
   }
 
   /**
@@ -76,6 +90,31 @@ public class QueryResponseImpl implements QueryResponse {
     this.sortedResponse     = sortedResponse;
     this.pagedResponse      = pagedResponse;
     this.totalResourceCount = totalResourceCount;
+    this.queryPredicate     = null;
+    this.residualPredicate  = null;
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param resources           the set of resources returned by the query.
+   * @param sortedResponse      indicates whether or not the response is sorted
+   * @param pagedResponse       indicates whether or not the response is paged
+   * @param totalResourceCount  the total number of resources returned by the query
+   * @param queryPredicate      the predicate the resources were queried with
+   * @param residualPredicate   the part of the query predicate which the resources
+   *                            still have to be filtered with; {@code null} if all
+   *                            of them match
+   */
+  public QueryResponseImpl(Set<Resource> resources, boolean sortedResponse,
+                           boolean pagedResponse, int totalResourceCount,
+                           Predicate queryPredicate, Predicate residualPredicate) {
+    this.resources          = resources;
+    this.sortedResponse     = sortedResponse;
+    this.pagedResponse      = pagedResponse;
+    this.totalResourceCount = totalResourceCount;
+    this.queryPredicate     = queryPredicate;
+    this.residualPredicate  = residualPredicate;
   }
 
 
@@ -100,4 +139,11 @@ public class QueryResponseImpl implements QueryResponse {
   public int getTotalResourceCount() {
     return totalResourceCount;
   }
+
+  @Override
+  public Predicate getResidualPredicate(Predicate predicate) {
+    // any other predicate, e.g. one extended by sub-resource predicates, has
+    // to be evaluated in full
+    return predicate == queryPredicate ? residualPredicate : predicate;
+  }
 }
@@ -35,6 +35,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.shpurdp.server.ShpurdpException;
 import org.apache.shpurdp.server.StaticallyInject;
@@ -43,6 +44,7 @@ import org.apache.shpurdp.server.actionmanager.HostRoleStatus;
 import org.apache.shpurdp.server.api.predicate.InvalidQueryException;
 import org.apache.shpurdp.server.api.predicate.PredicateCompiler;
 import org.apache.shpurdp.server.api.services.BaseRequest;
+import org.apache.shpurdp.server.cleanup.RequestArchive;
 import org.apache.shpurdp.server.controller.ShpurdpManagementController;
 import org.apache.shpurdp.server.controller.ExecuteActionRequest;
 import org.apache.shpurdp.server.controller.RequestRequest;
@@ -102,6 +104,9 @@ public class RequestResourceProvider extends AbstractControllerResourceProvider
   @Inject
   private static TopologyManager topologyManager;
 
+  @Inject
+  private static RequestArchive s_requestArchive = null;
+
   // ----- Property ID constants ---------------------------------------------
   // Requests
   public static final String REQUESTS = "Requests";
@@ -708,6 +713,8 @@ public class RequestResourceProvider extends AbstractControllerResourceProvider
           // !!! not a cluster, so get all requests NOT affiliated with a cluster
           requestIds = s_requestDAO.findAllRequestIds(maxResults, ascOrder, null);
         }
+
+        requestIds = addArchivedRequestIds(requestIds, maxResults, ascOrder, clusterId);
       } else {
         // !!! this call will result in mixed results of cluster and non-cluster.  this
         // will get fixed in a future iteration, as the host_role_command table does not
@@ -731,6 +738,34 @@ public class RequestResourceProvider extends AbstractControllerResourceProvider
     return response;
   }
 
+  /**
+   * Merges the ids of archived requests into a page of request ids read from
+   * the database.
+   */
+  private List<Long> addArchivedRequestIds(List<Long> requestIds, int maxResults, boolean ascOrder,
+                                           Long clusterId) {
+    if (null == s_requestArchive || (!ascOrder && requestIds.size() >= maxResults)) {
+      // archived requests are older than the ones in the database
+      return requestIds;
+    }
+
+    List<Long> archivedRequestIds = s_requestArchive.findRequestIds(maxResults, ascOrder, clusterId);
+    if (archivedRequestIds.isEmpty()) {
+      return requestIds;
+    }
+
+    TreeSet<Long> mergedRequestIds = new TreeSet<>(requestIds);
+    mergedRequestIds.addAll(archivedRequestIds);
+    List<Long> page = new ArrayList<>(maxResults);
+    for (Long requestId : ascOrder ? mergedRequestIds : mergedRequestIds.descendingSet()) {
+      if (page.size() >= maxResults) {
+        break;
+      }
+      page.add(requestId);
+    }
+    return page;
+  }
+
   // Get all of the request resources for the given set of request ids
   private Collection<Resource> getRequestResources(Long clusterId, String clusterName,
       List<Long> requestIds, Set<String> requestedPropertyIds) {
@@ -755,6 +790,16 @@ public class RequestResourceProvider extends AbstractControllerResourceProvider
 
     requests.addAll(topologyRequestEntities);
 
+    // the requests which are not in the database may have been archived
+    if (null != s_requestArchive && requests.size() < requestIds.size()) {
+      Set<Long> archivedRequestIds = new HashSet<>(requestIds);
+      for (RequestEntity re : requests) {
+        archivedRequestIds.remove(re.getRequestId());
+      }
+      requests.addAll(s_requestArchive.findRequests(archivedRequestIds,
+          isPropertyRequested(REQUEST_CLUSTER_HOST_INFO_ID, requestedPropertyIds)));
+    }
+
     for (RequestEntity re : requests) {
       if ((null == clusterId && (null == re.getClusterId() || -1L == re.getClusterId())) ||          // if cluster IS NOT requested AND the db request is not for a cluster
           (null != clusterId && null != re.getRequestId() && re.getClusterId().equals(clusterId))) { // if cluster IS requested and the request has a cluster id equal to the one requested
@@ -818,6 +863,9 @@ public class RequestResourceProvider extends AbstractControllerResourceProvider
     }
 
     Map<Long, HostRoleCommandStatusSummaryDTO> summary = s_hostRoleCommandDAO.findAggregateCounts(entity.getRequestId());
+    if (summary.isEmpty() && null != s_requestArchive) {
+      summary = new HashMap<>(s_requestArchive.findAggregateCounts(entity.getRequestId()));
+    }
 
     // get summaries from TopologyManager for logical requests
     summary.putAll(topologyManager.getStageSummaries(entity.getRequestId()));
@@ -18,17 +18,29 @@
 
 package org.apache.shpurdp.server.controller.internal;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
+import org.apache.shpurdp.server.controller.internal.ResourceSchema.Slot;
 import org.apache.shpurdp.server.controller.spi.Resource;
 import org.apache.shpurdp.server.controller.utilities.PropertyHelper;
 
 /**
  * Simple resource implementation.
+ * <p/>
+ * The property values are kept in flat arrays ordered by the category and name
+ * of their {@link ResourceSchema} slots instead of nested maps, so the
+ * properties of a category are a contiguous range of the arrays. Writers are
+ * serialized on the resource and publish the arrays through a volatile field,
+ * so reads never lock. The properties map is a sorted view over the arrays.
  */
 public class ResourceImpl implements Resource {
 
@@ -38,10 +50,19 @@ public class ResourceImpl implements Resource {
   private final Type type;
 
   /**
-   * The map of property maps keyed by property category.
+   * The property ids known for the resource type.
    */
-  private final Map<String, Map<String, Object>> propertiesMap =
-      Collections.synchronizedMap(new TreeMap<String, Map<String, Object>>());
+  private final ResourceSchema schema;
+
+  /**
+   * The property values.
+   */
+  private volatile Values values = Values.EMPTY;
+
+  /**
+   * The category keys which were added or emptied; copied on write.
+   */
+  private volatile Set<String> categories = Collections.emptySet();
 
   // ----- Constructors ------------------------------------------------------
 
@@ -51,7 +72,8 @@ public class ResourceImpl implements Resource {
    * @param type the resource type
    */
   public ResourceImpl(Type type) {
-    this.type = type;
+    this.type   = type;
+    this.schema = ResourceSchema.forType(type);
   }
 
   /**
@@ -71,7 +93,22 @@ public class ResourceImpl implements Resource {
    * @param propertyIds the set of requested property and category ids
    */
   public ResourceImpl(Resource resource, Set<String> propertyIds) {
-    this.type = resource.getType();
+    this(resource.getType());
+
+    boolean allProperties = propertyIds == null || propertyIds.isEmpty();
+
+    if (resource instanceof ResourceImpl) {
+      // same type, so the slots are shared and already ordered
+      Values source = ((ResourceImpl) resource).values;
+      for (int i = 0; i < source.size; i++) {
+        Slot slot = source.slots[i];
+        if (source.values[i] != Values.REMOVED &&
+            (allProperties || PropertyHelper.containsProperty(propertyIds, slot.id))) {
+          setProperty(slot, source.values[i]);
+        }
+      }
+      return;
+    }
 
     for (Map.Entry<String, Map<String, Object>> categoryEntry :
         resource.getPropertiesMap().entrySet()) {
@@ -80,7 +117,7 @@ public class ResourceImpl implements Resource {
       if (propertyMap != null) {
         for (Map.Entry<String, Object> propertyEntry : propertyMap.entrySet()) {
           String propertyId = PropertyHelper.getPropertyId(category, propertyEntry.getKey());
-          if (propertyIds == null || propertyIds.isEmpty() || PropertyHelper.containsProperty(propertyIds, propertyId)) {
+          if (allProperties || PropertyHelper.containsProperty(propertyIds, propertyId)) {
             Object propertyValue = propertyEntry.getValue();
             setProperty(propertyId, propertyValue);
           }
@@ -99,38 +136,29 @@ public class ResourceImpl implements Resource {
 
   @Override
   public Map<String, Map<String, Object>> getPropertiesMap() {
-    return propertiesMap;
+    return new PropertiesMap();
   }
 
   @Override
   public void setProperty(String id, Object value) {
-    String categoryKey = getCategoryKey(PropertyHelper.getPropertyCategory(id));
-
-    Map<String, Object> properties = propertiesMap.get(categoryKey);
-    if (properties == null) {
-      properties = Collections.synchronizedMap(new TreeMap<String, Object>());
-      propertiesMap.put(categoryKey, properties);
-    }
-    properties.put(PropertyHelper.getPropertyName(id), value);
+    setProperty(schema.intern(id), value);
   }
 
   @Override
-  public void addCategory(String id) {
-    String categoryKey = getCategoryKey(id);
+  public synchronized void addCategory(String id) {
+    String categoryKey = ResourceSchema.getCategoryKey(id);
 
-    if (!propertiesMap.containsKey(categoryKey)) {
-      propertiesMap.put(categoryKey, new HashMap<>());
+    if (!categories.contains(categoryKey)) {
+      Set<String> newCategories = new TreeSet<>(categories);
+      newCategories.add(categoryKey);
+      categories = newCategories;
     }
   }
 
   @Override
   public Object getPropertyValue(String id) {
-    String categoryKey = getCategoryKey(PropertyHelper.getPropertyCategory(id));
-
-    Map<String, Object> properties = propertiesMap.get(categoryKey);
-
-    return properties == null ?
-        null : properties.get(PropertyHelper.getPropertyName(id));
+    Slot slot = schema.getSlot(id);
+    return slot == null ? null : values.get(slot);
   }
 
 
@@ -142,7 +170,7 @@ public class ResourceImpl implements Resource {
 
     sb.append("Resource : ").append(type).append("\n");
     sb.append("Properties:\n");
-    sb.append(propertiesMap);
+    sb.append(getPropertiesMap());
 
     return sb.toString();
   }
@@ -154,18 +182,584 @@ public class ResourceImpl implements Resource {
 
     ResourceImpl resource = (ResourceImpl) o;
 
-    return type == resource.type &&
-        !(propertiesMap != null ? !propertiesMap.equals(resource.propertiesMap) : resource.propertiesMap != null);
+    return type == resource.type && values.equals(resource.values) &&
+        (categories.isEmpty() && resource.categories.isEmpty() ||
+            getCategories().equals(resource.getCategories()));
   }
 
   @Override
   public int hashCode() {
-    return 31 * type.hashCode() + (propertiesMap != null ? propertiesMap.hashCode() : 0);
+    return 31 * Objects.hashCode(type) + values.hashCode();
   }
 
   // ----- utility methods ---------------------------------------------------
 
-  private String getCategoryKey(String category) {
-    return category == null ? "" : category;
+  /**
+   * Set the value of the property in the given slot.
+   */
+  private synchronized void setProperty(Slot slot, Object value) {
+    Values current = values;
+    int i = current.indexOf(slot);
+    if (i >= 0) {
+      values = current.set(i, value);
+    } else {
+      values = current.insert(-i - 1, slot, value);
+    }
+  }
+
+  /**
+   * Remove the property in the given slot, keeping its category.
+   */
+  private synchronized void removeProperty(Slot slot) {
+    Values current = values;
+    int i = current.indexOf(slot);
+    if (i >= 0 && current.values[i] != Values.REMOVED) {
+      values = current.remove(i);
+    }
+    addCategory(slot.category);
+  }
+
+  /**
+   * Remove all properties of the given category, keeping the category.
+   */
+  private synchronized void clearCategory(String category) {
+    Values current = values;
+    int from = current.lowerBound(category);
+    int to   = current.upperBound(category, from);
+    if (from < to) {
+      values = current.compact(from, to);
+    }
+    addCategory(category);
+  }
+
+  /**
+   * Remove all categories and properties.
+   */
+  private synchronized void clear() {
+    values     = Values.EMPTY;
+    categories = Collections.emptySet();
+  }
+
+  /**
+   * Remove the given category and all of its properties.
+   */
+  private synchronized void removeCategory(String category) {
+    Values current = values;
+    int from = current.lowerBound(category);
+    int to   = current.upperBound(category, from);
+    if (from < to) {
+      values = current.compact(from, to);
+    }
+
+    if (categories.contains(category)) {
+      Set<String> newCategories = new TreeSet<>(categories);
+      newCategories.remove(category);
+      categories = newCategories;
+    }
+  }
+
+  /**
+   * Get the keys of all categories with properties or added explicitly.
+   */
+  private Set<String> getCategories() {
+    Values current = values;
+    Set<String> keys = new TreeSet<>(categories);
+    String last = null;
+    for (int i = 0; i < current.size; i++) {
+      // the slots of a category are contiguous
+      Slot slot = current.slots[i];
+      if (current.values[i] != Values.REMOVED && (last == null || slot.compareCategory(last) != 0)) {
+        last = slot.category;
+        keys.add(last);
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Determine whether the given category has properties or was added explicitly.
+   */
+  private boolean containsCategory(String category) {
+    if (categories.contains(category)) {
+      return true;
+    }
+    Values current = values;
+    int from = current.lowerBound(category);
+    return current.next(from, current.upperBound(category, from)) >= 0;
+  }
+
+
+  // ----- inner class : Values ----------------------------------------------
+
+  /**
+   * The property values ordered by slot. A published instance is never
+   * resized; inserting a property publishes a new instance, which may share
+   * the arrays when the property is appended. Removing a property marks its
+   * value as {@link #REMOVED} and the arrays are compacted once half of the
+   * values are removed or the arrays are copied anyway, so that removing all
+   * properties one by one takes linear time.
+   */
+  private static final class Values {
+
+    /**
+     * The value of a removed property.
+     */
+    private static final Object REMOVED = new Object();
+
+    private static final Values EMPTY = new Values(new Slot[0], new Object[0], 0, 0);
+
+    private final Slot[] slots;
+    private final Object[] values;
+    private final int size;
+    private final int removed;
+
+    private Values(Slot[] slots, Object[] values, int size, int removed) {
+      this.slots   = slots;
+      this.values  = values;
+      this.size    = size;
+      this.removed = removed;
+    }
+
+    /**
+     * Find the position of the given slot.
+     *
+     * @return the position, which may hold a removed value, or
+     *         (-(insertion point) - 1) if the slot has no position
+     */
+    private int indexOf(Slot slot) {
+      int low  = 0;
+      int high = size - 1;
+      while (low <= high) {
+        int mid    = (low + high) >>> 1;
+        int result = slots[mid].compareTo(slot);
+        if (result < 0) {
+          low = mid + 1;
+        } else if (result > 0) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -(low + 1);
+    }
+
+    /**
+     * Find the first position of the given category.
+     *
+     * @return the first position whose category is not less than the category
+     */
+    private int lowerBound(String category) {
+      int low  = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (slots[mid].compareCategory(category) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * Find the position after the last position of the given category.
+     *
+     * @param from  the first position of the category
+     *
+     * @return the first position whose category is greater than the category
+     */
+    private int upperBound(String category, int from) {
+      int low  = from;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (slots[mid].compareCategory(category) <= 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * Find the first position of a value which is not removed.
+     *
+     * @return the position in [from, to) or -1 if there is none
+     */
+    private int next(int from, int to) {
+      for (int i = from; i < to; i++) {
+        if (values[i] != REMOVED) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private Object get(Slot slot) {
+      int i = indexOf(slot);
+      return i < 0 || values[i] == REMOVED ? null : values[i];
+    }
+
+    private boolean contains(Slot slot) {
+      int i = indexOf(slot);
+      return i >= 0 && values[i] != REMOVED;
+    }
+
+    private Values set(int position, Object value) {
+      boolean wasRemoved = values[position] == REMOVED;
+      values[position] = value;
+      // publish the value
+      return wasRemoved ? new Values(slots, values, size, removed - 1) : this;
+    }
+
+    private Values insert(int position, Slot slot, Object value) {
+      if (position == size && size < slots.length) {
+        // beyond the size of every published instance sharing the arrays
+        slots[size]  = slot;
+        values[size] = value;
+        return new Values(slots, values, size + 1, removed);
+      }
+
+      int      count     = size - removed + 1;
+      int      capacity  = Math.max(4, count + (count >> 1));
+      Slot[]   newSlots  = new Slot[capacity];
+      Object[] newValues = new Object[capacity];
+      int      newSize   = 0;
+      for (int i = 0; i <= size; i++) {
+        if (i == position) {
+          newSlots[newSize]  = slot;
+          newValues[newSize] = value;
+          newSize++;
+        }
+        if (i < size && values[i] != REMOVED) {
+          newSlots[newSize]  = slots[i];
+          newValues[newSize] = values[i];
+          newSize++;
+        }
+      }
+      return new Values(newSlots, newValues, newSize, 0);
+    }
+
+    private Values remove(int position) {
+      values[position] = REMOVED;
+      return (removed + 1) * 2 > size ?
+          compact(0, 0) : new Values(slots, values, size, removed + 1);
+    }
+
+    /**
+     * Copy the values which are not removed, leaving out the given range.
+     */
+    private Values compact(int from, int to) {
+      int capacity = size - removed;
+      for (int i = from; i < to; i++) {
+        if (values[i] != REMOVED) {
+          capacity--;
+        }
+      }
+      if (capacity == 0) {
+        return EMPTY;
+      }
+
+      Slot[]   newSlots  = new Slot[capacity];
+      Object[] newValues = new Object[capacity];
+      int      newSize   = 0;
+      for (int i = 0; i < size; i++) {
+        if ((i < from || i >= to) && values[i] != REMOVED) {
+          newSlots[newSize]  = slots[i];
+          newValues[newSize] = values[i];
+          newSize++;
+        }
+      }
+      return new Values(newSlots, newValues, newSize, 0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Values)) return false;
+
+      Values other = (Values) o;
+      if (size - removed != other.size - other.removed) {
+        return false;
+      }
+      int j = other.next(0, other.size);
+      for (int i = next(0, size); i >= 0; i = next(i + 1, size)) {
+        if (slots[i].compareTo(other.slots[j]) != 0 ||
+            !Objects.equals(values[i], other.values[j])) {
+          return false;
+        }
+        j = other.next(j + 1, other.size);
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = 0;
+      for (int i = 0; i < size; i++) {
+        if (values[i] != REMOVED) {
+          hash += slots[i].id.hashCode() ^ Objects.hashCode(values[i]);
+        }
+      }
+      return hash;
+    }
+  }
+
+
+  // ----- inner class : PropertiesMap ---------------------------------------
+
+  /**
+   * The map of property maps keyed by property category, sorted by category.
+   * Changes are written through to the resource.
+   */
+  private final class PropertiesMap extends AbstractMap<String, Map<String, Object>> {
+
+    @Override
+    public Map<String, Object> get(Object key) {
+      return key instanceof String && containsCategory((String) key) ?
+          new CategoryMap((String) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof String && containsCategory((String) key);
+    }
+
+    @Override
+    public Map<String, Object> put(String key, Map<String, Object> properties) {
+      Map<String, Object> previous = remove(key);
+
+      addCategory(key);
+      for (Map.Entry<String, Object> entry : properties.entrySet()) {
+        setProperty(schema.intern(key, entry.getKey()), entry.getValue());
+      }
+      return previous;
+    }
+
+    @Override
+    public Map<String, Object> remove(Object key) {
+      Map<String, Object> previous = get(key);
+      if (previous != null) {
+        previous = new TreeMap<>(previous);
+        removeCategory((String) key);
+      }
+      return previous;
+    }
+
+    @Override
+    public void clear() {
+      ResourceImpl.this.clear();
+    }
+
+    @Override
+    public Set<Entry<String, Map<String, Object>>> entrySet() {
+      return new AbstractSet<Entry<String, Map<String, Object>>>() {
+        @Override
+        public Iterator<Entry<String, Map<String, Object>>> iterator() {
+          Iterator<String> keys = getCategories().iterator();
+
+          return new Iterator<Entry<String, Map<String, Object>>>() {
+            private String last;
+
+            @Override
+            public boolean hasNext() {
+              return keys.hasNext();
+            }
+
+            @Override
+            public Entry<String, Map<String, Object>> next() {
+              last = keys.next();
+              return new SimpleImmutableEntry<>(last, new CategoryMap(last));
+            }
+
+            @Override
+            public void remove() {
+              if (last == null) {
+                throw new IllegalStateException();
+              }
+              removeCategory(last);
+              last = null;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return getCategories().size();
+        }
+
+        @Override
+        public void clear() {
+          ResourceImpl.this.clear();
+        }
+      };
+    }
+  }
+
+
+  // ----- inner class : CategoryMap -----------------------------------------
+
+  /**
+   * The map of the properties of a category keyed by property name, sorted by
+   * name. Changes are written through to the resource.
+   */
+  private final class CategoryMap extends AbstractMap<String, Object> {
+
+    private final String category;
+
+    private CategoryMap(String category) {
+      this.category = category;
+    }
+
+    @Override
+    public Object get(Object key) {
+      Slot slot = getSlot(key);
+      return slot == null ? null : values.get(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      Slot slot = getSlot(key);
+      return slot != null && values.contains(slot);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+      Slot slot = schema.intern(category, key);
+      Object previous = values.get(slot);
+      setProperty(slot, value);
+      return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+      Slot slot = getSlot(key);
+      if (slot == null) {
+        return null;
+      }
+      Object previous = values.get(slot);
+      removeProperty(slot);
+      return previous;
+    }
+
+    @Override
+    public void clear() {
+      clearCategory(category);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          // iterate over the range of the category in the current values
+          Values current = values;
+          int    from    = current.lowerBound(category);
+          int    to      = current.upperBound(category, from);
+
+          return new Iterator<Entry<String, Object>>() {
+            private int next = current.next(from, to);
+            private Slot last;
+
+            @Override
+            public boolean hasNext() {
+              return next >= 0;
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              if (next < 0) {
+                throw new NoSuchElementException();
+              }
+              last = current.slots[next];
+              next = current.next(next + 1, to);
+              return new PropertyEntry(last);
+            }
+
+            @Override
+            public void remove() {
+              if (last == null) {
+                throw new IllegalStateException();
+              }
+              removeProperty(last);
+              last = null;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          Values current = values;
+          int from = current.lowerBound(category);
+          int to   = current.upperBound(category, from);
+          int size = 0;
+          for (int i = current.next(from, to); i >= 0; i = current.next(i + 1, to)) {
+            size++;
+          }
+          return size;
+        }
+
+        @Override
+        public void clear() {
+          clearCategory(category);
+        }
+      };
+    }
+
+    private Slot getSlot(Object key) {
+      return key instanceof String ? schema.getSlot(category, (String) key) : null;
+    }
+  }
+
+
+  // ----- inner class : PropertyEntry ---------------------------------------
+
+  /**
+   * A property of a category map; the value is read from the resource.
+   */
+  private final class PropertyEntry implements Map.Entry<String, Object> {
+
+    private final Slot slot;
+
+    private PropertyEntry(Slot slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    public String getKey() {
+      return slot.name;
+    }
+
+    @Override
+    public Object getValue() {
+      return values.get(slot);
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      Object previous = getValue();
+      setProperty(slot, value);
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) return false;
+
+      Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+      return slot.name.equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return slot.name.hashCode() ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String toString() {
+      return slot.name + "=" + getValue();
+    }
   }
 }
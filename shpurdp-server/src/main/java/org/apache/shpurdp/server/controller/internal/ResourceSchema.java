@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.shpurdp.server.controller.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.shpurdp.server.controller.spi.Resource;
+import org.apache.shpurdp.server.controller.utilities.PropertyHelper;
+
+/**
+ * The property ids seen for a resource type. Every property id is split into
+ * its category and name once and interned as a {@link Slot}, so that
+ * {@link ResourceImpl} does not parse the ids of every resource again.
+ * <p/>
+ * The number of schemas and the number of slots of a schema are bounded. The
+ * resources of types beyond the bound share the schema of untyped resources,
+ * and the properties beyond the bound of a schema get a new slot on every
+ * lookup instead of an interned one. Slots are compared by category and name,
+ * so both kinds of slots can be mixed in a resource.
+ */
+final class ResourceSchema {
+
+  /**
+   * The maximum number of schemas of resource types.
+   */
+  static final int MAX_SCHEMAS = 1024;
+
+  /**
+   * The maximum number of interned slots of a schema.
+   */
+  static final int MAX_SLOTS = 4096;
+
+  /**
+   * The schemas keyed by resource type.
+   */
+  private static final ConcurrentMap<Resource.Type, ResourceSchema> SCHEMAS =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The schema of resources without a type or beyond {@link #MAX_SCHEMAS}.
+   */
+  private static final ResourceSchema UNTYPED = new ResourceSchema();
+
+  /**
+   * The slots keyed by the property ids used to look them up.
+   */
+  private final ConcurrentMap<String, Slot> slotsById = new ConcurrentHashMap<>();
+
+  /**
+   * The slots keyed by category and property name.
+   */
+  private final ConcurrentMap<String, ConcurrentMap<String, Slot>> slotsByCategory =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The number of interned slots.
+   */
+  private final AtomicInteger slotCount = new AtomicInteger();
+
+
+  // ----- Constructors ------------------------------------------------------
+
+  private ResourceSchema() {
+  }
+
+
+  // ----- ResourceSchema ----------------------------------------------------
+
+  /**
+   * Get the schema of the given resource type.
+   *
+   * @param type  the resource type; may be null
+   *
+   * @return the schema shared by all resources of the type
+   */
+  static ResourceSchema forType(Resource.Type type) {
+    if (type == null) {
+      return UNTYPED;
+    }
+    ResourceSchema schema = SCHEMAS.get(type);
+    if (schema == null) {
+      schema = SCHEMAS.size() < MAX_SCHEMAS ?
+          SCHEMAS.computeIfAbsent(type, t -> new ResourceSchema()) : UNTYPED;
+    }
+    return schema;
+  }
+
+  /**
+   * Get the slot of the given property id without interning it.
+   *
+   * @param propertyId  the property id
+   *
+   * @return the slot or null if no resource of the type had the property
+   */
+  Slot getSlot(String propertyId) {
+    Slot slot = slotsById.get(propertyId);
+    if (slot == null) {
+      slot = getSlot(getCategoryKey(PropertyHelper.getPropertyCategory(propertyId)),
+          PropertyHelper.getPropertyName(propertyId));
+      cache(propertyId, slot);
+    }
+    return slot;
+  }
+
+  /**
+   * Get the slot of the given category and property name without interning it.
+   *
+   * @param category  the category key
+   * @param name      the property name
+   *
+   * @return the slot or null if no resource of the type had the property
+   */
+  Slot getSlot(String category, String name) {
+    Slot slot = getInternedSlot(category, name);
+    // once the schema is full a resource may hold a property without a slot
+    return slot == null && isFull() ? new Slot(category, name) : slot;
+  }
+
+  /**
+   * Get the slot of the given property id, interning it if needed.
+   *
+   * @param propertyId  the property id
+   *
+   * @return the slot
+   */
+  Slot intern(String propertyId) {
+    Slot slot = getSlot(propertyId);
+    if (slot == null) {
+      slot = intern(getCategoryKey(PropertyHelper.getPropertyCategory(propertyId)),
+          PropertyHelper.getPropertyName(propertyId));
+      cache(propertyId, slot);
+    }
+    return slot;
+  }
+
+  /**
+   * Get the slot of the given category and property name, interning it if
+   * the schema is not full.
+   *
+   * @param category  the category key
+   * @param name      the property name
+   *
+   * @return the slot
+   */
+  Slot intern(String category, String name) {
+    Slot slot = getInternedSlot(category, name);
+    if (slot == null) {
+      if (isFull()) {
+        return new Slot(category, name);
+      }
+      slot = slotsByCategory.computeIfAbsent(category, c -> new ConcurrentHashMap<>())
+          .computeIfAbsent(name, n -> {
+            slotCount.incrementAndGet();
+            return new Slot(category, n);
+          });
+    }
+    return slot;
+  }
+
+  /**
+   * Determine whether the schema has reached {@link #MAX_SLOTS}.
+   *
+   * @return true if no more slots are interned
+   */
+  boolean isFull() {
+    return slotCount.get() >= MAX_SLOTS;
+  }
+
+  /**
+   * Get the key used for the given category in the properties map.
+   *
+   * @param category  the category; may be null
+   *
+   * @return the category key
+   */
+  static String getCategoryKey(String category) {
+    return category == null ? "" : category;
+  }
+
+
+  // ----- helper methods ----------------------------------------------------
+
+  private Slot getInternedSlot(String category, String name) {
+    Map<String, Slot> slots = slotsByCategory.get(category);
+    return slots == null ? null : slots.get(name);
+  }
+
+  private void cache(String propertyId, Slot slot) {
+    // bound the ids as well, since several ids may name the same slot
+    if (slot != null && slotsById.size() < MAX_SLOTS) {
+      slotsById.putIfAbsent(propertyId, slot);
+    }
+  }
+
+
+  // ----- inner class : Slot ------------------------------------------------
+
+  /**
+   * A property of a resource type. Slots are ordered by category and then by
+   * name, so the properties of a category are contiguous in a resource.
+   */
+  static final class Slot implements Comparable<Slot> {
+
+    /**
+     * The category key.
+     */
+    final String category;
+
+    /**
+     * The property name.
+     */
+    final String name;
+
+    /**
+     * The property id.
+     */
+    final String id;
+
+    private Slot(String category, String name) {
+      this.category = category;
+      this.name     = name;
+      this.id       = PropertyHelper.getPropertyId(category, name);
+    }
+
+    @Override
+    public int compareTo(Slot other) {
+      if (this == other) {
+        return 0;
+      }
+      int result = compareCategory(other.category);
+      return result == 0 ? name.compareTo(other.name) : result;
+    }
+
+    /**
+     * Compare the category of the slot with the given category key.
+     *
+     * @param other  the category key
+     *
+     * @return the comparison of the category keys
+     */
+    int compareCategory(String other) {
+      return category == other ? 0 : category.compareTo(other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Slot)) return false;
+
+      Slot slot = (Slot) o;
+      return category.equals(slot.category) && name.equals(slot.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * category.hashCode() + name.hashCode();
+    }
+  }
+}
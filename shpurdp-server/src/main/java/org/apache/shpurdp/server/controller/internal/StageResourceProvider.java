@@ -31,6 +31,7 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 
 import org.apache.shpurdp.server.StaticallyInject;
+import org.apache.shpurdp.server.api.query.JpaPushDown;
 import org.apache.shpurdp.server.actionmanager.HostRoleStatus;
 import org.apache.shpurdp.server.controller.ShpurdpManagementController;
 import org.apache.shpurdp.server.controller.spi.ExtendedResourceProvider;
@@ -49,6 +50,7 @@ import org.apache.shpurdp.server.orm.dao.HostRoleCommandDAO;
 import org.apache.shpurdp.server.orm.dao.HostRoleCommandStatusSummaryDTO;
 import org.apache.shpurdp.server.orm.dao.StageDAO;
 import org.apache.shpurdp.server.orm.entities.StageEntity;
+import org.apache.shpurdp.server.orm.entities.StageEntity_;
 import org.apache.shpurdp.server.state.Cluster;
 import org.apache.shpurdp.server.state.Clusters;
 import org.apache.shpurdp.server.topology.LogicalRequest;
@@ -272,7 +274,10 @@ public class StageResourceProvider extends AbstractControllerResourceProvider im
 
     Set<Resource> results = getResources(request, predicate);
 
-    return new QueryResponseImpl(results, request.getSortRequest() != null, false, results.size());
+    // only sorts on mapped properties are applied by JPA
+    boolean sorted = JpaPushDown.isSortable(request.getSortRequest(), StageEntity_.getPredicateMapping());
+
+    return new QueryResponseImpl(results, sorted, false, results.size());
   }
 
   /**
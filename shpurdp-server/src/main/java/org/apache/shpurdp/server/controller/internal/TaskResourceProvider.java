@@ -19,6 +19,7 @@ package org.apache.shpurdp.server.controller.internal;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -26,12 +27,16 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.shpurdp.server.StaticallyInject;
+import org.apache.shpurdp.server.api.query.JpaPushDown;
 import org.apache.shpurdp.server.actionmanager.HostRoleCommand;
 import org.apache.shpurdp.server.actionmanager.HostRoleCommandFactory;
+import org.apache.shpurdp.server.cleanup.RequestArchive;
 import org.apache.shpurdp.server.controller.ShpurdpManagementController;
+import org.apache.shpurdp.server.controller.spi.ExtendedResourceProvider;
 import org.apache.shpurdp.server.controller.spi.NoSuchParentResourceException;
 import org.apache.shpurdp.server.controller.spi.NoSuchResourceException;
 import org.apache.shpurdp.server.controller.spi.Predicate;
+import org.apache.shpurdp.server.controller.spi.QueryResponse;
 import org.apache.shpurdp.server.controller.spi.Request;
 import org.apache.shpurdp.server.controller.spi.RequestStatus;
 import org.apache.shpurdp.server.controller.spi.Resource;
@@ -40,6 +45,7 @@ import org.apache.shpurdp.server.controller.spi.UnsupportedPropertyException;
 import org.apache.shpurdp.server.controller.utilities.PropertyHelper;
 import org.apache.shpurdp.server.orm.dao.HostRoleCommandDAO;
 import org.apache.shpurdp.server.orm.entities.HostRoleCommandEntity;
+import org.apache.shpurdp.server.orm.entities.HostRoleCommandEntity_;
 import org.apache.shpurdp.server.topology.TopologyManager;
 import org.apache.shpurdp.server.utils.StageUtils;
 import org.slf4j.Logger;
@@ -53,7 +59,7 @@ import com.google.inject.Inject;
  * Resource provider for task resources.
  */
 @StaticallyInject
-public class TaskResourceProvider extends AbstractControllerResourceProvider {
+public class TaskResourceProvider extends AbstractControllerResourceProvider implements ExtendedResourceProvider {
 
   private static final Logger LOG = LoggerFactory.getLogger(TaskResourceProvider.class);
 
@@ -80,6 +86,20 @@ public class TaskResourceProvider extends AbstractControllerResourceProvider {
   public static final String TASK_COMMAND_DET_PROPERTY_ID  = PropertyHelper.getPropertyId("Tasks", "command_detail");
   public static final String TASK_CUST_CMD_NAME_PROPERTY_ID  = PropertyHelper.getPropertyId("Tasks", "custom_command_name");
   public static final String TASK_COMMAND_OPS_DISPLAY_NAME  = PropertyHelper.getPropertyId("Tasks", "ops_display_name");
+  public static final String TASK_STDERR_SIZE_PROPERTY_ID  = PropertyHelper.getPropertyId("Tasks", "stderr_size");
+  public static final String TASK_STOUT_SIZE_PROPERTY_ID   = PropertyHelper.getPropertyId("Tasks", "stdout_size");
+
+  /**
+   * Read directive with the offset of the returned stdout and stderr range, a
+   * negative offset is counted from the end of the output. Passing the
+   * previously returned size reads only the output appended since then.
+   */
+  public static final String DIRECTIVE_OUTPUT_OFFSET = "output_offset";
+
+  /**
+   * Read directive with the max length of the returned stdout and stderr range.
+   */
+  public static final String DIRECTIVE_OUTPUT_LENGTH = "output_length";
 
 
   /**
@@ -110,6 +130,8 @@ public class TaskResourceProvider extends AbstractControllerResourceProvider {
     PROPERTY_IDS.add(TASK_COMMAND_DET_PROPERTY_ID);
     PROPERTY_IDS.add(TASK_CUST_CMD_NAME_PROPERTY_ID);
     PROPERTY_IDS.add(TASK_COMMAND_OPS_DISPLAY_NAME);
+    PROPERTY_IDS.add(TASK_STDERR_SIZE_PROPERTY_ID);
+    PROPERTY_IDS.add(TASK_STOUT_SIZE_PROPERTY_ID);
   }
 
   /**
@@ -139,6 +161,12 @@ public class TaskResourceProvider extends AbstractControllerResourceProvider {
   @Inject
   static TopologyManager s_topologyManager;
 
+  /**
+   * Used for reading the tasks of archived requests.
+   */
+  @Inject
+  static RequestArchive s_requestArchive;
+
   /**
    * Thread-safe Jackson JSON mapper.
    */
@@ -168,11 +196,45 @@ public class TaskResourceProvider extends AbstractControllerResourceProvider {
   @Override
   public Set<Resource> getResources(Request request, Predicate predicate)
       throws SystemException, UnsupportedPropertyException, NoSuchResourceException, NoSuchParentResourceException {
+    return getResources(request, predicate, s_dao.findAll(request, predicate));
+  }
 
-    Set<Resource> results = new LinkedHashSet<>();
-    Set<String> requestedIds = getRequestPropertyIds(request, predicate);
+
+  // ----- ExtendedResourceProvider ------------------------------------------
+
+  @Override
+  public QueryResponse queryForResources(Request request, Predicate predicate)
+      throws SystemException, UnsupportedPropertyException, NoSuchResourceException, NoSuchParentResourceException {
 
     List<HostRoleCommandEntity> entities = s_dao.findAll(request, predicate);
+    Set<Resource> results = getResources(request, predicate, entities);
+
+    // the tasks of topology requests and archived requests are not queried
+    // with JPA, they are filtered, sorted and paged by the cluster controller
+    if (entities.isEmpty()) {
+      return new QueryResponseImpl(results);
+    }
+
+    return JpaPushDown.getQueryResponse(results, request, predicate,
+        HostRoleCommandEntity_.getPredicateMapping(), () -> s_dao.getCount(predicate));
+  }
+
+  /**
+   * Converts the queried tasks, or the tasks of a topology or archived request
+   * if none were found, into resources.
+   *
+   * @param request   the request
+   * @param predicate the predicate
+   * @param entities  the tasks found by the query (not {@code null})
+   *
+   * @return the task resources
+   */
+  private Set<Resource> getResources(Request request, Predicate predicate,
+      List<HostRoleCommandEntity> entities)
+      throws SystemException, UnsupportedPropertyException, NoSuchResourceException, NoSuchParentResourceException {
+
+    Set<Resource> results = new LinkedHashSet<>();
+    Set<String> requestedIds = getRequestPropertyIds(request, predicate);
 
     // !!! getting the cluster name out of the request property maps is a little
     // hacky since there could be a different request per cluster name; however
@@ -200,10 +262,32 @@ public class TaskResourceProvider extends AbstractControllerResourceProvider {
       if (requestId != null) {
         commands.addAll(s_topologyManager.getTasks(requestId));
       }
+
+      // the request may have been moved into the archive, the predicate is
+      // applied to the archived tasks by the cluster controller
+      if (commands.isEmpty() && requestId != null && null != s_requestArchive) {
+        for (HostRoleCommandEntity entity : s_requestArchive.findTasks(requestId)) {
+          commands.add(s_hostRoleCommandFactory.createExisting(entity));
+        }
+      }
     }
 
     LOG.debug("Retrieved {} commands for request {}", commands.size(), request);
 
+    // output is not loaded with the tasks, read it only if requested
+    boolean outputRequested = isPropertyRequested(TASK_STDERR_PROPERTY_ID, requestedIds)
+        || isPropertyRequested(TASK_STOUT_PROPERTY_ID, requestedIds)
+        || isPropertyRequested(TASK_STRUCT_OUT_PROPERTY_ID, requestedIds)
+        || isPropertyRequested(TASK_STDERR_SIZE_PROPERTY_ID, requestedIds)
+        || isPropertyRequested(TASK_STOUT_SIZE_PROPERTY_ID, requestedIds);
+    if (outputRequested) {
+      loadOutputs(commands);
+    }
+
+    Map<String, String> requestInfoProperties = request.getRequestInfoProperties();
+    long outputOffset = getLongDirective(requestInfoProperties, DIRECTIVE_OUTPUT_OFFSET, 0L);
+    long outputLength = getLongDirective(requestInfoProperties, DIRECTIVE_OUTPUT_LENGTH, Long.MAX_VALUE);
+
     // convert each entity into a response
     for (HostRoleCommand hostRoleCommand : commands) {
       Resource resource = new ResourceImpl(Resource.Type.Task);
@@ -221,11 +305,19 @@ public class TaskResourceProvider extends AbstractControllerResourceProvider {
       setResourceProperty(resource, TASK_COMMAND_PROPERTY_ID, hostRoleCommand.getRoleCommand(), requestedIds);
       setResourceProperty(resource, TASK_STATUS_PROPERTY_ID, hostRoleCommand.getStatus(), requestedIds);
       setResourceProperty(resource, TASK_EXIT_CODE_PROPERTY_ID, hostRoleCommand.getExitCode(), requestedIds);
-      setResourceProperty(resource, TASK_STDERR_PROPERTY_ID, hostRoleCommand.getStderr(), requestedIds);
-      setResourceProperty(resource, TASK_STOUT_PROPERTY_ID, hostRoleCommand.getStdout(), requestedIds);
+      if (outputRequested) {
+        String stderr = hostRoleCommand.getStderr();
+        String stdout = hostRoleCommand.getStdout();
+        setResourceProperty(resource, TASK_STDERR_PROPERTY_ID, getOutputRange(stderr, outputOffset, outputLength), requestedIds);
+        setResourceProperty(resource, TASK_STOUT_PROPERTY_ID, getOutputRange(stdout, outputOffset, outputLength), requestedIds);
+        setResourceProperty(resource, TASK_STDERR_SIZE_PROPERTY_ID, stderr.length(), requestedIds);
+        setResourceProperty(resource, TASK_STOUT_SIZE_PROPERTY_ID, stdout.length(), requestedIds);
+        if (isPropertyRequested(TASK_STRUCT_OUT_PROPERTY_ID, requestedIds)) {
+          setResourceProperty(resource, TASK_STRUCT_OUT_PROPERTY_ID, parseStructuredOutput(hostRoleCommand.getStructuredOut()), requestedIds);
+        }
+      }
       setResourceProperty(resource, TASK_OUTPUTLOG_PROPERTY_ID, hostRoleCommand.getOutputLog(), requestedIds);
       setResourceProperty(resource, TASK_ERRORLOG_PROPERTY_ID, hostRoleCommand.getErrorLog(), requestedIds);
-      setResourceProperty(resource, TASK_STRUCT_OUT_PROPERTY_ID, parseStructuredOutput(hostRoleCommand.getStructuredOut()), requestedIds);
       setResourceProperty(resource, TASK_START_TIME_PROPERTY_ID, hostRoleCommand.getStartTime(), requestedIds);
       setResourceProperty(resource, TASK_END_TIME_PROPERTY_ID, hostRoleCommand.getEndTime(), requestedIds);
       setResourceProperty(resource, TASK_ATTEMPT_CNT_PROPERTY_ID, hostRoleCommand.getAttemptCount(), requestedIds);
@@ -248,6 +340,58 @@ public class TaskResourceProvider extends AbstractControllerResourceProvider {
     return results;
   }
 
+  /**
+   * Reads the output of all commands which were created without it with a
+   * query per chunk of tasks, so the output is not read task by task.
+   *
+   * @param commands the commands to load output for
+   */
+  private void loadOutputs(Collection<HostRoleCommand> commands) {
+    Map<Long, HostRoleCommand> commandsToLoad = new HashMap<>();
+    for (HostRoleCommand command : commands) {
+      if (!command.isOutputLoaded()) {
+        commandsToLoad.put(command.getTaskId(), command);
+      }
+    }
+    if (commandsToLoad.isEmpty()) {
+      return;
+    }
+    for (HostRoleCommandEntity output : s_dao.findOutputsByPKs(commandsToLoad.keySet())) {
+      commandsToLoad.get(output.getTaskId()).setOutput(output);
+    }
+  }
+
+  /**
+   * Returns a range of the output.
+   *
+   * @param output the whole output
+   * @param offset the start of the range, a negative offset is counted from the end
+   * @param length the max length of the range
+   * @return the range of the output, empty if the offset is past the end
+   */
+  static String getOutputRange(String output, long offset, long length) {
+    int size = output.length();
+    int start = (int) (offset < 0 ? Math.max(0, size + offset) : Math.min(offset, size));
+    int end = (int) Math.min(size, start + Math.min(Math.max(0, length), size));
+    if (start == 0 && end == size) {
+      return output;
+    }
+    return output.substring(start, end);
+  }
+
+  private static long getLongDirective(Map<String, String> requestInfoProperties, String directive,
+                                       long defaultValue) {
+    String value = requestInfoProperties == null ? null : requestInfoProperties.get(directive);
+    if (value == null || value.isEmpty()) {
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(String.format("The %s directive must be a number: %s", directive, value), e);
+    }
+  }
+
   /**
    * Converts the specified JSON string into a {@link Map}. For now, use Jackson
    * instead of gson since none of the integers will convert properly without a
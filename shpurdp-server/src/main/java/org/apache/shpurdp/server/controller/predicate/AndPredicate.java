@@ -63,7 +63,7 @@ public class AndPredicate extends ArrayPredicate {
 
   @Override
   public boolean evaluate(Resource resource) {
-    Predicate[] predicates = getPredicates();
+    Predicate[] predicates = getEvaluationOrder();
     for (Predicate predicate : predicates) {
       if (!predicate.evaluate(resource)) {
         return false;
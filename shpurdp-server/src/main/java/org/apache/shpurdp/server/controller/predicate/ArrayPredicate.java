@@ -19,6 +19,7 @@
 package org.apache.shpurdp.server.controller.predicate;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -30,6 +31,7 @@ import org.apache.shpurdp.server.controller.utilities.PredicateHelper;
  */
 public abstract class ArrayPredicate implements BasePredicate {
   private final Predicate[] predicates;
+  private final Predicate[] evaluationOrder;
   private final Set<String> propertyIds = new HashSet<>();
 
   // ----- Constructors -----------------------------------------------------
@@ -44,6 +46,10 @@ public abstract class ArrayPredicate implements BasePredicate {
     for (Predicate predicate : predicates) {
       propertyIds.addAll(PredicateHelper.getPropertyIds(predicate));
     }
+
+    // cheaper predicates first, so that evaluation short-circuits early
+    evaluationOrder = predicates.clone();
+    Arrays.sort(evaluationOrder, Comparator.comparingInt(ArrayPredicate::getEvaluationCost));
   }
 
 
@@ -88,6 +94,48 @@ public abstract class ArrayPredicate implements BasePredicate {
     return predicates;
   }
 
+  /**
+   * Get the predicates in the order in which they should be evaluated. The
+   * predicates are ordered by their estimated cost; equal ones keep their order.
+   *
+   * @return the predicates ordered by evaluation cost
+   */
+  protected Predicate[] getEvaluationOrder() {
+    return evaluationOrder;
+  }
+
+
+  // ----- utility methods ---------------------------------------------------
+
+  /**
+   * Estimate the relative cost of evaluating the given predicate for a resource.
+   *
+   * @param predicate  the predicate
+   *
+   * @return the estimated cost
+   */
+  static int getEvaluationCost(Predicate predicate) {
+    if (predicate instanceof FilterPredicate) {
+      // regular expression match
+      return 4;
+    }
+    if (predicate instanceof ComparisonPredicate || predicate instanceof AlwaysPredicate) {
+      return 1;
+    }
+    if (predicate instanceof UnaryPredicate) {
+      return getEvaluationCost(((UnaryPredicate) predicate).getPredicate());
+    }
+    if (predicate instanceof ArrayPredicate) {
+      int cost = 0;
+      for (Predicate child : ((ArrayPredicate) predicate).predicates) {
+        cost += getEvaluationCost(child);
+      }
+      return cost;
+    }
+    // category lookups and unknown predicates
+    return 2;
+  }
+
 
   // ----- Object overrides --------------------------------------------------
 
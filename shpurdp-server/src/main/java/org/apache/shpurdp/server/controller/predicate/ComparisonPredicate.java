@@ -27,6 +27,19 @@ import org.apache.shpurdp.server.controller.spi.Resource;
  * Predicate that compares a given value to a {@link Resource} property.
  */
 public abstract class ComparisonPredicate<T> extends PropertyPredicate implements BasePredicate {
+
+  /**
+   * Number formats of the default locale, reused since property values are
+   * parsed for every evaluated resource.
+   */
+  private static final ThreadLocal<NumberFormat> NUMBER_FORMAT =
+      ThreadLocal.withInitial(NumberFormat::getInstance);
+
+  /**
+   * Longest string of digits which is parsed without a number format.
+   */
+  private static final int MAX_PLAIN_DIGITS = 15;
+
   private final Comparable<T> value;
   private final String stringValue;
   private final Double doubleValue;
@@ -114,13 +127,35 @@ public abstract class ComparisonPredicate<T> extends PropertyPredicate implement
       return null;
     }
 
+    if (isPlainInteger(stringValue)) {
+      return (double) Long.parseLong(stringValue);
+    }
+
     ParsePosition parsePosition = new ParsePosition(0);
-    NumberFormat  numberFormat  = NumberFormat.getInstance();
+    NumberFormat  numberFormat  = NUMBER_FORMAT.get();
     Number        parsedNumber  = numberFormat.parse(stringValue, parsePosition);
 
     return parsePosition.getIndex() == stringValue.length() ? parsedNumber.doubleValue() : null;
   }
 
+  /**
+   * Determine whether the given string is a short string of ASCII digits, which
+   * every number format parses to the same value.
+   */
+  private static boolean isPlainInteger(String stringValue) {
+    int length = stringValue.length();
+    if (length > MAX_PLAIN_DIGITS) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      char c = stringValue.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public abstract String getOperator();
 
   public abstract ComparisonPredicate<T> copy(String propertyId);
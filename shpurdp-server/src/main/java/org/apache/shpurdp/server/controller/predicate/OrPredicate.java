@@ -67,7 +67,7 @@ public class OrPredicate extends ArrayPredicate {
 
   @Override
   public boolean evaluate(Resource resource) {
-    Predicate[] predicates = getPredicates();
+    Predicate[] predicates = getEvaluationOrder();
     for (Predicate predicate : predicates) {
       if (predicate.evaluate(resource)) {
         return true;
@@ -55,4 +55,18 @@ public interface QueryResponse {
    * @return total the total number of resources in the query result
    */
   int getTotalResourceCount();
+
+  /**
+   * Get the part of the query predicate which the resources of the response
+   * still have to be filtered with. A provider which applies some or all of
+   * the predicate while querying returns only the rest.
+   *
+   * @param predicate  the query predicate
+   *
+   * @return the predicate left to evaluate, or {@code null} if all of the
+   *         resources match
+   */
+  default Predicate getResidualPredicate(Predicate predicate) {
+    return predicate;
+  }
 }
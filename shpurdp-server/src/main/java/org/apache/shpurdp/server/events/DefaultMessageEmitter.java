@@ -82,8 +82,9 @@ public class DefaultMessageEmitter extends MessageEmitter {
   )));
 
   public DefaultMessageEmitter(AgentSessionManager agentSessionManager, SimpMessagingTemplate simpMessagingTemplate,
-                               ShpurdpEventPublisher shpurdpEventPublisher, int retryCount, int retryInterval) {
-    super(agentSessionManager, simpMessagingTemplate, shpurdpEventPublisher, retryCount, retryInterval);
+                               ShpurdpEventPublisher shpurdpEventPublisher, STOMPPayloadCache payloadCache,
+                               int retryCount, int retryInterval) {
+    super(agentSessionManager, simpMessagingTemplate, shpurdpEventPublisher, payloadCache, retryCount, retryInterval);
   }
 
   @Override
@@ -42,6 +42,8 @@ import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
 
 import com.google.common.eventbus.Subscribe;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -67,12 +69,15 @@ public abstract class MessageEmitter {
   protected ConcurrentHashMap<Long, EmitTaskWrapper> unconfirmedMessages = new ConcurrentHashMap<>();
   protected ConcurrentHashMap<Long, BlockingQueue<EmitTaskWrapper>> messagesToEmit = new ConcurrentHashMap<>();
   private ShpurdpEventPublisher shpurdpEventPublisher;
+  private final STOMPPayloadCache payloadCache;
 
   public MessageEmitter(AgentSessionManager agentSessionManager, SimpMessagingTemplate simpMessagingTemplate,
-                        ShpurdpEventPublisher shpurdpEventPublisher, int retryCount, int retryInterval) {
+                        ShpurdpEventPublisher shpurdpEventPublisher, STOMPPayloadCache payloadCache,
+                        int retryCount, int retryInterval) {
     this.agentSessionManager = agentSessionManager;
     this.simpMessagingTemplate = simpMessagingTemplate;
     this.shpurdpEventPublisher = shpurdpEventPublisher;
+    this.payloadCache = payloadCache;
     this.retryCount = retryCount;
     this.retryInterval = retryInterval;
     shpurdpEventPublisher.register(this);
@@ -156,7 +161,11 @@ public abstract class MessageEmitter {
    */
   protected void emitMessageToAll(STOMPEvent event) {
     LOG.debug("Received status update event {}", event);
-    simpMessagingTemplate.convertAndSend(getDestination(event), event);
+    SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    headerAccessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+    headerAccessor.setLeaveMutable(true);
+    simpMessagingTemplate.send(getDestination(event),
+        MessageBuilder.createMessage(payloadCache.getPayload(event), headerAccessor.getMessageHeaders()));
   }
 
   /**
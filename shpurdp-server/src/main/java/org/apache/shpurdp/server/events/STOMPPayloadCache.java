@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.shpurdp.server.events;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.shpurdp.server.ShpurdpRuntimeException;
+import org.apache.shpurdp.server.configuration.Configuration;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Keeps json payloads of broadcast STOMP events, so the same event emitted by both agent and API message brokers
+ * is serialized only once. Events are cached by identity and are not expected to be changed after publishing.
+ */
+@Singleton
+public class STOMPPayloadCache {
+
+  /**
+   * Is configured the same way as the mapper used by spring message brokers.
+   */
+  private final ObjectMapper objectMapper = new MappingJackson2MessageConverter().getObjectMapper();
+
+  private final Cache<STOMPEvent, byte[]> payloads;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong savedBytes = new AtomicLong();
+
+  @Inject
+  public STOMPPayloadCache(Configuration configuration) {
+    payloads = CacheBuilder.newBuilder()
+        .weakKeys()
+        .maximumSize(configuration.getStompPayloadCacheSize())
+        .expireAfterWrite(configuration.getStompPayloadCacheExpiration(), TimeUnit.SECONDS)
+        .build();
+  }
+
+  /**
+   * Returns json payload of the event, the event is serialized only on first call.
+   *
+   * @param event event to serialize
+   * @return json payload
+   */
+  public byte[] getPayload(STOMPEvent event) {
+    AtomicBoolean serialized = new AtomicBoolean(false);
+    byte[] payload;
+    try {
+      payload = payloads.get(event, () -> {
+        serialized.set(true);
+        return objectMapper.writeValueAsBytes(event);
+      });
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw new ShpurdpRuntimeException("Error during serialization of event with type " + event.getType(), e.getCause());
+    }
+    if (serialized.get()) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+      savedBytes.addAndGet(payload.length);
+    }
+    return payload;
+  }
+
+  /**
+   * @return amount of payloads reused.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return amount of serialized events.
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * @return amount of bytes which were not serialized again.
+   */
+  public long getSavedBytes() {
+    return savedBytes.get();
+  }
+}
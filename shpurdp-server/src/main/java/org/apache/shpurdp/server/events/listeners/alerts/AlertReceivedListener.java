@@ -37,7 +37,6 @@ import org.apache.shpurdp.server.events.AlertStateChangeEvent;
 import org.apache.shpurdp.server.events.AlertUpdateEvent;
 import org.apache.shpurdp.server.events.InitialAlertEvent;
 import org.apache.shpurdp.server.events.publishers.AlertEventPublisher;
-import org.apache.shpurdp.server.events.publishers.STOMPUpdatePublisher;
 import org.apache.shpurdp.server.orm.RequiresSession;
 import org.apache.shpurdp.server.orm.dao.AlertDefinitionDAO;
 import org.apache.shpurdp.server.orm.dao.AlertsDAO;
@@ -95,9 +94,6 @@ public class AlertReceivedListener {
   @Inject
   private Provider<Clusters> m_clusters;
 
-  @Inject
-  private STOMPUpdatePublisher STOMPUpdatePublisher;
-
   /**
    * Used to calculate the maintenance state of new alerts being created.
    * Consider the case where you have disabled alerts for a component in MM.
@@ -111,6 +107,12 @@ public class AlertReceivedListener {
   @Inject
   private AlertHelper alertHelper;
 
+  /**
+   * Writes alert state changes of several events in a single transaction.
+   */
+  @Inject
+  private AlertWriteBatcher m_alertWriteBatcher;
+
   /**
    * Receives and publishes {@link AlertEvent} instances.
    */
@@ -382,17 +384,14 @@ public class AlertReceivedListener {
       }
     }
 
-    // invokes the EntityManager create/merge on various entities in a single
-    // transaction
-    m_alertsDao.saveEntities(toMerge, toCreateHistoryAndMerge);
-
-    // broadcast events
-    for (AlertEvent eventToFire : alertEvents) {
-      m_alertEventPublisher.publish(eventToFire);
-    }
-    if (!alertUpdates.isEmpty()) {
-      STOMPUpdatePublisher.publish(new AlertUpdateEvent(alertUpdates));
+    if (toMerge.isEmpty() && toCreateHistoryAndMerge.isEmpty() && alertEvents.isEmpty() && alertUpdates.isEmpty()) {
+      return;
     }
+
+    // the entities are written together with changes of other events in a
+    // single transaction, events are broadcast after the write
+    m_alertWriteBatcher.submit(toMerge, toCreateHistoryAndMerge, alertEvents,
+        alertUpdates.isEmpty() ? null : new AlertUpdateEvent(alertUpdates));
   }
 
   private void clearStaleAlerts(String hostName, Long definitionId) throws ShpurdpException {
@@ -428,20 +427,32 @@ public class AlertReceivedListener {
   }
 
   /**
-   * Gets the {@link AlertCurrentEntity} which cooresponds to the new alert being received, if any.
+   * Gets a copy of the {@link AlertCurrentEntity} which cooresponds to the new alert being received, if any.
+   * The copy is changed and submitted for the write, so neither the batch being written nor the cached
+   * alerts ever contain a partially updated alert.
    *
    * @param clusterId the ID of the cluster.
    * @param alert the alert being received (not {@code null}).
    * @param definition  the {@link AlertDefinitionEntity} for the alert being received (not {@code null}).
-   * @return  the existing current alert or {@code null} for none.
+   * @return  the copy of the existing current alert or {@code null} for none.
    */
   private AlertCurrentEntity getCurrentEntity(long clusterId, Alert alert, AlertDefinitionEntity definition){
-    if (StringUtils.isBlank(alert.getHostName()) || definition.isHostIgnored()) {
-      return m_alertsDao.findCurrentByNameNoHost(clusterId, alert.getName());
+    // alerts with changes waiting for the write are more recent than the persisted ones
+    boolean hostIgnored = StringUtils.isBlank(alert.getHostName()) || definition.isHostIgnored();
+    AlertCurrentEntity pending = m_alertWriteBatcher.getPendingAlert(clusterId, alert.getName(),
+        hostIgnored ? null : alert.getHostName());
+    if (null != pending) {
+      return pending;
+    }
+
+    AlertCurrentEntity current;
+    if (hostIgnored) {
+      current = m_alertsDao.findCurrentByNameNoHost(clusterId, alert.getName());
     } else {
-      return m_alertsDao.findCurrentByHostAndName(clusterId, alert.getHostName(),
+      current = m_alertsDao.findCurrentByHostAndName(clusterId, alert.getHostName(),
         alert.getName());
     }
+    return null == current ? null : new AlertCurrentEntity(current);
   }
 
   /**
@@ -0,0 +1,399 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.events.listeners.alerts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.shpurdp.server.configuration.Configuration;
+import org.apache.shpurdp.server.events.AlertEvent;
+import org.apache.shpurdp.server.events.AlertUpdateEvent;
+import org.apache.shpurdp.server.events.publishers.AlertEventPublisher;
+import org.apache.shpurdp.server.events.publishers.STOMPUpdatePublisher;
+import org.apache.shpurdp.server.orm.dao.AlertsDAO;
+import org.apache.shpurdp.server.orm.entities.AlertCurrentEntity;
+import org.apache.shpurdp.server.orm.entities.AlertHistoryEntity;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * The {@link AlertWriteBatcher} accumulates alert state changes produced by the
+ * {@link AlertReceivedListener} for a short window and writes them to the
+ * database in a single transaction, so that histories and current alerts are
+ * written with JDBC batches. Alert events and UI updates which depend on the
+ * written entities are published after the write, in order of submission.
+ * <p/>
+ * Copies of current alerts waiting for the write are returned by
+ * {@link #getPendingAlert(long, String, String)}, so alerts received during
+ * the window are applied on top of the pending state without changing the
+ * submitted entities, which may be written at any time. A batch which failed to
+ * be written is put back in front of the pending changes and written again
+ * after a delay growing with each consecutive failure.
+ */
+@Singleton
+public class AlertWriteBatcher {
+  /**
+   * Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(AlertWriteBatcher.class);
+
+  /**
+   * The max delay, in milliseconds, before writing a failed batch again.
+   */
+  private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+  @Inject
+  private AlertsDAO m_alertsDao;
+
+  @Inject
+  private AlertEventPublisher m_alertEventPublisher;
+
+  @Inject
+  private STOMPUpdatePublisher m_stompUpdatePublisher;
+
+  /**
+   * The time, in milliseconds, state changes are accumulated.
+   */
+  private final long m_window;
+
+  /**
+   * The amount of state changes causing immediate write.
+   */
+  private final int m_batchSize;
+
+  /**
+   * Writes batches after the window, {@code null} if the window is disabled.
+   */
+  private final ScheduledExecutorService m_scheduler;
+
+  /**
+   * Ensures batches are written one by one in order of forming.
+   */
+  private final Object m_writeLock = new Object();
+
+  /**
+   * Batch accepting state changes, guarded by {@code this}.
+   */
+  private AlertWriteBatch m_pendingBatch = new AlertWriteBatch();
+
+  /**
+   * Batch being written, guarded by {@code this}.
+   */
+  private AlertWriteBatch m_writingBatch;
+
+  /**
+   * The amount of consecutive failed writes, guarded by {@code this}.
+   */
+  private int m_failedWrites = 0;
+
+  private final AtomicLong m_submittedEvents = new AtomicLong();
+  private final AtomicLong m_createdHistories = new AtomicLong();
+  private final AtomicLong m_savedAlerts = new AtomicLong();
+  private final AtomicLong m_writtenBatches = new AtomicLong();
+  private final AtomicLong m_writeTime = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param configuration
+   */
+  @Inject
+  public AlertWriteBatcher(Configuration configuration) {
+    m_window = configuration.getAlertWriteBatchWindow();
+    m_batchSize = configuration.getAlertWriteBatchSize();
+    m_scheduler = m_window <= 0 ? null : Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("alert-write-batcher-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Adds state changes of one alert event to the batch.
+   *
+   * @param toMerge
+   *          alerts which only changed timestamp or text
+   * @param toCreateHistoryAndMerge
+   *          alerts which changed state and reference new history records
+   * @param alertEvents
+   *          events to publish after the write
+   * @param alertUpdate
+   *          UI update to publish after the write, or {@code null} for none
+   */
+  public void submit(List<AlertCurrentEntity> toMerge, List<AlertCurrentEntity> toCreateHistoryAndMerge,
+      List<AlertEvent> alertEvents, AlertUpdateEvent alertUpdate) {
+    m_submittedEvents.incrementAndGet();
+
+    boolean writeNow;
+    boolean scheduleWrite;
+    synchronized (this) {
+      AlertWriteBatch batch = m_pendingBatch;
+      scheduleWrite = batch.isEmpty();
+      batch.add(toMerge, toCreateHistoryAndMerge, alertEvents, alertUpdate);
+      writeNow = m_scheduler == null || batch.size() >= m_batchSize;
+    }
+
+    if (writeNow && m_scheduler == null) {
+      write();
+    } else if (writeNow) {
+      writeQuietly();
+    } else if (scheduleWrite) {
+      m_scheduler.schedule(this::writeQuietly, m_window, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Gets a copy of the current alert which has changes waiting for the write.
+   * The copy can be changed and submitted again, the submitted alert replaces
+   * the pending one.
+   *
+   * @param clusterId
+   *          the ID of the cluster.
+   * @param definitionName
+   *          the name of the alert definition.
+   * @param hostName
+   *          the host of the alert, or {@code null} for alerts not bound to a
+   *          host.
+   * @return the copy of the pending alert, or {@code null} for none.
+   */
+  public synchronized AlertCurrentEntity getPendingAlert(long clusterId, String definitionName, String hostName) {
+    List<Object> key = AlertWriteBatch.getKey(clusterId, definitionName, hostName);
+    AlertCurrentEntity alert = m_pendingBatch.getAlert(key);
+    if (alert != null) {
+      return new AlertCurrentEntity(alert);
+    }
+
+    // alerts being written are merged by the writer, the caller gets them
+    // from the database after the commit or from the pending batch if the
+    // write failed
+    boolean interrupted = false;
+    while (m_writingBatch != null && m_writingBatch.getAlert(key) != null) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    alert = m_pendingBatch.getAlert(key);
+    return alert == null ? null : new AlertCurrentEntity(alert);
+  }
+
+  /**
+   * Writes accumulated state changes to the database and publishes events
+   * which depend on them.
+   */
+  public void write() {
+    synchronized (m_writeLock) {
+      AlertWriteBatch batch;
+      synchronized (this) {
+        batch = m_pendingBatch;
+        if (batch.isEmpty()) {
+          return;
+        }
+        m_pendingBatch = new AlertWriteBatch();
+        m_writingBatch = batch;
+      }
+
+      long startTime = System.nanoTime();
+      try {
+        m_alertsDao.saveEntities(batch.m_histories, batch.getAlertsToMerge(), batch.getAlertsToUpdate());
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          // changes submitted during the write are newer than the failed ones
+          batch.requeue(m_pendingBatch);
+          m_pendingBatch = batch;
+          m_writingBatch = null;
+          m_failedWrites++;
+          notifyAll();
+        }
+        throw e;
+      }
+      synchronized (this) {
+        m_writingBatch = null;
+        m_failedWrites = 0;
+        notifyAll();
+      }
+      m_writeTime.addAndGet(System.nanoTime() - startTime);
+      m_writtenBatches.incrementAndGet();
+      m_createdHistories.addAndGet(batch.m_histories.size());
+      m_savedAlerts.addAndGet(batch.m_alerts.size());
+
+      for (AlertEvent eventToFire : batch.m_alertEvents) {
+        m_alertEventPublisher.publish(eventToFire);
+      }
+      for (AlertUpdateEvent alertUpdate : batch.m_alertUpdates) {
+        m_stompUpdatePublisher.publish(alertUpdate);
+      }
+    }
+  }
+
+  private void writeQuietly() {
+    try {
+      write();
+    } catch (Exception e) {
+      long retryDelay;
+      synchronized (this) {
+        retryDelay = Math.min(m_window << Math.min(m_failedWrites, 10), MAX_RETRY_DELAY);
+      }
+      LOG.error("Unable to write alert state changes to the database, retrying in {} ms", retryDelay, e);
+      m_scheduler.schedule(this::writeQuietly, retryDelay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * @return the amount of alert events submitted.
+   */
+  public long getSubmittedEvents() {
+    return m_submittedEvents.get();
+  }
+
+  /**
+   * @return the amount of alert history records created.
+   */
+  public long getCreatedHistories() {
+    return m_createdHistories.get();
+  }
+
+  /**
+   * @return the amount of current alerts saved, each alert is counted once per batch.
+   */
+  public long getSavedAlerts() {
+    return m_savedAlerts.get();
+  }
+
+  /**
+   * @return the amount of batches written.
+   */
+  public long getWrittenBatches() {
+    return m_writtenBatches.get();
+  }
+
+  /**
+   * @return total time, in milliseconds, spent on writing batches.
+   */
+  public long getWriteTime() {
+    return TimeUnit.NANOSECONDS.toMillis(m_writeTime.get());
+  }
+
+  /**
+   * State changes of several alert events.
+   */
+  private static final class AlertWriteBatch {
+    private final List<AlertHistoryEntity> m_histories = new ArrayList<>();
+    private final Map<List<Object>, AlertCurrentEntity> m_alerts = new LinkedHashMap<>();
+    private final Map<List<Object>, Boolean> m_stateChanged = new LinkedHashMap<>();
+    private final List<AlertEvent> m_alertEvents = new ArrayList<>();
+    private final List<AlertUpdateEvent> m_alertUpdates = new ArrayList<>();
+
+    private static List<Object> getKey(long clusterId, String definitionName, String hostName) {
+      return Arrays.asList(clusterId, definitionName, StringUtils.isBlank(hostName) ? null : hostName);
+    }
+
+    private static List<Object> getKey(AlertCurrentEntity alert) {
+      AlertHistoryEntity history = alert.getAlertHistory();
+      return getKey(history.getClusterId(), history.getAlertDefinition().getDefinitionName(),
+          history.getHostName());
+    }
+
+    private void add(List<AlertCurrentEntity> toMerge, List<AlertCurrentEntity> toCreateHistoryAndMerge,
+        List<AlertEvent> alertEvents, AlertUpdateEvent alertUpdate) {
+      for (AlertCurrentEntity alert : toMerge) {
+        List<Object> key = getKey(alert);
+        m_alerts.put(key, alert);
+        m_stateChanged.putIfAbsent(key, Boolean.FALSE);
+      }
+      for (AlertCurrentEntity alert : toCreateHistoryAndMerge) {
+        // the history is captured now, the alert may reference a newer one at the time of the write
+        m_histories.add(alert.getAlertHistory());
+        List<Object> key = getKey(alert);
+        m_alerts.put(key, alert);
+        m_stateChanged.put(key, Boolean.TRUE);
+      }
+      m_alertEvents.addAll(alertEvents);
+      if (alertUpdate != null) {
+        m_alertUpdates.add(alertUpdate);
+      }
+    }
+
+    /**
+     * Makes this failed batch contain the newer changes on top of its own
+     * ones. Histories created by the rolled back transaction get new IDs on
+     * the next write.
+     */
+    private void requeue(AlertWriteBatch newerBatch) {
+      m_histories.addAll(newerBatch.m_histories);
+      for (AlertHistoryEntity history : m_histories) {
+        history.setAlertId(null);
+      }
+      m_alerts.putAll(newerBatch.m_alerts);
+      newerBatch.m_stateChanged.forEach((key, stateChanged) -> {
+        if (stateChanged) {
+          m_stateChanged.put(key, Boolean.TRUE);
+        } else {
+          m_stateChanged.putIfAbsent(key, Boolean.FALSE);
+        }
+      });
+      m_alertEvents.addAll(newerBatch.m_alertEvents);
+      m_alertUpdates.addAll(newerBatch.m_alertUpdates);
+    }
+
+    private AlertCurrentEntity getAlert(List<Object> key) {
+      return m_alerts.get(key);
+    }
+
+    private List<AlertCurrentEntity> getAlertsToMerge() {
+      List<AlertCurrentEntity> alerts = new ArrayList<>();
+      m_stateChanged.forEach((key, stateChanged) -> {
+        if (stateChanged) {
+          alerts.add(m_alerts.get(key));
+        }
+      });
+      return alerts;
+    }
+
+    private List<AlertCurrentEntity> getAlertsToUpdate() {
+      List<AlertCurrentEntity> alerts = new ArrayList<>();
+      m_stateChanged.forEach((key, stateChanged) -> {
+        if (!stateChanged) {
+          alerts.add(m_alerts.get(key));
+        }
+      });
+      return alerts;
+    }
+
+    private int size() {
+      return m_histories.size() + m_alerts.size();
+    }
+
+    private boolean isEmpty() {
+      return m_alerts.isEmpty() && m_alertEvents.isEmpty() && m_alertUpdates.isEmpty();
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.shpurdp.server.events.listeners.tasks;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.apache.shpurdp.server.actionmanager.HostRoleStatus;
+import org.apache.shpurdp.server.controller.internal.CalculatedStatus;
+
+/**
+ * Histogram of {@link HostRoleStatus} values indexed by ordinal. It is updated on every status
+ * transition, so the status counts of a stage or request are available in constant time
+ * instead of being recalculated from all of its tasks or stages.
+ */
+public class HostRoleStatusCounts {
+
+  private static final HostRoleStatus[] STATUSES = HostRoleStatus.values();
+
+  private final int[] counts = new int[STATUSES.length];
+
+  private int total = 0;
+
+  /**
+   * Counts a new value.
+   * @param status status of the added value
+   */
+  public synchronized void add(HostRoleStatus status) {
+    counts[status.ordinal()]++;
+    total++;
+  }
+
+  /**
+   * Removes a previously counted value.
+   * @param status status of the removed value
+   */
+  public synchronized void remove(HostRoleStatus status) {
+    counts[status.ordinal()]--;
+    total--;
+  }
+
+  /**
+   * Moves a previously counted value from one status to another.
+   * @param from status the value was counted with
+   * @param to   new status of the value
+   */
+  public synchronized void move(HostRoleStatus from, HostRoleStatus to) {
+    if (from != to) {
+      counts[from.ordinal()]--;
+      counts[to.ordinal()]++;
+    }
+  }
+
+  /**
+   * @param status status
+   * @return amount of values with the given status
+   */
+  public synchronized int get(HostRoleStatus status) {
+    return counts[status.ordinal()];
+  }
+
+  /**
+   * @return amount of all counted values
+   */
+  public synchronized int getTotal() {
+    return total;
+  }
+
+  /**
+   * @return <code>true</code> if all counted values are in a completed state
+   */
+  public synchronized boolean isAllCompleted() {
+    int completed = 0;
+    for (HostRoleStatus status : STATUSES) {
+      if (status.isCompletedState()) {
+        completed += counts[status.ordinal()];
+      }
+    }
+    return completed == total;
+  }
+
+  /**
+   * Returns the counts in the form used by {@link CalculatedStatus}: values in any completed
+   * state are also counted as {@link HostRoleStatus#COMPLETED} and {@link HostRoleStatus#IN_PROGRESS}
+   * is overwritten to have the sum converged.
+   *
+   * @return a map of counts keyed by the status
+   * @see CalculatedStatus#calculateStatusCounts(java.util.Collection)
+   */
+  public synchronized Map<HostRoleStatus, Integer> toStatusCounters() {
+    Map<HostRoleStatus, Integer> counters = new EnumMap<>(HostRoleStatus.class);
+    int completed = 0;
+    for (HostRoleStatus status : STATUSES) {
+      counters.put(status, counts[status.ordinal()]);
+      if (status.isCompletedState()) {
+        completed += counts[status.ordinal()];
+      }
+    }
+    counters.put(HostRoleStatus.COMPLETED, completed);
+    counters.put(HostRoleStatus.IN_PROGRESS, total - completed
+        - counts[HostRoleStatus.QUEUED.ordinal()] - counts[HostRoleStatus.PENDING.ordinal()]);
+    return counters;
+  }
+}
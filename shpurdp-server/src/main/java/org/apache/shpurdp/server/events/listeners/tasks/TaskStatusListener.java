@@ -22,7 +22,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -51,10 +50,6 @@ import org.apache.shpurdp.server.orm.entities.StageEntityPK;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.base.Function;
-import com.google.common.base.Predicate;
-import com.google.common.collect.FluentIterable;
-import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -132,20 +127,24 @@ public class TaskStatusListener {
     List<HostRoleCommand> hostRoleCommandListAll = event.getHostRoleCommands();
     List<HostRoleCommand>  hostRoleCommandWithReceivedStatus =  new ArrayList<>();
     Set<StageEntityPK> stagesWithReceivedTaskStatus = new HashSet<>();
+    Map<StageEntityPK, HostRoleStatusCounts> receivedTaskStatusCounts = new HashMap<>();
     Set<Long> requestIdsWithReceivedTaskStatus =  new HashSet<>();
     Set<RequestUpdateEvent> requestsToPublish = new HashSet<>();
     Set<NamedTaskUpdateEvent> namedTasksToPublish = new HashSet<>();
 
     for (HostRoleCommand hostRoleCommand : hostRoleCommandListAll) {
       Long reportedTaskId = hostRoleCommand.getTaskId();
+      StageEntityPK stageEntityPK = new StageEntityPK();
+      stageEntityPK.setRequestId(hostRoleCommand.getRequestId());
+      stageEntityPK.setStageId(hostRoleCommand.getStageId());
+      receivedTaskStatusCounts.computeIfAbsent(stageEntityPK, pk -> new HostRoleStatusCounts())
+          .add(hostRoleCommand.getStatus());
+
       HostRoleCommand activeTask =  activeTasksMap.get(reportedTaskId);
       if (activeTask == null) {
         LOG.error(String.format("Received update for a task %d which is not being tracked as running task", reportedTaskId));
       } else  {
         hostRoleCommandWithReceivedStatus.add(hostRoleCommand);
-        StageEntityPK stageEntityPK = new StageEntityPK();
-        stageEntityPK.setRequestId(hostRoleCommand.getRequestId());
-        stageEntityPK.setStageId(hostRoleCommand.getStageId());
         stagesWithReceivedTaskStatus.add(stageEntityPK);
         requestIdsWithReceivedTaskStatus.add(hostRoleCommand.getRequestId());
 
@@ -186,7 +185,7 @@ public class TaskStatusListener {
       }
     }
     updateActiveTasksMap(hostRoleCommandWithReceivedStatus);
-    Boolean didAnyStageStatusUpdated = updateActiveStagesStatus(stagesWithReceivedTaskStatus, hostRoleCommandListAll);
+    Boolean didAnyStageStatusUpdated = updateActiveStagesStatus(stagesWithReceivedTaskStatus, receivedTaskStatusCounts);
     // Presumption: If there is no update in any of the running stage's status
     // then none of the running request status needs to be updated
     if (didAnyStageStatusUpdated) {
@@ -219,27 +218,40 @@ public class TaskStatusListener {
 
 
   /**
-   * update changed host role command status
+   * update changed host role command status and the task status counts of their stages
    * @param hostRoleCommandWithReceivedStatus list of host role commands reported
    */
   private void updateActiveTasksMap(List<HostRoleCommand> hostRoleCommandWithReceivedStatus) {
     for (HostRoleCommand hostRoleCommand : hostRoleCommandWithReceivedStatus) {
       Long taskId = hostRoleCommand.getTaskId();
       activeTasksMap.put(taskId , hostRoleCommand);
+      ActiveStage activeStage = activeStageMap.get(getStagePK(hostRoleCommand));
+      if (activeStage != null) {
+        activeStage.setTaskStatus(taskId, hostRoleCommand.getStatus());
+      }
     }
   }
 
+  /**
+   * @param hostRoleCommand host role command
+   * @return {@link StageEntityPK} of the stage the host role command belongs to
+   */
+  private StageEntityPK getStagePK(HostRoleCommand hostRoleCommand) {
+    StageEntityPK stageEntityPK = new StageEntityPK();
+    stageEntityPK.setRequestId(hostRoleCommand.getRequestId());
+    stageEntityPK.setStageId(hostRoleCommand.getStageId());
+    return stageEntityPK;
+  }
+
 
   /**
    * Adds new {@link StageEntityPK} to be tracked as running stage in {@link #activeStageMap}
    * @param hostRoleCommand newly created {@link HostRoleCommand} in {@link #activeTasksMap}
    */
   private void addStagePK(HostRoleCommand hostRoleCommand) {
-    StageEntityPK stageEntityPK = new StageEntityPK();
-    stageEntityPK.setRequestId(hostRoleCommand.getRequestId());
-    stageEntityPK.setStageId(hostRoleCommand.getStageId());
+    StageEntityPK stageEntityPK = getStagePK(hostRoleCommand);
     if (activeStageMap.containsKey(stageEntityPK)) {
-      activeStageMap.get(stageEntityPK).addTaskId(hostRoleCommand.getTaskId());
+      activeStageMap.get(stageEntityPK).setTaskStatus(hostRoleCommand.getTaskId(), hostRoleCommand.getStatus());
     } else {
       StageEntity stageEntity = stageDAO.findByPK(stageEntityPK);
       // Stage entity of the hostrolecommand should be persisted before publishing task create event
@@ -249,10 +261,9 @@ public class TaskStatusListener {
       for (RoleSuccessCriteriaEntity successCriteriaEntity : roleSuccessCriteriaEntities) {
         successFactors.put(successCriteriaEntity.getRole(), successCriteriaEntity.getSuccessFactor().floatValue());
       }
-      Set<Long> taskIdSet =  Sets.newHashSet(hostRoleCommand.getTaskId());
-
       ActiveStage reportedStage = new ActiveStage(stageEntity.getStatus(), stageEntity.getDisplayStatus(),
-          successFactors, stageEntity.isSkippable(), taskIdSet);
+          successFactors, stageEntity.isSkippable());
+      reportedStage.setTaskStatus(hostRoleCommand.getTaskId(), hostRoleCommand.getStatus());
       activeStageMap.put(stageEntityPK, reportedStage);
     }
   }
@@ -260,17 +271,25 @@ public class TaskStatusListener {
   /**
    * update and persist all changed stage status
    * @param stagesWithReceivedTaskStatus set of stages that has received task status
-   * @param hostRoleCommandListAll list of all task updates received from agent
+   * @param receivedTaskStatusCounts counts of task statuses received from agent per stage
    * @return  <code>true</code> if any of the stage has changed it's existing status;
    *          <code>false</code> otherwise
    */
-  private Boolean updateActiveStagesStatus(final Set<StageEntityPK> stagesWithReceivedTaskStatus, List<HostRoleCommand> hostRoleCommandListAll) {
+  private Boolean updateActiveStagesStatus(final Set<StageEntityPK> stagesWithReceivedTaskStatus,
+                                           Map<StageEntityPK, HostRoleStatusCounts> receivedTaskStatusCounts) {
     Boolean didAnyStageStatusUpdated = Boolean.FALSE;
     for (StageEntityPK reportedStagePK : stagesWithReceivedTaskStatus) {
       if (activeStageMap.containsKey(reportedStagePK)) {
-        Boolean didStatusChange = updateStageStatus(reportedStagePK, hostRoleCommandListAll);
+        ActiveStage reportedStage = activeStageMap.get(reportedStagePK);
+        HostRoleStatus previousStatus = reportedStage.getStatus();
+        HostRoleStatus previousDisplayStatus = reportedStage.getDisplayStatus();
+        Boolean didStatusChange = updateStageStatus(reportedStagePK, receivedTaskStatusCounts.get(reportedStagePK));
         if (didStatusChange) {
-          ActiveStage reportedStage = activeStageMap.get(reportedStagePK);
+          ActiveRequest request = activeRequestMap.get(reportedStagePK.getRequestId());
+          if (request != null) {
+            request.updateStageStatus(previousStatus, previousDisplayStatus, reportedStage.getStatus(),
+                reportedStage.getDisplayStatus());
+          }
           stageDAO.updateStatus(reportedStagePK, reportedStage.getStatus(), reportedStage.getDisplayStatus());
           didAnyStageStatusUpdated = Boolean.TRUE;
         }
@@ -288,18 +307,17 @@ public class TaskStatusListener {
    */
   private void addRequestId(HostRoleCommand hostRoleCommand) {
     Long requestId = hostRoleCommand.getRequestId();
-    StageEntityPK stageEntityPK = new StageEntityPK();
-    stageEntityPK.setRequestId(hostRoleCommand.getRequestId());
-    stageEntityPK.setStageId(hostRoleCommand.getStageId());
+    StageEntityPK stageEntityPK = getStagePK(hostRoleCommand);
+    ActiveStage activeStage = activeStageMap.get(stageEntityPK);
     if (activeRequestMap.containsKey(requestId)) {
-      activeRequestMap.get(requestId).addStageEntityPK(stageEntityPK);
+      activeRequestMap.get(requestId).addStage(stageEntityPK, activeStage);
     } else {
       RequestEntity requestEntity = requestDAO.findByPK(requestId);
       // Request entity of the hostrolecommand should be persisted before publishing task create event
       assert requestEntity != null;
-      Set<StageEntityPK> stageEntityPKs =  Sets.newHashSet(stageEntityPK);
       ActiveRequest request = new ActiveRequest(requestEntity.getStatus(),requestEntity.getDisplayStatus(),
-          stageEntityPKs, requestEntity.getClusterId());
+          requestEntity.getClusterId());
+      request.addStage(stageEntityPK, activeStage);
       activeRequestMap.put(requestId, request);
     }
   }
@@ -338,13 +356,14 @@ public class TaskStatusListener {
    *          <code>true</code> otherwise
    */
   private Boolean isAllTasksCompleted(Long requestId) {
-    Boolean result = Boolean.TRUE;
-    for (Map.Entry<Long, HostRoleCommand> entry : activeTasksMap.entrySet()) {
-      if (entry.getValue().getRequestId() == requestId && !entry.getValue().getStatus().isCompletedState()) {
-        result = Boolean.FALSE;
+    ActiveRequest request = activeRequestMap.get(requestId);
+    for (StageEntityPK stageEntityPK : request.getStageEntityPks()) {
+      ActiveStage activeStage = activeStageMap.get(stageEntityPK);
+      if (activeStage != null && !activeStage.getTaskStatusCounts().isAllCompleted()) {
+        return Boolean.FALSE;
       }
     }
-    return result;
+    return Boolean.TRUE;
   }
 
   /**
@@ -358,32 +377,14 @@ public class TaskStatusListener {
   }
 
 
-  /**
-   * Filters list of {@link Stage} to list of {@link StageEntityPK}
-   * @param requestID requestId
-   * @return  list of StageEntityPK
-   */
-  private List<StageEntityPK> getAllStageEntityPKForRequest(final Long requestID) {
-    Predicate<StageEntityPK> predicate = new Predicate<StageEntityPK>() {
-      @Override
-      public boolean apply(StageEntityPK stageEntityPK) {
-        return stageEntityPK.getRequestId().equals(requestID);
-      }
-    };
-    return  FluentIterable.from(activeStageMap.keySet())
-        .filter(predicate)
-        .toList();
-  }
-
-
 
   /**
    * Returns the computed status of the stage from the status of it's host role commands
    * @param stagePK {@link StageEntityPK} primary key for the stage entity
-   * @param hostRoleCommandListAll list of all hrc received whose status has been received from agent
+   * @param receivedTaskStatusCounts counts of the statuses of the stage tasks received from agent
    * @return {@link Boolean} <code>TRUE</code> if status of the given stage changed.
    */
-  private Boolean updateStageStatus(final StageEntityPK stagePK, List<HostRoleCommand> hostRoleCommandListAll) {
+  private Boolean updateStageStatus(final StageEntityPK stagePK, HostRoleStatusCounts receivedTaskStatusCounts) {
     Boolean didAnyStatusChanged = Boolean.FALSE;
     ActiveStage reportedStage = activeStageMap.get(stagePK);
     HostRoleStatus stageCurrentStatus = reportedStage.getStatus();
@@ -393,23 +394,18 @@ public class TaskStatusListener {
     // if stage is already marked to be completed then do not calculate reported status from host role commands
     // Presumption: There will be no status transition of the host role command from one completed state to another
     if (!stageCurrentDisplayStatus.isCompletedState() || !stageCurrentStatus.isCompletedState()) {
-      Map<HostRoleStatus, Integer> receivedTaskStatusCount = CalculatedStatus.calculateStatusCountsForTasks(hostRoleCommandListAll, stagePK);
+      Map<HostRoleStatus, Integer> receivedTaskStatusCount = receivedTaskStatusCounts.toStatusCounters();
       HostRoleStatus statusFromPartialSet = CalculatedStatus.calculateSummaryStatusFromPartialSet(receivedTaskStatusCount, reportedStage.getSkippable());
       HostRoleStatus displayStatusFromPartialSet = CalculatedStatus.calculateSummaryStatusFromPartialSet(receivedTaskStatusCount, Boolean.FALSE);
       if (statusFromPartialSet == HostRoleStatus.PENDING || displayStatusFromPartialSet == HostRoleStatus.PENDING) {
-        Function<Long,HostRoleCommand> transform = new Function<Long,HostRoleCommand>(){
-          @Override
-          public HostRoleCommand apply(Long taskId) {
-            return activeTasksMap.get(taskId);
-          }
-        };
-
-        List<HostRoleCommand> activeHostRoleCommandsOfStage = FluentIterable.from(reportedStage.getTaskIds())
-            .transform(transform).toList();
-        Map<HostRoleStatus, Integer> statusCount = CalculatedStatus.calculateStatusCountsForTasks(activeHostRoleCommandsOfStage);
+        // the task status counts of the stage are kept up to date on every task update,
+        // the tasks themselves are only needed to check the success factors of failed roles
+        HostRoleStatusCounts taskStatusCounts = reportedStage.getTaskStatusCounts();
+        Map<HostRoleStatus, Integer> statusCount = taskStatusCounts.toStatusCounters();
+        int taskCount = taskStatusCounts.getTotal();
         if (displayStatusFromPartialSet == HostRoleStatus.PENDING) {
           // calculate and get new display status of the stage as per the new status of received host role commands
-          HostRoleStatus display_status = CalculatedStatus.calculateSummaryDisplayStatus(statusCount, activeHostRoleCommandsOfStage.size(), reportedStage.getSkippable());
+          HostRoleStatus display_status = CalculatedStatus.calculateSummaryDisplayStatus(statusCount, taskCount, reportedStage.getSkippable());
           if (display_status != stageCurrentDisplayStatus) {
             reportedStage.setDisplayStatus(display_status);
             didAnyStatusChanged = Boolean.TRUE;
@@ -422,7 +418,8 @@ public class TaskStatusListener {
 
         if (statusFromPartialSet == HostRoleStatus.PENDING) {
           // calculate status of the stage as per the new status of received host role commands
-          HostRoleStatus status = CalculatedStatus.calculateStageStatus(activeHostRoleCommandsOfStage, statusCount, reportedStage.getSuccessFactors(), reportedStage.getSkippable());
+          HostRoleStatus status = CalculatedStatus.calculateStageStatus(taskCount, () -> getActiveTasks(reportedStage),
+              statusCount, reportedStage.getSuccessFactors(), reportedStage.getSkippable());
           if (status != stageCurrentStatus) {
             reportedStage.setStatus(status);
             didAnyStatusChanged = Boolean.TRUE;
@@ -441,6 +438,18 @@ public class TaskStatusListener {
     return didAnyStatusChanged;
   }
 
+  /**
+   * @param activeStage stage
+   * @return list of {@link HostRoleCommand} of the stage from {@link #activeTasksMap}
+   */
+  private List<HostRoleCommand> getActiveTasks(ActiveStage activeStage) {
+    List<HostRoleCommand> activeHostRoleCommandsOfStage = new ArrayList<>();
+    for (Long taskId : activeStage.getTaskIds()) {
+      activeHostRoleCommandsOfStage.add(activeTasksMap.get(taskId));
+    }
+    return activeHostRoleCommandsOfStage;
+  }
+
   /**
    *
    * @param requestId {@link Request} whose status is to be updated
@@ -468,17 +477,14 @@ public class TaskStatusListener {
       HostRoleStatus displayStatusFromPartialSet = CalculatedStatus.calculateSummaryStatusFromPartialSet(stageStatusCountFromPartialSet.get(CalculatedStatus.StatusType.DISPLAY_STATUS), Boolean.FALSE);
 
       if (statusFromPartialSet == HostRoleStatus.PENDING || displayStatusFromPartialSet == HostRoleStatus.PENDING) {
-        List <ActiveStage> allActiveStages = new ArrayList<>();
-        for (StageEntityPK stageEntityPK:request.getStageEntityPks()) {
-          ActiveStage activeStage = activeStageMap.get(stageEntityPK);
-          allActiveStages.add(activeStage);
-        }
-        Map<CalculatedStatus.StatusType,Map<HostRoleStatus, Integer>> stageStatusCount = CalculatedStatus.calculateStatusCountsForStage(allActiveStages);
+        // the stage status counts of the request are kept up to date on every stage status change
+        int stageCount = request.getStageEntityPks().size();
 
         if (displayStatusFromPartialSet == HostRoleStatus.PENDING) {
           // calculate and get new display status of the stage as per the new status of received host role commands
 
-          HostRoleStatus display_status = CalculatedStatus.calculateSummaryDisplayStatus(stageStatusCount.get(CalculatedStatus.StatusType.DISPLAY_STATUS), allActiveStages.size(), false);
+          HostRoleStatus display_status = CalculatedStatus.calculateSummaryDisplayStatus(
+              request.getStageStatusCounts(CalculatedStatus.StatusType.DISPLAY_STATUS).toStatusCounters(), stageCount, false);
           if (display_status != requestCurrentDisplayStatus) {
             request.setDisplayStatus(display_status);
             didStatusChanged = Boolean.TRUE;
@@ -491,7 +497,8 @@ public class TaskStatusListener {
 
         if (statusFromPartialSet == HostRoleStatus.PENDING) {
           // calculate status of the stage as per the new status of received host role commands
-          HostRoleStatus status = CalculatedStatus.calculateSummaryStatus(stageStatusCount.get(CalculatedStatus.StatusType.STATUS), allActiveStages.size(), false);
+          HostRoleStatus status = CalculatedStatus.calculateSummaryStatus(
+              request.getStageStatusCounts(CalculatedStatus.StatusType.STATUS).toStatusCounters(), stageCount, false);
           if (status != requestCurrentStatus) {
             request.setStatus(status);
             didStatusChanged = Boolean.TRUE;
@@ -516,15 +523,16 @@ public class TaskStatusListener {
    * @param requestId request id
    */
   private void removeTasks(Long requestId) {
-    Iterator<Map.Entry<Long, HostRoleCommand>> iter = activeTasksMap.entrySet().iterator();
-    while (iter.hasNext()) {
-      Map.Entry<Long, HostRoleCommand> entry = iter.next();
-      HostRoleCommand hrc = entry.getValue();
-      if (hrc.getRequestId() == requestId) {
-        if (!hrc.getStatus().isCompletedState()) {
+    for (StageEntityPK stageEntityPK : activeRequestMap.get(requestId).getStageEntityPks()) {
+      ActiveStage activeStage = activeStageMap.get(stageEntityPK);
+      if (activeStage == null) {
+        continue;
+      }
+      for (Long taskId : activeStage.getTaskIds()) {
+        HostRoleCommand hrc = activeTasksMap.remove(taskId);
+        if (hrc != null && !hrc.getStatus().isCompletedState()) {
           LOG.error(String.format("Task %d should have been completed before being removed from running task cache(activeTasksMap)", hrc.getTaskId()));
         }
-        iter.remove();
       }
     }
   }
@@ -535,8 +543,7 @@ public class TaskStatusListener {
    * @param requestId request Id
    */
   private void removeStages(Long requestId) {
-    List <StageEntityPK> stageEntityPKs = getAllStageEntityPKForRequest(requestId);
-    for (StageEntityPK stageEntityPK: stageEntityPKs) {
+    for (StageEntityPK stageEntityPK: activeRequestMap.get(requestId).getStageEntityPks()) {
       activeStageMap.remove(stageEntityPK);
     }
   }
@@ -558,14 +565,16 @@ public class TaskStatusListener {
   protected class ActiveRequest {
     private HostRoleStatus status;
     private HostRoleStatus displayStatus;
-    private Set <StageEntityPK> stageEntityPks;
+    private Set <StageEntityPK> stageEntityPks = new HashSet<>();
     private Long clusterId;
 
-    public ActiveRequest(HostRoleStatus status, HostRoleStatus displayStatus, Set<StageEntityPK> stageEntityPks,
-                         Long clusterId) {
+    // counts of the statuses and display statuses of the request stages
+    private final HostRoleStatusCounts stageStatusCounts = new HostRoleStatusCounts();
+    private final HostRoleStatusCounts stageDisplayStatusCounts = new HostRoleStatusCounts();
+
+    public ActiveRequest(HostRoleStatus status, HostRoleStatus displayStatus, Long clusterId) {
       this.status = status;
       this.displayStatus = displayStatus;
-      this.stageEntityPks = stageEntityPks;
       this.clusterId = clusterId;
     }
 
@@ -593,8 +602,33 @@ public class TaskStatusListener {
       return stageEntityPks;
     }
 
-    public void addStageEntityPK(StageEntityPK stageEntityPK) {
-      stageEntityPks.add(stageEntityPK);
+    /**
+     * Adds the stage to the request and counts its status if it was not added before.
+     * @param stageEntityPK primary key of the stage
+     * @param activeStage the stage
+     */
+    public synchronized void addStage(StageEntityPK stageEntityPK, ActiveStage activeStage) {
+      if (stageEntityPks.add(stageEntityPK) && activeStage != null) {
+        stageStatusCounts.add(activeStage.getStatus());
+        stageDisplayStatusCounts.add(activeStage.getDisplayStatus());
+      }
+    }
+
+    /**
+     * Moves the stage status counts on a stage status change.
+     */
+    public void updateStageStatus(HostRoleStatus previousStatus, HostRoleStatus previousDisplayStatus,
+                                  HostRoleStatus status, HostRoleStatus displayStatus) {
+      stageStatusCounts.move(previousStatus, status);
+      stageDisplayStatusCounts.move(previousDisplayStatus, displayStatus);
+    }
+
+    /**
+     * @param statusType kind of the stage status
+     * @return counts of the stage statuses of the given kind
+     */
+    public HostRoleStatusCounts getStageStatusCounts(CalculatedStatus.StatusType statusType) {
+      return statusType == CalculatedStatus.StatusType.DISPLAY_STATUS ? stageDisplayStatusCounts : stageStatusCounts;
     }
 
     public Long getClusterId() {
@@ -614,18 +648,20 @@ public class TaskStatusListener {
     private HostRoleStatus status;
     private HostRoleStatus displayStatus;
     private Boolean skippable;
-    private Set <Long> taskIds;
+
+    // last known status of every task of the stage, and counts of these statuses
+    private final Map<Long, HostRoleStatus> taskStatuses = new ConcurrentHashMap<>();
+    private final HostRoleStatusCounts taskStatusCounts = new HostRoleStatusCounts();
 
     //Map of roles to successFactors for this stage. Default is 1 i.e. 100%
     private Map<Role, Float> successFactors = new HashMap<>();
 
     public ActiveStage(HostRoleStatus status, HostRoleStatus displayStatus,
-                       Map<Role, Float> successFactors, Boolean skippable, Set<Long> taskIds) {
+                       Map<Role, Float> successFactors, Boolean skippable) {
       this.status = status;
       this.displayStatus = displayStatus;
       this.successFactors =  successFactors;
       this.skippable = skippable;
-      this.taskIds = taskIds;
     }
 
     public HostRoleStatus getStatus() {
@@ -661,11 +697,25 @@ public class TaskStatusListener {
     }
 
     public Set <Long> getTaskIds() {
-      return taskIds;
+      return taskStatuses.keySet();
+    }
+
+    /**
+     * Adds the task to the stage or updates its status, the task status counts are moved accordingly.
+     * @param taskId task id
+     * @param taskStatus current status of the task
+     */
+    public synchronized void setTaskStatus(Long taskId, HostRoleStatus taskStatus) {
+      HostRoleStatus previousStatus = taskStatuses.put(taskId, taskStatus);
+      if (previousStatus == null) {
+        taskStatusCounts.add(taskStatus);
+      } else {
+        taskStatusCounts.move(previousStatus, taskStatus);
+      }
     }
 
-    public void addTaskId(Long taskId) {
-      taskIds.add(taskId);
+    public HostRoleStatusCounts getTaskStatusCounts() {
+      return taskStatusCounts;
     }
 
   }
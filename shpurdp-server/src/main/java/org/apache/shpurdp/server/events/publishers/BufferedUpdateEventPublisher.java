@@ -21,70 +21,116 @@ package org.apache.shpurdp.server.events.publishers;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.shpurdp.server.configuration.Configuration;
 import org.apache.shpurdp.server.events.STOMPEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+/**
+ * Buffers events and posts them merged. Buffer is flushed when its size reaches the configured threshold or after
+ * the flush delay, whichever comes first. Flush delay adapts to the load: it shrinks to the minimal value while
+ * few events arrive, so single updates reach UI fast, and grows up to the maximal value under bursts, so more
+ * events are merged together.
+ * @param <T> buffered event type
+ */
 public abstract class BufferedUpdateEventPublisher<T> {
+  private static final Logger LOG = LoggerFactory.getLogger(BufferedUpdateEventPublisher.class);
 
-  private static final long TIMEOUT = 1000L;
-  private final ConcurrentLinkedQueue<T> buffer = new ConcurrentLinkedQueue<>();
+  /**
+   * Is shared by all buffered publishers.
+   */
+  private static final ScheduledExecutorService FLUSH_SCHEDULER = Executors.newScheduledThreadPool(2,
+      new ThreadFactoryBuilder().setNameFormat("buffered-update-publisher-%d").build());
 
-  public abstract STOMPEvent.Type getType();
+  private final LinkedBlockingQueue<T> buffer = new LinkedBlockingQueue<>();
+  private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+  private final AtomicBoolean immediateFlushScheduled = new AtomicBoolean(false);
+  private final Object flushLock = new Object();
+
+  private final long minFlushDelay;
+  private final long maxFlushDelay;
+  private final int flushThreshold;
+  private volatile long flushDelay;
 
-  private ScheduledExecutorService scheduledExecutorService;
+  public abstract STOMPEvent.Type getType();
 
-  public BufferedUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher) {
+  public BufferedUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher, Configuration configuration) {
+    minFlushDelay = configuration.getBufferedPublisherMinFlushDelay();
+    maxFlushDelay = Math.max(minFlushDelay, configuration.getBufferedPublisherMaxFlushDelay());
+    flushThreshold = configuration.getBufferedPublisherFlushThreshold();
+    flushDelay = minFlushDelay;
     stompUpdatePublisher.registerPublisher(this);
   }
 
   public void publish(T event, EventBus m_eventBus) {
-    if (scheduledExecutorService == null) {
-      scheduledExecutorService =
-          Executors.newScheduledThreadPool(1);
-      scheduledExecutorService
-          .scheduleWithFixedDelay(getScheduledPublisher(m_eventBus), TIMEOUT, TIMEOUT, TimeUnit.MILLISECONDS);
-    }
     buffer.add(event);
-  }
-
-  protected MergingRunnable getScheduledPublisher(EventBus m_eventBus) {
-    return new MergingRunnable(m_eventBus);
-  }
-
-  protected List<T> retrieveBuffer() {
-    List<T> bufferContent = new ArrayList<>();
-    while (!buffer.isEmpty()) {
-      bufferContent.add(buffer.poll());
+    if (buffer.size() >= flushThreshold) {
+      if (immediateFlushScheduled.compareAndSet(false, true)) {
+        FLUSH_SCHEDULER.execute(() -> {
+          immediateFlushScheduled.set(false);
+          flush(m_eventBus);
+        });
+      }
+    } else if (flushScheduled.compareAndSet(false, true)) {
+      FLUSH_SCHEDULER.schedule(() -> {
+        flushScheduled.set(false);
+        flush(m_eventBus);
+      }, flushDelay, TimeUnit.MILLISECONDS);
     }
-    return bufferContent;
   }
 
-  public abstract void mergeBufferAndPost(List<T> events, EventBus m_eventBus);
-
-  private class MergingRunnable implements Runnable {
-
-    private final EventBus m_eventBus;
-
-    public MergingRunnable(EventBus m_eventBus) {
-      this.m_eventBus = m_eventBus;
-    }
-
-    @Override
-    public final void run() {
+  private void flush(EventBus m_eventBus) {
+    synchronized (flushLock) {
       List<T> events = retrieveBuffer();
+      adjustFlushDelay(events.size());
       if (events.isEmpty()) {
         return;
       }
-      mergeBufferAndPost(events, m_eventBus);
+      try {
+        mergeBufferAndPost(events, m_eventBus);
+      } catch (Exception e) {
+        LOG.error("Error during posting of {} buffered events with type {}", events.size(), getType(), e);
+      }
     }
   }
 
+  /**
+   * Doubles flush delay in case the buffer was filled up, halves it in case the buffer was mostly empty.
+   */
+  private void adjustFlushDelay(int flushedEvents) {
+    if (flushedEvents >= flushThreshold) {
+      flushDelay = Math.min(maxFlushDelay, flushDelay * 2);
+    } else if (flushedEvents < flushThreshold / 10) {
+      flushDelay = Math.max(minFlushDelay, flushDelay / 2);
+    }
+  }
+
+  long getFlushDelay() {
+    return flushDelay;
+  }
+
+  protected List<T> retrieveBuffer() {
+    List<T> bufferContent = new ArrayList<>(buffer.size());
+    buffer.drainTo(bufferContent);
+    return bufferContent;
+  }
+
+  /**
+   * Merges buffered events and posts the result. Implementations should merge events in a single pass.
+   * @param events buffered events in order of publishing
+   * @param m_eventBus event bus to post merged events to
+   */
+  public abstract void mergeBufferAndPost(List<T> events, EventBus m_eventBus);
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -18,10 +18,14 @@
 
 package org.apache.shpurdp.server.events.publishers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import org.apache.shpurdp.server.EagerSingleton;
+import org.apache.shpurdp.server.configuration.Configuration;
 import org.apache.shpurdp.server.events.HostComponentUpdate;
 import org.apache.shpurdp.server.events.HostComponentsUpdateEvent;
 import org.apache.shpurdp.server.events.STOMPEvent;
@@ -33,8 +37,8 @@ import com.google.inject.Inject;
 public class HostComponentUpdateEventPublisher extends BufferedUpdateEventPublisher<HostComponentsUpdateEvent> {
 
   @Inject
-  public HostComponentUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher) {
-    super(stompUpdatePublisher);
+  public HostComponentUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher, Configuration configuration) {
+    super(stompUpdatePublisher, configuration);
   }
 
   @Override
@@ -44,11 +48,42 @@ public class HostComponentUpdateEventPublisher extends BufferedUpdateEventPublis
 
   @Override
   public void mergeBufferAndPost(List<HostComponentsUpdateEvent> events, EventBus m_eventBus) {
-    List<HostComponentUpdate> hostComponentUpdates = events.stream().flatMap(
-        u -> u.getHostComponentUpdates().stream()).collect(Collectors.toList());
+    List<HostComponentUpdate> hostComponentUpdates = mergeHostComponentUpdates(events);
 
     HostComponentsUpdateEvent resultEvents = new HostComponentsUpdateEvent(hostComponentUpdates);
     //TODO add logging and metrics posting
     m_eventBus.post(resultEvents);
   }
+
+  /**
+   * Coalesces updates of the same host component, the latest reported current state, maintenance state and stale
+   * configs flag win, the earliest reported previous state is kept.
+   * @param events buffered events in order of publishing
+   * @return single update per host component
+   */
+  static List<HostComponentUpdate> mergeHostComponentUpdates(List<HostComponentsUpdateEvent> events) {
+    Map<List<Object>, HostComponentUpdate> merged = new LinkedHashMap<>();
+    for (HostComponentsUpdateEvent event : events) {
+      for (HostComponentUpdate update : event.getHostComponentUpdates()) {
+        List<Object> key = Arrays.asList(update.getClusterId(), update.getServiceName(), update.getHostName(),
+            update.getComponentName());
+        HostComponentUpdate mergedUpdate = merged.putIfAbsent(key, update);
+        if (mergedUpdate != null) {
+          if (update.getCurrentState() != null) {
+            mergedUpdate.setCurrentState(update.getCurrentState());
+          }
+          if (mergedUpdate.getPreviousState() == null) {
+            mergedUpdate.setPreviousState(update.getPreviousState());
+          }
+          if (update.getMaintenanceState() != null) {
+            mergedUpdate.setMaintenanceState(update.getMaintenanceState());
+          }
+          if (update.getStaleConfigs() != null) {
+            mergedUpdate.setStaleConfigs(update.getStaleConfigs());
+          }
+        }
+      }
+    }
+    return new ArrayList<>(merged.values());
+  }
 }
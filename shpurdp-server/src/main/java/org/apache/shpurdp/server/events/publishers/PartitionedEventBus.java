@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.shpurdp.server.events.publishers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Event bus which dispatches events over several single-threaded partitions. Events with the same partition key
+ * are delivered to subscribers in the order of posting, events with different keys can be delivered concurrently,
+ * so a slow subscriber or a burst of events for one key does not delay events for other keys. Events with the
+ * {@link #ALL_PARTITIONS} key are ordered against the events of all keys: such an event is queued in every
+ * partition, is delivered once all partitions reached it and the partitions continue only after its delivery.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class PartitionedEventBus extends EventBus {
+
+  /**
+   * Partition key of events which should be ordered against the events of all keys.
+   */
+  public static final Object ALL_PARTITIONS = new Object();
+
+  private final List<Partition> partitions;
+  private final Function<Object, Object> partitionKeyFunction;
+
+  /**
+   * Is held while an event is queued in all partitions, so such events are queued in the same order in every
+   * partition.
+   */
+  private final Object allPartitionsLock = new Object();
+
+  /**
+   * @param identifier           bus identifier, is used as thread names prefix
+   * @param partitionsCount      amount of partitions (threads) to dispatch events on
+   * @param partitionKeyFunction determines the key events should be ordered by
+   */
+  public PartitionedEventBus(String identifier, int partitionsCount, Function<Object, Object> partitionKeyFunction) {
+    super(identifier);
+    this.partitionKeyFunction = partitionKeyFunction;
+    List<Partition> partitionList = new ArrayList<>(partitionsCount);
+    for (int i = 0; i < partitionsCount; i++) {
+      partitionList.add(new Partition(identifier + "-" + i));
+    }
+    partitions = Collections.unmodifiableList(partitionList);
+  }
+
+  @Override
+  public void post(Object event) {
+    Object key = partitionKeyFunction.apply(event);
+    if (key == ALL_PARTITIONS) {
+      postToAllPartitions(event);
+      return;
+    }
+    Partition partition = partitions.get(Math.floorMod(Objects.hashCode(key), partitions.size()));
+    long postTime = System.nanoTime();
+    partition.executor.execute(() -> {
+      try {
+        super.post(event);
+      } finally {
+        partition.recordLatency(System.nanoTime() - postTime);
+      }
+    });
+  }
+
+  /**
+   * Queues the event in every partition. The partition reaching the event last delivers it, the other partitions
+   * wait for the delivery, so the events queued before it in any partition are delivered before it and the events
+   * queued after it are delivered after it.
+   */
+  private void postToAllPartitions(Object event) {
+    AtomicInteger pendingPartitions = new AtomicInteger(partitions.size());
+    CountDownLatch delivered = new CountDownLatch(1);
+    long postTime = System.nanoTime();
+    synchronized (allPartitionsLock) {
+      for (Partition partition : partitions) {
+        partition.executor.execute(() -> {
+          if (pendingPartitions.decrementAndGet() == 0) {
+            try {
+              super.post(event);
+            } finally {
+              partition.recordLatency(System.nanoTime() - postTime);
+              delivered.countDown();
+            }
+          } else {
+            try {
+              delivered.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        });
+      }
+    }
+  }
+
+  public List<Partition> getPartitions() {
+    return partitions;
+  }
+
+  /**
+   * Single-threaded lane of the bus, collects queue depth and dispatching latency.
+   */
+  public static class Partition {
+    private final String name;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong dispatchedEvents = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    private Partition(String name) {
+      this.name = name;
+      executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+          new ThreadFactoryBuilder().setNameFormat(name + "-%d").build());
+    }
+
+    private void recordLatency(long latencyNanos) {
+      dispatchedEvents.incrementAndGet();
+      totalLatency.addAndGet(latencyNanos);
+      maxLatency.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return amount of events waiting for dispatching.
+     */
+    public int getQueueDepth() {
+      return executor.getQueue().size();
+    }
+
+    /**
+     * Returns latency statistics collected since the previous call and resets them.
+     *
+     * @return amount of dispatched events, average and max time in milliseconds from posting an event till
+     * all its subscribers were notified.
+     */
+    public LatencySnapshot getAndResetLatency() {
+      long events = dispatchedEvents.getAndSet(0);
+      long total = totalLatency.getAndSet(0);
+      long max = maxLatency.getAndSet(0);
+      double average = events == 0 ? 0 : (double) total / events;
+      return new LatencySnapshot(events, TimeUnit.NANOSECONDS.toMillis((long) average), TimeUnit.NANOSECONDS.toMillis(max));
+    }
+  }
+
+  /**
+   * Latency statistics of a partition for a period of time.
+   */
+  public static class LatencySnapshot {
+    private final long dispatchedEvents;
+    private final long averageLatency;
+    private final long maxLatency;
+
+    public LatencySnapshot(long dispatchedEvents, long averageLatency, long maxLatency) {
+      this.dispatchedEvents = dispatchedEvents;
+      this.averageLatency = averageLatency;
+      this.maxLatency = maxLatency;
+    }
+
+    public long getDispatchedEvents() {
+      return dispatchedEvents;
+    }
+
+    public long getAverageLatency() {
+      return averageLatency;
+    }
+
+    public long getMaxLatency() {
+      return maxLatency;
+    }
+  }
+}
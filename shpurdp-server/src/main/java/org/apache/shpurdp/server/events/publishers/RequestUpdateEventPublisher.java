@@ -18,11 +18,12 @@
 
 package org.apache.shpurdp.server.events.publishers;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.shpurdp.server.EagerSingleton;
+import org.apache.shpurdp.server.configuration.Configuration;
 import org.apache.shpurdp.server.controller.internal.CalculatedStatus;
 import org.apache.shpurdp.server.events.RequestUpdateEvent;
 import org.apache.shpurdp.server.events.STOMPEvent;
@@ -51,8 +52,8 @@ public class RequestUpdateEventPublisher extends BufferedUpdateEventPublisher<Re
   private ClusterDAO clusterDAO;
 
   @Inject
-  public RequestUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher) {
-    super(stompUpdatePublisher);
+  public RequestUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher, Configuration configuration) {
+    super(stompUpdatePublisher, configuration);
   }
 
   @Override
@@ -62,18 +63,15 @@ public class RequestUpdateEventPublisher extends BufferedUpdateEventPublisher<Re
 
   @Override
   public void mergeBufferAndPost(List<RequestUpdateEvent> events, EventBus m_eventBus) {
-    Map<Long, RequestUpdateEvent> filteredRequests = new HashMap<>();
+    Map<Long, RequestUpdateEvent> filteredRequests = new LinkedHashMap<>();
     for (RequestUpdateEvent event : events) {
-      Long requestId = event.getRequestId();
-      if (filteredRequests.containsKey(requestId)) {
-        RequestUpdateEvent filteredRequest = filteredRequests.get(requestId);
+      RequestUpdateEvent filteredRequest = filteredRequests.putIfAbsent(event.getRequestId(), event);
+      if (filteredRequest != null) {
         filteredRequest.setEndTime(event.getEndTime());
         filteredRequest.setRequestStatus(event.getRequestStatus());
         filteredRequest.setRequestContext(event.getRequestContext());
         filteredRequest.getHostRoleCommands().removeAll(event.getHostRoleCommands());
         filteredRequest.getHostRoleCommands().addAll(event.getHostRoleCommands());
-      } else {
-        filteredRequests.put(requestId, event);
       }
     }
     for (RequestUpdateEvent requestUpdateEvent : filteredRequests.values()) {
@@ -18,17 +18,19 @@
 package org.apache.shpurdp.server.events.publishers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.shpurdp.server.ShpurdpRuntimeException;
+import org.apache.shpurdp.server.configuration.Configuration;
 import org.apache.shpurdp.server.events.DefaultMessageEmitter;
 import org.apache.shpurdp.server.events.STOMPEvent;
-import org.apache.shpurdp.server.utils.ThreadPools;
+import org.apache.shpurdp.server.events.STOMPHostEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.eventbus.AsyncEventBus;
 import com.google.common.eventbus.EventBus;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 @Singleton
@@ -42,9 +44,33 @@ public class STOMPUpdatePublisher {
   private final List<BufferedUpdateEventPublisher> publishers = new ArrayList<>();
 
 
-  public STOMPUpdatePublisher() {
-    agentEventBus = new AsyncEventBus("agent-update-bus", ThreadPools.getSingleThreadedExecutor("stomp-agent-bus"));
-    apiEventBus = new AsyncEventBus("api-update-bus", ThreadPools.getSingleThreadedExecutor("stomp-api-bus"));
+  @Inject
+  public STOMPUpdatePublisher(Configuration configuration) {
+    agentEventBus = new PartitionedEventBus("stomp-agent-bus", configuration.getStompAgentBusPartitions(),
+        STOMPUpdatePublisher::getAgentPartitionKey);
+    apiEventBus = new PartitionedEventBus("stomp-api-bus", configuration.getStompApiBusPartitions(),
+        STOMPUpdatePublisher::getApiPartitionKey);
+  }
+
+  /**
+   * Agent events are ordered per host, cluster-wide agent events (e.g. topology and metadata) are ordered against
+   * the events of all hosts.
+   */
+  private static Object getAgentPartitionKey(Object event) {
+    if (event instanceof STOMPHostEvent) {
+      return ((STOMPHostEvent) event).getHostId();
+    }
+    return PartitionedEventBus.ALL_PARTITIONS;
+  }
+
+  /**
+   * API events are ordered per topic.
+   */
+  private static Object getApiPartitionKey(Object event) {
+    if (event instanceof STOMPEvent) {
+      return ((STOMPEvent) event).getType();
+    }
+    return event.getClass();
   }
 
   public void registerPublisher(BufferedUpdateEventPublisher publisher) {
@@ -91,4 +117,17 @@ public class STOMPUpdatePublisher {
   public void registerAPI(Object object) {
     apiEventBus.register(object);
   }
+
+  /**
+   * @return partitioned buses used to dispatch agent and API events, is used to collect dispatching metrics.
+   */
+  public List<PartitionedEventBus> getPartitionedEventBuses() {
+    List<PartitionedEventBus> buses = new ArrayList<>();
+    for (EventBus eventBus : Arrays.asList(agentEventBus, apiEventBus)) {
+      if (eventBus instanceof PartitionedEventBus) {
+        buses.add((PartitionedEventBus) eventBus);
+      }
+    }
+    return buses;
+  }
 }
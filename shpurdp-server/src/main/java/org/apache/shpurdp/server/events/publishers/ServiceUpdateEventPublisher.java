@@ -18,12 +18,13 @@
 
 package org.apache.shpurdp.server.events.publishers;
 
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.shpurdp.server.EagerSingleton;
+import org.apache.shpurdp.server.configuration.Configuration;
 import org.apache.shpurdp.server.controller.utilities.ServiceCalculatedStateFactory;
 import org.apache.shpurdp.server.controller.utilities.state.ServiceCalculatedState;
 import org.apache.shpurdp.server.events.STOMPEvent;
@@ -38,8 +39,8 @@ public class ServiceUpdateEventPublisher extends BufferedUpdateEventPublisher<Se
   private Map<String, Map<String, State>> states = new HashMap<>();
 
   @Inject
-  public ServiceUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher) {
-    super(stompUpdatePublisher);
+  public ServiceUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher, Configuration configuration) {
+    super(stompUpdatePublisher, configuration);
   }
 
 
@@ -50,21 +51,19 @@ public class ServiceUpdateEventPublisher extends BufferedUpdateEventPublisher<Se
 
   @Override
   public void mergeBufferAndPost(List<ServiceUpdateEvent> events, EventBus eventBus) {
-    List<ServiceUpdateEvent> filtered = new ArrayList<>();
+    Map<ServiceUpdateEvent, ServiceUpdateEvent> filtered = new LinkedHashMap<>();
     for (ServiceUpdateEvent event : events) {
-      int pos = filtered.indexOf(event);
-      if (pos != -1) {
+      ServiceUpdateEvent filteredEvent = filtered.putIfAbsent(event, event);
+      if (filteredEvent != null) {
         if (event.isStateChanged()) {
-          filtered.get(pos).setStateChanged(true);
+          filteredEvent.setStateChanged(true);
         }
         if (event.getMaintenanceState() != null) {
-          filtered.get(pos).setMaintenanceState(event.getMaintenanceState());
+          filteredEvent.setMaintenanceState(event.getMaintenanceState());
         }
-      } else {
-        filtered.add(event);
       }
     }
-    for (ServiceUpdateEvent serviceUpdateEvent : filtered) {
+    for (ServiceUpdateEvent serviceUpdateEvent : filtered.values()) {
       // calc state
       if (serviceUpdateEvent.isStateChanged()) {
         ServiceCalculatedState serviceCalculatedState =
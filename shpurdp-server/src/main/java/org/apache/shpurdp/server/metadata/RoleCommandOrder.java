@@ -21,8 +21,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.shpurdp.server.ShpurdpException;
 import org.apache.shpurdp.server.Role;
@@ -37,7 +40,10 @@ import org.apache.shpurdp.server.state.StackInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 
 /**
@@ -75,6 +81,17 @@ public class RoleCommandOrder implements Cloneable {
    */
   private Map<RoleCommandPair, Set<RoleCommandPair>> dependencies = new HashMap<>();
 
+  /**
+   * The max amount of cached stage plans.
+   */
+  private static final int STAGE_PLANS_CACHE_SIZE = 1000;
+
+  /**
+   * Stage plans keyed by the role commands they order. A plan depends only on
+   * the dependencies, so the plans are dropped whenever the dependencies change.
+   */
+  private Cache<Set<RoleCommandPair>, List<List<Role>>> stagePlans = createStagePlansCache();
+
   /**
    * Add a pair of tuples where the tuple defined by the first two parameters are blocked on
    * the tuple defined by the last two pair.
@@ -123,6 +140,7 @@ public class RoleCommandOrder implements Cloneable {
             Role.valueOf(blockerRole), RoleCommand.valueOf(blockerCommand), overrideExisting);
       }
     }
+    stagePlans.invalidateAll();
   }
 
   @SuppressWarnings("unchecked")
@@ -162,6 +180,32 @@ public class RoleCommandOrder implements Cloneable {
 
     extendTransitiveDependency();
     addMissingRestartDependencies();
+    stagePlans.invalidateAll();
+  }
+
+  /**
+   * Gets the stage plan of the role commands, computing it if it is not cached.
+   * Each item of the plan is the roles of a single stage.
+   *
+   * @param roleCommands the role commands to order
+   * @param planner      computes the plan on a cache miss
+   * @return the cached plan
+   * @throws ShpurdpException if the plan can't be computed
+   */
+  public List<List<Role>> getStagePlan(Set<RoleCommandPair> roleCommands,
+                                       Callable<List<List<Role>>> planner) throws ShpurdpException {
+    try {
+      return stagePlans.get(roleCommands, planner);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof ShpurdpException) {
+        throw (ShpurdpException) e.getCause();
+      }
+      throw new ShpurdpException("Unable to plan stages for " + roleCommands, e.getCause());
+    }
+  }
+
+  private static Cache<Set<RoleCommandPair>, List<List<Role>>> createStagePlansCache() {
+    return CacheBuilder.newBuilder().maximumSize(STAGE_PLANS_CACHE_SIZE).build();
   }
 
   /**
@@ -374,6 +418,7 @@ public class RoleCommandOrder implements Cloneable {
     RoleCommandOrder clone = (RoleCommandOrder) super.clone();
     clone.sectionKeys = new LinkedHashSet<>(sectionKeys);
     clone.dependencies = new HashMap<>(dependencies);
+    clone.stagePlans = createStagePlansCache();
 
     return clone;
   }
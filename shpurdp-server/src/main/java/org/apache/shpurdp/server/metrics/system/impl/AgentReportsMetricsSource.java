@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.metrics.system.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.shpurdp.server.agent.AgentReportsProcessor;
+import org.apache.shpurdp.server.metrics.system.MetricsSink;
+import org.apache.shpurdp.server.metrics.system.SingleMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects queue depth and processing latency of agent reports of all hosts and publishes to configured Metric Sink.
+ */
+public class AgentReportsMetricsSource extends AbstractMetricsSource {
+  private static final Logger LOG = LoggerFactory.getLogger(AgentReportsMetricsSource.class);
+
+  private final String QUEUE_DEPTH_METRIC = "agent.reports.queue_depth";
+  private final String MAX_QUEUE_DEPTH_METRIC = "agent.reports.max_queue_depth";
+  private final String ACTIVE_LANES_METRIC = "agent.reports.lanes";
+  private final String PROCESSED_METRIC = "agent.reports.processed";
+  private final String COALESCED_METRIC = "agent.reports.coalesced";
+  private final String REJECTED_METRIC = "agent.reports.rejected";
+  private final String AVERAGE_LATENCY_METRIC = "agent.reports.latency.avg";
+  private final String MAX_LATENCY_METRIC = "agent.reports.latency.max";
+
+  private ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+  private AgentReportsProcessor agentReportsProcessor;
+  private int interval = 60;
+
+  @Override
+  public void init(MetricsConfiguration configuration, MetricsSink sink) {
+    super.init(configuration, sink);
+    interval = Integer.parseInt(configuration.getProperty("interval", "60"));
+  }
+
+  @Override
+  public void start() {
+    LOG.info("Starting agent reports source...");
+    try {
+      executor.scheduleWithFixedDelay(() -> {
+        sink.publish(getMetrics());
+        LOG.debug("********* Published agent reports metrics to sink **********");
+      }, interval, interval, TimeUnit.SECONDS);
+    } catch (Exception e) {
+      LOG.info("Throwing exception when starting agent reports source", e);
+    }
+  }
+
+  /**
+   * Sets processor to collect agent reports metrics from.
+   */
+  public void setAgentReportsProcessor(AgentReportsProcessor agentReportsProcessor) {
+    this.agentReportsProcessor = agentReportsProcessor;
+  }
+
+  private List<SingleMetric> getMetrics() {
+    List<SingleMetric> metrics = new ArrayList<>();
+    long currentTime = System.currentTimeMillis();
+    if (agentReportsProcessor == null) {
+      return metrics;
+    }
+    AgentReportsProcessor.ReportsStatistics statistics = agentReportsProcessor.getAndResetStatistics();
+    metrics.add(new SingleMetric(QUEUE_DEPTH_METRIC, statistics.getQueueDepth(), currentTime));
+    metrics.add(new SingleMetric(MAX_QUEUE_DEPTH_METRIC, statistics.getMaxQueueDepth(), currentTime));
+    metrics.add(new SingleMetric(ACTIVE_LANES_METRIC, statistics.getActiveLanes(), currentTime));
+    metrics.add(new SingleMetric(PROCESSED_METRIC, statistics.getProcessedReports(), currentTime));
+    metrics.add(new SingleMetric(COALESCED_METRIC, statistics.getCoalescedReports(), currentTime));
+    metrics.add(new SingleMetric(REJECTED_METRIC, statistics.getRejectedReports(), currentTime));
+    metrics.add(new SingleMetric(AVERAGE_LATENCY_METRIC, statistics.getAverageLatency(), currentTime));
+    metrics.add(new SingleMetric(MAX_LATENCY_METRIC, statistics.getMaxLatency(), currentTime));
+    return metrics;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.metrics.system.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.shpurdp.server.events.listeners.alerts.AlertWriteBatcher;
+import org.apache.shpurdp.server.metrics.system.MetricsSink;
+import org.apache.shpurdp.server.metrics.system.SingleMetric;
+import org.apache.shpurdp.server.orm.dao.AlertsDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects throughput of alert state changes writing and cached alerts flushing and publishes to configured Metric Sink.
+ */
+public class AlertsMetricsSource extends AbstractMetricsSource {
+  private static final Logger LOG = LoggerFactory.getLogger(AlertsMetricsSource.class);
+
+  private final String WRITE_EVENTS_METRIC = "alerts.write.events";
+  private final String WRITE_HISTORIES_METRIC = "alerts.write.histories";
+  private final String WRITE_ALERTS_METRIC = "alerts.write.alerts";
+  private final String WRITE_BATCHES_METRIC = "alerts.write.batches";
+  private final String WRITE_TIME_METRIC = "alerts.write.time.avg";
+  private final String CACHE_DIRTY_METRIC = "alerts.cache.dirty";
+  private final String CACHE_FLUSHED_METRIC = "alerts.cache.flushed";
+  private final String CACHE_FLUSH_TIME_METRIC = "alerts.cache.flush_time.avg";
+
+  private ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+  private AlertWriteBatcher alertWriteBatcher;
+  private AlertsDAO alertsDao;
+  private int interval = 60;
+
+  private long lastSubmittedEvents = 0;
+  private long lastCreatedHistories = 0;
+  private long lastSavedAlerts = 0;
+  private long lastWrittenBatches = 0;
+  private long lastWriteTime = 0;
+  private long lastFlushedAlerts = 0;
+  private long lastFlushes = 0;
+  private long lastFlushTime = 0;
+
+  @Override
+  public void init(MetricsConfiguration configuration, MetricsSink sink) {
+    super.init(configuration, sink);
+    interval = Integer.parseInt(configuration.getProperty("interval", "60"));
+  }
+
+  @Override
+  public void start() {
+    LOG.info("Starting alerts source...");
+    try {
+      executor.scheduleWithFixedDelay(() -> {
+        sink.publish(getMetrics());
+        LOG.debug("********* Published alerts metrics to sink **********");
+      }, interval, interval, TimeUnit.SECONDS);
+    } catch (Exception e) {
+      LOG.info("Throwing exception when starting alerts source", e);
+    }
+  }
+
+  /**
+   * Sets batcher to collect alerts writing metrics from.
+   */
+  public void setAlertWriteBatcher(AlertWriteBatcher alertWriteBatcher) {
+    this.alertWriteBatcher = alertWriteBatcher;
+  }
+
+  /**
+   * Sets DAO to collect cached alerts flushing metrics from.
+   */
+  public void setAlertsDao(AlertsDAO alertsDao) {
+    this.alertsDao = alertsDao;
+  }
+
+  private List<SingleMetric> getMetrics() {
+    List<SingleMetric> metrics = new ArrayList<>();
+    long currentTime = System.currentTimeMillis();
+    if (alertWriteBatcher != null) {
+      long submittedEvents = alertWriteBatcher.getSubmittedEvents();
+      long createdHistories = alertWriteBatcher.getCreatedHistories();
+      long savedAlerts = alertWriteBatcher.getSavedAlerts();
+      long writtenBatches = alertWriteBatcher.getWrittenBatches();
+      long writeTime = alertWriteBatcher.getWriteTime();
+
+      long batches = writtenBatches - lastWrittenBatches;
+      double averageWriteTime = batches == 0 ? 0 : (double) (writeTime - lastWriteTime) / batches;
+
+      metrics.add(new SingleMetric(WRITE_EVENTS_METRIC, submittedEvents - lastSubmittedEvents, currentTime));
+      metrics.add(new SingleMetric(WRITE_HISTORIES_METRIC, createdHistories - lastCreatedHistories, currentTime));
+      metrics.add(new SingleMetric(WRITE_ALERTS_METRIC, savedAlerts - lastSavedAlerts, currentTime));
+      metrics.add(new SingleMetric(WRITE_BATCHES_METRIC, batches, currentTime));
+      metrics.add(new SingleMetric(WRITE_TIME_METRIC, averageWriteTime, currentTime));
+
+      lastSubmittedEvents = submittedEvents;
+      lastCreatedHistories = createdHistories;
+      lastSavedAlerts = savedAlerts;
+      lastWrittenBatches = writtenBatches;
+      lastWriteTime = writeTime;
+    }
+    if (alertsDao != null) {
+      long flushedAlerts = alertsDao.getFlushedAlertCount();
+      long flushes = alertsDao.getFlushCount();
+      long flushTime = alertsDao.getFlushTime();
+
+      long periodFlushes = flushes - lastFlushes;
+      double averageFlushTime = periodFlushes == 0 ? 0 : (double) (flushTime - lastFlushTime) / periodFlushes;
+
+      metrics.add(new SingleMetric(CACHE_DIRTY_METRIC, alertsDao.getDirtyAlertCount(), currentTime));
+      metrics.add(new SingleMetric(CACHE_FLUSHED_METRIC, flushedAlerts - lastFlushedAlerts, currentTime));
+      metrics.add(new SingleMetric(CACHE_FLUSH_TIME_METRIC, averageFlushTime, currentTime));
+
+      lastFlushedAlerts = flushedAlerts;
+      lastFlushes = flushes;
+      lastFlushTime = flushTime;
+    }
+    return metrics;
+  }
+}
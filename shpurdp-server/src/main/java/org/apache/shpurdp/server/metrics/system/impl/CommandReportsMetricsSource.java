@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.metrics.system.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.shpurdp.server.actionmanager.CommandReportBatcher;
+import org.apache.shpurdp.server.metrics.system.MetricsSink;
+import org.apache.shpurdp.server.metrics.system.SingleMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects throughput of command reports writing and the histogram of the time from receiving a report till
+ * publishing its task update and publishes to configured Metric Sink.
+ */
+public class CommandReportsMetricsSource extends AbstractMetricsSource {
+  private static final Logger LOG = LoggerFactory.getLogger(CommandReportsMetricsSource.class);
+
+  private final String SUBMITTED_METRIC = "command.reports.submitted";
+  private final String COALESCED_METRIC = "command.reports.coalesced";
+  private final String DROPPED_METRIC = "command.reports.dropped";
+  private final String BATCHES_METRIC = "command.reports.batches";
+  private final String WRITE_TIME_METRIC = "command.reports.write_time.avg";
+  private final String MAX_LATENCY_METRIC = "command.reports.latency.max";
+  private final String LATENCY_BUCKET_METRIC_PREFIX = "command.reports.latency.le_";
+  private final String LATENCY_OVERFLOW_METRIC = "command.reports.latency.le_inf";
+
+  private ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+  private CommandReportBatcher commandReportBatcher;
+  private int interval = 60;
+
+  private long lastSubmittedReports = 0;
+  private long lastCoalescedReports = 0;
+  private long lastDroppedReports = 0;
+  private long lastWrittenBatches = 0;
+  private long lastWriteTime = 0;
+
+  @Override
+  public void init(MetricsConfiguration configuration, MetricsSink sink) {
+    super.init(configuration, sink);
+    interval = Integer.parseInt(configuration.getProperty("interval", "60"));
+  }
+
+  @Override
+  public void start() {
+    LOG.info("Starting command reports source...");
+    try {
+      executor.scheduleWithFixedDelay(() -> {
+        sink.publish(getMetrics());
+        LOG.debug("********* Published command reports metrics to sink **********");
+      }, interval, interval, TimeUnit.SECONDS);
+    } catch (Exception e) {
+      LOG.info("Throwing exception when starting command reports source", e);
+    }
+  }
+
+  /**
+   * Sets batcher to collect command reports metrics from.
+   */
+  public void setCommandReportBatcher(CommandReportBatcher commandReportBatcher) {
+    this.commandReportBatcher = commandReportBatcher;
+  }
+
+  private List<SingleMetric> getMetrics() {
+    List<SingleMetric> metrics = new ArrayList<>();
+    long currentTime = System.currentTimeMillis();
+    if (commandReportBatcher == null) {
+      return metrics;
+    }
+    long submittedReports = commandReportBatcher.getSubmittedReports();
+    long coalescedReports = commandReportBatcher.getCoalescedReports();
+    long droppedReports = commandReportBatcher.getDroppedReports();
+    long writtenBatches = commandReportBatcher.getWrittenBatches();
+    long writeTime = commandReportBatcher.getWriteTime();
+
+    long batches = writtenBatches - lastWrittenBatches;
+    double averageWriteTime = batches == 0 ? 0 : (double) (writeTime - lastWriteTime) / batches;
+
+    metrics.add(new SingleMetric(SUBMITTED_METRIC, submittedReports - lastSubmittedReports, currentTime));
+    metrics.add(new SingleMetric(COALESCED_METRIC, coalescedReports - lastCoalescedReports, currentTime));
+    metrics.add(new SingleMetric(DROPPED_METRIC, droppedReports - lastDroppedReports, currentTime));
+    metrics.add(new SingleMetric(BATCHES_METRIC, batches, currentTime));
+    metrics.add(new SingleMetric(WRITE_TIME_METRIC, averageWriteTime, currentTime));
+    metrics.add(new SingleMetric(MAX_LATENCY_METRIC, commandReportBatcher.getAndResetMaxLatency(), currentTime));
+
+    long[] histogram = commandReportBatcher.getAndResetLatencyHistogram();
+    for (int i = 0; i < CommandReportBatcher.LATENCY_BUCKETS.length; i++) {
+      metrics.add(new SingleMetric(LATENCY_BUCKET_METRIC_PREFIX + CommandReportBatcher.LATENCY_BUCKETS[i],
+          histogram[i], currentTime));
+    }
+    metrics.add(new SingleMetric(LATENCY_OVERFLOW_METRIC, histogram[histogram.length - 1], currentTime));
+
+    lastSubmittedReports = submittedReports;
+    lastCoalescedReports = coalescedReports;
+    lastDroppedReports = droppedReports;
+    lastWrittenBatches = writtenBatches;
+    lastWriteTime = writeTime;
+    return metrics;
+  }
+}
@@ -22,11 +22,16 @@ import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.shpurdp.server.actionmanager.CommandReportBatcher;
+import org.apache.shpurdp.server.agent.AgentReportsProcessor;
 import org.apache.shpurdp.server.controller.ShpurdpManagementController;
+import org.apache.shpurdp.server.events.STOMPPayloadCache;
+import org.apache.shpurdp.server.events.listeners.alerts.AlertWriteBatcher;
 import org.apache.shpurdp.server.events.publishers.STOMPUpdatePublisher;
 import org.apache.shpurdp.server.metrics.system.MetricsService;
 import org.apache.shpurdp.server.metrics.system.MetricsSink;
 import org.apache.shpurdp.server.metrics.system.MetricsSource;
+import org.apache.shpurdp.server.orm.dao.AlertsDAO;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +50,16 @@ public class MetricsServiceImpl implements MetricsService {
   ShpurdpManagementController amc;
   @Inject
   STOMPUpdatePublisher STOMPUpdatePublisher;
+  @Inject
+  STOMPPayloadCache payloadCache;
+  @Inject
+  AgentReportsProcessor agentReportsProcessor;
+  @Inject
+  AlertWriteBatcher alertWriteBatcher;
+  @Inject
+  AlertsDAO alertsDao;
+  @Inject
+  CommandReportBatcher commandReportBatcher;
 
   @Override
   public void start() {
@@ -118,6 +133,20 @@ public class MetricsServiceImpl implements MetricsService {
         if (src instanceof StompEventsMetricsSource) {
           STOMPUpdatePublisher.registerAPI(src);
           STOMPUpdatePublisher.registerAgent(src);
+          ((StompEventsMetricsSource) src).setPayloadCache(payloadCache);
+        }
+        if (src instanceof StompDispatchMetricsSource) {
+          ((StompDispatchMetricsSource) src).setEventBuses(STOMPUpdatePublisher.getPartitionedEventBuses());
+        }
+        if (src instanceof AgentReportsMetricsSource) {
+          ((AgentReportsMetricsSource) src).setAgentReportsProcessor(agentReportsProcessor);
+        }
+        if (src instanceof AlertsMetricsSource) {
+          ((AlertsMetricsSource) src).setAlertWriteBatcher(alertWriteBatcher);
+          ((AlertsMetricsSource) src).setAlertsDao(alertsDao);
+        }
+        if (src instanceof CommandReportsMetricsSource) {
+          ((CommandReportsMetricsSource) src).setCommandReportBatcher(commandReportBatcher);
         }
         src.start();
       }
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.metrics.system.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.shpurdp.server.events.publishers.PartitionedEventBus;
+import org.apache.shpurdp.server.metrics.system.MetricsSink;
+import org.apache.shpurdp.server.metrics.system.SingleMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects queue depth and dispatching latency of STOMP event bus partitions and publishes to configured Metric Sink.
+ */
+public class StompDispatchMetricsSource extends AbstractMetricsSource {
+  private static final Logger LOG = LoggerFactory.getLogger(StompDispatchMetricsSource.class);
+
+  private final String QUEUE_DEPTH_METRIC_SUFFIX = ".queue_depth";
+  private final String DISPATCHED_METRIC_SUFFIX = ".dispatched";
+  private final String AVERAGE_LATENCY_METRIC_SUFFIX = ".latency.avg";
+  private final String MAX_LATENCY_METRIC_SUFFIX = ".latency.max";
+
+  private ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+  private List<PartitionedEventBus> eventBuses = Collections.emptyList();
+  private int interval = 60;
+
+  @Override
+  public void init(MetricsConfiguration configuration, MetricsSink sink) {
+    super.init(configuration, sink);
+    interval = Integer.parseInt(configuration.getProperty("interval", "60"));
+  }
+
+  @Override
+  public void start() {
+    LOG.info("Starting stomp dispatch source...");
+    try {
+      executor.scheduleWithFixedDelay(() -> {
+        sink.publish(getMetrics());
+        LOG.debug("********* Published stomp dispatch metrics to sink **********");
+      }, interval, interval, TimeUnit.SECONDS);
+    } catch (Exception e) {
+      LOG.info("Throwing exception when starting stomp dispatch source", e);
+    }
+  }
+
+  /**
+   * Sets event buses to collect partitions metrics from.
+   */
+  public void setEventBuses(List<PartitionedEventBus> eventBuses) {
+    this.eventBuses = eventBuses;
+  }
+
+  private List<SingleMetric> getMetrics() {
+    List<SingleMetric> metrics = new ArrayList<>();
+    long currentTime = System.currentTimeMillis();
+    for (PartitionedEventBus eventBus : eventBuses) {
+      for (PartitionedEventBus.Partition partition : eventBus.getPartitions()) {
+        String name = partition.getName();
+        PartitionedEventBus.LatencySnapshot latency = partition.getAndResetLatency();
+        metrics.add(new SingleMetric(name + QUEUE_DEPTH_METRIC_SUFFIX, partition.getQueueDepth(), currentTime));
+        metrics.add(new SingleMetric(name + DISPATCHED_METRIC_SUFFIX, latency.getDispatchedEvents(), currentTime));
+        metrics.add(new SingleMetric(name + AVERAGE_LATENCY_METRIC_SUFFIX, latency.getAverageLatency(), currentTime));
+        metrics.add(new SingleMetric(name + MAX_LATENCY_METRIC_SUFFIX, latency.getMaxLatency(), currentTime));
+      }
+    }
+    return metrics;
+  }
+}
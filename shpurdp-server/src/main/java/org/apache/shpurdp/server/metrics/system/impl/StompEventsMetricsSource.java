@@ -26,6 +26,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.shpurdp.server.events.STOMPEvent;
+import org.apache.shpurdp.server.events.STOMPPayloadCache;
 import org.apache.shpurdp.server.metrics.system.MetricsSink;
 import org.apache.shpurdp.server.metrics.system.SingleMetric;
 import org.slf4j.Logger;
@@ -34,7 +35,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.eventbus.Subscribe;
 
 /**
- * Collects metrics about number of events by types and publishes to configured Metric Sink.
+ * Collects metrics about number of events by types and serialized payloads reuse and publishes to configured Metric Sink.
  */
 public class StompEventsMetricsSource extends AbstractMetricsSource {
   private static Logger LOG = LoggerFactory.getLogger(StompEventsMetricsSource.class);
@@ -44,6 +45,15 @@ public class StompEventsMetricsSource extends AbstractMetricsSource {
 
   private final String EVENTS_TOTAL_METRIC = "events.total";
   private final String AVERAGE_METRIC_SUFFIX = ".avg";
+  private final String PAYLOAD_CACHE_HITS_METRIC = "events.payload_cache.hits";
+  private final String PAYLOAD_CACHE_MISSES_METRIC = "events.payload_cache.misses";
+  private final String PAYLOAD_CACHE_HIT_RATE_METRIC = "events.payload_cache.hit_rate";
+  private final String PAYLOAD_CACHE_SAVED_BYTES_METRIC = "events.payload_cache.saved_bytes";
+
+  private STOMPPayloadCache payloadCache;
+  private long lastPayloadCacheHits = 0;
+  private long lastPayloadCacheMisses = 0;
+  private long lastPayloadCacheSavedBytes = 0;
 
   private int interval = 60;
 
@@ -94,9 +104,44 @@ public class StompEventsMetricsSource extends AbstractMetricsSource {
       metrics.add(new SingleMetric(totalAverageMetricName,
               eventsPerSecond, System.currentTimeMillis()));
     }
+    if (payloadCache != null) {
+      metrics.addAll(getPayloadCacheMetrics());
+    }
+    return metrics;
+  }
+
+  /**
+   * Collects serialized payloads reuse metrics for the last interval.
+   */
+  private List<SingleMetric> getPayloadCacheMetrics() {
+    List<SingleMetric> metrics = new ArrayList<>();
+    long currentHits = payloadCache.getHits();
+    long currentMisses = payloadCache.getMisses();
+    long currentSavedBytes = payloadCache.getSavedBytes();
+
+    long hits = currentHits - lastPayloadCacheHits;
+    long misses = currentMisses - lastPayloadCacheMisses;
+    long savedBytes = currentSavedBytes - lastPayloadCacheSavedBytes;
+    lastPayloadCacheHits = currentHits;
+    lastPayloadCacheMisses = currentMisses;
+    lastPayloadCacheSavedBytes = currentSavedBytes;
+
+    long currentTime = System.currentTimeMillis();
+    metrics.add(new SingleMetric(PAYLOAD_CACHE_HITS_METRIC, hits, currentTime));
+    metrics.add(new SingleMetric(PAYLOAD_CACHE_MISSES_METRIC, misses, currentTime));
+    Double hitRate = hits + misses == 0 ? -1 : (double) hits / (double) (hits + misses);
+    metrics.add(new SingleMetric(PAYLOAD_CACHE_HIT_RATE_METRIC, hitRate, currentTime));
+    metrics.add(new SingleMetric(PAYLOAD_CACHE_SAVED_BYTES_METRIC, savedBytes, currentTime));
     return metrics;
   }
 
+  /**
+   * Sets the cache of serialized broadcast events payloads to collect reuse metrics from.
+   */
+  public void setPayloadCache(STOMPPayloadCache payloadCache) {
+    this.payloadCache = payloadCache;
+  }
+
   @Subscribe
   public void onUpdateEvent(STOMPEvent STOMPEvent) {
     STOMPEvent.Type metricType = STOMPEvent.getType();
@@ -20,8 +20,13 @@ package org.apache.shpurdp.server.orm;
 
 import java.lang.reflect.Method;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 
@@ -77,6 +82,13 @@ public class ShpurdpJpaLocalTxnInterceptor implements MethodInterceptor {
     }
   };
 
+  /**
+   * Actions to undo in-memory changes made by the running transaction of the
+   * thread if the transaction is rolled back. Is only set while the outer-most
+   * transaction is running, an action registered more than once is run once.
+   */
+  private static final ThreadLocal<LinkedHashSet<Runnable>> s_rollbackActions = new ThreadLocal<>();
+
   /**
    * Used to ensure that methods which rely on the completion of
    * {@link Transactional} can detect when they are able to run.
@@ -122,6 +134,7 @@ public class ShpurdpJpaLocalTxnInterceptor implements MethodInterceptor {
       // this is the outer-most transactional, begin a transaction
       final EntityTransaction txn = em.getTransaction();
       txn.begin();
+      s_rollbackActions.set(new LinkedHashSet<>());
 
       Object result;
       try {
@@ -130,7 +143,9 @@ public class ShpurdpJpaLocalTxnInterceptor implements MethodInterceptor {
       } catch (Exception e) {
         // commit transaction only if rollback didn't occur
         if (rollbackIfNecessary(transactional, e, txn)) {
-          txn.commit();
+          commit(txn);
+        } else {
+          runRollbackActions();
         }
 
         detailedLogForPersistenceError(e);
@@ -150,7 +165,7 @@ public class ShpurdpJpaLocalTxnInterceptor implements MethodInterceptor {
       // above as it
       // interferes with the advised method's throwing semantics)
       try {
-        txn.commit();
+        commit(txn);
       } catch (Exception e) {
         detailedLogForPersistenceError(e);
         throw e;
@@ -165,11 +180,66 @@ public class ShpurdpJpaLocalTxnInterceptor implements MethodInterceptor {
       // or return result
       return result;
     } finally {
+      // the transaction is over, its rollback actions were either run or
+      // are discarded
+      s_rollbackActions.remove();
+
       // unlock all lock areas for this transaction
       unlockTransaction();
     }
   }
 
+  /**
+   * Registers an action which undoes in-memory changes made by the running
+   * transaction of the current thread. The action is run if the outer-most
+   * transaction is rolled back and is discarded once it is committed. Nothing
+   * is registered if the thread is not running a transaction.
+   *
+   * @param action
+   *          the action to run on rollback
+   */
+  public static void addRollbackAction(Runnable action) {
+    Set<Runnable> actions = s_rollbackActions.get();
+    if (null != actions) {
+      actions.add(action);
+    }
+  }
+
+  /**
+   * Commits the transaction, running the rollback actions if the commit
+   * fails.
+   */
+  private static void commit(EntityTransaction txn) {
+    try {
+      txn.commit();
+    } catch (RuntimeException e) {
+      runRollbackActions();
+      throw e;
+    }
+  }
+
+  /**
+   * Runs the rollback actions of the transaction in reverse order of their
+   * registration and discards them.
+   */
+  private static void runRollbackActions() {
+    Set<Runnable> actions = s_rollbackActions.get();
+    s_rollbackActions.remove();
+    if (null == actions) {
+      return;
+    }
+
+    List<Runnable> reversed = new ArrayList<>(actions);
+    Collections.reverse(reversed);
+    for (Runnable action : reversed) {
+      try {
+        action.run();
+      } catch (RuntimeException e) {
+        LOG.error("Unable to undo changes of the rolled back transaction", e);
+      }
+    }
+  }
+
   private void detailedLogForPersistenceError(Exception e) {
     if (e instanceof PersistenceException) {
       PersistenceException rbe = (PersistenceException) e;
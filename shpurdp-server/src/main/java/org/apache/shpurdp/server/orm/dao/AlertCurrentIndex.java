@@ -0,0 +1,781 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.orm.dao;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongFunction;
+
+import org.apache.shpurdp.server.orm.entities.AlertCurrentEntity;
+import org.apache.shpurdp.server.orm.entities.AlertDefinitionEntity;
+import org.apache.shpurdp.server.orm.entities.AlertHistoryEntity;
+import org.apache.shpurdp.server.state.AlertState;
+import org.apache.shpurdp.server.state.MaintenanceState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link AlertCurrentIndex} keeps the state of every current alert of a
+ * cluster in memory, keyed by definition id and host. Alert state counts are
+ * maintained per cluster, service, host and definition when an alert changes,
+ * so summaries are returned without querying the database.
+ * <p/>
+ * Host, service, component and definition names are interned into
+ * {@code int} symbols of the cluster and an alert is keyed by a single
+ * {@code long} made of its definition id and host symbol, so an indexed alert
+ * takes a few dozen bytes regardless of the size of its
+ * {@link AlertCurrentEntity}. A symbol is released once no alert of the
+ * cluster references it, so names of removed hosts and definitions are not
+ * kept.
+ * <p/>
+ * The index of a cluster is loaded from the database on the first request and
+ * is then updated by the {@link AlertsDAO} on every change of a current alert.
+ * Bulk removals which bypass the entity manager invalidate the whole index.
+ * Requests read the same cluster index they loaded, so an invalidation while
+ * loading never makes them read an empty index.
+ */
+public class AlertCurrentIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AlertCurrentIndex.class);
+
+  /**
+   * Positions of the counters in the count arrays, {@link #TOTAL} is the
+   * amount of alerts regardless of their state.
+   */
+  private static final int OK = 0;
+  private static final int WARNING = 1;
+  private static final int CRITICAL = 2;
+  private static final int UNKNOWN = 3;
+  private static final int MAINTENANCE = 4;
+  private static final int TOTAL = 5;
+
+  private static final int NO_BUCKET = -1;
+
+  /**
+   * Symbol of {@code null} names.
+   */
+  private static final int NO_SYMBOL = 0;
+
+  /**
+   * Symbol of names which were never indexed.
+   */
+  private static final int UNKNOWN_SYMBOL = -1;
+
+  private final ConcurrentMap<Long, ClusterIndex> m_clusters = new ConcurrentHashMap<>();
+
+  /**
+   * Indexed alerts by the id of their history, used to apply state changes of
+   * merged histories.
+   */
+  private final ConcurrentMap<Long, Entry> m_alertsByHistoryId = new ConcurrentHashMap<>();
+
+  /**
+   * Reads all current alerts of a cluster from the database.
+   */
+  private final LongFunction<List<AlertCurrentEntity>> m_loader;
+
+  /**
+   * Creates an index which is only loaded by {@link #load(long, List)}.
+   */
+  public AlertCurrentIndex() {
+    this(clusterId -> Collections.emptyList());
+  }
+
+  /**
+   * @param loader
+   *          reads all current alerts of a cluster from the database, is
+   *          called on the first request for the cluster
+   */
+  public AlertCurrentIndex(LongFunction<List<AlertCurrentEntity>> loader) {
+    m_loader = loader;
+  }
+
+  /**
+   * @param clusterId
+   *          the cluster id
+   * @return {@code true} if current alerts of the cluster were loaded into the
+   *         index.
+   */
+  public boolean isLoaded(long clusterId) {
+    ClusterIndex clusterIndex = m_clusters.get(clusterId);
+    return null != clusterIndex && clusterIndex.m_loaded;
+  }
+
+  /**
+   * Loads current alerts of the cluster read from the database. Alerts indexed
+   * while they were being read are newer and are kept.
+   *
+   * @param clusterId
+   *          the cluster id
+   * @param alerts
+   *          all current alerts of the cluster
+   */
+  public void load(long clusterId, List<AlertCurrentEntity> alerts) {
+    load(getClusterIndex(clusterId), alerts);
+  }
+
+  private void load(ClusterIndex clusterIndex, List<AlertCurrentEntity> alerts) {
+    synchronized (clusterIndex) {
+      for (AlertCurrentEntity alert : alerts) {
+        Entry entry = clusterIndex.toEntry(alert);
+        if (null == entry) {
+          continue;
+        }
+
+        if (clusterIndex.m_alerts.containsKey(entry.m_key)) {
+          clusterIndex.release(entry);
+        } else {
+          clusterIndex.put(entry);
+          indexHistory(entry);
+        }
+      }
+
+      clusterIndex.m_loaded = true;
+    }
+  }
+
+  /**
+   * Adds or updates the current alert.
+   *
+   * @param alert
+   *          the created or merged current alert.
+   */
+  public void put(AlertCurrentEntity alert) {
+    Long clusterId = getClusterId(alert);
+    if (null == clusterId) {
+      return;
+    }
+
+    ClusterIndex clusterIndex = getClusterIndex(clusterId);
+    synchronized (clusterIndex) {
+      Entry entry = clusterIndex.toEntry(alert);
+      if (null == entry) {
+        return;
+      }
+
+      Entry previous = clusterIndex.put(entry);
+      if (null != previous && previous.m_historyId != entry.m_historyId) {
+        m_alertsByHistoryId.remove(previous.m_historyId, previous);
+      }
+
+      indexHistory(entry);
+    }
+  }
+
+  /**
+   * Updates the state, service, component and host of the current alert
+   * referencing the history.
+   *
+   * @param history
+   *          the merged history.
+   */
+  public void update(AlertHistoryEntity history) {
+    if (null == history.getAlertId()) {
+      return;
+    }
+
+    Entry entry = m_alertsByHistoryId.get(history.getAlertId());
+    if (null == entry) {
+      return;
+    }
+
+    ClusterIndex clusterIndex = getClusterIndex(entry.m_clusterId);
+    synchronized (clusterIndex) {
+      // the alert could be moved to a newer history meanwhile
+      if (clusterIndex.m_alerts.get(entry.m_key) != entry) {
+        return;
+      }
+
+      SymbolTable symbols = clusterIndex.m_symbols;
+      Entry updated = new Entry(entry);
+      updated.m_state = history.getAlertState();
+      updated.m_definitionSymbol = symbols.retain(entry.m_definitionSymbol);
+      updated.m_serviceSymbol = symbols.acquire(history.getServiceName());
+      updated.m_componentSymbol = symbols.acquire(history.getComponentName());
+      updated.m_hostSymbol = symbols.acquire(history.getHostName());
+      updated.m_key = toKey(updated.m_definitionId, updated.m_hostSymbol);
+
+      clusterIndex.remove(entry.m_key);
+      Entry replaced = clusterIndex.put(updated);
+      if (null != replaced) {
+        m_alertsByHistoryId.remove(replaced.m_historyId, replaced);
+      }
+      m_alertsByHistoryId.replace(entry.m_historyId, entry, updated);
+    }
+  }
+
+  /**
+   * Removes the current alert.
+   *
+   * @param alert
+   *          the removed current alert.
+   */
+  public void remove(AlertCurrentEntity alert) {
+    Long clusterId = getClusterId(alert);
+    if (null == clusterId) {
+      return;
+    }
+
+    ClusterIndex clusterIndex = getClusterIndex(clusterId);
+    synchronized (clusterIndex) {
+      Entry entry = clusterIndex.toEntry(alert);
+      if (null == entry) {
+        return;
+      }
+
+      Entry removed = clusterIndex.remove(entry.m_key);
+      if (null != removed) {
+        m_alertsByHistoryId.remove(removed.m_historyId, removed);
+      }
+      clusterIndex.release(entry);
+    }
+  }
+
+  /**
+   * Drops all indexed alerts, they are loaded again on the next request.
+   */
+  public void invalidate() {
+    m_clusters.clear();
+    m_alertsByHistoryId.clear();
+  }
+
+  /**
+   * Gets the summary of current alerts in the cluster, optionally limited to a
+   * service and a host.
+   *
+   * @param clusterId
+   *          the cluster id
+   * @param serviceName
+   *          the service name or {@code null} to not filter on service.
+   * @param hostName
+   *          the host name or {@code null} to not filter on host.
+   * @return the summary DTO
+   */
+  public AlertSummaryDTO getCounts(long clusterId, String serviceName, String hostName) {
+    ClusterIndex clusterIndex = getLoadedClusterIndex(clusterId);
+    synchronized (clusterIndex) {
+      if (null != serviceName && null != hostName) {
+        int serviceSymbol = clusterIndex.m_symbols.find(serviceName);
+        int hostSymbol = clusterIndex.m_symbols.find(hostName);
+        int[] counts = new int[TOTAL + 1];
+        for (Entry entry : clusterIndex.m_alerts.values()) {
+          if (entry.m_serviceSymbol == serviceSymbol && entry.m_hostSymbol == hostSymbol) {
+            count(counts, entry.getBucket(), 1);
+          }
+        }
+        return toSummary(counts);
+      }
+
+      if (null != serviceName) {
+        return toSummary(clusterIndex.m_serviceCounts.get(clusterIndex.m_symbols.find(serviceName)));
+      }
+
+      if (null != hostName) {
+        return toSummary(clusterIndex.m_hostCounts.get(clusterIndex.m_symbols.find(hostName)));
+      }
+
+      return toSummary(clusterIndex.m_counts);
+    }
+  }
+
+  /**
+   * Gets the summary of current alerts of the definition in the cluster.
+   *
+   * @param clusterId
+   *          the cluster id
+   * @param definitionName
+   *          the definition name
+   * @return the summary DTO
+   */
+  public AlertSummaryDTO getAggregateCounts(long clusterId, String definitionName) {
+    ClusterIndex clusterIndex = getLoadedClusterIndex(clusterId);
+    synchronized (clusterIndex) {
+      return toSummary(clusterIndex.m_definitionCounts.get(clusterIndex.m_symbols.find(definitionName)));
+    }
+  }
+
+  /**
+   * Gets the summary of current alerts per host of the cluster. Alerts not
+   * related to a host are returned by the {@code null} key.
+   *
+   * @param clusterId
+   *          the cluster id
+   * @return map from hostnames to summary DTO
+   */
+  public Map<String, AlertSummaryDTO> getPerHostCounts(long clusterId) {
+    ClusterIndex clusterIndex = getLoadedClusterIndex(clusterId);
+    Map<String, AlertSummaryDTO> summaries = new HashMap<>();
+    synchronized (clusterIndex) {
+      for (Map.Entry<Integer, int[]> hostCounts : clusterIndex.m_hostCounts.entrySet()) {
+        String hostName = clusterIndex.m_symbols.getName(hostCounts.getKey());
+        int[] counts = hostCounts.getValue();
+        summaries.put(hostName, new HostAlertSummaryDTO(hostName, counts[OK], counts[WARNING],
+            counts[CRITICAL], counts[UNKNOWN], counts[MAINTENANCE]));
+      }
+    }
+    return summaries;
+  }
+
+  /**
+   * Gets the amount of hosts of the cluster by their most severe alert.
+   *
+   * @param clusterId
+   *          the cluster id
+   * @return the summary DTO for host alerts.
+   */
+  public AlertHostSummaryDTO getHostCounts(long clusterId) {
+    ClusterIndex clusterIndex = getLoadedClusterIndex(clusterId);
+    int okCount = 0;
+    int warningCount = 0;
+    int criticalCount = 0;
+    int unknownCount = 0;
+
+    synchronized (clusterIndex) {
+      for (Map.Entry<Integer, int[]> hostCounts : clusterIndex.m_hostCounts.entrySet()) {
+        if (hostCounts.getKey() == NO_SYMBOL) {
+          continue;
+        }
+
+        int[] counts = hostCounts.getValue();
+        if (counts[CRITICAL] > 0) {
+          criticalCount++;
+        } else if (counts[WARNING] > 0) {
+          warningCount++;
+        } else if (counts[UNKNOWN] > 0) {
+          unknownCount++;
+        } else {
+          okCount++;
+        }
+      }
+    }
+
+    return new AlertHostSummaryDTO(okCount, unknownCount, warningCount, criticalCount);
+  }
+
+  /**
+   * Gets a snapshot of the current alerts of the cluster.
+   *
+   * @param clusterId
+   *          the cluster id
+   * @return the indexed alerts (never {@code null}).
+   */
+  public List<IndexedAlert> getAlerts(long clusterId) {
+    ClusterIndex clusterIndex = getLoadedClusterIndex(clusterId);
+    List<IndexedAlert> alerts;
+    synchronized (clusterIndex) {
+      alerts = new ArrayList<>(clusterIndex.m_alerts.size());
+      for (Entry entry : clusterIndex.m_alerts.values()) {
+        alerts.add(new IndexedAlert(entry, clusterIndex.m_symbols));
+      }
+    }
+    return alerts;
+  }
+
+  /**
+   * @param clusterId
+   *          the cluster id
+   * @return the amount of names referenced by the indexed alerts of the
+   *         cluster.
+   */
+  int getNameCount(long clusterId) {
+    ClusterIndex clusterIndex = m_clusters.get(clusterId);
+    if (null == clusterIndex) {
+      return 0;
+    }
+
+    synchronized (clusterIndex) {
+      return clusterIndex.m_symbols.m_symbols.size();
+    }
+  }
+
+  private ClusterIndex getClusterIndex(long clusterId) {
+    return m_clusters.computeIfAbsent(clusterId, id -> new ClusterIndex());
+  }
+
+  /**
+   * Gets the index of the cluster, loading current alerts of the cluster if
+   * they were not loaded yet. The returned index is read even if the whole
+   * index is invalidated meanwhile, it then holds the alerts just loaded.
+   */
+  private ClusterIndex getLoadedClusterIndex(long clusterId) {
+    ClusterIndex clusterIndex = getClusterIndex(clusterId);
+    if (!clusterIndex.m_loaded) {
+      synchronized (clusterIndex.m_loadLock) {
+        if (!clusterIndex.m_loaded) {
+          load(clusterIndex, m_loader.apply(clusterId));
+          LOG.info("Loaded current alerts of cluster {} into the summary index", clusterId);
+        }
+      }
+    }
+    return clusterIndex;
+  }
+
+  private void indexHistory(Entry entry) {
+    if (entry.m_historyId != 0) {
+      m_alertsByHistoryId.put(entry.m_historyId, entry);
+    }
+  }
+
+  private static Long getClusterId(AlertCurrentEntity alert) {
+    AlertHistoryEntity history = alert.getAlertHistory();
+    return null == history ? null : history.getClusterId();
+  }
+
+  /**
+   * Definition ids are expected to fit into 32 bits.
+   */
+  private static long toKey(long definitionId, int hostSymbol) {
+    return (definitionId << 32) | (hostSymbol & 0xFFFFFFFFL);
+  }
+
+  private static long toPrimitive(Long value) {
+    return null == value ? 0 : value;
+  }
+
+  private static AlertSummaryDTO toSummary(int[] counts) {
+    if (null == counts) {
+      return new AlertSummaryDTO(0, 0, 0, 0, 0);
+    }
+
+    return new AlertSummaryDTO(counts[OK], counts[WARNING], counts[CRITICAL], counts[UNKNOWN],
+        counts[MAINTENANCE]);
+  }
+
+  private static void count(int[] counts, int bucket, int delta) {
+    if (bucket != NO_BUCKET) {
+      counts[bucket] += delta;
+    }
+    counts[TOTAL] += delta;
+  }
+
+  /**
+   * Current alerts, their counts and the symbols of their names of a single
+   * cluster, guarded by the instance monitor.
+   */
+  private static final class ClusterIndex {
+    private final SymbolTable m_symbols = new SymbolTable();
+    private final Map<Long, Entry> m_alerts = new HashMap<>();
+    private final int[] m_counts = new int[TOTAL + 1];
+    private final Map<Integer, int[]> m_serviceCounts = new HashMap<>();
+    private final Map<Integer, int[]> m_hostCounts = new HashMap<>();
+    private final Map<Integer, int[]> m_definitionCounts = new HashMap<>();
+    private volatile boolean m_loaded = false;
+
+    /**
+     * Is held while alerts of the cluster are read from the database, so they
+     * are read once while changes of the alerts are still indexed.
+     */
+    private final Object m_loadLock = new Object();
+
+    /**
+     * Creates the entry of the alert, the entry references the symbols of its
+     * names until it is removed or {@link #release(Entry) released}.
+     *
+     * @return the entry or {@code null} if the alert can't be indexed.
+     */
+    private Entry toEntry(AlertCurrentEntity alert) {
+      AlertHistoryEntity history = alert.getAlertHistory();
+      if (null == history || null == history.getClusterId()) {
+        return null;
+      }
+
+      AlertDefinitionEntity definition = history.getAlertDefinition();
+      Long definitionId = history.getAlertDefinitionId();
+      if (null == definitionId && null != definition) {
+        definitionId = definition.getDefinitionId();
+      }
+
+      if (null == definitionId) {
+        return null;
+      }
+
+      Entry entry = new Entry();
+      entry.m_clusterId = history.getClusterId();
+      entry.m_alertId = toPrimitive(alert.getAlertId());
+      entry.m_historyId = toPrimitive(history.getAlertId());
+      entry.m_definitionId = definitionId;
+      entry.m_definitionSymbol = m_symbols.acquire(null == definition ? null : definition.getDefinitionName());
+      entry.m_serviceSymbol = m_symbols.acquire(history.getServiceName());
+      entry.m_componentSymbol = m_symbols.acquire(history.getComponentName());
+      entry.m_hostSymbol = m_symbols.acquire(history.getHostName());
+      entry.m_state = history.getAlertState();
+      entry.m_maintenanceState = alert.getMaintenanceState();
+      entry.m_originalTimestamp = toPrimitive(alert.getOriginalTimestamp());
+      entry.m_key = toKey(definitionId, entry.m_hostSymbol);
+      return entry;
+    }
+
+    /**
+     * Releases the symbols referenced by an entry which is not indexed.
+     */
+    private void release(Entry entry) {
+      m_symbols.release(entry.m_definitionSymbol);
+      m_symbols.release(entry.m_serviceSymbol);
+      m_symbols.release(entry.m_componentSymbol);
+      m_symbols.release(entry.m_hostSymbol);
+    }
+
+    private Entry put(Entry entry) {
+      Entry previous = remove(entry.m_key);
+      m_alerts.put(entry.m_key, entry);
+      apply(entry, 1);
+      return previous;
+    }
+
+    private Entry remove(long key) {
+      Entry previous = m_alerts.remove(key);
+      if (null != previous) {
+        apply(previous, -1);
+        release(previous);
+      }
+      return previous;
+    }
+
+    private void apply(Entry entry, int delta) {
+      int bucket = entry.getBucket();
+      count(m_counts, bucket, delta);
+      apply(m_serviceCounts, entry.m_serviceSymbol, bucket, delta);
+      apply(m_hostCounts, entry.m_hostSymbol, bucket, delta);
+      apply(m_definitionCounts, entry.m_definitionSymbol, bucket, delta);
+    }
+
+    private static void apply(Map<Integer, int[]> countsBySymbol, int symbol, int bucket, int delta) {
+      int[] counts = countsBySymbol.computeIfAbsent(symbol, s -> new int[TOTAL + 1]);
+      count(counts, bucket, delta);
+      if (counts[TOTAL] == 0) {
+        countsBySymbol.remove(symbol);
+      }
+    }
+  }
+
+  /**
+   * Interned names of a cluster. A symbol is counted once per reference by an
+   * indexed alert and is reused for another name once it is not referenced
+   * anymore.
+   */
+  private static final class SymbolTable {
+    private final Map<String, Integer> m_symbols = new HashMap<>();
+    private final List<String> m_names = new ArrayList<>();
+    private final Deque<Integer> m_freeSymbols = new ArrayDeque<>();
+    private int[] m_references = new int[16];
+
+    private SymbolTable() {
+      m_names.add(null);
+    }
+
+    /**
+     * @return the symbol of the name with one more reference.
+     */
+    private int acquire(String name) {
+      if (null == name) {
+        return NO_SYMBOL;
+      }
+
+      Integer symbol = m_symbols.get(name);
+      if (null == symbol) {
+        symbol = m_freeSymbols.poll();
+        if (null == symbol) {
+          symbol = m_names.size();
+          m_names.add(name);
+        } else {
+          m_names.set(symbol, name);
+        }
+
+        m_symbols.put(name, symbol);
+        if (symbol >= m_references.length) {
+          m_references = Arrays.copyOf(m_references, m_references.length * 2);
+        }
+      }
+
+      return retain(symbol);
+    }
+
+    private int retain(int symbol) {
+      if (symbol != NO_SYMBOL) {
+        m_references[symbol]++;
+      }
+      return symbol;
+    }
+
+    private void release(int symbol) {
+      if (symbol == NO_SYMBOL || --m_references[symbol] > 0) {
+        return;
+      }
+
+      m_symbols.remove(m_names.get(symbol));
+      m_names.set(symbol, null);
+      m_freeSymbols.push(symbol);
+    }
+
+    /**
+     * @return the symbol of the name or {@link #UNKNOWN_SYMBOL} if the name is
+     *         not referenced by any alert.
+     */
+    private int find(String name) {
+      if (null == name) {
+        return NO_SYMBOL;
+      }
+
+      Integer symbol = m_symbols.get(name);
+      return null == symbol ? UNKNOWN_SYMBOL : symbol;
+    }
+
+    private String getName(int symbol) {
+      return m_names.get(symbol);
+    }
+  }
+
+  /**
+   * The indexed part of a current alert.
+   */
+  private static final class Entry {
+    private long m_key;
+    private long m_clusterId;
+    private long m_alertId;
+    private long m_historyId;
+    private long m_definitionId;
+    private int m_definitionSymbol;
+    private int m_serviceSymbol;
+    private int m_componentSymbol;
+    private int m_hostSymbol;
+    private AlertState m_state;
+    private MaintenanceState m_maintenanceState;
+    private long m_originalTimestamp;
+
+    private Entry() {
+    }
+
+    private Entry(Entry entry) {
+      m_key = entry.m_key;
+      m_clusterId = entry.m_clusterId;
+      m_alertId = entry.m_alertId;
+      m_historyId = entry.m_historyId;
+      m_definitionId = entry.m_definitionId;
+      m_definitionSymbol = entry.m_definitionSymbol;
+      m_serviceSymbol = entry.m_serviceSymbol;
+      m_componentSymbol = entry.m_componentSymbol;
+      m_hostSymbol = entry.m_hostSymbol;
+      m_state = entry.m_state;
+      m_maintenanceState = entry.m_maintenanceState;
+      m_originalTimestamp = entry.m_originalTimestamp;
+    }
+
+    /**
+     * Alerts in maintenance are counted as such instead of their state, alerts
+     * without maintenance state or in {@link AlertState#SKIPPED} state are not
+     * counted, the same way as by the summary queries of {@link AlertsDAO}.
+     */
+    private int getBucket() {
+      if (null == m_maintenanceState) {
+        return NO_BUCKET;
+      }
+
+      if (m_maintenanceState != MaintenanceState.OFF) {
+        return MAINTENANCE;
+      }
+
+      if (null == m_state) {
+        return NO_BUCKET;
+      }
+
+      switch (m_state) {
+        case OK:
+          return OK;
+        case WARNING:
+          return WARNING;
+        case CRITICAL:
+          return CRITICAL;
+        case UNKNOWN:
+          return UNKNOWN;
+        default:
+          return NO_BUCKET;
+      }
+    }
+  }
+
+  /**
+   * Snapshot of an indexed current alert.
+   */
+  public static final class IndexedAlert {
+    private final long m_alertId;
+    private final long m_definitionId;
+    private final String m_definitionName;
+    private final String m_serviceName;
+    private final String m_componentName;
+    private final String m_hostName;
+    private final AlertState m_state;
+    private final MaintenanceState m_maintenanceState;
+    private final long m_originalTimestamp;
+
+    private IndexedAlert(Entry entry, SymbolTable symbols) {
+      m_alertId = entry.m_alertId;
+      m_definitionId = entry.m_definitionId;
+      m_definitionName = symbols.getName(entry.m_definitionSymbol);
+      m_serviceName = symbols.getName(entry.m_serviceSymbol);
+      m_componentName = symbols.getName(entry.m_componentSymbol);
+      m_hostName = symbols.getName(entry.m_hostSymbol);
+      m_state = entry.m_state;
+      m_maintenanceState = entry.m_maintenanceState;
+      m_originalTimestamp = entry.m_originalTimestamp;
+    }
+
+    public long getAlertId() {
+      return m_alertId;
+    }
+
+    public long getDefinitionId() {
+      return m_definitionId;
+    }
+
+    public String getDefinitionName() {
+      return m_definitionName;
+    }
+
+    public String getServiceName() {
+      return m_serviceName;
+    }
+
+    public String getComponentName() {
+      return m_componentName;
+    }
+
+    public String getHostName() {
+      return m_hostName;
+    }
+
+    public AlertState getState() {
+      return m_state;
+    }
+
+    public MaintenanceState getMaintenanceState() {
+      return m_maintenanceState;
+    }
+
+    public long getOriginalTimestamp() {
+      return m_originalTimestamp;
+    }
+  }
+}
@@ -34,6 +34,7 @@ import javax.persistence.metamodel.SingularAttribute;
 import org.apache.shpurdp.server.ShpurdpException;
 import org.apache.shpurdp.server.agent.stomp.dto.AlertGroupUpdate;
 import org.apache.shpurdp.server.api.query.JpaPredicateVisitor;
+import org.apache.shpurdp.server.api.query.JpaPushDown;
 import org.apache.shpurdp.server.api.query.JpaSortBuilder;
 import org.apache.shpurdp.server.controller.AlertNoticeRequest;
 import org.apache.shpurdp.server.controller.RootService;
@@ -381,16 +382,18 @@ public class AlertDispatchDAO {
       query.where(jpaPredicate);
     }
 
-    // sorting
+    // sorting, with the id as the tie breaker so that pages are stable
     JpaSortBuilder<AlertNoticeEntity> sortBuilder = new JpaSortBuilder<>();
-    List<Order> sortOrders = sortBuilder.buildSortOrders(request.Sort, visitor);
+    List<Order> sortOrders = sortBuilder.buildSortOrders(request.Sort, visitor,
+        AlertNoticeEntity_.notificationId);
     query.orderBy(sortOrders);
 
-    // pagination
+    // pagination, only if the predicate and sort are applied by JPA entirely;
+    // otherwise the cluster controller pages the complete result
     TypedQuery<AlertNoticeEntity> typedQuery = entityManager.createQuery(query);
-    if (null != request.Pagination) {
-      typedQuery.setFirstResult(request.Pagination.getOffset());
-      typedQuery.setMaxResults(request.Pagination.getPageSize());
+    if (JpaPushDown.isPageable(request.Predicate, request.Pagination, request.Sort,
+        AlertNoticeEntity_.getPredicateMapping())) {
+      JpaPushDown.applyPageRequest(typedQuery, request.Pagination);
     }
 
     return daoUtils.selectList(typedQuery);
@@ -406,7 +409,11 @@ public class AlertDispatchDAO {
    */
   @RequiresSession
   public int getNoticesCount(Predicate predicate) {
-    return 0;
+    NoticePredicateVisitor visitor = new NoticePredicateVisitor();
+    TypedQuery<Long> query = entityManagerProvider.get().createQuery(
+        visitor.getCountQuery(predicate));
+
+    return daoUtils.selectSingle(query).intValue();
   }
 
   /**
@@ -18,16 +18,21 @@
 package org.apache.shpurdp.server.orm.dao;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
@@ -39,6 +44,7 @@ import org.apache.shpurdp.annotations.Experimental;
 import org.apache.shpurdp.annotations.ExperimentalFeature;
 import org.apache.shpurdp.server.ShpurdpException;
 import org.apache.shpurdp.server.api.query.JpaPredicateVisitor;
+import org.apache.shpurdp.server.api.query.JpaPushDown;
 import org.apache.shpurdp.server.api.query.JpaSortBuilder;
 import org.apache.shpurdp.server.cleanup.TimeBasedCleanupPolicy;
 import org.apache.shpurdp.server.configuration.Configuration;
@@ -49,6 +55,7 @@ import org.apache.shpurdp.server.controller.utilities.PredicateHelper;
 import org.apache.shpurdp.server.events.AggregateAlertRecalculateEvent;
 import org.apache.shpurdp.server.events.publishers.AlertEventPublisher;
 import org.apache.shpurdp.server.orm.RequiresSession;
+import org.apache.shpurdp.server.orm.ShpurdpJpaLocalTxnInterceptor;
 import org.apache.shpurdp.server.orm.entities.AlertCurrentEntity;
 import org.apache.shpurdp.server.orm.entities.AlertCurrentEntity_;
 import org.apache.shpurdp.server.orm.entities.AlertHistoryEntity;
@@ -66,6 +73,8 @@ import org.slf4j.LoggerFactory;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -150,6 +159,47 @@ public class AlertsDAO implements Cleanable {
    */
   private LoadingCache<AlertCacheKey, AlertCurrentEntity> m_currentAlertCache = null;
 
+  /**
+   * Keys of cached alerts which are not known to be written to the database,
+   * mapped to the version of their latest change. The mark is cleared only
+   * after the flush writing the change is committed.
+   */
+  private final ConcurrentMap<AlertCacheKey, Long> m_dirtyAlerts = new ConcurrentHashMap<>();
+
+  private final AtomicLong m_dirtyAlertVersion = new AtomicLong();
+
+  /**
+   * Dirty alerts evicted from the cache which are not written to the database
+   * yet. They are returned back to the cache if requested before the write.
+   */
+  private final ConcurrentMap<AlertCacheKey, AlertCurrentEntity> m_evictedAlerts = new ConcurrentHashMap<>();
+
+  /**
+   * Writes dirty alerts evicted from the cache.
+   */
+  private ExecutorService m_evictedAlertsWriter = null;
+
+  private final AtomicBoolean m_evictedAlertsWriteScheduled = new AtomicBoolean(false);
+
+  /**
+   * In-memory index of current alerts used to calculate alert summaries
+   * without querying the database, current alerts of a cluster are loaded on
+   * the first request.
+   */
+  private final AlertCurrentIndex m_currentAlertIndex = new AlertCurrentIndex(this::findCurrentByCluster);
+
+  /**
+   * Registered once per transaction which changed the index of current
+   * alerts.
+   */
+  private final Runnable m_invalidateCurrentAlertIndex = m_currentAlertIndex::invalidate;
+
+  private final boolean m_summaryIndexEnabled;
+
+  private final AtomicLong m_flushedAlerts = new AtomicLong();
+  private final AtomicLong m_flushes = new AtomicLong();
+  private final AtomicLong m_flushTime = new AtomicLong();
+
   /**
    * Batch size to query the DB and use the results in an IN clause.
    */
@@ -162,6 +212,7 @@ public class AlertsDAO implements Cleanable {
   @Inject
   public AlertsDAO(Configuration configuration) {
     m_configuration = configuration;
+    m_summaryIndexEnabled = m_configuration.isAlertSummaryIndexEnabled();
 
     if( m_configuration.isAlertCacheEnabled() ){
       int maximumSize = m_configuration.getAlertCacheSize();
@@ -171,10 +222,21 @@ public class AlertsDAO implements Cleanable {
 
       // construct a cache for current alerts which will prevent database hits
       // on every heartbeat
-      m_currentAlertCache = CacheBuilder.newBuilder().maximumSize(
-          maximumSize).build(new CacheLoader<AlertCacheKey, AlertCurrentEntity>() {
+      m_evictedAlertsWriter = Executors.newSingleThreadExecutor(
+          new ThreadFactoryBuilder().setNameFormat("alert-cache-eviction-writer-%d").setDaemon(true).build());
+
+      m_currentAlertCache = CacheBuilder.newBuilder().maximumSize(maximumSize)
+          .<AlertCacheKey, AlertCurrentEntity>removalListener(this::onCachedAlertRemoval)
+          .build(new CacheLoader<AlertCacheKey, AlertCurrentEntity>() {
             @Override
             public AlertCurrentEntity load(AlertCacheKey key) throws Exception {
+              // an evicted alert which is not written yet is newer than the one in JPA
+              AlertCurrentEntity evictedEntity = m_evictedAlerts.get(key);
+              if (null != evictedEntity) {
+                LOG.debug("Cache miss for alert key {}, restoring evicted alert", key);
+                return evictedEntity;
+              }
+
               LOG.debug("Cache miss for alert key {}, fetching from JPA", key);
 
               final AlertCurrentEntity alertCurrentEntity;
@@ -357,16 +419,18 @@ public class AlertsDAO implements Cleanable {
       query.where(jpaPredicate);
     }
 
-    // sorting
+    // sorting, with the id as the tie breaker so that pages are stable
     JpaSortBuilder<AlertHistoryEntity> sortBuilder = new JpaSortBuilder<>();
-    List<Order> sortOrders = sortBuilder.buildSortOrders(request.Sort, visitor);
+    List<Order> sortOrders = sortBuilder.buildSortOrders(request.Sort, visitor,
+        AlertHistoryEntity_.alertId);
     query.orderBy(sortOrders);
 
-    // pagination
+    // pagination, only if the predicate and sort are applied by JPA entirely;
+    // otherwise the cluster controller pages the complete result
     TypedQuery<AlertHistoryEntity> typedQuery = entityManager.createQuery(query);
-    if (null != request.Pagination) {
-      typedQuery.setFirstResult(request.Pagination.getOffset());
-      typedQuery.setMaxResults(request.Pagination.getPageSize());
+    if (JpaPushDown.isPageable(request.Predicate, request.Pagination, request.Sort,
+        AlertHistoryEntity_.getPredicateMapping())) {
+      JpaPushDown.applyPageRequest(typedQuery, request.Pagination);
     }
 
     return m_daoUtils.selectList(typedQuery);
@@ -395,22 +459,18 @@ public class AlertsDAO implements Cleanable {
       query.where(jpaPredicate);
     }
 
-    // sorting
+    // sorting, with the id as the tie breaker so that pages are stable
     JpaSortBuilder<AlertCurrentEntity> sortBuilder = new JpaSortBuilder<>();
-    List<Order> sortOrders = sortBuilder.buildSortOrders(request.Sort, visitor);
+    List<Order> sortOrders = sortBuilder.buildSortOrders(request.Sort, visitor,
+        AlertCurrentEntity_.alertId);
     query.orderBy(sortOrders);
 
-    // pagination
+    // pagination, only if the predicate and sort are applied by JPA entirely;
+    // otherwise the cluster controller pages the complete result
     TypedQuery<AlertCurrentEntity> typedQuery = entityManager.createQuery(query);
-    if( null != request.Pagination ){
-      // prevent JPA errors when -1 is passed in by accident
-      int offset = request.Pagination.getOffset();
-      if (offset < 0) {
-        offset = 0;
-      }
-
-      typedQuery.setFirstResult(offset);
-      typedQuery.setMaxResults(request.Pagination.getPageSize());
+    if (JpaPushDown.isPageable(request.Predicate, request.Pagination, request.Sort,
+        AlertCurrentEntity_.getPredicateMapping())) {
+      JpaPushDown.applyPageRequest(typedQuery, request.Pagination);
     }
 
     List<AlertCurrentEntity> alerts = m_daoUtils.selectList(typedQuery);
@@ -431,8 +491,30 @@ public class AlertsDAO implements Cleanable {
    *          the predicate to apply, or {@code null} for none.
    * @return the total count of rows that would be returned in a result set.
    */
+  @RequiresSession
   public int getCount(Predicate predicate) {
-    return 0;
+    HistoryPredicateVisitor visitor = new HistoryPredicateVisitor();
+    TypedQuery<Long> query = m_entityManagerProvider.get().createQuery(
+        visitor.getCountQuery(predicate));
+
+    return m_daoUtils.selectSingle(query).intValue();
+  }
+
+  /**
+   * Gets the total count of all {@link AlertCurrentEntity} rows that match the
+   * specified {@link Predicate}.
+   *
+   * @param predicate
+   *          the predicate to apply, or {@code null} for none.
+   * @return the total count of rows that would be returned in a result set.
+   */
+  @RequiresSession
+  public int getCurrentCount(Predicate predicate) {
+    CurrentPredicateVisitor visitor = new CurrentPredicateVisitor();
+    TypedQuery<Long> query = m_entityManagerProvider.get().createQuery(
+        visitor.getCountQuery(predicate));
+
+    return m_daoUtils.selectSingle(query).intValue();
   }
 
   /**
@@ -516,6 +598,26 @@ public class AlertsDAO implements Cleanable {
     return alerts;
   }
 
+  /**
+   * Gets the current alerts of the cluster from the in-memory index of current
+   * alerts. Only the state, maintenance state, original timestamp, definition,
+   * service, component and host of the alerts are indexed.
+   *
+   * @param clusterId
+   *          the cluster id
+   * @return the indexed current alerts, or {@code null} if the index is not
+   *         enabled.
+   * @see Configuration#isAlertSummaryIndexEnabled()
+   */
+  @RequiresSession
+  public List<AlertCurrentIndex.IndexedAlert> findIndexedCurrentByCluster(long clusterId) {
+    if (!m_summaryIndexEnabled) {
+      return null;
+    }
+
+    return m_currentAlertIndex.getAlerts(clusterId);
+  }
+
   /**
    * Retrieves the summary information for a particular scope. The result is a
    * DTO since the columns are aggregated and don't fit to an entity.
@@ -530,6 +632,10 @@ public class AlertsDAO implements Cleanable {
    */
   @RequiresSession
   public AlertSummaryDTO findCurrentCounts(long clusterId, String serviceName, String hostName) {
+    if (m_summaryIndexEnabled) {
+      return m_currentAlertIndex.getCounts(clusterId, serviceName, hostName);
+    }
+
     String sql = String.format(ALERT_COUNT_SQL_TEMPLATE,
       AlertSummaryDTO.class.getName());
 
@@ -574,6 +680,10 @@ public class AlertsDAO implements Cleanable {
    */
   @RequiresSession
   public Map<String, AlertSummaryDTO> findCurrentPerHostCounts(long clusterId) {
+    if (m_summaryIndexEnabled) {
+      return m_currentAlertIndex.getPerHostCounts(clusterId);
+    }
+
     String sql = String.format(ALERT_COUNT_PER_HOST_SQL_TEMPLATE, HostAlertSummaryDTO.class.getName());
 
     StringBuilder sb = new StringBuilder(sql);
@@ -607,6 +717,10 @@ public class AlertsDAO implements Cleanable {
    */
   @RequiresSession
   public AlertHostSummaryDTO findCurrentHostCounts(long clusterId) {
+    if (m_summaryIndexEnabled) {
+      return m_currentAlertIndex.getHostCounts(clusterId);
+    }
+
     String sql = String.format(ALERT_COUNT_PER_HOST_SQL_TEMPLATE, HostAlertSummaryDTO.class.getName());
 
     StringBuilder sb = new StringBuilder(sql);
@@ -756,11 +870,12 @@ public class AlertsDAO implements Cleanable {
     historyQuery.executeUpdate();
 
     entityManager.clear();
+    m_currentAlertIndex.invalidate();
 
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
   }
 
@@ -777,11 +892,12 @@ public class AlertsDAO implements Cleanable {
 
     query.setParameter("historyId", historyId);
     int rowsRemoved = query.executeUpdate();
+    m_currentAlertIndex.invalidate();
 
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
 
     return rowsRemoved;
@@ -809,7 +925,7 @@ public class AlertsDAO implements Cleanable {
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
 
     return rowsRemoved;
@@ -848,7 +964,7 @@ public class AlertsDAO implements Cleanable {
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
 
     // publish the event to recalculate aggregates
@@ -886,7 +1002,7 @@ public class AlertsDAO implements Cleanable {
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
 
     // publish the event to recalculate aggregates for every cluster since a host could potentially have several clusters
@@ -947,7 +1063,7 @@ public class AlertsDAO implements Cleanable {
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
 
     // publish the event to recalculate aggregates
@@ -997,7 +1113,14 @@ public class AlertsDAO implements Cleanable {
 
   @Transactional
   protected AlertHistoryEntity mergeTransactional(AlertHistoryEntity alert) {
-    return m_entityManagerProvider.get().merge(alert);
+    alert = m_entityManagerProvider.get().merge(alert);
+
+    if (m_summaryIndexEnabled) {
+      m_currentAlertIndex.update(alert);
+      invalidateCurrentAlertIndexOnRollback();
+    }
+
+    return alert;
   }
 
   /**
@@ -1023,6 +1146,11 @@ public class AlertsDAO implements Cleanable {
   @Transactional
   public void create(AlertCurrentEntity alert) {
     m_entityManagerProvider.get().persist(alert);
+
+    if (m_summaryIndexEnabled) {
+      m_currentAlertIndex.put(alert);
+      invalidateCurrentAlertIndexOnRollback();
+    }
   }
 
   /**
@@ -1058,10 +1186,25 @@ public class AlertsDAO implements Cleanable {
     // perform the JPA merge
     alert = m_entityManagerProvider.get().merge(alert);
 
+    if (m_summaryIndexEnabled) {
+      m_currentAlertIndex.put(alert);
+      invalidateCurrentAlertIndexOnRollback();
+    }
+
     // if caching is enabled, update the cache
     if( m_configuration.isAlertCacheEnabled() ){
       AlertCacheKey key = AlertCacheKey.build(alert);
       m_currentAlertCache.put(key, alert);
+      // the cached alert is newer than the evicted one, it stays dirty until
+      // a flush is committed since this transaction could be rolled back
+      m_evictedAlerts.remove(key);
+
+      // an alert which is not dirty is reloaded from the database on rollback
+      ShpurdpJpaLocalTxnInterceptor.addRollbackAction(() -> {
+        if (!m_dirtyAlerts.containsKey(key)) {
+          m_currentAlertCache.invalidate(key);
+        }
+      });
     }
 
     return alert;
@@ -1094,6 +1237,11 @@ public class AlertsDAO implements Cleanable {
       } else {
         // update cache and return alert; no database work
         m_currentAlertCache.put(key, alert);
+        m_dirtyAlerts.put(key, m_dirtyAlertVersion.incrementAndGet());
+
+        if (m_summaryIndexEnabled) {
+          m_currentAlertIndex.put(alert);
+        }
         return alert;
       }
     }
@@ -1110,6 +1258,11 @@ public class AlertsDAO implements Cleanable {
   @Transactional
   public void remove(AlertCurrentEntity alert) {
     m_entityManagerProvider.get().remove(merge(alert));
+
+    if (m_summaryIndexEnabled) {
+      m_currentAlertIndex.remove(alert);
+      invalidateCurrentAlertIndexOnRollback();
+    }
   }
 
   /**
@@ -1120,6 +1273,10 @@ public class AlertsDAO implements Cleanable {
    */
   @RequiresSession
   public AlertSummaryDTO findAggregateCounts(long clusterId, String alertName) {
+    if (m_summaryIndexEnabled) {
+      return m_currentAlertIndex.getAggregateCounts(clusterId, alertName);
+    }
+
     String sql = String.format(ALERT_COUNT_SQL_TEMPLATE,
         AlertSummaryDTO.class.getName());
 
@@ -1191,34 +1348,136 @@ public class AlertsDAO implements Cleanable {
   }
 
   /**
-   * Writes all cached {@link AlertCurrentEntity} instances to the database and
-   * clears the cache.
+   * Writes cached {@link AlertCurrentEntity} instances which were updated in
+   * the cache only to the database in a single transaction. Cached alerts
+   * which were not changed since they were read or written are skipped, the
+   * cache is kept.
    */
   public void flushCachedEntitiesToJPA() {
     if (m_configuration.isAlertCacheEnabled()) {
       synchronized (this) {
-        flushCachedEntitiesToJPATransactional();
+        Map<AlertCacheKey, Long> dirtyAlerts = new HashMap<>(m_dirtyAlerts);
+        Map<AlertCacheKey, AlertCurrentEntity> evictedAlerts = new HashMap<>();
+        flushCachedEntitiesToJPATransactional(dirtyAlerts.keySet(), evictedAlerts);
+
+        // the changes are committed, marks of alerts changed during the flush
+        // are kept; on rollback all of them are kept for the next flush
+        dirtyAlerts.forEach(m_dirtyAlerts::remove);
+        evictedAlerts.forEach(m_evictedAlerts::remove);
       }
     } else {
       LOG.warn("Unable to flush cached alerts to JPA because caching is not enabled");
     }
   }
 
+  /**
+   * Merges dirty alerts without clearing their marks, this must be the
+   * outer-most transaction so the changes are committed when it returns.
+   *
+   * @param keys
+   *          keys of the alerts to write
+   * @param evictedAlerts
+   *          receives evicted alerts which were written
+   */
   @Transactional
-  protected void flushCachedEntitiesToJPATransactional() {
+  protected void flushCachedEntitiesToJPATransactional(Collection<AlertCacheKey> keys,
+                                                       Map<AlertCacheKey, AlertCurrentEntity> evictedAlerts) {
+    long startTime = System.nanoTime();
+    int flushedEntityCount = 0;
+    EntityManager entityManager = m_entityManagerProvider.get();
 
-    // capture for logging purposes
-    long cachedEntityCount = m_currentAlertCache.size();
+    for (AlertCacheKey key : keys) {
+      AlertCurrentEntity entity = m_evictedAlerts.get(key);
+      if (null != entity) {
+        evictedAlerts.put(key, entity);
+      } else {
+        entity = m_currentAlertCache.getIfPresent(key);
+      }
 
-    ConcurrentMap<AlertCacheKey, AlertCurrentEntity> map = m_currentAlertCache.asMap();
-    Set<Entry<AlertCacheKey, AlertCurrentEntity>> entries = map.entrySet();
-    for (Entry<AlertCacheKey, AlertCurrentEntity> entry : entries) {
-      merge(entry.getValue());
+      // the alert could be removed since it was updated
+      if (null != entity) {
+        m_currentAlertCache.put(key, entityManager.merge(entity));
+        flushedEntityCount++;
+      }
     }
 
+    long flushTime = System.nanoTime() - startTime;
+    m_flushedAlerts.addAndGet(flushedEntityCount);
+    m_flushes.incrementAndGet();
+    m_flushTime.addAndGet(flushTime);
+
+    LOG.info("Flushed {} dirty cached alerts to the database in {}ms", flushedEntityCount,
+        TimeUnit.NANOSECONDS.toMillis(flushTime));
+  }
+
+  /**
+   * Keeps dirty alerts evicted from the cache until they are written to the
+   * database by a background write.
+   */
+  private void onCachedAlertRemoval(RemovalNotification<AlertCacheKey, AlertCurrentEntity> notification) {
+    AlertCacheKey key = notification.getKey();
+    if (!notification.wasEvicted() || !m_dirtyAlerts.containsKey(key)) {
+      return;
+    }
+
+    m_evictedAlerts.put(key, notification.getValue());
+    if (m_evictedAlertsWriteScheduled.compareAndSet(false, true)) {
+      m_evictedAlertsWriter.execute(() -> {
+        m_evictedAlertsWriteScheduled.set(false);
+        try {
+          flushCachedEntitiesToJPA();
+        } catch (Exception exception) {
+          LOG.error("Unable to write evicted cached alerts to the database", exception);
+        }
+      });
+    }
+  }
+
+  /**
+   * Invalidates cached alerts, changes which were not written yet are
+   * discarded.
+   */
+  private void invalidateCachedAlerts() {
     m_currentAlertCache.invalidateAll();
+    m_dirtyAlerts.clear();
+    m_evictedAlerts.clear();
+    m_currentAlertIndex.invalidate();
+  }
+
+  /**
+   * Makes the index of current alerts be reloaded from the database if the
+   * running transaction, which already changed the index, is rolled back.
+   */
+  private void invalidateCurrentAlertIndexOnRollback() {
+    ShpurdpJpaLocalTxnInterceptor.addRollbackAction(m_invalidateCurrentAlertIndex);
+  }
+
+  /**
+   * @return the amount of cached alerts not written to the database yet.
+   */
+  public int getDirtyAlertCount() {
+    return m_dirtyAlerts.size();
+  }
 
-    LOG.info("Flushed {} cached alerts to the database", cachedEntityCount);
+  /**
+   * @return the amount of dirty cached alerts written to the database.
+   */
+  public long getFlushedAlertCount() {
+    return m_flushedAlerts.get();
+  }
+
+  /**
+   * @return the amount of cached alerts flushes.
+   */
+  public long getFlushCount() {
+    return m_flushes.get();
+  }
+
+  /**
+   * @return total time, in milliseconds, spent on cached alerts flushes.
+   */
+  public long getFlushTime() {
+    return TimeUnit.NANOSECONDS.toMillis(m_flushTime.get());
   }
 
   /**
@@ -1569,6 +1828,7 @@ public class AlertsDAO implements Cleanable {
         currentQuery.setParameter("historyIds", ids.subList(i, endIndex));
         affectedRows += currentQuery.executeUpdate();
       }
+      m_currentAlertIndex.invalidate();
     }
 
     return affectedRows;
@@ -1651,4 +1911,47 @@ public class AlertsDAO implements Cleanable {
     }
   }
 
+  /**
+   * Saves alert state changes accumulated from several alert events in single transaction.
+   * @param historiesToCreate - new history records, in order of state changes
+   * @param toMerge - alerts which changed state, are merged to the database
+   * @param toUpdate - alerts which only changed timestamp or text, are merged to the cache only if it is enabled
+   */
+  public void saveEntities(List<AlertHistoryEntity> historiesToCreate, Collection<AlertCurrentEntity> toMerge,
+                           Collection<AlertCurrentEntity> toUpdate) {
+    if (m_configuration.isAlertCacheEnabled()) {
+      synchronized (this) {
+        saveEntitiesTransactional(historiesToCreate, toMerge, toUpdate);
+      }
+    } else {
+      saveEntitiesTransactional(historiesToCreate, toMerge, toUpdate);
+    }
+  }
+
+  @Transactional
+  protected void saveEntitiesTransactional(List<AlertHistoryEntity> historiesToCreate,
+                                           Collection<AlertCurrentEntity> toMerge,
+                                           Collection<AlertCurrentEntity> toUpdate) {
+    for (AlertHistoryEntity history : historiesToCreate) {
+      // the history could already be created with the current alert referencing it by a previous batch
+      if (history.getAlertId() == null) {
+        create(history);
+      }
+    }
+
+    for (AlertCurrentEntity entity : toUpdate) {
+      merge(entity, m_configuration.isAlertCacheEnabled());
+    }
+
+    for (AlertCurrentEntity entity : toMerge) {
+      // the alert could change its state again after the batch was formed
+      if (entity.getAlertHistory().getAlertId() == null) {
+        create(entity.getAlertHistory());
+      }
+      merge(entity);
+    }
+
+    LOG.debug("Saved {} alert histories, merged {} alerts, updated {} alerts", historiesToCreate.size(),
+        toMerge.size(), toUpdate.size());
+  }
 }
@@ -18,13 +18,33 @@
 
 package org.apache.shpurdp.server.orm.dao;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.persistence.EntityManager;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.shpurdp.server.configuration.Configuration;
 import org.apache.shpurdp.server.orm.RequiresSession;
 import org.apache.shpurdp.server.orm.entities.ExecutionCommandEntity;
+import org.apache.shpurdp.server.orm.entities.ExecutionCommandFragmentEntity;
+import org.apache.shpurdp.server.orm.entities.ExecutionCommandFragmentEntityPK;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -33,11 +53,34 @@ import com.google.inject.persist.Transactional;
 @Singleton
 public class ExecutionCommandDAO {
 
+  /**
+   * The member of a placeholder object which references a stored fragment.
+   */
+  static final String FRAGMENT_REFERENCE = "@fragment";
+
   @Inject
   Provider<EntityManager> entityManagerProvider;
   @Inject
   DaoUtils daoUtils;
 
+  private final boolean fragmentsEnabled;
+
+  private final int fragmentMinSize;
+
+  /**
+   * Decoded fragments keyed by the hash of their content. As fragments are
+   * content addressed, the same content can be shared between requests.
+   */
+  private final Cache<String, String> fragmentCache;
+
+  @Inject
+  public ExecutionCommandDAO(Configuration configuration) {
+    fragmentsEnabled = configuration.isExecutionCommandFragmentsEnabled();
+    fragmentMinSize = configuration.getExecutionCommandFragmentMinSize();
+    fragmentCache = CacheBuilder.newBuilder().maximumSize(
+        configuration.getExecutionCommandFragmentCacheSize()).build();
+  }
+
   @RequiresSession
   public ExecutionCommandEntity findByPK(long taskId) {
     return entityManagerProvider.get().find(ExecutionCommandEntity.class, taskId);
@@ -67,4 +110,149 @@ public class ExecutionCommandDAO {
   public void removeByPK(long taskId) {
     remove(findByPK(taskId));
   }
+
+  /**
+   * Encodes the JSON of an execution command for storage. Top level objects
+   * and arrays which are at least {@link Configuration#EXECUTION_COMMAND_FRAGMENT_MIN_SIZE}
+   * long are stored once per request as fragments addressed by the SHA-256 hash
+   * of their content, and are replaced by a reference in the command. The
+   * resulting command is compressed.
+   *
+   * @param requestId the request the command belongs to
+   * @param json      the JSON of the execution command
+   * @return the encoded command
+   */
+  @Transactional
+  public byte[] toCommand(long requestId, String json) {
+    if (!fragmentsEnabled) {
+      return json.getBytes();
+    }
+
+    JsonElement root = JsonParser.parseString(json);
+    if (root.isJsonObject()) {
+      EntityManager entityManager = entityManagerProvider.get();
+      for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject().entrySet()) {
+        JsonElement value = entry.getValue();
+        if (!value.isJsonObject() && !value.isJsonArray()) {
+          continue;
+        }
+
+        String content = value.toString();
+        if (content.length() < fragmentMinSize) {
+          continue;
+        }
+
+        String hash = DigestUtils.sha256Hex(content);
+        ExecutionCommandFragmentEntityPK pk = new ExecutionCommandFragmentEntityPK(requestId, hash);
+        if (null == entityManager.find(ExecutionCommandFragmentEntity.class, pk)) {
+          ExecutionCommandFragmentEntity fragment = new ExecutionCommandFragmentEntity();
+          fragment.setRequestId(requestId);
+          fragment.setFragmentHash(hash);
+          fragment.setContent(compress(content));
+          entityManager.persist(fragment);
+        }
+
+        fragmentCache.put(hash, content);
+
+        JsonObject reference = new JsonObject();
+        reference.addProperty(FRAGMENT_REFERENCE, hash);
+        entry.setValue(reference);
+      }
+    }
+
+    return compress(root.toString());
+  }
+
+  /**
+   * Decodes a command stored by {@link #toCommand(long, String)} back into
+   * JSON. Commands which were stored uncompressed are returned as they are.
+   *
+   * @param requestId the request the command belongs to
+   * @param command   the stored command
+   * @return the JSON of the execution command
+   */
+  @RequiresSession
+  public String toJson(long requestId, byte[] command) {
+    if (!isCompressed(command)) {
+      return new String(command);
+    }
+
+    JsonElement root = JsonParser.parseString(decompress(command));
+    if (!root.isJsonObject()) {
+      return root.toString();
+    }
+
+    StringBuilder json = new StringBuilder(command.length * 4).append('{');
+    boolean first = true;
+    for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject().entrySet()) {
+      if (!first) {
+        json.append(',');
+      }
+      first = false;
+
+      json.append(new JsonPrimitive(entry.getKey())).append(':');
+
+      String hash = getFragmentReference(entry.getValue());
+      if (null != hash) {
+        json.append(getFragment(requestId, hash));
+      } else {
+        json.append(entry.getValue());
+      }
+    }
+
+    return json.append('}').toString();
+  }
+
+  private String getFragment(long requestId, String hash) {
+    String content = fragmentCache.getIfPresent(hash);
+    if (null == content) {
+      ExecutionCommandFragmentEntity fragment = entityManagerProvider.get().find(
+          ExecutionCommandFragmentEntity.class, new ExecutionCommandFragmentEntityPK(requestId, hash));
+      if (null == fragment) {
+        throw new IllegalStateException("Invalid DB state, missing execution command fragment " + hash
+            + " for request " + requestId);
+      }
+
+      content = decompress(fragment.getContent());
+      fragmentCache.put(hash, content);
+    }
+
+    return content;
+  }
+
+  private static String getFragmentReference(JsonElement value) {
+    if (value.isJsonObject()) {
+      JsonObject object = value.getAsJsonObject();
+      if (object.size() == 1 && object.has(FRAGMENT_REFERENCE)) {
+        return object.get(FRAGMENT_REFERENCE).getAsString();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Commands stored before fragments were introduced are plain JSON, which
+   * can never start with the GZIP magic number.
+   */
+  private static boolean isCompressed(byte[] command) {
+    return command.length > 1 && (command[0] & 0xff) == 0x1f && (command[1] & 0xff) == 0x8b;
+  }
+
+  private static byte[] compress(String content) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(content.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to compress execution command", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static String decompress(byte[] content) {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+      return IOUtils.toString(in, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to decompress execution command", e);
+    }
+  }
 }
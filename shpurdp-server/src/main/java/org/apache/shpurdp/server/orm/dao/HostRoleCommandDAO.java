@@ -47,6 +47,7 @@ import org.apache.shpurdp.server.actionmanager.HostRoleCommandFactory;
 import org.apache.shpurdp.server.actionmanager.HostRoleStatus;
 import org.apache.shpurdp.server.agent.AgentCommand.AgentCommandType;
 import org.apache.shpurdp.server.api.query.JpaPredicateVisitor;
+import org.apache.shpurdp.server.api.query.JpaPushDown;
 import org.apache.shpurdp.server.api.query.JpaSortBuilder;
 import org.apache.shpurdp.server.configuration.Configuration;
 import org.apache.shpurdp.server.controller.spi.PageRequest;
@@ -337,6 +338,40 @@ public class HostRoleCommandDAO {
     return Lists.newArrayList(result);
   }
 
+  /**
+   * Retrieves stdout, stderr and structured output of host role commands. The
+   * output columns are fetched lazily, so this is used to read the output of
+   * many commands with a single query per chunk instead of a query per command.
+   *
+   * @param taskIds collection of host role commands to process.
+   * @return minimized host role command entities with the task id and output set.
+   */
+  @RequiresSession
+  public List<HostRoleCommandEntity> findOutputsByPKs(Collection<Long> taskIds) {
+    TypedQuery<Object[]> query = entityManagerProvider.get().createQuery(
+      "SELECT task.taskId, task.stdOut, task.stdError, task.structuredOut FROM HostRoleCommandEntity task " +
+        "WHERE task.taskId IN ?1 ORDER BY task.taskId",
+        Object[].class);
+
+    List<HostRoleCommandEntity> result = new ArrayList<>();
+    SQLOperations.batch(taskIds, SQLConstants.IN_ARGUMENT_MAX_SIZE, (chunk, currentBatch, totalBatches, totalSize) -> {
+      List<Object[]> queryResult = daoUtils.selectList(query, chunk);
+      result.addAll(queryResult.stream().map(
+          o -> {
+            HostRoleCommandEntity e = new HostRoleCommandEntity();
+            e.setTaskId((Long) o[0]);
+            e.setStdOut((byte[]) o[1]);
+            e.setStdError((byte[]) o[2]);
+            e.setStructuredOut((byte[]) o[3]);
+            return e;
+          }).collect(Collectors.toList()));
+
+      return 0;
+    });
+
+    return result;
+  }
+
   @RequiresSession
   public List<HostRoleCommandEntity> findByHostId(Long hostId) {
     TypedQuery<HostRoleCommandEntity> query = entityManagerProvider.get().createNamedQuery(
@@ -959,26 +994,45 @@ public class HostRoleCommandDAO {
       query.where(jpaPredicate);
     }
 
-    // sorting
+    // sorting, with the id as the tie breaker so that pages are stable
     SortRequest sortRequest = request.getSortRequest();
     if (null != sortRequest) {
       JpaSortBuilder<HostRoleCommandEntity> sortBuilder = new JpaSortBuilder<>();
-      List<Order> sortOrders = sortBuilder.buildSortOrders(sortRequest, visitor);
+      List<Order> sortOrders = sortBuilder.buildSortOrders(sortRequest, visitor,
+          HostRoleCommandEntity_.taskId);
       query.orderBy(sortOrders);
     }
 
     TypedQuery<HostRoleCommandEntity> typedQuery = entityManager.createQuery(query);
 
-    // pagination
+    // pagination, only if the predicate and sort are applied by JPA entirely;
+    // otherwise the cluster controller pages the complete result
     PageRequest pagination = request.getPageRequest();
-    if (null != pagination) {
-      typedQuery.setFirstResult(pagination.getOffset());
-      typedQuery.setMaxResults(pagination.getPageSize());
+    if (JpaPushDown.isPageable(predicate, pagination, sortRequest,
+        HostRoleCommandEntity_.getPredicateMapping())) {
+      JpaPushDown.applyPageRequest(typedQuery, pagination);
     }
 
     return daoUtils.selectList(typedQuery);
   }
 
+  /**
+   * Gets the total count of all {@link HostRoleCommandEntity} rows that match
+   * the specified {@link Predicate}.
+   *
+   * @param predicate
+   *          the predicate to apply, or {@code null} for none.
+   * @return the total count of rows that would be returned in a result set.
+   */
+  @RequiresSession
+  public int getCount(Predicate predicate) {
+    HostRoleCommandPredicateVisitor visitor = new HostRoleCommandPredicateVisitor();
+    TypedQuery<Long> query = entityManagerProvider.get().createQuery(
+        visitor.getCountQuery(predicate));
+
+    return daoUtils.selectSingle(query).intValue();
+  }
+
   /**
    * Gets a lists of hosts with commands in progress given a range of requests.
    * The range of requests should include all requests with at least 1 stage in
@@ -18,6 +18,7 @@
 
 package org.apache.shpurdp.server.orm.dao;
 
+import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,9 +34,12 @@ import javax.persistence.TypedQuery;
 
 import org.apache.shpurdp.server.ShpurdpException;
 import org.apache.shpurdp.server.actionmanager.HostRoleStatus;
+import org.apache.shpurdp.server.cleanup.PurgePolicy;
+import org.apache.shpurdp.server.cleanup.RequestArchive;
 import org.apache.shpurdp.server.cleanup.TimeBasedCleanupPolicy;
 import org.apache.shpurdp.server.orm.RequiresSession;
 import org.apache.shpurdp.server.orm.entities.ExecutionCommandEntity;
+import org.apache.shpurdp.server.orm.entities.ExecutionCommandFragmentEntity;
 import org.apache.shpurdp.server.orm.entities.HostRoleCommandEntity;
 import org.apache.shpurdp.server.orm.entities.RequestEntity;
 import org.apache.shpurdp.server.orm.entities.RequestOperationLevelEntity;
@@ -106,6 +110,9 @@ public class RequestDAO implements Cleanable {
   @Inject
   private TopologyRequestDAO topologyRequestDAO;
 
+  @Inject
+  private RequestArchive requestArchive;
+
   @RequiresSession
   public RequestEntity findByPK(Long requestId) {
     return entityManagerProvider.get().find(RequestEntity.class, requestId);
@@ -366,6 +373,37 @@ public class RequestDAO implements Cleanable {
     });
   }
 
+  /**
+   * Writes the completed requests among the given ones with their stages and
+   * tasks into the {@link RequestArchive}, a segment per chunk of requests.
+   *
+   * @param requestIds the ids of the requests to archive
+   * @return the ids of the archived requests
+   */
+  private Set<Long> archiveRequests(Set<Long> requestIds) {
+    List<RequestEntity> requests = new ArrayList<>();
+    for (RequestEntity request : findByPks(requestIds)) {
+      if (null != request.getStatus() && request.getStatus().isCompletedState()) {
+        requests.add(request);
+      }
+    }
+
+    Set<Long> archivedRequestIds = new HashSet<>();
+    for (List<RequestEntity> chunk : Lists.partition(requests, SQLConstants.IN_ARGUMENT_MAX_SIZE)) {
+      LOG.info("Archiving {} requests", chunk.size());
+      try {
+        requestArchive.archive(chunk);
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to archive requests, nothing is purged", e);
+      }
+
+      for (RequestEntity request : chunk) {
+        archivedRequestIds.add(request.getRequestId());
+      }
+    }
+    return archivedRequestIds;
+  }
+
   @Transactional
   @Override
   public long cleanup(TimeBasedCleanupPolicy policy) {
@@ -389,6 +427,13 @@ public class RequestDAO implements Cleanable {
         requestIds.add(nextRequestStageIds.getRequestId());
       }
 
+      if (policy.getPurgePolicy() == PurgePolicy.ARCHIVE) {
+        // only the archived requests are removed, the ones still in progress are kept
+        Set<Long> archivedRequestIds = archiveRequests(requestIds);
+        requestIds.retainAll(archivedRequestIds);
+        requestStageIds.removeIf(requestStageId -> !archivedRequestIds.contains(requestStageId.getRequestId()));
+      }
+
       // find task ids using request stage ids
       Set<Long> taskIds = hostRoleCommandDAO.findTaskIdsByRequestStageIds(requestStageIds);
       LinkedList<String> params = new LinkedList<>();
@@ -405,6 +450,8 @@ public class RequestDAO implements Cleanable {
       //removing all entities one by one according to their relations using stage, task and request ids
       affectedRows += cleanTableByIds(taskIds, "taskIds", "ExecutionCommand", policy.getToDateInMillis(),
         "ExecutionCommandEntity.removeByTaskIds", ExecutionCommandEntity.class);
+      affectedRows += cleanTableByIds(requestIds, "requestIds", "ExecutionCommandFragment", policy.getToDateInMillis(),
+        "ExecutionCommandFragmentEntity.removeByRequestIds", ExecutionCommandFragmentEntity.class);
       affectedRows += cleanTableByIds(taskIds, "taskIds", "TopologyLogicalTask", policy.getToDateInMillis(),
         "TopologyLogicalTaskEntity.removeByPhysicalTaskIds", TopologyLogicalTaskEntity.class);
       affectedRows += cleanTableByIds(hostTaskIds, "hostTaskIds", "TopologyHostTask", policy.getToDateInMillis(),
@@ -269,6 +269,24 @@ public class ServiceConfigDAO {
     return daoUtils.selectList(query);
   }
 
+  /**
+   * Get all service configs of a service in the given cluster, in the same
+   * order as {@link #getServiceConfigs(Long)}.
+   * @param clusterId Cluster Id
+   * @param serviceName Service name
+   * @return Collection of service configs of the service in the given cluster.
+   */
+  @RequiresSession
+  public List<ServiceConfigEntity> getServiceConfigs(Long clusterId, String serviceName) {
+    TypedQuery<ServiceConfigEntity> query = entityManagerProvider.get().createNamedQuery(
+        "ServiceConfigEntity.findAllByService", ServiceConfigEntity.class);
+
+    query.setParameter("clusterId", clusterId);
+    query.setParameter("serviceName", serviceName);
+
+    return daoUtils.selectList(query);
+  }
+
   /**
    * Get all service configs
    * @return Collection of all service configs.
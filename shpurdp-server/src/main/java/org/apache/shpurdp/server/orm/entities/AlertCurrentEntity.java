@@ -131,6 +131,27 @@ public class AlertCurrentEntity {
   public AlertCurrentEntity() {
   }
 
+  /**
+   * Constructor. Copies the state of the given current alert, the copy
+   * references the same history and definition.
+   *
+   * @param other
+   *          the current alert to copy (not {@code null}).
+   */
+  public AlertCurrentEntity(AlertCurrentEntity other) {
+    alertId = other.getAlertId();
+    historyId = other.getHistoryId();
+    definitionId = other.getDefinitionId();
+    latestTimestamp = other.getLatestTimestamp();
+    maintenanceState = other.getMaintenanceState();
+    originalTimestamp = other.getOriginalTimestamp();
+    latestText = other.getLatestText();
+    occurrences = other.getOccurrences();
+    firmness = other.getFirmness();
+    alertHistory = other.getAlertHistory();
+    alertDefinition = other.alertDefinition;
+  }
+
   /**
    * Gets the unique ID for this current alert.
    *
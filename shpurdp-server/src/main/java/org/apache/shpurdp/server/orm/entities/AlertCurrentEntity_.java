@@ -88,6 +88,10 @@ public class AlertCurrentEntity_ {
     mapping.put(AlertResourceProvider.ALERT_DEFINITION_NAME,
         Arrays.asList(alertDefinition, AlertDefinitionEntity_.definitionName));
 
+    // AlertCurrentEntity.alertDefinition.clusterEntity.clusterName = c1
+    mapping.put(AlertResourceProvider.ALERT_CLUSTER_NAME,
+        Arrays.asList(alertDefinition, AlertDefinitionEntity_.clusterEntity, ClusterEntity_.clusterName));
+
     // AlertCurrentEntity.alertDefinition.serviceName = HDFS
     mapping.put(AlertResourceProvider.ALERT_SERVICE,
         Arrays.asList(alertDefinition, AlertDefinitionEntity_.serviceName));
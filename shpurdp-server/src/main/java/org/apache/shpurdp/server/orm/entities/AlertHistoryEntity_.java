@@ -95,6 +95,9 @@ public class AlertHistoryEntity_ {
     mapping.put(AlertHistoryResourceProvider.ALERT_HISTORY_DEFINITION_NAME,
         Arrays.asList(alertDefinition, AlertDefinitionEntity_.definitionName));
 
+    mapping.put(AlertHistoryResourceProvider.ALERT_HISTORY_CLUSTER_NAME,
+        Arrays.asList(alertDefinition, AlertDefinitionEntity_.clusterEntity, ClusterEntity_.clusterName));
+
     return mapping;
   }
 }
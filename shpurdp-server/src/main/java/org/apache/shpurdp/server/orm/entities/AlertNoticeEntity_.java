@@ -88,6 +88,11 @@ public class AlertNoticeEntity_ {
     mapping.put(AlertNoticeResourceProvider.ALERT_NOTICE_SERVICE_NAME,
         Arrays.asList(alertHistory, AlertHistoryEntity_.serviceName));
 
+    // AlertNotice.alertHistory.alertDefinition.clusterEntity.clusterName = c1
+    mapping.put(AlertNoticeResourceProvider.ALERT_NOTICE_CLUSTER_NAME,
+        Arrays.asList(alertHistory, AlertHistoryEntity_.alertDefinition,
+            AlertDefinitionEntity_.clusterEntity, ClusterEntity_.clusterName));
+
     return mapping;
   }
 }
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.orm.entities;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ * Part of an execution command which is shared by the commands of a request,
+ * such as command parameters or cluster host info. The fragment is addressed by
+ * the hash of its content and stored compressed once per request; execution
+ * commands only keep a reference to it.
+ */
+@Table(name = "execution_command_fragment")
+@Entity
+@IdClass(ExecutionCommandFragmentEntityPK.class)
+@NamedQueries({
+    @NamedQuery(name = "ExecutionCommandFragmentEntity.removeByRequestIds", query = "DELETE FROM ExecutionCommandFragmentEntity fragment WHERE fragment.requestId IN :requestIds")
+})
+public class ExecutionCommandFragmentEntity {
+
+  @Id
+  @Column(name = "request_id", nullable = false)
+  private Long requestId;
+
+  @Id
+  @Column(name = "fragment_hash", nullable = false, length = 64)
+  private String fragmentHash;
+
+  @Basic
+  @Lob
+  @Column(name = "content")
+  private byte[] content;
+
+  public Long getRequestId() {
+    return requestId;
+  }
+
+  public void setRequestId(Long requestId) {
+    this.requestId = requestId;
+  }
+
+  public String getFragmentHash() {
+    return fragmentHash;
+  }
+
+  public void setFragmentHash(String fragmentHash) {
+    this.fragmentHash = fragmentHash;
+  }
+
+  public byte[] getContent() {
+    return content;
+  }
+
+  public void setContent(byte[] content) {
+    this.content = content;
+  }
+}
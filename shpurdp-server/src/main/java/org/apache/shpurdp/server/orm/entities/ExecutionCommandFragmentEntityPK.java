@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.orm.entities;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+
+@SuppressWarnings("serial")
+public class ExecutionCommandFragmentEntityPK implements Serializable {
+  private Long requestId;
+  private String fragmentHash;
+
+  public ExecutionCommandFragmentEntityPK() {
+  }
+
+  public ExecutionCommandFragmentEntityPK(Long requestId, String fragmentHash) {
+    this.requestId = requestId;
+    this.fragmentHash = fragmentHash;
+  }
+
+  public Long getRequestId() {
+    return requestId;
+  }
+
+  public void setRequestId(Long requestId) {
+    this.requestId = requestId;
+  }
+
+  public String getFragmentHash() {
+    return fragmentHash;
+  }
+
+  public void setFragmentHash(String fragmentHash) {
+    this.fragmentHash = fragmentHash;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+
+    if (object == null || getClass() != object.getClass()) {
+      return false;
+    }
+
+    ExecutionCommandFragmentEntityPK that = (ExecutionCommandFragmentEntityPK) object;
+    EqualsBuilder equalsBuilder = new EqualsBuilder();
+    equalsBuilder.append(requestId, that.requestId);
+    equalsBuilder.append(fragmentHash, that.fragmentHash);
+    return equalsBuilder.isEquals();
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(requestId, fragmentHash);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    StringBuilder buffer = new StringBuilder("ExecutionCommandFragmentEntityPK{");
+    buffer.append("requestId=").append(getRequestId());
+    buffer.append(", fragmentHash=").append(getFragmentHash());
+    buffer.append("}");
+    return buffer.toString();
+  }
+}
@@ -40,6 +40,7 @@ import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToOne;
+import javax.persistence.Persistence;
 import javax.persistence.Table;
 import javax.persistence.TableGenerator;
 
@@ -151,12 +152,12 @@ public class HostRoleCommandEntity {
 
   @Column(name = "std_error")
   @Lob
-  @Basic
+  @Basic(fetch = FetchType.LAZY)
   private byte[] stdError = new byte[0];
 
   @Column(name = "std_out")
   @Lob
-  @Basic
+  @Basic(fetch = FetchType.LAZY)
   private byte[] stdOut = new byte[0];
 
   @Column(name = "output_log")
@@ -170,7 +171,7 @@ public class HostRoleCommandEntity {
 
   @Column(name = "structured_out")
   @Lob
-  @Basic
+  @Basic(fetch = FetchType.LAZY)
   private byte[] structuredOut = new byte[0];
 
   @Basic
@@ -324,6 +325,17 @@ public class HostRoleCommandEntity {
     this.stdOut = stdOut;
   }
 
+  /**
+   * Output columns are fetched lazily, so task queries do not read them unless
+   * they are accessed.
+   *
+   * @return {@code true} if stdout, stderr and structured output are loaded,
+   *         {@code false} if reading them would query the database.
+   */
+  public boolean isOutputLoaded() {
+    return Persistence.getPersistenceUtil().isLoaded(this, "stdOut");
+  }
+
   public String getOutputLog() { return outputLog; }
 
   public void setOutputLog(String outputLog) { this.outputLog = outputLog; }
@@ -85,7 +85,7 @@ public class HostRoleCommandEntity_ {
         Collections.singletonList(stageId));
 
     mapping.put(TaskResourceProvider.TASK_HOST_NAME_PROPERTY_ID,
-        Arrays.asList(host, HostEntity_.hostId));
+        Arrays.asList(host, HostEntity_.hostName));
 
     mapping.put(TaskResourceProvider.TASK_ROLE_PROPERTY_ID,
         Collections.singletonList(role));
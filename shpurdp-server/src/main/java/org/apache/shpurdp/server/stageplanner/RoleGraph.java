@@ -18,10 +18,14 @@
 package org.apache.shpurdp.server.stageplanner;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.shpurdp.server.ShpurdpException;
@@ -33,9 +37,11 @@ import org.apache.shpurdp.server.actionmanager.HostRoleCommandFactory;
 import org.apache.shpurdp.server.actionmanager.Stage;
 import org.apache.shpurdp.server.actionmanager.StageFactory;
 import org.apache.shpurdp.server.metadata.RoleCommandOrder;
+import org.apache.shpurdp.server.metadata.RoleCommandPair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
@@ -170,37 +176,97 @@ public class RoleGraph {
   public List<Stage> getStages() throws ShpurdpException {
     long initialStageId = initialStage.getStageId();
     List<Stage> stageList = new ArrayList<>();
-    List<RoleGraphNode> firstStageNodes = new ArrayList<>();
-    if(!graph.isEmpty()){
+    for (List<RoleGraphNode> stageNodes : getPlannedNodes(true)) {
+      Stage aStage = getStageFromGraphNodes(initialStage, stageNodes);
+      aStage.setStageId(++initialStageId);
+      stageList.add(aStage);
+    }
+    return stageList;
+  }
+
+  /**
+   * Gets the nodes of the graph grouped into stages in order of execution. The
+   * plan depends only on the role commands of the nodes, so it is cached by
+   * {@link RoleCommandOrder} and reused by graphs of the same role commands
+   * regardless of their hosts.
+   *
+   * @param checkCycles whether circular dependencies are checked before
+   *                    computing a plan which is not cached
+   * @return the nodes of each stage
+   * @throws ShpurdpException if the graph has circular dependencies
+   */
+  private List<List<RoleGraphNode>> getPlannedNodes(boolean checkCycles) throws ShpurdpException {
+    List<List<Role>> plan;
+    if (graph.isEmpty()) {
+      plan = Collections.emptyList();
+    } else if (commandExecutionType == CommandExecutionType.STAGE && null != roleDependencies) {
+      Set<RoleCommandPair> roleCommands = new HashSet<>();
+      for (RoleGraphNode rgn : graph.values()) {
+        roleCommands.add(new RoleCommandPair(rgn.getRole(), rgn.getCommand()));
+      }
+      plan = roleDependencies.getStagePlan(roleCommands, () -> computeStagePlan(checkCycles));
+    } else {
+      plan = computeStagePlan(checkCycles);
+    }
+
+    List<List<RoleGraphNode>> plannedNodes = new ArrayList<>(plan.size());
+    for (List<Role> stageRoles : plan) {
+      List<RoleGraphNode> stageNodes = new ArrayList<>(stageRoles.size());
+      for (Role role : stageRoles) {
+        stageNodes.add(graph.get(role.toString()));
+      }
+      plannedNodes.add(stageNodes);
+    }
+    return plannedNodes;
+  }
+
+  /**
+   * Sorts the graph topologically. Each stage consists of the nodes whose
+   * in-degree drops to zero once the previous stages are done, so every edge
+   * is visited once.
+   */
+  private List<List<Role>> computeStagePlan(boolean checkCycles) throws ShpurdpException {
+    if (checkCycles) {
       LOG.info("Detecting cycle graphs");
       LOG.info(stringifyGraph());
       breakCycleGraph();
+    } else if (LOG.isDebugEnabled()) {
+      LOG.debug(stringifyGraph());
     }
-    while (!graph.isEmpty()) {
-      if (LOG.isDebugEnabled()) {
-        LOG.debug(stringifyGraph());
-      }
 
-      for (String role: graph.keySet()) {
-        RoleGraphNode rgn = graph.get(role);
-        if (rgn.getInDegree() == 0) {
-          firstStageNodes.add(rgn);
-        }
+    Comparator<RoleGraphNode> byRole = Comparator.comparing(rgn -> rgn.getRole().toString());
+    Map<RoleGraphNode, Integer> inDegrees = new HashMap<>();
+    List<RoleGraphNode> stageNodes = new ArrayList<>();
+    for (RoleGraphNode rgn : graph.values()) {
+      inDegrees.put(rgn, rgn.getInDegree());
+      if (rgn.getInDegree() == 0) {
+        stageNodes.add(rgn);
       }
-      Stage aStage = getStageFromGraphNodes(initialStage, firstStageNodes);
-      aStage.setStageId(++initialStageId);
-      stageList.add(aStage);
-      //Remove first stage nodes from the graph, we know that none of
-      //these nodes have an incoming edges.
-      for (RoleGraphNode rgn : firstStageNodes) {
-        if (sameHostOptimization) {
-          //Perform optimization
+    }
+
+    ImmutableList.Builder<List<Role>> plan = ImmutableList.builder();
+    int plannedNodes = 0;
+    while (!stageNodes.isEmpty()) {
+      ImmutableList.Builder<Role> stageRoles = ImmutableList.builder();
+      List<RoleGraphNode> nextStageNodes = new ArrayList<>();
+      for (RoleGraphNode rgn : stageNodes) {
+        stageRoles.add(rgn.getRole());
+        for (RoleGraphNode edgeNode : rgn.getEdges()) {
+          if (inDegrees.merge(edgeNode, -1, Integer::sum) == 0) {
+            nextStageNodes.add(edgeNode);
+          }
         }
-        removeZeroInDegreeNode(rgn.getRole().toString());
       }
-      firstStageNodes.clear();
+      plan.add(stageRoles.build());
+      plannedNodes += stageNodes.size();
+      nextStageNodes.sort(byRole);
+      stageNodes = nextStageNodes;
     }
-    return stageList;
+
+    if (plannedNodes < graph.size()) {
+      throw new ShpurdpException("Circular dependencies detected in the role command order: " + stringifyGraph());
+    }
+    return plan.build();
   }
 
   /**
@@ -233,15 +299,14 @@ public class RoleGraph {
     // represents an ordered list of stages
     List<Map<String, List<HostRoleCommand>>> orderedCommands = new ArrayList<>();
 
-    List<RoleGraphNode> firstStageNodes = new ArrayList<>();
-    while (!graph.isEmpty()) {
-      for (String role : graph.keySet()) {
-        RoleGraphNode rgn = graph.get(role);
-        if (rgn.getInDegree() == 0) {
-          firstStageNodes.add(rgn);
-        }
-      }
+    List<List<RoleGraphNode>> plannedNodes;
+    try {
+      plannedNodes = getPlannedNodes(false);
+    } catch (ShpurdpException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    }
 
+    for (List<RoleGraphNode> firstStageNodes : plannedNodes) {
       // represents a stage
       Map<String, List<HostRoleCommand>> commandsPerHost = new HashMap<>();
 
@@ -261,29 +326,11 @@ public class RoleGraph {
 
       // add the stage to the list of stages
       orderedCommands.add(commandsPerHost);
-
-      // Remove first stage nodes from the graph, we know that none of
-      // these nodes have an incoming edges.
-      for (RoleGraphNode rgn : firstStageNodes) {
-        removeZeroInDegreeNode(rgn.getRole().toString());
-      }
-
-      firstStageNodes.clear();
     }
 
     return orderedCommands;
   }
 
-  /**
-   * Assumes there are no incoming edges.
-   */
-  private synchronized void removeZeroInDegreeNode(String role) {
-    RoleGraphNode nodeToRemove = graph.remove(role);
-    for (RoleGraphNode edgeNode : nodeToRemove.getEdges()) {
-      edgeNode.decrementInDegree();
-    }
-  }
-
   private Stage getStageFromGraphNodes(Stage origStage,
       List<RoleGraphNode> stageGraphNodes) {
 
@@ -177,6 +177,20 @@ public interface Cluster {
   void removeServiceComponentHost(ServiceComponentHost svcCompHost)
       throws ShpurdpException;
 
+  /**
+   * Gets the version of the cluster topology. The version changes whenever a
+   * host component is added to or removed from the cluster.
+   *
+   * @return the topology version
+   */
+  long getTopologyVersion();
+
+  /**
+   * Increments the version of the cluster topology after host components were
+   * added or removed.
+   */
+  void incrementTopologyVersion();
+
   /**
    * Get desired stack version
    * @return
@@ -380,6 +394,13 @@ public interface Cluster {
    */
   List<ServiceConfigVersionResponse> getServiceConfigVersions();
 
+  /**
+   * Get service config version history of a single service
+   * @param serviceName service name
+   * @return
+   */
+  List<ServiceConfigVersionResponse> getServiceConfigVersions(String serviceName);
+
   /**
    * Gets the desired (and selected) config by type.
    * @param configType  the type of configuration
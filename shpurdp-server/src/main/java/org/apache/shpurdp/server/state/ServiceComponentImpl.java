@@ -325,6 +325,7 @@ public class ServiceComponentImpl implements ServiceComponent {
       ClusterImpl clusterImpl = (ClusterImpl) service.getCluster();
       clusterImpl.addServiceComponentHost(hostComponent);
       hostComponents.put(hostComponent.getHostName(), hostComponent);
+      clusterImpl.incrementTopologyVersion();
     } finally {
       readWriteLock.writeLock().unlock();
     }
@@ -546,6 +547,7 @@ public class ServiceComponentImpl implements ServiceComponent {
       }
 
       hostComponents.clear();
+      service.getCluster().incrementTopologyVersion();
     } finally {
       readWriteLock.writeLock().unlock();
     }
@@ -570,6 +572,7 @@ public class ServiceComponentImpl implements ServiceComponent {
       }
       sch.delete(deleteMetaData);
       hostComponents.remove(hostname);
+      service.getCluster().incrementTopologyVersion();
 
     } finally {
       readWriteLock.writeLock().unlock();
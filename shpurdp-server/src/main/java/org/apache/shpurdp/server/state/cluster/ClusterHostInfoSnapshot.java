@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.state.cluster;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.shpurdp.server.utils.StageUtils;
+
+/**
+ * An immutable clusterHostInfo structure of a cluster together with its JSON
+ * form. A snapshot is computed once per topology version and is shared by all
+ * stages and requests created while the topology doesn't change.
+ */
+public class ClusterHostInfoSnapshot {
+
+  private final long version;
+
+  private final long topologyVersion;
+
+  private final List<String> hosts;
+
+  private final Map<String, Collection<String>> pendingHostComponents;
+
+  private final Map<String, Set<String>> clusterHostInfo;
+
+  private final String json;
+
+  ClusterHostInfoSnapshot(long version, long topologyVersion, List<String> hosts,
+      Map<String, Collection<String>> pendingHostComponents, Map<String, Set<String>> clusterHostInfo) {
+    this.version = version;
+    this.topologyVersion = topologyVersion;
+    this.hosts = hosts;
+    this.pendingHostComponents = pendingHostComponents;
+
+    json = StageUtils.getGson().toJson(clusterHostInfo);
+
+    Map<String, Set<String>> immutableClusterHostInfo = new HashMap<>();
+    for (Map.Entry<String, Set<String>> entry : clusterHostInfo.entrySet()) {
+      immutableClusterHostInfo.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+    }
+    this.clusterHostInfo = Collections.unmodifiableMap(immutableClusterHostInfo);
+  }
+
+  /**
+   * @return the version of the snapshot, unique across all clusters
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * @return the unmodifiable clusterHostInfo structure
+   */
+  public Map<String, Set<String>> getClusterHostInfo() {
+    return clusterHostInfo;
+  }
+
+  /**
+   * @return the clusterHostInfo structure serialized to JSON
+   */
+  public String getJson() {
+    return json;
+  }
+
+  /**
+   * Determines whether the snapshot still reflects the cluster topology.
+   *
+   * @param topologyVersion        the current topology version of the cluster
+   * @param hosts                  the current host attributes of the cluster
+   * @param pendingHostComponents  the current pending host components of the topology manager
+   * @return <code>true</code> if the snapshot can be used
+   */
+  boolean isCurrent(long topologyVersion, List<String> hosts, Map<String, Collection<String>> pendingHostComponents) {
+    return this.topologyVersion == topologyVersion && this.hosts.equals(hosts)
+        && this.pendingHostComponents.equals(pendingHostComponents);
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.state.cluster;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.shpurdp.server.ShpurdpException;
+import org.apache.shpurdp.server.EagerSingleton;
+import org.apache.shpurdp.server.events.HostsAddedEvent;
+import org.apache.shpurdp.server.events.HostsRemovedEvent;
+import org.apache.shpurdp.server.events.ServiceComponentInstalledEvent;
+import org.apache.shpurdp.server.events.ServiceComponentUninstalledEvent;
+import org.apache.shpurdp.server.events.ServiceRemovedEvent;
+import org.apache.shpurdp.server.events.publishers.ShpurdpEventPublisher;
+import org.apache.shpurdp.server.state.Cluster;
+import org.apache.shpurdp.server.state.Host;
+import org.apache.shpurdp.server.topology.TopologyManager;
+import org.apache.shpurdp.server.utils.StageUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.eventbus.Subscribe;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Keeps a {@link ClusterHostInfoSnapshot} per cluster, so the clusterHostInfo
+ * structure is built and serialized once per topology version instead of once
+ * per request or stage.
+ * <p/>
+ * A snapshot is reused as long as the topology version of the cluster, the
+ * host attributes which are part of the structure and the host components
+ * pending in the {@link TopologyManager} are unchanged. Topology events drop
+ * the snapshots of the affected clusters right away.
+ */
+@Singleton
+@EagerSingleton
+public class ClusterHostInfoSnapshotService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ClusterHostInfoSnapshotService.class);
+
+  private final AtomicLong versions = new AtomicLong();
+
+  private final ConcurrentMap<Long, ClusterHostInfoSnapshot> snapshots = new ConcurrentHashMap<>();
+
+  @Inject
+  public ClusterHostInfoSnapshotService(ShpurdpEventPublisher shpurdpEventPublisher) {
+    shpurdpEventPublisher.register(this);
+  }
+
+  /**
+   * Gets the current clusterHostInfo snapshot of the cluster, building a new
+   * one if the topology has changed since the last one was built.
+   *
+   * @param cluster the cluster
+   * @return the snapshot
+   * @throws ShpurdpException if the clusterHostInfo can't be built
+   */
+  public ClusterHostInfoSnapshot getSnapshot(Cluster cluster) throws ShpurdpException {
+    // read everything the snapshot depends on before building it, so that a
+    // concurrent change will make the snapshot outdated rather than hide it
+    long topologyVersion = cluster.getTopologyVersion();
+    List<String> hosts = getHostAttributes(cluster);
+    Map<String, Collection<String>> pendingHostComponents = StageUtils.getPendingHostComponents();
+
+    ClusterHostInfoSnapshot snapshot = snapshots.get(cluster.getClusterId());
+    if (null != snapshot && snapshot.isCurrent(topologyVersion, hosts, pendingHostComponents)) {
+      return snapshot;
+    }
+
+    Map<String, Set<String>> clusterHostInfo = StageUtils.getClusterHostInfo(cluster, pendingHostComponents);
+    snapshot = new ClusterHostInfoSnapshot(versions.incrementAndGet(), topologyVersion, hosts,
+        pendingHostComponents, clusterHostInfo);
+    snapshots.put(cluster.getClusterId(), snapshot);
+
+    LOG.debug("Built clusterHostInfo snapshot {} for cluster {}", snapshot.getVersion(), cluster.getClusterName());
+    return snapshot;
+  }
+
+  /**
+   * Gets the snapshot with the given JSON form, which allows requests created
+   * from the same snapshot to share a single deserialized structure.
+   *
+   * @param json the JSON form of a clusterHostInfo structure
+   * @return the matching snapshot or {@code null} if there is none
+   */
+  public ClusterHostInfoSnapshot findSnapshot(String json) {
+    for (ClusterHostInfoSnapshot snapshot : snapshots.values()) {
+      if (snapshot.getJson().equals(json)) {
+        return snapshot;
+      }
+    }
+    return null;
+  }
+
+  @Subscribe
+  public void onServiceComponentInstalled(ServiceComponentInstalledEvent event) {
+    snapshots.remove(event.getClusterId());
+  }
+
+  @Subscribe
+  public void onServiceComponentUninstalled(ServiceComponentUninstalledEvent event) {
+    snapshots.remove(event.getClusterId());
+  }
+
+  @Subscribe
+  public void onServiceRemoved(ServiceRemovedEvent event) {
+    snapshots.remove(event.getClusterId());
+  }
+
+  @Subscribe
+  public void onHostsAdded(HostsAddedEvent event) {
+    snapshots.remove(event.getClusterId());
+  }
+
+  @Subscribe
+  public void onHostsRemoved(HostsRemovedEvent event) {
+    snapshots.clear();
+  }
+
+  /**
+   * The host attributes which are part of the clusterHostInfo structure.
+   */
+  private List<String> getHostAttributes(Cluster cluster) {
+    Collection<Host> clusterHosts = cluster.getHosts();
+    List<String> hosts = new ArrayList<>(clusterHosts.size());
+    for (Host host : clusterHosts) {
+      hosts.add(host.getHostName() + ':' + host.getCurrentPingPort() + ':' + host.getRackInfo() + ':' + host.getIPv4());
+    }
+    return hosts;
+  }
+}
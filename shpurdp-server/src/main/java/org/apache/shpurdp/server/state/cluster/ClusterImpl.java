@@ -39,6 +39,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -204,6 +205,11 @@ public class ClusterImpl implements Cluster {
    */
   private final ConcurrentMap<String, List<ServiceComponentHost>> serviceComponentHostsByHost = new ConcurrentHashMap<>();
 
+  /**
+   * Incremented whenever host components are added to or removed from the cluster.
+   */
+  private final AtomicLong topologyVersion = new AtomicLong();
+
   /**
    * Map of existing config groups
    */
@@ -807,6 +813,16 @@ public class ClusterImpl implements Cluster {
     }
   }
 
+  @Override
+  public long getTopologyVersion() {
+    return topologyVersion.get();
+  }
+
+  @Override
+  public void incrementTopologyVersion() {
+    topologyVersion.incrementAndGet();
+  }
+
   @Override
   public long getClusterId() {
     // Add cluster creates the managed entity before creating the Cluster
@@ -1771,59 +1787,77 @@ public class ClusterImpl implements Cluster {
   public List<ServiceConfigVersionResponse> getServiceConfigVersions() {
     clusterGlobalLock.readLock().lock();
     try {
-      List<ServiceConfigVersionResponse> serviceConfigVersionResponses = new ArrayList<>();
+      return toServiceConfigVersionResponses(serviceConfigDAO.getServiceConfigs(getClusterId()));
+    } finally {
+      clusterGlobalLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<ServiceConfigVersionResponse> getServiceConfigVersions(String serviceName) {
+    clusterGlobalLock.readLock().lock();
+    try {
+      // the current versions are determined per service, so only the configs
+      // of the service are needed
+      return toServiceConfigVersionResponses(serviceConfigDAO.getServiceConfigs(getClusterId(), serviceName));
+    } finally {
+      clusterGlobalLock.readLock().unlock();
+    }
+  }
 
-      List<ServiceConfigEntity> serviceConfigs = serviceConfigDAO.getServiceConfigs(getClusterId());
+  /**
+   * Converts the service configs, ordered by descending version, into service
+   * config version responses, marking the current version of each config group.
+   */
+  private List<ServiceConfigVersionResponse> toServiceConfigVersionResponses(List<ServiceConfigEntity> serviceConfigs) {
+    List<ServiceConfigVersionResponse> serviceConfigVersionResponses = new ArrayList<>();
 
-      // Gather for each service in each config group the active service config response  as we
-      // iterate through all service config responses
-      Map<String, Map<String, ServiceConfigVersionResponse>> activeServiceConfigResponses = new HashMap<>();
+    // Gather for each service in each config group the active service config response  as we
+    // iterate through all service config responses
+    Map<String, Map<String, ServiceConfigVersionResponse>> activeServiceConfigResponses = new HashMap<>();
 
-      for (ServiceConfigEntity serviceConfigEntity : serviceConfigs) {
-        ServiceConfigVersionResponse serviceConfigVersionResponse = convertToServiceConfigVersionResponse(serviceConfigEntity);
+    for (ServiceConfigEntity serviceConfigEntity : serviceConfigs) {
+      ServiceConfigVersionResponse serviceConfigVersionResponse = convertToServiceConfigVersionResponse(serviceConfigEntity);
 
-        Map<String, ServiceConfigVersionResponse> activeServiceConfigResponseGroups = activeServiceConfigResponses.get(serviceConfigVersionResponse.getServiceName());
+      Map<String, ServiceConfigVersionResponse> activeServiceConfigResponseGroups = activeServiceConfigResponses.get(serviceConfigVersionResponse.getServiceName());
 
-        if (activeServiceConfigResponseGroups == null) {
-          Map<String, ServiceConfigVersionResponse> serviceConfigGroups = new HashMap<>();
-          activeServiceConfigResponses.put(serviceConfigVersionResponse.getServiceName(), serviceConfigGroups);
+      if (activeServiceConfigResponseGroups == null) {
+        Map<String, ServiceConfigVersionResponse> serviceConfigGroups = new HashMap<>();
+        activeServiceConfigResponses.put(serviceConfigVersionResponse.getServiceName(), serviceConfigGroups);
 
-          activeServiceConfigResponseGroups = serviceConfigGroups;
-        }
+        activeServiceConfigResponseGroups = serviceConfigGroups;
+      }
 
-        // the active config within a group
-        ServiceConfigVersionResponse activeServiceConfigResponse = activeServiceConfigResponseGroups.get(serviceConfigVersionResponse.getGroupName());
+      // the active config within a group
+      ServiceConfigVersionResponse activeServiceConfigResponse = activeServiceConfigResponseGroups.get(serviceConfigVersionResponse.getGroupName());
 
-        if (activeServiceConfigResponse == null && !ServiceConfigVersionResponse.DELETED_CONFIG_GROUP_NAME.equals(serviceConfigVersionResponse.getGroupName())) {
-          // service config version with deleted group should always be marked is not current
+      if (activeServiceConfigResponse == null && !ServiceConfigVersionResponse.DELETED_CONFIG_GROUP_NAME.equals(serviceConfigVersionResponse.getGroupName())) {
+        // service config version with deleted group should always be marked is not current
+        activeServiceConfigResponseGroups.put(serviceConfigVersionResponse.getGroupName(), serviceConfigVersionResponse);
+        activeServiceConfigResponse = serviceConfigVersionResponse;
+      }
+      if (serviceConfigEntity.getGroupId() == null) {
+        if (serviceConfigVersionResponse.getCreateTime() > activeServiceConfigResponse.getCreateTime()) {
           activeServiceConfigResponseGroups.put(serviceConfigVersionResponse.getGroupName(), serviceConfigVersionResponse);
-          activeServiceConfigResponse = serviceConfigVersionResponse;
-        }
-        if (serviceConfigEntity.getGroupId() == null) {
-          if (serviceConfigVersionResponse.getCreateTime() > activeServiceConfigResponse.getCreateTime()) {
-            activeServiceConfigResponseGroups.put(serviceConfigVersionResponse.getGroupName(), serviceConfigVersionResponse);
-          }
-        }
-        else if (clusterConfigGroups != null && clusterConfigGroups.containsKey(serviceConfigEntity.getGroupId())){
-          if (serviceConfigVersionResponse.getVersion() > activeServiceConfigResponse.getVersion()) {
-            activeServiceConfigResponseGroups.put(serviceConfigVersionResponse.getGroupName(), serviceConfigVersionResponse);
-          }
         }
-
-        serviceConfigVersionResponse.setIsCurrent(false);
-        serviceConfigVersionResponses.add(getServiceConfigVersionResponseWithConfig(serviceConfigVersionResponse, serviceConfigEntity));
       }
-
-      for (Map<String, ServiceConfigVersionResponse> serviceConfigVersionResponseGroup: activeServiceConfigResponses.values()) {
-        for (ServiceConfigVersionResponse serviceConfigVersionResponse : serviceConfigVersionResponseGroup.values()) {
-          serviceConfigVersionResponse.setIsCurrent(true);
+      else if (clusterConfigGroups != null && clusterConfigGroups.containsKey(serviceConfigEntity.getGroupId())){
+        if (serviceConfigVersionResponse.getVersion() > activeServiceConfigResponse.getVersion()) {
+          activeServiceConfigResponseGroups.put(serviceConfigVersionResponse.getGroupName(), serviceConfigVersionResponse);
         }
       }
 
-      return serviceConfigVersionResponses;
-    } finally {
-      clusterGlobalLock.readLock().unlock();
+      serviceConfigVersionResponse.setIsCurrent(false);
+      serviceConfigVersionResponses.add(getServiceConfigVersionResponseWithConfig(serviceConfigVersionResponse, serviceConfigEntity));
     }
+
+    for (Map<String, ServiceConfigVersionResponse> serviceConfigVersionResponseGroup: activeServiceConfigResponses.values()) {
+      for (ServiceConfigVersionResponse serviceConfigVersionResponse : serviceConfigVersionResponseGroup.values()) {
+        serviceConfigVersionResponse.setIsCurrent(true);
+      }
+    }
+
+    return serviceConfigVersionResponses;
   }
 
   private Set<ServiceConfigVersionResponse> getActiveServiceConfigVersionSet() {
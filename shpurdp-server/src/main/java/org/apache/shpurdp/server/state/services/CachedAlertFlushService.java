@@ -32,7 +32,9 @@ import com.google.inject.Inject;
 
 /**
  * The {@link CachedAlertFlushService} is used to periodically flush cached
- * alert data to the database. This service is controlled by
+ * alert data which was changed since the previous flush to the database.
+ * Changed alerts are also flushed when the server shuts down. This service is
+ * controlled by
  * {@link Configuration#isAlertCacheEnabled()} and
  * {@link Configuration#getAlertCacheFlushInterval()}.
  */
@@ -80,6 +82,19 @@ public class CachedAlertFlushService extends AbstractScheduledService {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p/>
+   * Flushes cached alerts changed since the last iteration, so they are not
+   * lost when the server is stopped.
+   */
+  @Override
+  protected void shutDown() throws Exception {
+    if (m_configuration.isAlertCacheEnabled()) {
+      flush();
+    }
+  }
+
   /**
    * {@inheritDoc}
    * <p/>
@@ -87,8 +102,12 @@ public class CachedAlertFlushService extends AbstractScheduledService {
    */
   @Override
   protected void runOneIteration() throws Exception {
+    flush();
+  }
+
+  private void flush() {
     try {
-      LOG.info("Flushing cached alerts to the database");
+      LOG.info("Flushing {} changed cached alerts to the database", m_alertsDAO.getDirtyAlertCount());
       m_alertsDAO.flushCachedEntitiesToJPA();
     } catch (Exception exception) {
       LOG.error("Unable to flush cached alerts to the database", exception);
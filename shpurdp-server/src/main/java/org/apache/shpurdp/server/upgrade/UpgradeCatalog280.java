@@ -18,6 +18,8 @@
 package org.apache.shpurdp.server.upgrade;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.shpurdp.server.ShpurdpException;
 import org.apache.shpurdp.server.orm.DBAccessor;
@@ -47,6 +49,12 @@ public class UpgradeCatalog280 extends AbstractUpgradeCatalog {
   protected static final String SHPURDP_CONFIGURATION_TABLE = "shpurdp_configuration";
   protected static final String SHPURDP_CONFIGURATION_PROPERTY_VALUE_COLUMN = "property_value";
 
+  protected static final String EXECUTION_COMMAND_FRAGMENT_TABLE = "execution_command_fragment";
+  private static final String EXECUTION_COMMAND_FRAGMENT_REQUEST_ID_COLUMN = "request_id";
+  private static final String EXECUTION_COMMAND_FRAGMENT_HASH_COLUMN = "fragment_hash";
+  private static final String EXECUTION_COMMAND_FRAGMENT_CONTENT_COLUMN = "content";
+  private static final String EXECUTION_COMMAND_FRAGMENT_PRIMARY_KEY = "PK_execution_command_fragment";
+
   @Inject
   public UpgradeCatalog280(Injector injector) {
     super(injector);
@@ -68,6 +76,7 @@ public class UpgradeCatalog280 extends AbstractUpgradeCatalog {
     addColumnsToRequestScheduleTable();
     addColumnsToUpgradeTable();
     modifyPropertyValueColumnInShpurdpConfigurationTable();
+    createExecutionCommandFragmentTable();
   }
 
   private void modifyPropertyValueColumnInShpurdpConfigurationTable() throws SQLException {
@@ -75,6 +84,29 @@ public class UpgradeCatalog280 extends AbstractUpgradeCatalog {
     LOG.info("Altered {}.{} to NOT NULL and extended its length to 4000", SHPURDP_CONFIGURATION_TABLE, SHPURDP_CONFIGURATION_PROPERTY_VALUE_COLUMN);
   }
 
+  /**
+   * Adds the execution_command_fragment table to the Shpurdp database.
+   * <pre>
+   * CREATE TABLE execution_command_fragment (
+   *   request_id BIGINT NOT NULL,
+   *   fragment_hash VARCHAR(64) NOT NULL,
+   *   content BLOB,
+   *   CONSTRAINT PK_execution_command_fragment PRIMARY KEY (request_id, fragment_hash));
+   * </pre>
+   *
+   * @throws SQLException
+   */
+  protected void createExecutionCommandFragmentTable() throws SQLException {
+    List<DBAccessor.DBColumnInfo> columns = new ArrayList<>();
+    columns.add(new DBAccessor.DBColumnInfo(EXECUTION_COMMAND_FRAGMENT_REQUEST_ID_COLUMN, Long.class, null, null, false));
+    columns.add(new DBAccessor.DBColumnInfo(EXECUTION_COMMAND_FRAGMENT_HASH_COLUMN, String.class, 64, null, false));
+    columns.add(new DBAccessor.DBColumnInfo(EXECUTION_COMMAND_FRAGMENT_CONTENT_COLUMN, byte[].class, null, null, true));
+
+    dbAccessor.createTable(EXECUTION_COMMAND_FRAGMENT_TABLE, columns);
+    dbAccessor.addPKConstraint(EXECUTION_COMMAND_FRAGMENT_TABLE, EXECUTION_COMMAND_FRAGMENT_PRIMARY_KEY,
+        EXECUTION_COMMAND_FRAGMENT_REQUEST_ID_COLUMN, EXECUTION_COMMAND_FRAGMENT_HASH_COLUMN);
+  }
+
   @Override
   protected void executePreDMLUpdates() throws ShpurdpException, SQLException {
   }
@@ -283,6 +283,28 @@ public class StageUtils {
   }
 
   public static Map<String, Set<String>> getClusterHostInfo(Cluster cluster) throws ShpurdpException {
+    return getClusterHostInfo(cluster, getPendingHostComponents());
+  }
+
+  /**
+   * Gets the host components which are going to be installed by the topology
+   * manager, keyed by host name.
+   */
+  public static Map<String, Collection<String>> getPendingHostComponents() {
+    return topologyManager.getPendingHostComponents();
+  }
+
+  /**
+   * Builds the clusterHostInfo structure of the cluster.
+   *
+   * @param cluster                the cluster
+   * @param pendingHostComponents  the host components which are not yet installed
+   *                               by the topology manager, keyed by host name
+   * @return the clusterHostInfo structure
+   * @throws ShpurdpException
+   */
+  public static Map<String, Set<String>> getClusterHostInfo(Cluster cluster,
+      Map<String, Collection<String>> pendingHostComponents) throws ShpurdpException {
     //Fill hosts and ports lists
     Set<String>   hostsSet  = new LinkedHashSet<>();
     List<Integer> portsList = new ArrayList<>();
@@ -305,7 +327,6 @@ public class StageUtils {
     }
 
     // add hosts from topology manager
-    Map<String, Collection<String>> pendingHostComponents = topologyManager.getPendingHostComponents();
     for (String hostname : pendingHostComponents.keySet()) {
       if (!hostsSet.contains(hostname)) {
         hostsSet.add(hostname);
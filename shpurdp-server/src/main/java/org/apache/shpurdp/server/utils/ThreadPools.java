@@ -54,6 +54,7 @@ public class ThreadPools {
   }
 
   private static final String AGENT_COMMAND_PUBLISHER_POOL_NAME = "agent-command-publisher";
+  private static final String AGENT_CONFIGS_FANOUT_POOL_NAME = "agent-configs-fanout";
   private static final String DEFAULT_FORK_JOIN_POOL_NAME = "default-fork-join-pool";
 
   private static final Logger LOG = LoggerFactory.getLogger(ThreadPools.class);
@@ -61,6 +62,7 @@ public class ThreadPools {
   private final Configuration configuration;
 
   private ForkJoinPool agentPublisherCommandsPool;
+  private ForkJoinPool agentConfigsFanOutPool;
   private ForkJoinPool defaultForkJoinPool;
 
   @Inject
@@ -108,6 +110,22 @@ public class ThreadPools {
     return agentPublisherCommandsPool;
   }
 
+  public ForkJoinPool getAgentConfigsFanOutPool() {
+    if (agentConfigsFanOutPool == null){
+      logThreadPoolCreation(AGENT_CONFIGS_FANOUT_POOL_NAME, configuration.getAgentConfigsFanOutThreadPoolSize());
+      agentConfigsFanOutPool = new ForkJoinPool(
+        configuration.getAgentConfigsFanOutThreadPoolSize(),
+        createNamedFactory(AGENT_CONFIGS_FANOUT_POOL_NAME),
+        (t, e) -> {
+          LOG.error("Unexpected exception in thread: " + t, e);
+          throw new RuntimeException(e);
+        },
+        false
+      );
+    }
+    return agentConfigsFanOutPool;
+  }
+
   public ForkJoinPool getDefaultForkJoinPool() {
     if (defaultForkJoinPool == null){
       logThreadPoolCreation(DEFAULT_FORK_JOIN_POOL_NAME, configuration.getDefaultForkJoinPoolSize());
@@ -130,6 +148,12 @@ public class ThreadPools {
     }
   }
 
+  public void shutdownAgentConfigsFanOutPool(boolean force){
+    if (forkJoinPoolShutdown(agentConfigsFanOutPool, force)) {
+      agentConfigsFanOutPool = null;
+    }
+  }
+
   public void shutdownAgentPublisherCommandsPool(boolean force){
     if (forkJoinPoolShutdown(agentPublisherCommandsPool, force)) {
       agentPublisherCommandsPool = null;
@@ -187,6 +211,7 @@ public class ThreadPools {
   @Override
   protected void finalize() throws Throwable {
     shutdownAgentPublisherCommandsPool(true);
+    shutdownAgentConfigsFanOutPool(true);
     shutdownDefaultForkJoinPool(true);
 
     super.finalize();
@@ -1443,6 +1443,15 @@ def init_db_purge_parser_options(parser):
     type="string",
     help="Specify date for the database purge process in 'yyyy-MM-dd' format",
   )
+  parser.add_option(
+    "--purge-policy",
+    dest="purge_policy",
+    default="DELETE",
+    type="choice",
+    choices=["DELETE", "ARCHIVE"],
+    help="DELETE to delete the historical data, ARCHIVE to move completed requests into the request archive, "
+    "where they remain readable",
+  )
 
 
 @OsFamilyFuncImpl(OsFamilyImpl.DEFAULT)
@@ -49,6 +49,7 @@ DB_CLEANUP_CMD = (
   "{0} "
   "-cp {1} org.apache.shpurdp.server.cleanup.CleanupDriver "
   "--cluster-name {2} "
+  "--purge-policy {4} "
   "--from-date {3}> " + configDefaults.SERVER_OUT_FILE + " 2>&1"
 )
 
@@ -56,6 +57,7 @@ DB_DEBUG_CLEANUP_CMD = (
   "{0} -agentlib:jdwp=transport=dt_socket,server=y,suspend={4},address={5} "
   "-cp {1} org.apache.shpurdp.server.cleanup.CleanupDriver "
   "--cluster-name {2} "
+  "--purge-policy {6} "
   "--from-date {3}> " + configDefaults.SERVER_OUT_FILE + " 2>&1"
 )
 
@@ -124,10 +126,11 @@ def run_db_purge(options):
       options.purge_from_date,
       DEBUG_SUSPEND_AT_START,
       DEBUG_PORT,
+      options.purge_policy,
     )
   else:
     command = DB_CLEANUP_CMD.format(
-      jdk_path, class_path, options.cluster_name, options.purge_from_date
+      jdk_path, class_path, options.cluster_name, options.purge_from_date, options.purge_policy
     )
 
   retcode, stdout, stderr = run_os_command(command, env=environ)
@@ -452,6 +452,12 @@ CREATE TABLE execution_command (
   CONSTRAINT PK_execution_command PRIMARY KEY (task_id),
   CONSTRAINT FK_execution_command_task_id FOREIGN KEY (task_id) REFERENCES host_role_command (task_id));
 
+CREATE TABLE execution_command_fragment (
+  request_id BIGINT NOT NULL,
+  fragment_hash VARCHAR(64) NOT NULL,
+  content BLOB,
+  CONSTRAINT PK_execution_command_fragment PRIMARY KEY (request_id, fragment_hash));
+
 CREATE TABLE role_success_criteria (
   role VARCHAR(255) NOT NULL,
   request_id BIGINT NOT NULL,
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.actionmanager;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.newCapture;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.shpurdp.server.agent.CommandReport;
+import org.apache.shpurdp.server.configuration.Configuration;
+import org.easymock.Capture;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.persist.UnitOfWork;
+
+/**
+ * Tests {@link CommandReportBatcher}.
+ */
+public class CommandReportBatcherTest {
+
+  @Test
+  public void testReportsOfAllHostsAreWrittenInSingleBatch() {
+    Properties properties = new Properties();
+    properties.setProperty(Configuration.AGENTS_COMMAND_REPORTS_BATCH_WINDOW.getKey(), "60000");
+    Configuration configuration = new Configuration(properties);
+    ActionDBAccessor db = createMock(ActionDBAccessor.class);
+
+    Injector injector = Guice.createInjector(binder -> {
+      binder.bind(Configuration.class).toInstance(configuration);
+      binder.bind(ActionDBAccessor.class).toInstance(db);
+      binder.bind(UnitOfWork.class).toInstance(createNiceMock(UnitOfWork.class));
+    });
+    CommandReportBatcher batcher = injector.getInstance(CommandReportBatcher.class);
+
+    CommandReport inProgress = createReport(1L, HostRoleStatus.IN_PROGRESS);
+    CommandReport otherHost = createReport(2L, HostRoleStatus.COMPLETED);
+    CommandReport completed = createReport(1L, HostRoleStatus.COMPLETED);
+
+    Capture<Collection<CommandReport>> written = newCapture();
+    db.updateHostRoleStates(capture(written));
+    expectLastCall().once();
+    replay(db);
+
+    batcher.submit(Collections.singletonList(inProgress));
+    batcher.submit(Collections.singletonList(otherHost));
+    batcher.submit(Collections.singletonList(completed));
+
+    batcher.write();
+    batcher.write();
+    verify(db);
+
+    List<CommandReport> reports = new ArrayList<>(written.getValue());
+    assertEquals(2, reports.size());
+    assertSame(completed, reports.get(0));
+    assertSame(otherHost, reports.get(1));
+    assertEquals(3, batcher.getSubmittedReports());
+    assertEquals(1, batcher.getCoalescedReports());
+    assertEquals(1, batcher.getWrittenBatches());
+
+    long[] histogram = batcher.getAndResetLatencyHistogram();
+    assertEquals(CommandReportBatcher.LATENCY_BUCKETS.length + 1, histogram.length);
+    assertEquals(2, Arrays.stream(histogram).sum());
+    assertEquals(0, Arrays.stream(batcher.getAndResetLatencyHistogram()).sum());
+  }
+
+  @Test
+  public void testFailedBatchIsWrittenAgain() {
+    Properties properties = new Properties();
+    properties.setProperty(Configuration.AGENTS_COMMAND_REPORTS_BATCH_WINDOW.getKey(), "60000");
+    Configuration configuration = new Configuration(properties);
+    ActionDBAccessor db = createMock(ActionDBAccessor.class);
+
+    Injector injector = Guice.createInjector(binder -> {
+      binder.bind(Configuration.class).toInstance(configuration);
+      binder.bind(ActionDBAccessor.class).toInstance(db);
+      binder.bind(UnitOfWork.class).toInstance(createNiceMock(UnitOfWork.class));
+    });
+    CommandReportBatcher batcher = injector.getInstance(CommandReportBatcher.class);
+
+    CommandReport inProgress = createReport(1L, HostRoleStatus.IN_PROGRESS);
+    CommandReport otherHost = createReport(2L, HostRoleStatus.COMPLETED);
+    CommandReport completed = createReport(1L, HostRoleStatus.COMPLETED);
+
+    Capture<Collection<CommandReport>> written = newCapture();
+    db.updateHostRoleStates(anyObject());
+    expectLastCall().andThrow(new RuntimeException("rollback")).once();
+    db.updateHostRoleStates(capture(written));
+    expectLastCall().once();
+    replay(db);
+
+    batcher.submit(Arrays.asList(inProgress, otherHost));
+    try {
+      batcher.write();
+      fail("Write should fail");
+    } catch (RuntimeException e) {
+      // expected
+    }
+
+    // the report received after the failed write replaces the requeued one
+    batcher.submit(Collections.singletonList(completed));
+    batcher.write();
+    verify(db);
+
+    List<CommandReport> reports = new ArrayList<>(written.getValue());
+    assertEquals(2, reports.size());
+    assertSame(completed, reports.get(0));
+    assertSame(otherHost, reports.get(1));
+    assertEquals(1, batcher.getWrittenBatches());
+    assertEquals(0, batcher.getDroppedReports());
+  }
+
+  private CommandReport createReport(long taskId, HostRoleStatus status) {
+    CommandReport report = new CommandReport();
+    report.setTaskId(taskId);
+    report.setStatus(status.toString());
+    return report;
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.actionmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link TaskTimeoutWheel}.
+ */
+public class TaskTimeoutWheelTest {
+
+  private static final long START = 1_500_000_000_000L;
+
+  @Test
+  public void testDeadlinesBecomeDue() {
+    TaskTimeoutWheel wheel = new TaskTimeoutWheel();
+    wheel.advance(START);
+
+    wheel.schedule(1L, START + 10);
+    wheel.schedule(2L, START + 90_000);
+    wheel.schedule(3L, START + 7_200_000);
+    wheel.schedule(4L, START - 1);
+    assertEquals(4, wheel.size());
+    assertTrue(wheel.isDue(4L));
+    assertEquals(START + 10, wheel.getNextExpiration());
+
+    wheel.advance(START + 9);
+    assertFalse(wheel.isDue(1L));
+
+    wheel.advance(START + 10);
+    assertTrue(wheel.isDue(1L));
+    assertFalse(wheel.isDue(2L));
+
+    // the deadline is reached after being moved down the levels
+    for (long now = START; now < START + 90_000; now += 1_000) {
+      wheel.advance(now);
+      assertFalse(wheel.isDue(2L));
+    }
+    wheel.advance(START + 90_000);
+    assertTrue(wheel.isDue(2L));
+    assertFalse(wheel.isDue(3L));
+
+    // a long pause rebuilds the wheel
+    wheel.advance(START + 7_199_999);
+    assertFalse(wheel.isDue(3L));
+    wheel.advance(START + 7_200_000);
+    assertTrue(wheel.isDue(3L));
+    assertEquals(Long.MAX_VALUE, wheel.getNextExpiration());
+  }
+
+  @Test
+  public void testRescheduleAndPurge() {
+    TaskTimeoutWheel wheel = new TaskTimeoutWheel();
+    wheel.advance(START);
+
+    wheel.schedule(1L, START + 1_000);
+    wheel.schedule(2L, START + 1_000);
+    wheel.advance(START + 1_000);
+    assertTrue(wheel.isDue(1L));
+    assertTrue(wheel.isDue(2L));
+
+    // a retry moves the deadline
+    wheel.schedule(1L, START + 5_000);
+    assertFalse(wheel.isDue(1L));
+    assertEquals(START + 5_000, wheel.getNextExpiration());
+
+    wheel.cancel(1L);
+    assertFalse(wheel.isDue(1L));
+    assertEquals(Long.MAX_VALUE, wheel.getNextExpiration());
+
+    // due tasks which are not scheduled again between purges are dropped
+    wheel.purge();
+    assertTrue(wheel.isDue(2L));
+    wheel.purge();
+    assertFalse(wheel.isDue(2L));
+    assertEquals(0, wheel.size());
+
+    wheel.schedule(2L, START + 1_000);
+    assertTrue(wheel.isDue(2L));
+  }
+}
@@ -36,12 +36,14 @@ import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.sql.SQLException;
@@ -56,6 +58,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -75,7 +78,12 @@ import org.apache.shpurdp.server.agent.CommandReport;
 import org.apache.shpurdp.server.agent.ExecutionCommand;
 import org.apache.shpurdp.server.configuration.Configuration;
 import org.apache.shpurdp.server.controller.HostsMap;
+import org.apache.shpurdp.server.events.HostRegisteredEvent;
+import org.apache.shpurdp.server.events.HostStateUpdateEvent;
+import org.apache.shpurdp.server.events.HostsRemovedEvent;
 import org.apache.shpurdp.server.events.ShpurdpEvent;
+import org.apache.shpurdp.server.events.TaskCreateEvent;
+import org.apache.shpurdp.server.events.TaskUpdateEvent;
 import org.apache.shpurdp.server.events.publishers.AgentCommandsPublisher;
 import org.apache.shpurdp.server.events.publishers.ShpurdpEventPublisher;
 import org.apache.shpurdp.server.metadata.RoleCommandOrder;
@@ -1471,6 +1479,100 @@ public class TestActionScheduler {
     Assert.assertFalse(stages.get(0).getExecutionCommands(hostname1).get(0).getExecutionCommand().
         getConfigurations().containsKey("javax.jdo.option.ConnectionPassword"));
   }
+  /**
+   * Verifies that stages of independent requests are processed by the
+   * dispatcher threads, each with a stage reloaded in its own unit of work,
+   * and that a failed stage aborts only its own request.
+   */
+  @Test
+  public void testParallelStageDispatch() throws Exception {
+    Clusters fsm = mock(Clusters.class);
+    Cluster oneClusterMock = mock(Cluster.class);
+    Service serviceObj = mock(Service.class);
+    ServiceComponent scomp = mock(ServiceComponent.class);
+    ServiceComponentHost sch = mock(ServiceComponentHost.class);
+    UnitOfWork unitOfWork = mock(UnitOfWork.class);
+    AgentCommandsPublisher agentCommandsPublisher = mock(AgentCommandsPublisher.class);
+    when(fsm.getCluster(anyString())).thenReturn(oneClusterMock);
+    when(oneClusterMock.getService(anyString())).thenReturn(serviceObj);
+    when(serviceObj.getServiceComponent(anyString())).thenReturn(scomp);
+    when(scomp.getServiceComponentHost(anyString())).thenReturn(sch);
+    when(serviceObj.getCluster()).thenReturn(oneClusterMock);
+
+    String hostname1 = "ahost.shpurdp.apache.org";
+    String hostname2 = "bhost.shpurdp.apache.org";
+    HashMap<String, ServiceComponentHost> hosts = new HashMap<>();
+    hosts.put(hostname1, sch);
+    hosts.put(hostname2, sch);
+    when(scomp.getServiceComponentHosts()).thenReturn(hosts);
+
+    Host host1 = mock(Host.class);
+    when(fsm.getHost(hostname1)).thenReturn(host1);
+    when(host1.getState()).thenReturn(HostState.HEALTHY);
+    when(host1.getHostName()).thenReturn(hostname1);
+    when(host1.getHostId()).thenReturn(1L);
+
+    Host host2 = mock(Host.class);
+    when(fsm.getHost(hostname2)).thenReturn(host2);
+    when(host2.getState()).thenReturn(HostState.HEALTHY);
+    when(host2.getHostName()).thenReturn(hostname2);
+    when(host2.getHostId()).thenReturn(2L);
+
+    // the stage of the first request has failed
+    Stage failedStage = getStageWithSingleTask(hostname1, "cluster1", Role.DATANODE,
+        RoleCommand.START, Service.Type.HDFS, 1, 1, 1);
+    failedStage.setHostRoleStatus(hostname1, Role.DATANODE.name(), HostRoleStatus.FAILED);
+    Stage pendingStage = getStageWithSingleTask(hostname2, "cluster1", Role.DATANODE,
+        RoleCommand.START, Service.Type.HDFS, 2, 2, 2);
+    final List<Stage> stages = Arrays.asList(failedStage, pendingStage);
+
+    ActionDBAccessor db = mock(ActionDBAccessor.class);
+    HostRoleCommandDAO hostRoleCommandDAOMock = mock(HostRoleCommandDAO.class);
+    Mockito.doNothing().when(hostRoleCommandDAOMock).publishTaskCreateEvent(anyListOf(HostRoleCommand.class));
+
+    RequestEntity request = mock(RequestEntity.class);
+    when(request.isExclusive()).thenReturn(false);
+    when(request.getClusterHostInfo()).thenReturn(CLUSTER_HOST_INFO);
+    when(db.getRequestEntity(anyLong())).thenReturn(request);
+
+    when(db.getCommandsInProgressCount()).thenReturn(stages.size());
+    when(db.getFirstStageInProgressPerRequest()).thenReturn(stages);
+
+    // stages are reloaded by the dispatcher threads
+    final Set<String> reloadingThreads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    when(db.getStage(anyString())).thenAnswer(invocation -> {
+      reloadingThreads.add(Thread.currentThread().getName());
+      for (Stage stage : stages) {
+        if (stage.getActionId().equals(invocation.getArguments()[0])) {
+          return stage;
+        }
+      }
+      return null;
+    });
+
+    Properties properties = new Properties();
+    properties.put(Configuration.PARALLEL_STAGE_DISPATCH_THREADS.getKey(), "2");
+    Configuration conf = new Configuration(properties);
+    ActionScheduler scheduler = spy(new ActionScheduler(100, 50, db, fsm, 3,
+        new HostsMap((String) null),
+        unitOfWork, null, conf, entityManagerProviderMock,
+        hostRoleCommandDAOMock, (HostRoleCommandFactory)null, agentCommandsPublisher));
+
+    doReturn(false).when(scheduler).wasAgentRestartedDuringOperation(any(Host.class), any(Stage.class), anyString());
+
+    scheduler.doWork();
+
+    verify(db).getStage(failedStage.getActionId());
+    verify(db).getStage(pendingStage.getActionId());
+    for (String threadName : reloadingThreads) {
+      assertTrue(threadName.startsWith("shpurdp-action-dispatcher-"));
+    }
+
+    verify(db).abortOperation(1L);
+    verify(db, never()).abortOperation(2L);
+    Assert.assertEquals(HostRoleStatus.QUEUED, pendingStage.getHostRoleStatus(hostname2, "DATANODE"));
+  }
+
   /**
    * Verifies that ActionScheduler allows to execute background tasks in parallel
    */
@@ -3212,6 +3314,106 @@ public class TestActionScheduler {
     EasyMock.verify(previousStage, nextStage, actionDBAccessor, hostRoleCommand);
   }
 
+  /**
+   * Tests that new requests, completed tasks and host changes wake the
+   * scheduler up, while tasks which are still running do not.
+   */
+  @Test
+  public void testEventsWakeSchedulerUp() throws Exception {
+    ActionScheduler scheduler = EasyMock.createMockBuilder(ActionScheduler.class)
+      .withConstructor(long.class, long.class, ActionDBAccessor.class, Clusters.class, int.class,
+            HostsMap.class, UnitOfWork.class, ShpurdpEventPublisher.class, Configuration.class,
+            Provider.class, HostRoleCommandDAO.class, HostRoleCommandFactory.class, AgentCommandsPublisher.class)
+      .withArgs(100L, 50L, null, null, -1, null, null, null, null, entityManagerProviderMock,
+            mock(HostRoleCommandDAO.class), mock(HostRoleCommandFactory.class), mock(AgentCommandsPublisher.class))
+      .addMockedMethod("awake")
+      .createStrictMock();
+
+    HostRoleCommand inProgressCommand = createNiceMock(HostRoleCommand.class);
+    expect(inProgressCommand.getStatus()).andReturn(HostRoleStatus.IN_PROGRESS).anyTimes();
+    HostRoleCommand completedCommand = createNiceMock(HostRoleCommand.class);
+    expect(completedCommand.getStatus()).andReturn(HostRoleStatus.COMPLETED).anyTimes();
+
+    // one wake up per event except the update of the running task and the
+    // host which is still healthy
+    scheduler.awake();
+    EasyMock.expectLastCall().times(5);
+    replay(scheduler, inProgressCommand, completedCommand);
+
+    scheduler.onTaskCreateEvent(new TaskCreateEvent(Collections.singletonList(inProgressCommand)));
+    scheduler.onTaskUpdateEvent(new TaskUpdateEvent(Collections.singletonList(inProgressCommand)));
+    scheduler.onTaskUpdateEvent(new TaskUpdateEvent(Arrays.asList(inProgressCommand, completedCommand)));
+    scheduler.onHostStateUpdateEvent(new HostStateUpdateEvent("host1", HostState.HEALTHY));
+    scheduler.onHostStateUpdateEvent(new HostStateUpdateEvent("host1", HostState.HEARTBEAT_LOST));
+    scheduler.onHostRegisteredEvent(new HostRegisteredEvent("host1", 1L));
+    scheduler.onHostsRemovedEvent(new HostsRemovedEvent(Collections.singleton("host1"),
+        Collections.singleton(1L)));
+
+    EasyMock.verify(scheduler);
+  }
+
+  /**
+   * Tests that the event driven scheduler keeps the stages in progress between
+   * iterations and reloads them only after they were invalidated by an event or
+   * have become older than the max idle time.
+   */
+  @Test
+  public void testEventDrivenSchedulerKeepsStagesResident() throws Exception {
+    ActionDBAccessor db = mock(ActionDBAccessor.class);
+    when(db.getCommandsInProgressCount()).thenReturn(1);
+    when(db.getFirstStageInProgressPerRequest()).thenReturn(Collections.emptyList());
+
+    Provider<EntityManager> entityManagerProvider = mock(Provider.class);
+    ActionScheduler scheduler = new ActionScheduler(100, 50, db, mock(Clusters.class), 3,
+        new HostsMap((String) null), mock(UnitOfWork.class), null, new Configuration(new Properties()),
+        entityManagerProvider, mock(HostRoleCommandDAO.class), (HostRoleCommandFactory) null,
+        mock(AgentCommandsPublisher.class));
+    setMaxIdleTime(scheduler, TimeUnit.HOURS.toMillis(1));
+
+    // the first iteration loads the stages and the next one checks them again,
+    // after that the resident stages are used
+    scheduler.doEventDrivenWork();
+    scheduler.doEventDrivenWork();
+    scheduler.doEventDrivenWork();
+    scheduler.doEventDrivenWork();
+    verify(db, times(2)).getFirstStageInProgressPerRequest();
+
+    // a running task changes the stages without waking the scheduler up
+    HostRoleCommand inProgressCommand = mock(HostRoleCommand.class);
+    when(inProgressCommand.getStatus()).thenReturn(HostRoleStatus.IN_PROGRESS);
+    scheduler.onTaskUpdateEvent(new TaskUpdateEvent(Collections.singletonList(inProgressCommand)));
+    scheduler.doEventDrivenWork();
+    scheduler.doEventDrivenWork();
+    scheduler.doEventDrivenWork();
+    verify(db, times(4)).getFirstStageInProgressPerRequest();
+
+    scheduler.onHostsRemovedEvent(new HostsRemovedEvent(Collections.singleton("host1"),
+        Collections.singleton(1L)));
+    scheduler.doEventDrivenWork();
+    scheduler.doEventDrivenWork();
+    verify(db, times(6)).getFirstStageInProgressPerRequest();
+
+    // without events the stages are reloaded once they are older than the max
+    // idle time
+    setMaxIdleTime(scheduler, 0L);
+    scheduler.doEventDrivenWork();
+    verify(db, times(7)).getFirstStageInProgressPerRequest();
+
+    // nothing in progress drops the resident stages
+    setMaxIdleTime(scheduler, TimeUnit.HOURS.toMillis(1));
+    when(db.getCommandsInProgressCount()).thenReturn(0);
+    scheduler.doEventDrivenWork();
+    when(db.getCommandsInProgressCount()).thenReturn(1);
+    scheduler.doEventDrivenWork();
+    verify(db, times(8)).getFirstStageInProgressPerRequest();
+  }
+
+  private static void setMaxIdleTime(ActionScheduler scheduler, long maxIdleTime) throws Exception {
+    Field field = ActionScheduler.class.getDeclaredField("maxIdleTime");
+    field.setAccessible(true);
+    field.set(scheduler, maxIdleTime);
+  }
+
   public static class MockModule extends AbstractModule {
     @Override
     protected void configure() {
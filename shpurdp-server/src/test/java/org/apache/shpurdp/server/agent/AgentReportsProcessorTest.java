@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.agent;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.shpurdp.server.ShpurdpException;
+import org.apache.shpurdp.server.configuration.Configuration;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.persist.UnitOfWork;
+
+public class AgentReportsProcessorTest {
+
+  @Test
+  public void testReportsAreProcessedInOrderPerHost() throws Exception {
+    int hosts = 10;
+    int reportsPerHost = 100;
+    AgentReportsProcessor processor = createProcessor(new Properties());
+    Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+    CountDownLatch latch = new CountDownLatch(hosts * reportsPerHost);
+
+    for (int i = 0; i < reportsPerHost; i++) {
+      for (int host = 0; host < hosts; host++) {
+        processor.addAgentReport(new TestAgentReport("host" + host, i, processed, latch));
+      }
+    }
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    for (int host = 0; host < hosts; host++) {
+      List<Integer> sequence = processed.get("host" + host);
+      assertEquals(reportsPerHost, sequence.size());
+      for (int i = 0; i < reportsPerHost; i++) {
+        assertEquals(Integer.valueOf(i), sequence.get(i));
+      }
+    }
+    waitForIdleLanes(processor);
+    AgentReportsProcessor.ReportsStatistics statistics = processor.getAndResetStatistics();
+    assertEquals(hosts * reportsPerHost, statistics.getProcessedReports());
+    assertEquals(0, statistics.getActiveLanes());
+  }
+
+  @Test
+  public void testPendingStatusReportsAreCoalesced() throws Exception {
+    AgentReportsProcessor processor = createProcessor(new Properties());
+    Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+    CountDownLatch latch = new CountDownLatch(4);
+    CountDownLatch blockingLatch = new CountDownLatch(1);
+
+    processor.addAgentReport(new TestAgentReport("host1", 0, processed, latch) {
+      @Override
+      protected void process(Integer report, String hostName) {
+        try {
+          blockingLatch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.process(report, hostName);
+      }
+    });
+    processor.addAgentReport(new TestStatusAgentReport("host1", 1, processed, latch));
+    processor.addAgentReport(new TestStatusAgentReport("host1", 2, processed, latch));
+    processor.addAgentReport(new TestStatusAgentReport("host1", 3, processed, latch));
+    processor.addAgentReport(new TestAgentReport("host1", 4, processed, latch));
+    processor.addAgentReport(new TestStatusAgentReport("host1", 5, processed, latch));
+    blockingLatch.countDown();
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList(0, 3, 4, 5), processed.get("host1"));
+    assertEquals(2, processor.getAndResetStatistics().getCoalescedReports());
+  }
+
+  @Test
+  public void testFullLaneRejectsReports() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty(Configuration.AGENTS_REPORT_HOST_QUEUE_SIZE.getKey(), "2");
+    properties.setProperty(Configuration.AGENTS_REPORT_STATUS_COALESCING_ENABLED.getKey(), "false");
+    AgentReportsProcessor processor = createProcessor(properties);
+    Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+    CountDownLatch latch = new CountDownLatch(3);
+    CountDownLatch startedLatch = new CountDownLatch(1);
+    CountDownLatch blockingLatch = new CountDownLatch(1);
+
+    processor.addAgentReport(new TestAgentReport("host1", 0, processed, latch) {
+      @Override
+      protected void process(Integer report, String hostName) {
+        startedLatch.countDown();
+        try {
+          blockingLatch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.process(report, hostName);
+      }
+    });
+    assertTrue(startedLatch.await(10, TimeUnit.SECONDS));
+    processor.addAgentReport(new TestAgentReport("host1", 1, processed, latch));
+    processor.addAgentReport(new TestStatusAgentReport("host1", 2, processed, latch));
+    // status report is merged into the pending one even though the lane is full
+    processor.addAgentReport(new TestStatusAgentReport("host1", 3, processed, latch));
+    try {
+      processor.addAgentReport(new TestAgentReport("host1", 4, processed, latch));
+      fail("Report to the full lane should be rejected");
+    } catch (ShpurdpException e) {
+      // expected
+    }
+    assertEquals(2, processor.getAndResetStatistics().getQueueDepth());
+    blockingLatch.countDown();
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList(0, 1, 3), processed.get("host1"));
+    waitForIdleLanes(processor);
+    AgentReportsProcessor.ReportsStatistics statistics = processor.getAndResetStatistics();
+    assertEquals(1, statistics.getRejectedReports());
+
+    // a new lane is created for the host once the idle one is removed
+    CountDownLatch nextLatch = new CountDownLatch(1);
+    processor.addAgentReport(new TestAgentReport("host1", 5, processed, nextLatch));
+    assertTrue(nextLatch.await(10, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList(0, 1, 3, 5), processed.get("host1"));
+  }
+
+  @Test
+  public void testComponentStatusesCoalescing() {
+    ComponentStatusAgentReport report = new ComponentStatusAgentReport(null, "host1",
+        Arrays.asList(createComponentStatus("DATANODE", "STARTED"), createComponentStatus("NAMENODE", "STARTED")));
+    ComponentStatusAgentReport newerReport = new ComponentStatusAgentReport(null, "host1",
+        Arrays.asList(createComponentStatus("DATANODE", "INSTALLED"), createComponentStatus("ZKFC", "STARTED")));
+
+    assertTrue(report.isStatusReport());
+    assertTrue(report.coalesce(newerReport));
+    assertFalse(report.coalesce(new TestAgentReport("host1", 0, new ConcurrentHashMap<>(), new CountDownLatch(0))));
+
+    List<ComponentStatus> statuses = report.getReport();
+    assertEquals(3, statuses.size());
+    assertEquals("DATANODE", statuses.get(0).getComponentName());
+    assertEquals("INSTALLED", statuses.get(0).getStatus());
+    assertEquals("NAMENODE", statuses.get(1).getComponentName());
+    assertEquals("ZKFC", statuses.get(2).getComponentName());
+  }
+
+  private void waitForIdleLanes(AgentReportsProcessor processor) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (processor.getAndResetStatistics().getActiveLanes() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private AgentReportsProcessor createProcessor(Properties properties) {
+    Configuration configuration = new Configuration(properties);
+    Injector injector = Guice.createInjector(binder -> {
+      binder.bind(Configuration.class).toInstance(configuration);
+      binder.bind(UnitOfWork.class).toInstance(createNiceMock(UnitOfWork.class));
+    });
+    return injector.getInstance(AgentReportsProcessor.class);
+  }
+
+  private ComponentStatus createComponentStatus(String componentName, String status) {
+    ComponentStatus componentStatus = new ComponentStatus();
+    componentStatus.setClusterId(1L);
+    componentStatus.setServiceName("HDFS");
+    componentStatus.setComponentName(componentName);
+    componentStatus.setStatus(status);
+    return componentStatus;
+  }
+
+  private static class TestAgentReport extends AgentReport<Integer> {
+    private final Map<String, List<Integer>> processed;
+    private final CountDownLatch latch;
+
+    private TestAgentReport(String hostName, Integer sequence, Map<String, List<Integer>> processed,
+                            CountDownLatch latch) {
+      super(hostName, sequence);
+      this.processed = processed;
+      this.latch = latch;
+    }
+
+    @Override
+    protected void process(Integer report, String hostName) {
+      processed.computeIfAbsent(hostName, h -> Collections.synchronizedList(new ArrayList<>())).add(report);
+      latch.countDown();
+    }
+  }
+
+  private static class TestStatusAgentReport extends TestAgentReport {
+
+    private TestStatusAgentReport(String hostName, Integer sequence, Map<String, List<Integer>> processed,
+                                  CountDownLatch latch) {
+      super(hostName, sequence, processed, latch);
+    }
+
+    @Override
+    public boolean coalesce(AgentReport<?> newerReport) {
+      setReport(((TestStatusAgentReport) newerReport).getReport());
+      return true;
+    }
+
+    @Override
+    public boolean isStatusReport() {
+      return true;
+    }
+  }
+}
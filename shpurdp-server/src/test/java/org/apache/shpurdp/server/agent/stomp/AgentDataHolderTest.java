@@ -17,18 +17,41 @@
  */
 package org.apache.shpurdp.server.agent.stomp;
 
+import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
+import java.nio.charset.StandardCharsets;
+import java.lang.reflect.Field;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.shpurdp.server.agent.stomp.dto.ClusterConfigs;
+import org.apache.shpurdp.server.agent.stomp.dto.HashIgnoreMixIn;
+import org.apache.shpurdp.server.agent.stomp.dto.Hashable;
+import org.apache.shpurdp.server.agent.stomp.dto.MetadataCluster;
 import org.apache.shpurdp.server.events.AgentConfigsUpdateEvent;
 import org.apache.shpurdp.server.events.MetadataUpdateEvent;
 import org.apache.shpurdp.server.events.UpdateEventType;
+import org.apache.shpurdp.server.events.publishers.STOMPUpdatePublisher;
 import org.apache.shpurdp.server.events.publishers.ShpurdpEventPublisher;
 import org.apache.shpurdp.server.security.encryption.Encryptor;
+import org.apache.shpurdp.server.state.ConfigHelper;
+import org.apache.shpurdp.server.utils.ThreadPools;
 import org.apache.commons.collections4.MapUtils;
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 public class AgentDataHolderTest {
 
   @Test
@@ -102,4 +125,123 @@ public class AgentDataHolderTest {
     assertEquals(eventHash1, eventHash2);
     assertFalse(eventHash1.equals(eventHash3));
   }
+
+  @Test
+  public void testStreamingHashMatchesSerializedJsonHash() throws Exception {
+    ShpurdpEventPublisher shpurdpEventPublisher = createNiceMock(ShpurdpEventPublisher.class);
+    MetadataHolder metadataHolder = new MetadataHolder(shpurdpEventPublisher);
+
+    TreeMap<String, MetadataCluster> clusters = new TreeMap<>();
+    clusters.put("1", MetadataCluster.clusterLevelParamsMetadataCluster(null, new TreeMap<>(Collections.singletonMap("key", "value"))));
+    MetadataUpdateEvent event = new MetadataUpdateEvent(clusters, null, null, UpdateEventType.CREATE);
+
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.addMixIn(Hashable.class, HashIgnoreMixIn.class);
+    MessageDigest md = MessageDigest.getInstance("SHA-512");
+    md.update("salt".getBytes(StandardCharsets.UTF_8));
+    byte[] bytes = md.digest(mapper.writeValueAsString(event).getBytes(StandardCharsets.UTF_8));
+    StringBuilder expected = new StringBuilder();
+    for (byte b : bytes) {
+      expected.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+    }
+
+    assertEquals(expected.toString(), metadataHolder.getHash(event, "salt"));
+  }
+
+  @Test
+  public void testStructuralHash() {
+    ShpurdpEventPublisher shpurdpEventPublisher = createNiceMock(ShpurdpEventPublisher.class);
+    MetadataHolder metadataHolder = new MetadataHolder(shpurdpEventPublisher);
+
+    TreeMap<String, MetadataCluster> clusters = new TreeMap<>();
+    clusters.put("1", MetadataCluster.clusterLevelParamsMetadataCluster(null, new TreeMap<>(Collections.singletonMap("key", "value1"))));
+    clusters.put("2", MetadataCluster.clusterLevelParamsMetadataCluster(null, new TreeMap<>(Collections.singletonMap("key", "value2"))));
+    MetadataUpdateEvent event = new MetadataUpdateEvent(clusters, null, null, UpdateEventType.CREATE);
+
+    metadataHolder.regenerateDataIdentifiers(event);
+    String eventHash1 = event.getHash();
+
+    // nothing was changed
+    metadataHolder.regenerateDataIdentifiers(event);
+    String eventHash2 = event.getHash();
+
+    // changed cluster should be rehashed
+    clusters.get("2").updateClusterLevelParams(new TreeMap<>(Collections.singletonMap("key", "value3")));
+    metadataHolder.markPartChanged("2");
+    metadataHolder.regenerateDataIdentifiers(event);
+    String eventHash3 = event.getHash();
+
+    // the same data hashed from scratch
+    MetadataHolder anotherMetadataHolder = new MetadataHolder(shpurdpEventPublisher);
+    anotherMetadataHolder.regenerateDataIdentifiers(event);
+    String eventHash4 = event.getHash();
+
+    // removed cluster
+    clusters.remove("1");
+    metadataHolder.regenerateDataIdentifiers(event);
+    String eventHash5 = event.getHash();
+
+    assertEquals(eventHash1, eventHash2);
+    assertFalse(eventHash1.equals(eventHash3));
+    assertEquals(eventHash3, eventHash4);
+    assertFalse(eventHash3.equals(eventHash5));
+  }
+
+  @Test
+  public void testFanOutSerializesEachDistinctPayloadOnce() throws Exception {
+    ShpurdpEventPublisher shpurdpEventPublisher = createNiceMock(ShpurdpEventPublisher.class);
+    AtomicInteger serializations = new AtomicInteger();
+    AgentConfigsHolder agentConfigsHolder = new AgentConfigsHolder(shpurdpEventPublisher, Encryptor.NONE) {
+      @Override
+      protected String getHash(AgentConfigsUpdateEvent data, String salt) {
+        serializations.incrementAndGet();
+        return super.getHash(data, salt);
+      }
+    };
+
+    // hosts 1 and 2 are in the same config group
+    ConfigHelper configHelper = createNiceMock(ConfigHelper.class);
+    expect(configHelper.getHostActualConfigs(anyLong())).andAnswer(() -> {
+      Long hostId = (Long) getCurrentArguments()[0];
+      return new AgentConfigsUpdateEvent(hostId, createClusterConfigs(hostId == 3L ? "value2" : "value1"));
+    }).anyTimes();
+    ThreadPools threadPools = createNiceMock(ThreadPools.class);
+    expect(threadPools.getAgentConfigsFanOutPool()).andReturn(new ForkJoinPool(2)).anyTimes();
+    STOMPUpdatePublisher stompUpdatePublisher = createNiceMock(STOMPUpdatePublisher.class);
+    replay(configHelper, threadPools, stompUpdatePublisher);
+
+    setField(AgentConfigsHolder.class, agentConfigsHolder, "configHelper", configHelper);
+    setField(AgentConfigsHolder.class, agentConfigsHolder, "threadPools", threadPools);
+    setField(AgentHostDataHolder.class, agentConfigsHolder, "STOMPUpdatePublisher", stompUpdatePublisher);
+
+    for (long hostId = 1L; hostId <= 3L; hostId++) {
+      AgentConfigsUpdateEvent current = new AgentConfigsUpdateEvent(hostId, createClusterConfigs("value0"));
+      current.setHash("0");
+      current.setTimestamp(1L);
+      agentConfigsHolder.setData(current, hostId);
+    }
+
+    agentConfigsHolder.updateData(1L, Arrays.asList(1L, 2L, 3L));
+
+    assertEquals(2, serializations.get());
+    assertEquals(agentConfigsHolder.getData(1L).getHash(), agentConfigsHolder.getData(2L).getHash());
+    assertFalse(agentConfigsHolder.getData(1L).getHash().equals(agentConfigsHolder.getData(3L).getHash()));
+    assertEquals(agentConfigsHolder.getHash(new AgentConfigsUpdateEvent(2L, createClusterConfigs("value1")), ""),
+        agentConfigsHolder.getData(2L).getHash());
+  }
+
+  private TreeMap<String, ClusterConfigs> createClusterConfigs(String value) {
+    TreeMap<String, String> properties = new TreeMap<>(Collections.singletonMap("key", value));
+    TreeMap<String, SortedMap<String, String>> configurations = new TreeMap<>();
+    configurations.put("core-site", properties);
+    TreeMap<String, ClusterConfigs> clusterConfigs = new TreeMap<>();
+    clusterConfigs.put("1", new ClusterConfigs(configurations, new TreeMap<>()));
+    return clusterConfigs;
+  }
+
+  private static void setField(Class<?> type, Object target, String name, Object value) throws Exception {
+    Field field = type.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
 }
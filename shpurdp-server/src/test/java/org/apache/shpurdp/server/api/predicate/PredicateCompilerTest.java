@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.api.predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+
+import org.apache.shpurdp.server.controller.predicate.AndPredicate;
+import org.apache.shpurdp.server.controller.predicate.EqualsPredicate;
+import org.apache.shpurdp.server.controller.spi.Predicate;
+import org.junit.Test;
+
+/**
+ * PredicateCompiler unit tests.
+ */
+public class PredicateCompilerTest {
+
+  @Test
+  public void testCompile_cached() throws Exception {
+    String query = "Hosts/host_status=HEALTHY&Hosts/rack_info=r1";
+
+    Predicate predicate = new PredicateCompiler().compile(query);
+    assertEquals(new AndPredicate(new EqualsPredicate<>("Hosts/host_status", "HEALTHY"),
+        new EqualsPredicate<>("Hosts/rack_info", "r1")), predicate);
+
+    // compiled once for all compilers
+    assertSame(predicate, new PredicateCompiler().compile(query));
+
+    // ignored properties are part of the key
+    Predicate ignoring = new PredicateCompiler().compile(query,
+        Collections.singleton("Hosts/rack_info"));
+    assertNotSame(predicate, ignoring);
+    assertEquals(new EqualsPredicate<>("Hosts/host_status", "HEALTHY"), ignoring);
+  }
+}
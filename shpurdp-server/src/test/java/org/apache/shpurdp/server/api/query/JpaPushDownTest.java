@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.api.query;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.apache.shpurdp.server.controller.internal.AlertHistoryResourceProvider;
+import org.apache.shpurdp.server.controller.internal.PageRequestImpl;
+import org.apache.shpurdp.server.controller.internal.ResourceImpl;
+import org.apache.shpurdp.server.controller.internal.SortRequestImpl;
+import org.apache.shpurdp.server.controller.predicate.AndPredicate;
+import org.apache.shpurdp.server.controller.predicate.NotPredicate;
+import org.apache.shpurdp.server.controller.predicate.OrPredicate;
+import org.apache.shpurdp.server.controller.spi.PageRequest;
+import org.apache.shpurdp.server.controller.spi.PageRequest.StartingPoint;
+import org.apache.shpurdp.server.controller.spi.Predicate;
+import org.apache.shpurdp.server.controller.spi.QueryResponse;
+import org.apache.shpurdp.server.controller.spi.Request;
+import org.apache.shpurdp.server.controller.spi.Resource;
+import org.apache.shpurdp.server.controller.spi.SortRequest;
+import org.apache.shpurdp.server.controller.spi.SortRequestProperty;
+import org.apache.shpurdp.server.controller.utilities.PredicateBuilder;
+import org.apache.shpurdp.server.controller.utilities.PropertyHelper;
+import org.apache.shpurdp.server.orm.entities.AlertHistoryEntity_;
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+/**
+ * Tests the {@link JpaPushDown}.
+ */
+public class JpaPushDownTest {
+
+  private static final String UNMAPPED_PROPERTY = "AlertHistory/foo";
+
+  private final Map<String, List<? extends SingularAttribute<?, ?>>> m_mapping =
+      AlertHistoryEntity_.getPredicateMapping();
+
+  /**
+   * Tests that only predicates which are translated without leaving anything
+   * out are translatable.
+   */
+  @Test
+  public void testIsTranslatable() {
+    Assert.assertTrue(JpaPushDown.isTranslatable(null, m_mapping));
+
+    Predicate predicate = new PredicateBuilder().property(
+        AlertHistoryResourceProvider.ALERT_HISTORY_CLUSTER_NAME).equals("c1").and().property(
+        AlertHistoryResourceProvider.ALERT_HISTORY_TIMESTAMP).greaterThan(1L).toPredicate();
+    Assert.assertTrue(JpaPushDown.isTranslatable(predicate, m_mapping));
+
+    // an unmapped conjunct widens the JPA result
+    predicate = new PredicateBuilder().property(
+        AlertHistoryResourceProvider.ALERT_HISTORY_CLUSTER_NAME).equals("c1").and().property(
+        UNMAPPED_PROPERTY).equals("bar").toPredicate();
+    Assert.assertFalse(JpaPushDown.isTranslatable(predicate, m_mapping));
+
+    // an unmapped branch drops the whole disjunction
+    predicate = new PredicateBuilder().property(
+        AlertHistoryResourceProvider.ALERT_HISTORY_SERVICE_NAME).equals("HDFS").or().property(
+        UNMAPPED_PROPERTY).equals("bar").toPredicate();
+    Assert.assertFalse(JpaPushDown.isTranslatable(predicate, m_mapping));
+
+    predicate = new PredicateBuilder().not().property(
+        AlertHistoryResourceProvider.ALERT_HISTORY_SERVICE_NAME).equals("HDFS").toPredicate();
+    Assert.assertFalse(JpaPushDown.isTranslatable(predicate, m_mapping));
+  }
+
+  /**
+   * Tests that only sorts on mapped properties are sortable.
+   */
+  @Test
+  public void testIsSortable() {
+    Assert.assertFalse(JpaPushDown.isSortable(null, m_mapping));
+    Assert.assertTrue(JpaPushDown.isSortable(
+        sortBy(AlertHistoryResourceProvider.ALERT_HISTORY_TIMESTAMP), m_mapping));
+    Assert.assertFalse(JpaPushDown.isSortable(sortBy(UNMAPPED_PROPERTY), m_mapping));
+  }
+
+  /**
+   * Tests that only pages from the start of exactly translated queries are
+   * pageable.
+   */
+  @Test
+  public void testIsPageable() {
+    Predicate predicate = new PredicateBuilder().property(
+        AlertHistoryResourceProvider.ALERT_HISTORY_CLUSTER_NAME).equals("c1").toPredicate();
+    SortRequest sort = sortBy(AlertHistoryResourceProvider.ALERT_HISTORY_TIMESTAMP);
+
+    Assert.assertFalse(JpaPushDown.isPageable(predicate, null, sort, m_mapping));
+    // without a sort the rows, and so the page, are in no defined order
+    Assert.assertFalse(JpaPushDown.isPageable(predicate,
+        page(StartingPoint.Beginning, 0), null, m_mapping));
+    Assert.assertTrue(JpaPushDown.isPageable(predicate,
+        page(StartingPoint.Beginning, 0), sort, m_mapping));
+    Assert.assertTrue(JpaPushDown.isPageable(predicate,
+        page(StartingPoint.OffsetStart, 10), sort, m_mapping));
+    Assert.assertFalse(JpaPushDown.isPageable(predicate,
+        page(StartingPoint.End, 0), sort, m_mapping));
+    Assert.assertFalse(JpaPushDown.isPageable(predicate,
+        page(StartingPoint.OffsetStart, 10), sortBy(UNMAPPED_PROPERTY), m_mapping));
+
+    predicate = new PredicateBuilder().property(UNMAPPED_PROPERTY).equals("bar").toPredicate();
+    Assert.assertFalse(JpaPushDown.isPageable(predicate,
+        page(StartingPoint.Beginning, 0), sort, m_mapping));
+  }
+
+  /**
+   * Tests that only the conjuncts which JPA does not apply are left to be
+   * evaluated in memory.
+   */
+  @Test
+  public void testGetResidualPredicate() {
+    Assert.assertNull(JpaPushDown.getResidualPredicate(null, m_mapping));
+
+    Predicate clusterPredicate = new PredicateBuilder().property(
+        AlertHistoryResourceProvider.ALERT_HISTORY_CLUSTER_NAME).equals("c1").toPredicate();
+    Assert.assertNull(JpaPushDown.getResidualPredicate(clusterPredicate, m_mapping));
+
+    Predicate unmappedPredicate = new PredicateBuilder().property(
+        UNMAPPED_PROPERTY).equals("bar").toPredicate();
+    Predicate predicate = new AndPredicate(clusterPredicate, unmappedPredicate);
+    Assert.assertEquals(unmappedPredicate, JpaPushDown.getResidualPredicate(predicate, m_mapping));
+
+    // an OR is translated entirely or not at all
+    predicate = new OrPredicate(clusterPredicate, unmappedPredicate);
+    Assert.assertEquals(predicate, JpaPushDown.getResidualPredicate(predicate, m_mapping));
+
+    Predicate notPredicate = new NotPredicate(clusterPredicate);
+    predicate = new AndPredicate(clusterPredicate, notPredicate, unmappedPredicate);
+    Assert.assertEquals(new AndPredicate(notPredicate, unmappedPredicate),
+        JpaPushDown.getResidualPredicate(predicate, m_mapping));
+  }
+
+  /**
+   * Tests that the query response is only paged by JPA when the page is
+   * defined, and that the cluster controller only gets the residual predicate
+   * for the predicate the resources were queried with.
+   */
+  @Test
+  public void testGetQueryResponse() {
+    Predicate clusterPredicate = new PredicateBuilder().property(
+        AlertHistoryResourceProvider.ALERT_HISTORY_CLUSTER_NAME).equals("c1").toPredicate();
+    Predicate unmappedPredicate = new PredicateBuilder().property(
+        UNMAPPED_PROPERTY).equals("bar").toPredicate();
+    Predicate predicate = new AndPredicate(clusterPredicate, unmappedPredicate);
+    Set<Resource> resources = Collections.singleton(new ResourceImpl(Resource.Type.AlertHistory));
+
+    Request request = PropertyHelper.getReadRequest(Collections.emptySet(), null, null,
+        page(StartingPoint.Beginning, 0), sortBy(AlertHistoryResourceProvider.ALERT_HISTORY_TIMESTAMP));
+    QueryResponse response = JpaPushDown.getQueryResponse(resources, request, clusterPredicate,
+        m_mapping, () -> 42);
+
+    Assert.assertTrue(response.isSortedResponse());
+    Assert.assertTrue(response.isPagedResponse());
+    Assert.assertEquals(42, response.getTotalResourceCount());
+    Assert.assertNull(response.getResidualPredicate(clusterPredicate));
+
+    // a predicate extended after the query is evaluated in full
+    Assert.assertEquals(predicate, response.getResidualPredicate(predicate));
+
+    response = JpaPushDown.getQueryResponse(resources, request, predicate, m_mapping, () -> {
+      throw new AssertionError("an unpaged response is not counted");
+    });
+
+    Assert.assertTrue(response.isSortedResponse());
+    Assert.assertFalse(response.isPagedResponse());
+    Assert.assertEquals(1, response.getTotalResourceCount());
+    Assert.assertEquals(unmappedPredicate, response.getResidualPredicate(predicate));
+  }
+
+  private static SortRequest sortBy(String propertyId) {
+    return new SortRequestImpl(Collections.singletonList(
+        new SortRequestProperty(propertyId, SortRequest.Order.ASC)));
+  }
+
+  private static PageRequest page(StartingPoint startingPoint, int offset) {
+    return new PageRequestImpl(startingPoint, 10, offset, null, null);
+  }
+}
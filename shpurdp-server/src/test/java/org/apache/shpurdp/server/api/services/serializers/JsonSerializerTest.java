@@ -24,6 +24,7 @@ import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayOutputStream;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -243,5 +244,44 @@ public class JsonSerializerTest {
     String  json = new JsonSerializer().serialize(result).toString().replace("\r", "");
     assertEquals(expected, json);
   }
+
+  @Test
+  public void testSerializeCompactToStream() throws Exception {
+    Resource resource = createMock(Resource.class);
+
+    Result result = new ResultImpl(true);
+    result.setResultStatus(new ResultStatus(ResultStatus.STATUS.OK));
+    TreeNode<Resource> tree = result.getResultTree();
+    TreeNode<Resource> child = tree.addChild(resource, "resource1");
+    child.setProperty("href", "this is an href");
+
+    Map<String, Object> mapRootProps = new LinkedHashMap<>();
+    mapRootProps.put("prop1", "value1");
+
+    Map<String, Object> mapCategoryProps = new LinkedHashMap<>();
+    mapCategoryProps.put("catProp1", "catValue1");
+
+    Map<String, Map<String, Object>> propertyMap = new LinkedHashMap<>();
+    propertyMap.put(null, mapRootProps);
+    propertyMap.put("category", mapCategoryProps);
+
+    expect(resource.getPropertiesMap()).andReturn(propertyMap).anyTimes();
+    expect(resource.getType()).andReturn(Resource.Type.Cluster).anyTimes();
+
+    replay(resource);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new JsonSerializer().serialize(result, out, false);
+
+    assertEquals("{\"href\":\"this is an href\",\"prop1\":\"value1\",\"category\":{\"catProp1\":\"catValue1\"}}",
+        out.toString("UTF-8"));
+
+    // errors are written the same way
+    out.reset();
+    new JsonSerializer().serialize(new ResultImpl(new ResultStatus(ResultStatus.STATUS.NOT_FOUND, "not found")), out, false);
+    assertEquals("{\"status\":404,\"message\":\"not found\"}", out.toString("UTF-8"));
+
+    verify(resource);
+  }
   
 }
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.cleanup;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.shpurdp.server.Role;
+import org.apache.shpurdp.server.RoleCommand;
+import org.apache.shpurdp.server.actionmanager.HostRoleStatus;
+import org.apache.shpurdp.server.orm.dao.HostRoleCommandStatusSummaryDTO;
+import org.apache.shpurdp.server.orm.entities.HostEntity;
+import org.apache.shpurdp.server.orm.entities.HostRoleCommandEntity;
+import org.apache.shpurdp.server.orm.entities.RequestEntity;
+import org.apache.shpurdp.server.orm.entities.StageEntity;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * RequestArchiveSegment tests.
+ */
+public class RequestArchiveSegmentTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    RequestEntity first = createRequest(1L, 100L);
+    addStage(first, 1L, createTask(1L, Role.DATANODE, HostRoleStatus.COMPLETED, "h1", "out1"),
+        createTask(2L, Role.DATANODE, HostRoleStatus.FAILED, "h2", "out2"));
+    addStage(first, 2L, createTask(3L, Role.NAMENODE, HostRoleStatus.ABORTED, "h1", null));
+
+    RequestEntity second = createRequest(5L, null);
+    addStage(second, 1L, createTask(10L, Role.ZOOKEEPER_SERVER, HostRoleStatus.COMPLETED, "h3", "out3"));
+
+    File file = new File(temp.getRoot(), "requests" + RequestArchiveSegment.EXTENSION);
+    RequestArchiveSegment.write(file, Arrays.asList(first, second));
+    assertFalse(new File(temp.getRoot(), file.getName() + ".tmp").exists());
+
+    RequestArchiveSegment segment = RequestArchiveSegment.open(file);
+    assertArrayEquals(new long[] { 1L, 5L }, segment.getRequestIds());
+    assertTrue(segment.contains(5L));
+    assertFalse(segment.contains(2L));
+    assertEquals(Long.valueOf(2L), segment.getClusterId(1L));
+    assertNull(segment.getRequest(2L, true));
+
+    RequestEntity request = segment.getRequest(1L, true);
+    assertEquals("context-1", request.getRequestContext());
+    assertEquals("{hosts-1}", request.getClusterHostInfo());
+    assertEquals(Long.valueOf(100L), request.getRequestScheduleId());
+    assertEquals(HostRoleStatus.FAILED, request.getStatus());
+    assertEquals(Long.valueOf(1000L), request.getCreateTime());
+    assertNull(segment.getRequest(5L, false).getClusterHostInfo());
+    assertNull(segment.getRequest(5L, false).getRequestScheduleId());
+
+    List<HostRoleCommandEntity> tasks = segment.getTasks(1L);
+    assertEquals(3, tasks.size());
+    HostRoleCommandEntity task = tasks.get(1);
+    assertEquals(Long.valueOf(2L), task.getTaskId());
+    assertEquals(Long.valueOf(1L), task.getStageId());
+    assertEquals("h2", task.getHostName());
+    assertEquals(Role.DATANODE, task.getRole());
+    assertEquals(RoleCommand.START, task.getRoleCommand());
+    assertEquals(HostRoleStatus.FAILED, task.getStatus());
+    assertEquals(Integer.valueOf(1), task.getExitcode());
+    assertArrayEquals("out2".getBytes(), task.getStdOut());
+    assertTrue(task.isRetryAllowed());
+    assertNull(tasks.get(2).getEndTime());
+    assertEquals(0, tasks.get(2).getStdOut().length);
+
+    Map<Long, HostRoleCommandStatusSummaryDTO> summaries = segment.getAggregateCounts(1L);
+    assertEquals(2, summaries.size());
+    assertEquals(2, summaries.get(1L).getTaskTotal());
+    assertEquals(Integer.valueOf(1), summaries.get(1L).getCounts().get(HostRoleStatus.FAILED));
+    assertEquals(Long.valueOf(1L), summaries.get(1L).getStartTime());
+    assertEquals(Long.valueOf(2L), summaries.get(1L).getEndTime());
+    assertNull(summaries.get(2L).getEndTime());
+    assertEquals(Collections.emptyMap(), segment.getAggregateCounts(2L));
+  }
+
+  private RequestEntity createRequest(long requestId, Long scheduleId) {
+    RequestEntity request = new RequestEntity();
+    request.setRequestId(requestId);
+    request.setClusterId(2L);
+    request.setRequestScheduleId(scheduleId);
+    request.setRequestContext("context-" + requestId);
+    request.setClusterHostInfo(null == scheduleId ? null : "{hosts-" + requestId + "}");
+    request.setCreateTime(1000L * requestId);
+    request.setStartTime(1000L * requestId);
+    request.setEndTime(1000L * requestId + 10);
+    request.setStatus(HostRoleStatus.FAILED);
+    request.setDisplayStatus(HostRoleStatus.FAILED);
+    request.setStages(new ArrayList<>());
+    return request;
+  }
+
+  private void addStage(RequestEntity request, long stageId, HostRoleCommandEntity... tasks) {
+    StageEntity stage = new StageEntity();
+    stage.setRequestId(request.getRequestId());
+    stage.setStageId(stageId);
+    stage.setRequest(request);
+    for (HostRoleCommandEntity task : tasks) {
+      task.setRequestId(request.getRequestId());
+      task.setStageId(stageId);
+    }
+    stage.setHostRoleCommands(Arrays.asList(tasks));
+    request.getStages().add(stage);
+  }
+
+  private HostRoleCommandEntity createTask(long taskId, Role role, HostRoleStatus status, String hostName,
+      String output) {
+    HostEntity host = new HostEntity();
+    host.setHostId((long) hostName.hashCode());
+    host.setHostName(hostName);
+
+    HostRoleCommandEntity task = new HostRoleCommandEntity();
+    task.setTaskId(taskId);
+    task.setHostEntity(host);
+    task.setRole(role);
+    task.setRoleCommand(RoleCommand.START);
+    task.setStatus(status);
+    task.setStartTime(taskId);
+    task.setEndTime(null == output ? null : taskId);
+    task.setExitcode(HostRoleStatus.FAILED == status ? 1 : 0);
+    task.setRetryAllowed(true);
+    task.setStdOut(null == output ? null : output.getBytes());
+    return task;
+  }
+}
@@ -4532,7 +4532,7 @@ public class ShpurdpManagementControllerTest {
 
     Gson gson = new Gson();
     ExecutionCommand executionCommand = gson.fromJson(new StringReader(
-        new String(commandEntity.getCommand())), ExecutionCommand.class);
+        executionCommandDAO.toJson(response.getRequestId(), commandEntity.getCommand())), ExecutionCommand.class);
 
     assertTrue(executionCommand.getConfigurations() == null || executionCommand.getConfigurations().isEmpty());
 
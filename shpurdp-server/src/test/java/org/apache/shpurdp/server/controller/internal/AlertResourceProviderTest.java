@@ -31,6 +31,7 @@ import static org.junit.Assert.assertTrue;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -55,6 +56,8 @@ import org.apache.shpurdp.server.controller.spi.Predicate;
 import org.apache.shpurdp.server.controller.spi.QueryResponse;
 import org.apache.shpurdp.server.controller.spi.Request;
 import org.apache.shpurdp.server.controller.spi.Resource;
+import org.apache.shpurdp.server.controller.spi.SortRequest;
+import org.apache.shpurdp.server.controller.spi.SortRequestProperty;
 import org.apache.shpurdp.server.controller.utilities.PredicateBuilder;
 import org.apache.shpurdp.server.controller.utilities.PropertyHelper;
 import org.apache.shpurdp.server.orm.DBAccessor;
@@ -560,7 +563,7 @@ public class AlertResourceProviderTest {
     expect(m_dao.findAll(EasyMock.anyObject(AlertCurrentRequest.class))).andReturn(
         getClusterMockEntities()).atLeastOnce();
 
-    expect(m_dao.getCount(EasyMock.anyObject(Predicate.class))).andReturn(0).atLeastOnce();
+    expect(m_dao.getCurrentCount(EasyMock.anyObject(Predicate.class))).andReturn(0).atLeastOnce();
 
     replay(m_dao);
 
@@ -581,11 +584,19 @@ public class AlertResourceProviderTest {
     // since the request didn't have paging, then this should be false
     assertFalse(response.isPagedResponse());
 
-    // add a paged request
+    // add a paged request, without a sort the page is not defined
     PageRequest pageRequest = new PageRequestImpl(StartingPoint.Beginning, 5, 10, predicate, null);
     request = PropertyHelper.getReadRequest(requestProperties, null, null, pageRequest, null);
     response = provider.queryForResources(request, predicate);
 
+    assertFalse(response.isPagedResponse());
+
+    // add a sort on a mapped property
+    SortRequest sortRequest = new SortRequestImpl(Collections.singletonList(
+        new SortRequestProperty(AlertResourceProvider.ALERT_ID, SortRequest.Order.ASC)));
+    request = PropertyHelper.getReadRequest(requestProperties, null, null, pageRequest, sortRequest);
+    response = provider.queryForResources(request, predicate);
+
     // now the request has paging
     assertTrue(response.isPagedResponse());
 
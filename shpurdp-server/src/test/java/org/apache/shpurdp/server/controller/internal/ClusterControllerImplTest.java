@@ -620,6 +620,42 @@ public class ClusterControllerImplTest {
 
   }
 
+  @Test
+  public void testGetResourcesSortedPageFromOffset() throws Exception{
+    ClusterControllerImpl controller = new ClusterControllerImpl(new TestProviderModule());
+
+    Request request = PropertyHelper.getReadRequest(new HashSet<>());
+
+    List<SortRequestProperty> sortRequestProperties = Collections.singletonList(
+      new SortRequestProperty("Hosts/host_name", SortRequest.Order.DESC));
+    SortRequest sortRequest = new SortRequestImpl(sortRequestProperties);
+
+    // only the resources up to the page end are kept, the count covers all of them
+    PageRequest pageRequest = new PageRequestImpl(PageRequest.StartingPoint.OffsetStart, 1, 1, null, null);
+    PageResponse pageResponse = controller.getResources(Resource.Type.Host, request, null, pageRequest, sortRequest);
+
+    List<Resource> list = new LinkedList<>();
+    for (Resource resource : pageResponse.getIterable()) {
+      list.add(resource);
+    }
+    Assert.assertEquals(1, list.size());
+    Assert.assertEquals("host:2", list.get(0).getPropertyValue(PropertyHelper.getPropertyId("Hosts", "host_name")));
+    Assert.assertEquals(1, pageResponse.getOffset());
+    Assert.assertEquals("host:3", pageResponse.getPreviousResource().getPropertyValue(PropertyHelper.getPropertyId("Hosts", "host_name")));
+    Assert.assertEquals("host:1", pageResponse.getNextResource().getPropertyValue(PropertyHelper.getPropertyId("Hosts", "host_name")));
+    Assert.assertEquals(4, pageResponse.getTotalResourceCount().intValue());
+
+    // an offset beyond the last resource gives an empty page
+    pageRequest = new PageRequestImpl(PageRequest.StartingPoint.OffsetStart, 2, 10, null, null);
+    pageResponse = controller.getResources(Resource.Type.Host, request, null, pageRequest, sortRequest);
+
+    Assert.assertFalse(pageResponse.getIterable().iterator().hasNext());
+    Assert.assertEquals(4, pageResponse.getOffset());
+    Assert.assertEquals("host:0", pageResponse.getPreviousResource().getPropertyValue(PropertyHelper.getPropertyId("Hosts", "host_name")));
+    Assert.assertNull(pageResponse.getNextResource());
+    Assert.assertEquals(4, pageResponse.getTotalResourceCount().intValue());
+  }
+
   @Test
   public void testCreateResources() throws Exception{
     TestProviderModule providerModule = new TestProviderModule();
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.shpurdp.server.controller.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.shpurdp.server.controller.spi.Resource;
+import org.apache.shpurdp.server.controller.utilities.PropertyHelper;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Measures the memory and the lookup times of resources compared to nested
+ * synchronized tree maps, the layout used by earlier versions of
+ * {@link ResourceImpl}.
+ */
+@Ignore
+public class ResourceImplPerformanceTest {
+
+  private static final int RESOURCES  = 10000;
+  private static final int CATEGORIES = 4;
+  private static final int PROPERTIES = 10;
+  private static final int LOOKUPS    = 100;
+
+  private static final List<String> PROPERTY_IDS = new ArrayList<>();
+
+  static {
+    for (int c = 0; c < CATEGORIES; c++) {
+      for (int p = 0; p < PROPERTIES; p++) {
+        PROPERTY_IDS.add("Metrics/category" + c + "/property" + p);
+      }
+    }
+  }
+
+  @Test
+  public void testMemory() {
+    long used = getUsedMemory();
+    List<Resource> resources = new ArrayList<>();
+    for (int i = 0; i < RESOURCES; i++) {
+      resources.add(createResource(i));
+    }
+    System.out.println("Resources: " + (getUsedMemory() - used) / RESOURCES + " bytes each");
+
+    used = getUsedMemory();
+    List<Map<String, Map<String, Object>>> maps = new ArrayList<>();
+    for (int i = 0; i < RESOURCES; i++) {
+      maps.add(createMap(i));
+    }
+    System.out.println("Nested maps: " + (getUsedMemory() - used) / RESOURCES + " bytes each");
+
+    System.out.println(resources.size() + maps.size());
+  }
+
+  @Test
+  public void testLookups() {
+    List<Resource> resources = new ArrayList<>();
+    List<Map<String, Map<String, Object>>> maps = new ArrayList<>();
+    for (int i = 0; i < RESOURCES; i++) {
+      resources.add(createResource(i));
+      maps.add(createMap(i));
+    }
+
+    for (int run = 0; run < 3; run++) {
+      long time  = System.nanoTime();
+      long found = 0;
+      for (int l = 0; l < LOOKUPS; l++) {
+        for (Resource resource : resources) {
+          for (String propertyId : PROPERTY_IDS) {
+            if (resource.getPropertyValue(propertyId) != null) {
+              found++;
+            }
+          }
+        }
+      }
+      System.out.println("Resource lookups: " + (System.nanoTime() - time) / 1000000 + " ms (" + found + ")");
+
+      time  = System.nanoTime();
+      found = 0;
+      for (int l = 0; l < LOOKUPS; l++) {
+        for (Map<String, Map<String, Object>> map : maps) {
+          for (String propertyId : PROPERTY_IDS) {
+            Map<String, Object> properties = map.get(PropertyHelper.getPropertyCategory(propertyId));
+            if (properties != null && properties.get(PropertyHelper.getPropertyName(propertyId)) != null) {
+              found++;
+            }
+          }
+        }
+      }
+      System.out.println("Nested map lookups: " + (System.nanoTime() - time) / 1000000 + " ms (" + found + ")");
+
+      time  = System.nanoTime();
+      found = 0;
+      for (int l = 0; l < LOOKUPS; l++) {
+        for (Resource resource : resources) {
+          for (Map<String, Object> properties : resource.getPropertiesMap().values()) {
+            found += properties.size();
+          }
+        }
+      }
+      System.out.println("Resource category views: " + (System.nanoTime() - time) / 1000000 + " ms (" + found + ")");
+    }
+  }
+
+  @Test
+  public void testRemovals() {
+    for (int size = 1000; size <= 64000; size *= 4) {
+      Resource resource = new ResourceImpl(Resource.Type.Cluster);
+      for (int i = 0; i < size; i++) {
+        resource.setProperty("Metrics/property" + i, i);
+      }
+
+      long time = System.nanoTime();
+      Iterator<Map.Entry<String, Object>> iterator =
+          resource.getPropertiesMap().get("Metrics").entrySet().iterator();
+      while (iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+      }
+      System.out.println("Removing " + size + " properties: " + (System.nanoTime() - time) / 1000000 + " ms");
+    }
+  }
+
+  private static Resource createResource(int i) {
+    Resource resource = new ResourceImpl(Resource.Type.HostComponent);
+    for (String propertyId : PROPERTY_IDS) {
+      resource.setProperty(propertyId, i);
+    }
+    return resource;
+  }
+
+  private static Map<String, Map<String, Object>> createMap(int i) {
+    Map<String, Map<String, Object>> map = Collections.synchronizedMap(new TreeMap<>());
+    for (String propertyId : PROPERTY_IDS) {
+      map.computeIfAbsent(PropertyHelper.getPropertyCategory(propertyId),
+          c -> Collections.synchronizedMap(new TreeMap<>()))
+          .put(PropertyHelper.getPropertyName(propertyId), i);
+    }
+    return map;
+  }
+
+  private static long getUsedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
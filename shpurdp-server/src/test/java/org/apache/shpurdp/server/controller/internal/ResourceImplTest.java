@@ -18,6 +18,11 @@
 
 package org.apache.shpurdp.server.controller.internal;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 
 import org.apache.shpurdp.server.controller.spi.Resource;
@@ -184,5 +189,152 @@ public class ResourceImplTest {
     Assert.assertTrue(resource1.equals(resource2));
     Assert.assertTrue(resource2.equals(resource1));
   }
-}
 
+  @Test
+  public void testPropertiesMapWritesThrough() {
+    Resource resource = new ResourceImpl(Resource.Type.Cluster);
+
+    resource.setProperty("c1/p1", "foo");
+    resource.setProperty("c1/p2", "bar");
+    resource.setProperty("c2/p3", null);
+
+    Map<String, Map<String, Object>> map = resource.getPropertiesMap();
+    Assert.assertTrue(map.get("c2").containsKey("p3"));
+    Assert.assertNull(map.get("c3"));
+
+    map.get("c1").remove("p1");
+    Assert.assertNull(resource.getPropertyValue("c1/p1"));
+    Assert.assertEquals("bar", resource.getPropertyValue("c1/p2"));
+
+    map.get("c1").put("p4", 4);
+    Assert.assertEquals(4, resource.getPropertyValue("c1/p4"));
+
+    Iterator<Map.Entry<String, Map<String, Object>>> iterator = map.entrySet().iterator();
+    Assert.assertEquals("c1", iterator.next().getKey());
+    Map.Entry<String, Map<String, Object>> entry = iterator.next();
+    Assert.assertEquals("c2", entry.getKey());
+    entry.getValue().keySet().clear();
+    Assert.assertTrue(entry.getValue().isEmpty());
+    iterator.remove();
+
+    Assert.assertEquals(Collections.singleton("c1"), resource.getPropertiesMap().keySet());
+  }
+
+  @Test
+  public void testCopyConstructorWithPropertyIds() {
+    Resource resource = new ResourceImpl(Resource.Type.Cluster);
+
+    resource.setProperty("c1/p1", "foo");
+    resource.setProperty("c1/p2", "bar");
+    resource.setProperty("c2/p3", 3);
+
+    Resource copy = new ResourceImpl(resource, new HashSet<>(Arrays.asList("c1/p2", "c2")));
+
+    Assert.assertNull(copy.getPropertyValue("c1/p1"));
+    Assert.assertEquals("bar", copy.getPropertyValue("c1/p2"));
+    Assert.assertEquals(3, copy.getPropertyValue("c2/p3"));
+
+    copy.setProperty("c1/p1", "foo");
+    Assert.assertEquals(resource, copy);
+    Assert.assertEquals(resource.hashCode(), copy.hashCode());
+    Assert.assertEquals(resource.getPropertiesMap(), copy.getPropertiesMap());
+  }
+
+  @Test
+  public void testRemovePropertiesThroughIterator() {
+    Resource resource = new ResourceImpl(Resource.Type.Cluster);
+    Resource expected = new ResourceImpl(Resource.Type.Cluster);
+
+    for (int i = 0; i < 100; i++) {
+      resource.setProperty("c1/p" + i, i);
+      if (i % 3 == 0) {
+        expected.setProperty("c1/p" + i, i);
+      }
+    }
+    resource.setProperty("c2/p1", "foo");
+    expected.setProperty("c2/p1", "foo");
+
+    Iterator<Map.Entry<String, Object>> iterator =
+        resource.getPropertiesMap().get("c1").entrySet().iterator();
+    int count = 0;
+    while (iterator.hasNext()) {
+      count++;
+      if ((Integer) iterator.next().getValue() % 3 != 0) {
+        iterator.remove();
+      }
+    }
+    Assert.assertEquals(100, count);
+
+    Assert.assertEquals(34, resource.getPropertiesMap().get("c1").size());
+    Assert.assertNull(resource.getPropertyValue("c1/p1"));
+    Assert.assertEquals(99, resource.getPropertyValue("c1/p99"));
+    Assert.assertEquals("foo", resource.getPropertyValue("c2/p1"));
+    Assert.assertEquals(expected, resource);
+    Assert.assertEquals(expected.hashCode(), resource.hashCode());
+    Assert.assertEquals(expected.getPropertiesMap(), resource.getPropertiesMap());
+
+    // set a removed property again
+    resource.setProperty("c1/p1", 1);
+    expected.setProperty("c1/p1", 1);
+    Assert.assertEquals(1, resource.getPropertyValue("c1/p1"));
+    Assert.assertEquals(expected, resource);
+    Assert.assertEquals(new ResourceImpl(expected), new ResourceImpl(resource));
+
+    resource.getPropertiesMap().get("c1").clear();
+    Assert.assertTrue(resource.getPropertiesMap().get("c1").isEmpty());
+    Assert.assertEquals("foo", resource.getPropertyValue("c2/p1"));
+  }
+
+  @Test
+  public void testCategoryViews() {
+    Resource resource = new ResourceImpl(Resource.Type.Cluster);
+
+    resource.setProperty("c1/c2/p2", 3);
+    resource.setProperty("c1/p2", 2);
+    resource.setProperty("p0", 0);
+    resource.setProperty("c1/p1", 1);
+    resource.setProperty("c10/p1", 4);
+    resource.addCategory("c0");
+
+    Map<String, Map<String, Object>> map = resource.getPropertiesMap();
+    Assert.assertEquals(Arrays.asList("", "c0", "c1", "c1/c2", "c10"), new ArrayList<>(map.keySet()));
+    Assert.assertEquals(Arrays.asList("p1", "p2"), new ArrayList<>(map.get("c1").keySet()));
+    Assert.assertEquals(Collections.singletonMap("p2", 3), map.get("c1/c2"));
+    Assert.assertEquals(Collections.singletonMap("p0", 0), map.get(""));
+    Assert.assertTrue(map.get("c0").isEmpty());
+    Assert.assertNull(map.get("c"));
+
+    map.remove("c1");
+    Assert.assertEquals(Arrays.asList("", "c0", "c1/c2", "c10"), new ArrayList<>(map.keySet()));
+    Assert.assertEquals(3, resource.getPropertyValue("c1/c2/p2"));
+
+    map.clear();
+    Assert.assertTrue(resource.getPropertiesMap().isEmpty());
+  }
+
+  @Test
+  public void testPropertiesBeyondFullSchema() {
+    Resource.Type type = new Resource.Type("ResourceImplTestFullSchema");
+    ResourceSchema schema = ResourceSchema.forType(type);
+
+    Resource resource = new ResourceImpl(type);
+    for (int i = 0; i < ResourceSchema.MAX_SLOTS + 10; i++) {
+      resource.setProperty("c" + (i % 7) + "/p" + i, i);
+    }
+    Assert.assertTrue(schema.isFull());
+
+    for (int i = 0; i < ResourceSchema.MAX_SLOTS + 10; i++) {
+      Assert.assertEquals(i, resource.getPropertyValue("c" + (i % 7) + "/p" + i));
+    }
+    Assert.assertNull(resource.getPropertyValue("c1/unknown"));
+
+    Resource copy = new ResourceImpl(resource);
+    Assert.assertEquals(resource, copy);
+    Assert.assertEquals(resource.hashCode(), copy.hashCode());
+
+    int last = ResourceSchema.MAX_SLOTS + 9;
+    Assert.assertEquals(last, copy.getPropertiesMap().get("c" + (last % 7)).remove("p" + last));
+    Assert.assertNull(copy.getPropertyValue("c" + (last % 7) + "/p" + last));
+    Assert.assertFalse(resource.equals(copy));
+  }
+}
@@ -284,6 +284,22 @@ public class TaskResourceProviderTest {
     verify(managementController);
   }
 
+  @Test
+  public void testGetOutputRange() {
+    String output = "0123456789";
+
+    assertEquals(output, TaskResourceProvider.getOutputRange(output, 0L, Long.MAX_VALUE));
+    assertEquals("3456789", TaskResourceProvider.getOutputRange(output, 3L, Long.MAX_VALUE));
+    assertEquals("345", TaskResourceProvider.getOutputRange(output, 3L, 3L));
+    assertEquals("789", TaskResourceProvider.getOutputRange(output, -3L, Long.MAX_VALUE));
+    assertEquals(output, TaskResourceProvider.getOutputRange(output, -20L, Long.MAX_VALUE));
+
+    // following the tail returns nothing until more output is appended
+    assertEquals("", TaskResourceProvider.getOutputRange(output, 10L, Long.MAX_VALUE));
+    assertEquals("", TaskResourceProvider.getOutputRange(output, 15L, 5L));
+    assertEquals("ab", TaskResourceProvider.getOutputRange(output + "ab", 10L, Long.MAX_VALUE));
+  }
+
   @Test
   public void testParseStructuredOutput() {
     Resource.Type type = Resource.Type.Task;
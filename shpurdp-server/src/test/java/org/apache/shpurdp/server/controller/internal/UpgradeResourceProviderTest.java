@@ -1976,7 +1976,7 @@ public class UpgradeResourceProviderTest extends EasyMockSupport {
         ExecutionCommandDAO dao = injector.getInstance(ExecutionCommandDAO.class);
         ExecutionCommandEntity entity = dao.findByPK(command.getTaskId());
         ExecutionCommandWrapperFactory factory = injector.getInstance(ExecutionCommandWrapperFactory.class);
-        ExecutionCommandWrapper wrapper = factory.createFromJson(new String(entity.getCommand()));
+        ExecutionCommandWrapper wrapper = factory.createFromJson(dao.toJson(command.getRequestId(), entity.getCommand()));
         Map<String, String> params = wrapper.getExecutionCommand().getCommandParams();
         assertTrue(params.containsKey(ConfigureTask.PARAMETER_ASSOCIATED_SERVICE));
         assertEquals("ZOOKEEPER", params.get(ConfigureTask.PARAMETER_ASSOCIATED_SERVICE));
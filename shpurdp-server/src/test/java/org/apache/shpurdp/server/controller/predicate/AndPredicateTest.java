@@ -20,6 +20,7 @@ package org.apache.shpurdp.server.controller.predicate;
 import java.util.Set;
 
 import org.apache.shpurdp.server.controller.internal.ResourceImpl;
+import org.apache.shpurdp.server.controller.spi.Predicate;
 import org.apache.shpurdp.server.controller.spi.Resource;
 import org.apache.shpurdp.server.controller.utilities.PropertyHelper;
 import org.junit.Test;
@@ -73,4 +74,24 @@ public class AndPredicateTest {
     Assert.assertTrue(ids.contains(propertyId3));
   }
 
+  @Test
+  public void testEvaluationOrder() {
+    String propertyId1 = PropertyHelper.getPropertyId("category1", "property1");
+    String propertyId2 = PropertyHelper.getPropertyId("category1", "property2");
+    String propertyId3 = PropertyHelper.getPropertyId("category1", "property3");
+
+    FilterPredicate predicate1 = new FilterPredicate(propertyId1, "v.*");
+    OrPredicate predicate2 = new OrPredicate(new EqualsPredicate<>(propertyId2, "v2"),
+        new EqualsPredicate<>(propertyId2, "v3"));
+    EqualsPredicate predicate3 = new EqualsPredicate<>(propertyId3, "v3");
+
+    AndPredicate andPredicate = new AndPredicate(predicate1, predicate2, predicate3);
+
+    // the declared order is kept, the cheapest predicates are evaluated first
+    Assert.assertSame(predicate1, andPredicate.getPredicates()[0]);
+    Predicate[] evaluationOrder = andPredicate.getEvaluationOrder();
+    Assert.assertSame(predicate3, evaluationOrder[0]);
+    Assert.assertSame(predicate2, evaluationOrder[1]);
+    Assert.assertSame(predicate1, evaluationOrder[2]);
+  }
 }
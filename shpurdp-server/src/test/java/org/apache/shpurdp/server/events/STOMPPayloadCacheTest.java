@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.shpurdp.server.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.apache.shpurdp.server.configuration.Configuration;
+import org.junit.Test;
+
+public class STOMPPayloadCacheTest {
+
+  @Test
+  public void testPayloadIsSerializedOnce() {
+    STOMPPayloadCache payloadCache = new STOMPPayloadCache(new Configuration(new Properties()));
+
+    TopologyUpdateEvent event1 = new TopologyUpdateEvent(new TreeMap<>(), UpdateEventType.CREATE);
+    TopologyUpdateEvent event2 = new TopologyUpdateEvent(new TreeMap<>(), UpdateEventType.UPDATE);
+
+    byte[] payload1 = payloadCache.getPayload(event1);
+    byte[] payload2 = payloadCache.getPayload(event1);
+    byte[] payload3 = payloadCache.getPayload(event2);
+
+    assertSame(payload1, payload2);
+    assertEquals(1, payloadCache.getHits());
+    assertEquals(2, payloadCache.getMisses());
+    assertEquals(payload1.length, payloadCache.getSavedBytes());
+    assertNotSame(payload1, payload3);
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.events.listeners.alerts;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.newCapture;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.shpurdp.server.configuration.Configuration;
+import org.apache.shpurdp.server.events.publishers.AlertEventPublisher;
+import org.apache.shpurdp.server.events.publishers.STOMPUpdatePublisher;
+import org.apache.shpurdp.server.orm.dao.AlertsDAO;
+import org.apache.shpurdp.server.orm.entities.AlertCurrentEntity;
+import org.apache.shpurdp.server.orm.entities.AlertDefinitionEntity;
+import org.apache.shpurdp.server.orm.entities.AlertHistoryEntity;
+import org.apache.shpurdp.server.state.AlertState;
+import org.easymock.Capture;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Tests {@link AlertWriteBatcher}.
+ */
+public class AlertWriteBatcherTest {
+
+  @Test
+  public void testStateChangesAreWrittenInSingleBatch() {
+    Properties properties = new Properties();
+    properties.setProperty(Configuration.ALERTS_WRITE_BATCH_WINDOW.getKey(), "60000");
+    Configuration configuration = new Configuration(properties);
+    AlertsDAO alertsDao = createMock(AlertsDAO.class);
+
+    Injector injector = Guice.createInjector(binder -> {
+      binder.bind(Configuration.class).toInstance(configuration);
+      binder.bind(AlertsDAO.class).toInstance(alertsDao);
+      binder.bind(AlertEventPublisher.class).toInstance(new AlertEventPublisher(configuration));
+      binder.bind(STOMPUpdatePublisher.class).toInstance(createNiceMock(STOMPUpdatePublisher.class));
+    });
+    AlertWriteBatcher batcher = injector.getInstance(AlertWriteBatcher.class);
+
+    AlertDefinitionEntity definition = new AlertDefinitionEntity();
+    definition.setDefinitionName("datanode_process");
+    AlertCurrentEntity current = new AlertCurrentEntity();
+    AlertHistoryEntity criticalHistory = createHistory(definition, AlertState.CRITICAL);
+    AlertHistoryEntity okHistory = createHistory(definition, AlertState.OK);
+    AlertCurrentEntity other = new AlertCurrentEntity();
+    other.setAlertHistory(createHistory(definition, AlertState.OK));
+    other.getAlertHistory().setHostName("host2");
+
+    Capture<List<AlertHistoryEntity>> histories = newCapture();
+    Capture<Collection<AlertCurrentEntity>> toMerge = newCapture();
+    Capture<Collection<AlertCurrentEntity>> toUpdate = newCapture();
+    alertsDao.saveEntities(capture(histories), capture(toMerge), capture(toUpdate));
+    expectLastCall().once();
+    replay(alertsDao);
+
+    current.setAlertHistory(criticalHistory);
+    batcher.submit(Collections.emptyList(), Collections.singletonList(current), Collections.emptyList(), null);
+    batcher.submit(Collections.singletonList(other), Collections.emptyList(), Collections.emptyList(), null);
+    current.setAlertHistory(okHistory);
+    batcher.submit(Collections.emptyList(), Collections.singletonList(current), Collections.emptyList(), null);
+
+    assertPendingCopy(current, batcher.getPendingAlert(1L, "datanode_process", "host1"));
+    assertPendingCopy(other, batcher.getPendingAlert(1L, "datanode_process", "host2"));
+
+    // changes of the copies are not written
+    batcher.getPendingAlert(1L, "datanode_process", "host1").setOccurrences(100L);
+
+    batcher.write();
+    verify(alertsDao);
+
+    assertEquals(2, histories.getValue().size());
+    assertSame(criticalHistory, histories.getValue().get(0));
+    assertSame(okHistory, histories.getValue().get(1));
+    assertEquals(Collections.singletonList(current), toMerge.getValue());
+    assertEquals(Collections.singletonList(other), toUpdate.getValue());
+    assertEquals(1L, (long) toMerge.getValue().iterator().next().getOccurrences());
+    assertNull(batcher.getPendingAlert(1L, "datanode_process", "host1"));
+    assertEquals(3, batcher.getSubmittedEvents());
+    assertEquals(1, batcher.getWrittenBatches());
+  }
+
+  @Test
+  public void testFailedBatchIsWrittenAgain() {
+    Properties properties = new Properties();
+    properties.setProperty(Configuration.ALERTS_WRITE_BATCH_WINDOW.getKey(), "60000");
+    Configuration configuration = new Configuration(properties);
+    AlertsDAO alertsDao = createMock(AlertsDAO.class);
+
+    Injector injector = Guice.createInjector(binder -> {
+      binder.bind(Configuration.class).toInstance(configuration);
+      binder.bind(AlertsDAO.class).toInstance(alertsDao);
+      binder.bind(AlertEventPublisher.class).toInstance(new AlertEventPublisher(configuration));
+      binder.bind(STOMPUpdatePublisher.class).toInstance(createNiceMock(STOMPUpdatePublisher.class));
+    });
+    AlertWriteBatcher batcher = injector.getInstance(AlertWriteBatcher.class);
+
+    AlertDefinitionEntity definition = new AlertDefinitionEntity();
+    definition.setDefinitionName("datanode_process");
+    AlertCurrentEntity current = new AlertCurrentEntity();
+    AlertHistoryEntity criticalHistory = createHistory(definition, AlertState.CRITICAL);
+    AlertCurrentEntity other = new AlertCurrentEntity();
+    other.setAlertHistory(createHistory(definition, AlertState.OK));
+    other.getAlertHistory().setHostName("host2");
+
+    Capture<List<AlertHistoryEntity>> histories = newCapture();
+    Capture<Collection<AlertCurrentEntity>> toMerge = newCapture();
+    Capture<Collection<AlertCurrentEntity>> toUpdate = newCapture();
+    alertsDao.saveEntities(anyObject(), anyObject(), anyObject());
+    expectLastCall().andThrow(new RuntimeException("rollback")).once();
+    alertsDao.saveEntities(capture(histories), capture(toMerge), capture(toUpdate));
+    expectLastCall().once();
+    replay(alertsDao);
+
+    current.setAlertHistory(criticalHistory);
+    batcher.submit(Collections.emptyList(), Collections.singletonList(current), Collections.emptyList(), null);
+    try {
+      batcher.write();
+      fail("Write should fail");
+    } catch (RuntimeException e) {
+      // expected
+    }
+    assertPendingCopy(current, batcher.getPendingAlert(1L, "datanode_process", "host1"));
+    assertNull(criticalHistory.getAlertId());
+
+    batcher.submit(Collections.singletonList(other), Collections.emptyList(), Collections.emptyList(), null);
+    batcher.write();
+    verify(alertsDao);
+
+    assertEquals(Collections.singletonList(criticalHistory), histories.getValue());
+    assertEquals(Collections.singletonList(current), toMerge.getValue());
+    assertEquals(Collections.singletonList(other), toUpdate.getValue());
+    assertNull(batcher.getPendingAlert(1L, "datanode_process", "host1"));
+    assertEquals(1, batcher.getWrittenBatches());
+  }
+
+  private void assertPendingCopy(AlertCurrentEntity submitted, AlertCurrentEntity pending) {
+    assertNotSame(submitted, pending);
+    assertSame(submitted.getAlertHistory(), pending.getAlertHistory());
+    assertEquals(submitted.getOccurrences(), pending.getOccurrences());
+  }
+
+  private AlertHistoryEntity createHistory(AlertDefinitionEntity definition, AlertState state) {
+    AlertHistoryEntity history = new AlertHistoryEntity();
+    history.setAlertDefinition(definition);
+    history.setClusterId(1L);
+    history.setHostName("host1");
+    history.setAlertState(state);
+    return history;
+  }
+}
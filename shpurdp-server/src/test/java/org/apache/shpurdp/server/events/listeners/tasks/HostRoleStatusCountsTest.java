@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.shpurdp.server.events.listeners.tasks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.shpurdp.server.actionmanager.HostRoleStatus;
+import org.apache.shpurdp.server.controller.internal.CalculatedStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link HostRoleStatusCounts}.
+ */
+public class HostRoleStatusCountsTest {
+
+  @Test
+  public void testCountersMatchCalculatedStatus() {
+    HostRoleStatusCounts counts = new HostRoleStatusCounts();
+    counts.add(HostRoleStatus.PENDING);
+    counts.add(HostRoleStatus.PENDING);
+    counts.add(HostRoleStatus.QUEUED);
+    counts.add(HostRoleStatus.FAILED);
+
+    counts.move(HostRoleStatus.PENDING, HostRoleStatus.SKIPPED_FAILED);
+    counts.move(HostRoleStatus.QUEUED, HostRoleStatus.IN_PROGRESS);
+    counts.add(HostRoleStatus.COMPLETED);
+    counts.remove(HostRoleStatus.FAILED);
+
+    List<HostRoleStatus> statuses = Arrays.asList(HostRoleStatus.PENDING, HostRoleStatus.SKIPPED_FAILED,
+        HostRoleStatus.IN_PROGRESS, HostRoleStatus.COMPLETED);
+
+    Assert.assertEquals(4, counts.getTotal());
+    Assert.assertEquals(1, counts.get(HostRoleStatus.SKIPPED_FAILED));
+    Assert.assertFalse(counts.isAllCompleted());
+    Assert.assertEquals(CalculatedStatus.calculateStatusCounts(statuses), counts.toStatusCounters());
+
+    counts.move(HostRoleStatus.PENDING, HostRoleStatus.ABORTED);
+    counts.move(HostRoleStatus.IN_PROGRESS, HostRoleStatus.COMPLETED);
+    Assert.assertTrue(counts.isAllCompleted());
+  }
+}
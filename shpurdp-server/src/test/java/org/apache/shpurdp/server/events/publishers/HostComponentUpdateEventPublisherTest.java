@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.events.publishers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.shpurdp.server.events.HostComponentUpdate;
+import org.apache.shpurdp.server.events.HostComponentsUpdateEvent;
+import org.apache.shpurdp.server.state.MaintenanceState;
+import org.junit.Test;
+
+public class HostComponentUpdateEventPublisherTest {
+
+  @Test
+  public void testUpdatesAreMergedPerHostComponent() {
+    HostComponentsUpdateEvent event1 = new HostComponentsUpdateEvent(Arrays.asList(
+        HostComponentUpdate.createHostComponentMaintenanceStatusUpdate(1L, "HDFS", "host1", "DATANODE",
+            MaintenanceState.ON),
+        HostComponentUpdate.createHostComponentMaintenanceStatusUpdate(1L, "HDFS", "host2", "DATANODE",
+            MaintenanceState.ON)));
+    HostComponentsUpdateEvent event2 = new HostComponentsUpdateEvent(Collections.singletonList(
+        HostComponentUpdate.createHostComponentStaleConfigsStatusUpdate(1L, "HDFS", "host1", "DATANODE", true)));
+    HostComponentsUpdateEvent event3 = new HostComponentsUpdateEvent(Collections.singletonList(
+        HostComponentUpdate.createHostComponentMaintenanceStatusUpdate(1L, "HDFS", "host1", "DATANODE",
+            MaintenanceState.OFF)));
+
+    List<HostComponentUpdate> merged = HostComponentUpdateEventPublisher.mergeHostComponentUpdates(
+        Arrays.asList(event1, event2, event3));
+
+    assertEquals(2, merged.size());
+    assertEquals("host1", merged.get(0).getHostName());
+    assertEquals(MaintenanceState.OFF, merged.get(0).getMaintenanceState());
+    assertEquals(Boolean.TRUE, merged.get(0).getStaleConfigs());
+    assertEquals("host2", merged.get(1).getHostName());
+    assertEquals(MaintenanceState.ON, merged.get(1).getMaintenanceState());
+  }
+}
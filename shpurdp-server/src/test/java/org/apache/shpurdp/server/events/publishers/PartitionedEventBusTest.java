@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.events.publishers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * PartitionedEventBus tests.
+ */
+public class PartitionedEventBusTest {
+
+  @Test
+  public void testEventsAreOrderedPerKey() throws Exception {
+    int keys = 10;
+    int eventsPerKey = 100;
+    PartitionedEventBus eventBus = new PartitionedEventBus("test-bus", 4, event -> ((KeyedEvent) event).key);
+    Listener listener = new Listener(keys * eventsPerKey);
+    eventBus.register(listener);
+
+    for (int i = 0; i < eventsPerKey; i++) {
+      for (int key = 0; key < keys; key++) {
+        eventBus.post(new KeyedEvent(key, i));
+      }
+    }
+
+    assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+    for (int key = 0; key < keys; key++) {
+      List<Integer> sequence = listener.received.get(key);
+      assertEquals(eventsPerKey, sequence.size());
+      for (int i = 0; i < eventsPerKey; i++) {
+        assertEquals(Integer.valueOf(i), sequence.get(i));
+      }
+    }
+
+    for (PartitionedEventBus.Partition partition : eventBus.getPartitions()) {
+      assertEquals(0, partition.getQueueDepth());
+    }
+  }
+
+  @Test
+  public void testEventsForAllPartitionsAreOrderedAgainstAllKeys() throws Exception {
+    // a partition per key, so only the first key is blocked
+    int keys = 4;
+    PartitionedEventBus eventBus = new PartitionedEventBus("test-bus", 4,
+        event -> event instanceof KeyedEvent ? ((KeyedEvent) event).key : PartitionedEventBus.ALL_PARTITIONS);
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch blockingLatch = new CountDownLatch(1);
+    CountDownLatch unblockedLatch = new CountDownLatch(keys - 1);
+    CountDownLatch latch = new CountDownLatch(2 * keys + 1);
+    eventBus.register(new Object() {
+      @Subscribe
+      @AllowConcurrentEvents
+      public void onEvent(KeyedEvent event) throws InterruptedException {
+        if (event.key == 0 && event.sequence == 0) {
+          blockingLatch.await(10, TimeUnit.SECONDS);
+        }
+        received.add(event.key + "-" + event.sequence);
+        if (event.key != 0 && event.sequence == 0) {
+          unblockedLatch.countDown();
+        }
+        latch.countDown();
+      }
+
+      @Subscribe
+      @AllowConcurrentEvents
+      public void onEvent(String event) {
+        received.add(event);
+        latch.countDown();
+      }
+    });
+
+    for (int key = 0; key < keys; key++) {
+      eventBus.post(new KeyedEvent(key, 0));
+    }
+    eventBus.post("all");
+    for (int key = 0; key < keys; key++) {
+      eventBus.post(new KeyedEvent(key, 1));
+    }
+
+    // events queued after the event for all partitions wait for the blocked key
+    assertTrue(unblockedLatch.await(10, TimeUnit.SECONDS));
+    assertEquals(keys - 1, received.size());
+    blockingLatch.countDown();
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    int allIndex = received.indexOf("all");
+    for (int key = 0; key < keys; key++) {
+      assertTrue(received.indexOf(key + "-0") < allIndex);
+      assertTrue(received.indexOf(key + "-1") > allIndex);
+    }
+  }
+
+  @Test
+  public void testConcurrentEventsForAllPartitionsAreDelivered() throws Exception {
+    int threads = 4;
+    int eventsPerThread = 100;
+    PartitionedEventBus eventBus = new PartitionedEventBus("test-bus", 4,
+        event -> event instanceof KeyedEvent ? ((KeyedEvent) event).key : PartitionedEventBus.ALL_PARTITIONS);
+    Listener listener = new Listener(threads * eventsPerThread);
+    eventBus.register(listener);
+
+    List<Thread> posters = new ArrayList<>();
+    for (int thread = 0; thread < threads; thread++) {
+      int key = thread;
+      posters.add(new Thread(() -> {
+        for (int i = 0; i < eventsPerThread; i++) {
+          eventBus.post(i % 2 == 0 ? new KeyedEvent(key, i) : new AllPartitionsEvent(key, i));
+        }
+      }));
+    }
+    posters.forEach(Thread::start);
+    for (Thread poster : posters) {
+      poster.join();
+    }
+
+    assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+    for (int key = 0; key < threads; key++) {
+      List<Integer> sequence = listener.received.get(key);
+      assertEquals(eventsPerThread, sequence.size());
+      for (int i = 0; i < eventsPerThread; i++) {
+        assertEquals(Integer.valueOf(i), sequence.get(i));
+      }
+    }
+  }
+
+  private static class KeyedEvent {
+    private final int key;
+    private final int sequence;
+
+    private KeyedEvent(int key, int sequence) {
+      this.key = key;
+      this.sequence = sequence;
+    }
+  }
+
+  private static class AllPartitionsEvent {
+    private final int key;
+    private final int sequence;
+
+    private AllPartitionsEvent(int key, int sequence) {
+      this.key = key;
+      this.sequence = sequence;
+    }
+  }
+
+  public static class Listener {
+    private final Map<Integer, List<Integer>> received = new ConcurrentHashMap<>();
+    private final CountDownLatch latch;
+
+    private Listener(int expectedEvents) {
+      latch = new CountDownLatch(expectedEvents);
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    public void onEvent(KeyedEvent event) {
+      received.computeIfAbsent(event.key, k -> new ArrayList<>()).add(event.sequence);
+      latch.countDown();
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    public void onEvent(AllPartitionsEvent event) {
+      received.computeIfAbsent(event.key, k -> new ArrayList<>()).add(event.sequence);
+      latch.countDown();
+    }
+  }
+}
@@ -124,6 +124,16 @@ public class InMemoryDefaultTestModule extends AbstractModule {
       properties.setProperty(Configuration.RESOURCES_DIR.getKey(), resourcesDir);
     }
 
+    // alert state changes are written synchronously, so tests can verify them right after the alert event
+    if (!properties.containsKey(Configuration.ALERTS_WRITE_BATCH_WINDOW.getKey())) {
+      properties.setProperty(Configuration.ALERTS_WRITE_BATCH_WINDOW.getKey(), "0");
+    }
+
+    // command reports are written synchronously, so tests can verify task states right after the report
+    if (!properties.containsKey(Configuration.AGENTS_COMMAND_REPORTS_BATCH_WINDOW.getKey())) {
+      properties.setProperty(Configuration.AGENTS_COMMAND_REPORTS_BATCH_WINDOW.getKey(), "0");
+    }
+
     try {
       install(new LdapModule());
       install(Modules.override(new BeanDefinitionsCachingTestControllerModule(properties)).with(new AbstractModule() {
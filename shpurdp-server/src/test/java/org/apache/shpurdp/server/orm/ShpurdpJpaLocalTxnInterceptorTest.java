@@ -22,14 +22,19 @@ import static org.easymock.EasyMock.expect;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
 
+import org.aopalliance.intercept.MethodInvocation;
 import org.easymock.EasyMockSupport;
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.google.inject.persist.Transactional;
+import com.google.inject.persist.jpa.ShpurdpJpaPersistService;
 
 public class ShpurdpJpaLocalTxnInterceptorTest extends EasyMockSupport {
 
@@ -151,6 +156,78 @@ public class ShpurdpJpaLocalTxnInterceptorTest extends EasyMockSupport {
     verifyAll();
   }
 
+  @Test
+  public void rollbackActionsAreKeptOnlyWhileTransactionIsRunning() throws Throwable {
+    AtomicInteger rollbacks = new AtomicInteger();
+    Runnable action = rollbacks::incrementAndGet;
+
+    // nothing is kept for a thread not running a transaction
+    ShpurdpJpaLocalTxnInterceptor.addRollbackAction(action);
+    Assert.assertNull(getRollbackActions());
+
+    ShpurdpJpaPersistService persistService = createNiceMock(ShpurdpJpaPersistService.class);
+    EntityManager entityManager = createNiceMock(EntityManager.class);
+    EntityTransaction transaction = createNiceMock(EntityTransaction.class);
+    MethodInvocation invocation = createNiceMock(MethodInvocation.class);
+    expect(persistService.isWorking()).andReturn(true).anyTimes();
+    expect(persistService.get()).andReturn(entityManager).anyTimes();
+    expect(entityManager.getTransaction()).andReturn(transaction).anyTimes();
+    expect(transaction.isActive()).andReturn(false).anyTimes();
+    expect(invocation.getMethod()).andReturn(TransactionalService.class.getMethod("run")).anyTimes();
+    expect(invocation.getThis()).andReturn(new TransactionalService()).anyTimes();
+    expect(invocation.proceed()).andAnswer(() -> {
+      ShpurdpJpaLocalTxnInterceptor.addRollbackAction(action);
+      ShpurdpJpaLocalTxnInterceptor.addRollbackAction(action);
+      throw new IllegalStateException("rolling back");
+    });
+    expect(invocation.proceed()).andAnswer(() -> {
+      ShpurdpJpaLocalTxnInterceptor.addRollbackAction(action);
+      return null;
+    });
+    transaction.rollback();
+    transaction.commit();
+
+    replayAll();
+
+    ShpurdpJpaLocalTxnInterceptor interceptor = new ShpurdpJpaLocalTxnInterceptor();
+    setField(interceptor, "emProvider", persistService);
+
+    // the action registered twice is run once on rollback
+    try {
+      interceptor.invoke(invocation);
+      Assert.fail("Exception of the rolled back transaction should be propagated");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    Assert.assertEquals(1, rollbacks.get());
+    Assert.assertNull(getRollbackActions());
+
+    // the action is discarded on commit
+    interceptor.invoke(invocation);
+    Assert.assertEquals(1, rollbacks.get());
+    Assert.assertNull(getRollbackActions());
+
+    verifyAll();
+  }
+
+  private static Object getRollbackActions() throws Exception {
+    Field field = ShpurdpJpaLocalTxnInterceptor.class.getDeclaredField("s_rollbackActions");
+    field.setAccessible(true);
+    return ((ThreadLocal<?>) field.get(null)).get();
+  }
+
+  private static void setField(Object target, String name, Object value) throws Exception {
+    Field field = target.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+
+  public static class TransactionalService {
+    @Transactional
+    public void run() {
+    }
+  }
+
   @SafeVarargs
   private static Class<? extends Exception>[] asArray(Class<? extends Exception>... exceptions) {
     return exceptions;
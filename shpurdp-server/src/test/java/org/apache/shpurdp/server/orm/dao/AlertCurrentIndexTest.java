@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.orm.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.shpurdp.server.orm.entities.AlertCurrentEntity;
+import org.apache.shpurdp.server.orm.entities.AlertDefinitionEntity;
+import org.apache.shpurdp.server.orm.entities.AlertHistoryEntity;
+import org.apache.shpurdp.server.state.AlertState;
+import org.apache.shpurdp.server.state.MaintenanceState;
+import org.junit.Test;
+
+/**
+ * Tests {@link AlertCurrentIndex}.
+ */
+public class AlertCurrentIndexTest {
+
+  private static final long CLUSTER_ID = 1L;
+
+  @Test
+  public void testCountsAreUpdatedOnChanges() {
+    AlertCurrentIndex index = new AlertCurrentIndex();
+
+    AlertCurrentEntity hdfsOnH1 = createAlert(1L, "hdfs_alert", "HDFS", "h1", AlertState.OK);
+    AlertCurrentEntity hdfsOnH2 = createAlert(1L, "hdfs_alert", "HDFS", "h2", AlertState.CRITICAL);
+    AlertCurrentEntity yarnOnH1 = createAlert(2L, "yarn_alert", "YARN", "h1", AlertState.WARNING);
+    AlertCurrentEntity clusterAlert = createAlert(3L, "cluster_alert", "SHPURDP", null, AlertState.UNKNOWN);
+
+    index.put(hdfsOnH1);
+    index.load(CLUSTER_ID, Collections.singletonList(hdfsOnH2));
+    index.put(yarnOnH1);
+    index.put(clusterAlert);
+    assertTrue(index.isLoaded(CLUSTER_ID));
+
+    assertEquals(new AlertSummaryDTO(1, 1, 1, 1, 0), index.getCounts(CLUSTER_ID, null, null));
+    assertEquals(new AlertSummaryDTO(1, 0, 1, 0, 0), index.getCounts(CLUSTER_ID, "HDFS", null));
+    assertEquals(new AlertSummaryDTO(1, 1, 0, 0, 0), index.getCounts(CLUSTER_ID, null, "h1"));
+    assertEquals(new AlertSummaryDTO(0, 0, 1, 0, 0), index.getCounts(CLUSTER_ID, "HDFS", "h2"));
+    assertEquals(new AlertSummaryDTO(0, 0, 0, 0, 0), index.getCounts(CLUSTER_ID, "foo", null));
+    assertEquals(new AlertSummaryDTO(1, 0, 1, 0, 0), index.getAggregateCounts(CLUSTER_ID, "hdfs_alert"));
+
+    AlertHostSummaryDTO hostSummary = index.getHostCounts(CLUSTER_ID);
+    assertEquals(0, hostSummary.getOkCount());
+    assertEquals(1, hostSummary.getWarningCount());
+    assertEquals(1, hostSummary.getCriticalCount());
+    assertEquals(0, hostSummary.getUnknownCount());
+
+    // a state change of the history is applied to the current alert
+    hdfsOnH2.getAlertHistory().setAlertState(AlertState.OK);
+    index.update(hdfsOnH2.getAlertHistory());
+
+    // maintenance is counted instead of the state
+    yarnOnH1.setMaintenanceState(MaintenanceState.ON);
+    index.put(yarnOnH1);
+
+    assertEquals(new AlertSummaryDTO(2, 0, 0, 1, 1), index.getCounts(CLUSTER_ID, null, null));
+
+    Map<String, AlertSummaryDTO> perHostCounts = index.getPerHostCounts(CLUSTER_ID);
+    assertEquals(3, perHostCounts.size());
+    assertEquals(new AlertSummaryDTO(1, 0, 0, 0, 1), perHostCounts.get("h1"));
+    assertEquals(new AlertSummaryDTO(1, 0, 0, 0, 0), perHostCounts.get("h2"));
+    assertEquals(new AlertSummaryDTO(0, 0, 0, 1, 0), perHostCounts.get(null));
+
+    index.remove(hdfsOnH2);
+    assertEquals(new AlertSummaryDTO(1, 0, 0, 1, 1), index.getCounts(CLUSTER_ID, null, null));
+    assertNull(index.getPerHostCounts(CLUSTER_ID).get("h2"));
+    assertEquals(3, index.getAlerts(CLUSTER_ID).size());
+
+    index.invalidate();
+    assertFalse(index.isLoaded(CLUSTER_ID));
+  }
+
+  @Test
+  public void testInvalidationWhileLoadingDoesNotEmptySummaries() {
+    AlertCurrentEntity hdfsOnH1 = createAlert(1L, "hdfs_alert", "HDFS", "h1", AlertState.CRITICAL);
+    AlertCurrentEntity yarnOnH1 = createAlert(2L, "yarn_alert", "YARN", "h1", AlertState.WARNING);
+    AtomicReference<AlertCurrentIndex> indexReference = new AtomicReference<>();
+    AtomicInteger loads = new AtomicInteger();
+
+    // a bulk removal invalidates the index while the alerts are being read
+    AlertCurrentIndex index = new AlertCurrentIndex(clusterId -> {
+      loads.incrementAndGet();
+      indexReference.get().invalidate();
+      return Arrays.asList(hdfsOnH1, yarnOnH1);
+    });
+    indexReference.set(index);
+
+    assertEquals(new AlertSummaryDTO(0, 1, 1, 0, 0), index.getCounts(CLUSTER_ID, null, null));
+    assertEquals(1, loads.get());
+    assertFalse(index.isLoaded(CLUSTER_ID));
+
+    assertEquals(new AlertSummaryDTO(0, 0, 1, 0, 0), index.getAggregateCounts(CLUSTER_ID, "hdfs_alert"));
+    assertEquals(2, loads.get());
+
+    // once loaded the alerts are not read again
+    AlertCurrentIndex loadedIndex = new AlertCurrentIndex(clusterId -> {
+      loads.incrementAndGet();
+      return Arrays.asList(hdfsOnH1, yarnOnH1);
+    });
+    assertEquals(2, loadedIndex.getAlerts(CLUSTER_ID).size());
+    assertEquals(1, loadedIndex.getHostCounts(CLUSTER_ID).getCriticalCount());
+    assertTrue(loadedIndex.isLoaded(CLUSTER_ID));
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void testNamesOfRemovedAlertsAreReleased() {
+    AlertCurrentIndex index = new AlertCurrentIndex();
+    AlertCurrentEntity hdfsOnH1 = createAlert(1L, "hdfs_alert", "HDFS", "h1", AlertState.OK);
+    AlertCurrentEntity hdfsOnH2 = createAlert(1L, "hdfs_alert", "HDFS", "h2", AlertState.CRITICAL);
+    index.load(CLUSTER_ID, Arrays.asList(hdfsOnH1, hdfsOnH2));
+    assertEquals(4, index.getNameCount(CLUSTER_ID));
+
+    // the removed host is not known anymore
+    index.remove(hdfsOnH2);
+    assertEquals(3, index.getNameCount(CLUSTER_ID));
+    assertEquals(new AlertSummaryDTO(0, 0, 0, 0, 0), index.getCounts(CLUSTER_ID, null, "h2"));
+
+    // the released symbol is reused by a new host
+    AlertCurrentEntity yarnOnH3 = createAlert(2L, "yarn_alert", "YARN", "h3", AlertState.WARNING);
+    index.put(yarnOnH3);
+    assertEquals(6, index.getNameCount(CLUSTER_ID));
+    assertEquals(new AlertSummaryDTO(0, 1, 0, 0, 0), index.getCounts(CLUSTER_ID, null, "h3"));
+    assertEquals(new AlertSummaryDTO(0, 0, 0, 0, 0), index.getCounts(CLUSTER_ID, null, "h2"));
+    Map<String, AlertSummaryDTO> perHostCounts = index.getPerHostCounts(CLUSTER_ID);
+    assertEquals(2, perHostCounts.size());
+    assertEquals(new AlertSummaryDTO(1, 0, 0, 0, 0), perHostCounts.get("h1"));
+    assertEquals(new AlertSummaryDTO(0, 1, 0, 0, 0), perHostCounts.get("h3"));
+
+    // the alert moved to another host releases the previous host
+    hdfsOnH1.getAlertHistory().setHostName("h4");
+    index.update(hdfsOnH1.getAlertHistory());
+    assertEquals(6, index.getNameCount(CLUSTER_ID));
+    assertEquals(new AlertSummaryDTO(0, 0, 0, 0, 0), index.getCounts(CLUSTER_ID, null, "h1"));
+    assertEquals(new AlertSummaryDTO(1, 0, 0, 0, 0), index.getCounts(CLUSTER_ID, "HDFS", "h4"));
+
+    // snapshots keep their names once the symbols are released
+    List<AlertCurrentIndex.IndexedAlert> alerts = index.getAlerts(CLUSTER_ID);
+    index.remove(hdfsOnH1);
+    index.remove(yarnOnH3);
+    assertEquals(0, index.getNameCount(CLUSTER_ID));
+    assertEquals(new AlertSummaryDTO(0, 0, 0, 0, 0), index.getAggregateCounts(CLUSTER_ID, "hdfs_alert"));
+    assertEquals(2, alerts.size());
+    for (AlertCurrentIndex.IndexedAlert alert : alerts) {
+      assertEquals(alert.getDefinitionId() == 1L ? "h4" : "h3", alert.getHostName());
+      assertEquals(alert.getDefinitionId() == 1L ? "HDFS" : "YARN", alert.getServiceName());
+    }
+  }
+
+  private AlertCurrentEntity createAlert(long definitionId, String definitionName, String serviceName,
+      String hostName, AlertState state) {
+    AlertDefinitionEntity definition = new AlertDefinitionEntity();
+    definition.setDefinitionId(definitionId);
+    definition.setDefinitionName(definitionName);
+
+    AlertHistoryEntity history = new AlertHistoryEntity();
+    history.setAlertId(definitionId * 100 + (null == hostName ? 0 : hostName.hashCode() % 100));
+    history.setClusterId(CLUSTER_ID);
+    history.setAlertDefinition(definition);
+    history.setServiceName(serviceName);
+    history.setHostName(hostName);
+    history.setAlertState(state);
+
+    AlertCurrentEntity current = new AlertCurrentEntity();
+    current.setAlertHistory(history);
+    current.setMaintenanceState(MaintenanceState.OFF);
+    current.setOriginalTimestamp(1L);
+    return current;
+  }
+}
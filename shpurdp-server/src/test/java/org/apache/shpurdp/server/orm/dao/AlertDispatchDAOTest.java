@@ -655,22 +655,37 @@ public class AlertDispatchDAOTest {
     List<AlertNoticeEntity> notices = m_dao.findAllNotices(request);
     assertEquals(3, notices.size());
 
+    // without a sort the page is not defined, so it is left to the controller
+    request.Pagination = new PageRequestImpl(StartingPoint.Beginning, 2, 0,
+        null, null);
+
+    notices = m_dao.findAllNotices(request);
+    assertEquals(3, notices.size());
+
+    // notices with the same state are ordered by their id
+    request.Sort = new SortRequestImpl(Collections.singletonList(new SortRequestProperty(
+        AlertNoticeResourceProvider.ALERT_NOTICE_STATE, Order.ASC)));
+
+    request.Pagination = null;
+    List<AlertNoticeEntity> sorted = m_dao.findAllNotices(request);
+    assertEquals(3, sorted.size());
+
     // only the first 2
     request.Pagination = new PageRequestImpl(StartingPoint.Beginning, 2, 0,
         null, null);
 
     notices = m_dao.findAllNotices(request);
-    assertEquals(2, notices.size());
+    assertEquals(sorted.subList(0, 2), notices);
 
     // the 2nd and 3rd
-    request.Pagination = new PageRequestImpl(StartingPoint.Beginning, 1, 2,
+    request.Pagination = new PageRequestImpl(StartingPoint.OffsetStart, 2, 1,
         null, null);
 
     notices = m_dao.findAllNotices(request);
-    assertEquals(1, notices.size());
+    assertEquals(sorted.subList(1, 3), notices);
 
     // none b/c we're out of index
-    request.Pagination = new PageRequestImpl(StartingPoint.Beginning, 1, 3,
+    request.Pagination = new PageRequestImpl(StartingPoint.OffsetStart, 1, 3,
         null, null);
 
     notices = m_dao.findAllNotices(request);
@@ -190,6 +190,81 @@ public class AlertsDAOCachedTest {
     EasyMock.verify(definition, history, entityManager, daoUtils);
   }
 
+  /**
+   * Tests that only alerts changed since the previous flush are written to JPA.
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testFlushWritesOnlyDirtyAlerts() throws Exception {
+    EntityManager entityManager = m_injector.getInstance(EntityManager.class);
+
+    AlertHistoryEntity history = EasyMock.createNiceMock(AlertHistoryEntity.class);
+    AlertDefinitionEntity definition = EasyMock.createNiceMock(AlertDefinitionEntity.class);
+    mock(definition, history);
+
+    AlertCurrentEntity memoryCurrent = new AlertCurrentEntity();
+    memoryCurrent.setAlertHistory(history);
+    memoryCurrent.setOriginalTimestamp(1L);
+    memoryCurrent.setLatestTimestamp(3L);
+
+    // the alert should be written only by the first flush
+    EasyMock.expect(entityManager.merge(memoryCurrent)).andReturn(memoryCurrent).once();
+    EasyMock.replay(entityManager);
+
+    AlertsDAO alertsDAO = m_injector.getInstance(AlertsDAO.class);
+    alertsDAO.merge(memoryCurrent, true);
+    Assert.assertEquals(1, alertsDAO.getDirtyAlertCount());
+
+    alertsDAO.flushCachedEntitiesToJPA();
+    Assert.assertEquals(0, alertsDAO.getDirtyAlertCount());
+
+    alertsDAO.flushCachedEntitiesToJPA();
+    Assert.assertEquals(1, alertsDAO.getFlushedAlertCount());
+    Assert.assertEquals(2, alertsDAO.getFlushCount());
+
+    EasyMock.verify(entityManager);
+  }
+
+  /**
+   * Tests that alerts stay dirty if the flush fails.
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testFailedFlushKeepsDirtyAlerts() throws Exception {
+    EntityManager entityManager = m_injector.getInstance(EntityManager.class);
+
+    AlertHistoryEntity history = EasyMock.createNiceMock(AlertHistoryEntity.class);
+    AlertDefinitionEntity definition = EasyMock.createNiceMock(AlertDefinitionEntity.class);
+    mock(definition, history);
+
+    AlertCurrentEntity memoryCurrent = new AlertCurrentEntity();
+    memoryCurrent.setAlertHistory(history);
+    memoryCurrent.setOriginalTimestamp(1L);
+    memoryCurrent.setLatestTimestamp(3L);
+
+    EasyMock.expect(entityManager.merge(memoryCurrent)).andThrow(new RuntimeException("rollback")).once();
+    EasyMock.expect(entityManager.merge(memoryCurrent)).andReturn(memoryCurrent).once();
+    EasyMock.replay(entityManager);
+
+    AlertsDAO alertsDAO = m_injector.getInstance(AlertsDAO.class);
+    alertsDAO.merge(memoryCurrent, true);
+
+    try {
+      alertsDAO.flushCachedEntitiesToJPA();
+      Assert.fail("Flush should fail");
+    } catch (RuntimeException e) {
+      // expected
+    }
+    Assert.assertEquals(1, alertsDAO.getDirtyAlertCount());
+
+    alertsDAO.flushCachedEntitiesToJPA();
+    Assert.assertEquals(0, alertsDAO.getDirtyAlertCount());
+
+    EasyMock.verify(entityManager);
+  }
+
   @SuppressWarnings("unchecked")
   private void testFindUsesCache(CachedAlertTestArea testArea) throws Exception {
     EntityManager entityManager = m_injector.getInstance(EntityManager.class);
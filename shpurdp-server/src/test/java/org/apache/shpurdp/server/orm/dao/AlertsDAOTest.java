@@ -23,6 +23,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -78,8 +79,10 @@ import org.junit.Test;
 
 import com.google.inject.Binder;
 import com.google.inject.Guice;
+import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Module;
+import com.google.inject.persist.Transactional;
 import com.google.inject.persist.UnitOfWork;
 import com.google.inject.util.Modules;
 
@@ -597,6 +600,31 @@ public class AlertsDAOTest {
     assertNotNull(entity.getAlertHistory().getAlertDefinition());
   }
 
+  /**
+   * Tests that the summary index does not keep changes of a rolled back
+   * transaction.
+   */
+  @Test
+  public void testFindCurrentSummaryAfterRollback() throws Exception {
+    AlertSummaryDTO summary = m_dao.findCurrentCounts(m_cluster.getClusterId(), null, null);
+    assertEquals(5, summary.getOkCount());
+
+    AlertHistoryEntity history = m_dao.findCurrentByCluster(m_cluster.getClusterId()).get(
+        2).getAlertHistory();
+    history.setAlertState(AlertState.CRITICAL);
+
+    try {
+      m_injector.getInstance(RollingBackAlertWriter.class).mergeAndFail(history);
+      fail("Transaction should be rolled back");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    summary = m_dao.findCurrentCounts(m_cluster.getClusterId(), null, null);
+    assertEquals(5, summary.getOkCount());
+    assertEquals(0, summary.getCriticalCount());
+  }
+
   /**
    *
    */
@@ -1311,7 +1339,7 @@ public class AlertsDAOTest {
   }
 
   /**
-   * Tests that JPA does the pagination work for us.
+   * Tests that JPA does the pagination work for us when the page is sorted.
    *
    * @throws Exception
    */
@@ -1328,28 +1356,84 @@ public class AlertsDAOTest {
     List<AlertHistoryEntity> histories = m_dao.findAll(request);
     assertEquals(3, histories.size());
 
+    // without a sort the page is not defined, so it is left to the controller
+    request.Pagination = new PageRequestImpl(StartingPoint.Beginning, 2, 0,
+        null, null);
+
+    histories = m_dao.findAll(request);
+    assertEquals(3, histories.size());
+
+    // two of the histories have the same service and are ordered by their id
+    request.Sort = new SortRequestImpl(Collections.singletonList(new SortRequestProperty(
+        AlertHistoryResourceProvider.ALERT_HISTORY_SERVICE_NAME, Order.ASC)));
+
+    request.Pagination = null;
+    List<AlertHistoryEntity> sorted = m_dao.findAll(request);
+    assertEquals(3, sorted.size());
+
     // only the first 2
     request.Pagination = new PageRequestImpl(StartingPoint.Beginning, 2, 0,
         null, null);
 
     histories = m_dao.findAll(request);
-    assertEquals(2, histories.size());
+    assertEquals(sorted.subList(0, 2), histories);
 
     // the 2nd and 3rd
-    request.Pagination = new PageRequestImpl(StartingPoint.Beginning, 1, 2,
+    request.Pagination = new PageRequestImpl(StartingPoint.OffsetStart, 2, 1,
         null, null);
 
     histories = m_dao.findAll(request);
-    assertEquals(1, histories.size());
+    assertEquals(sorted.subList(1, 3), histories);
 
     // none b/c we're out of index
-    request.Pagination = new PageRequestImpl(StartingPoint.Beginning, 1, 3,
+    request.Pagination = new PageRequestImpl(StartingPoint.OffsetStart, 1, 3,
         null, null);
 
     histories = m_dao.findAll(request);
     assertEquals(0, histories.size());
   }
 
+  /**
+   * Tests that an OR with a branch which cannot be translated is left out of
+   * the JPA query entirely, instead of narrowing it to the translated branch,
+   * and that the counts use the same translation.
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testAlertHistoryPartialOrPredicate() throws Exception {
+    m_helper.installHdfsService(m_cluster, m_serviceFactory,
+        m_componentFactory, m_schFactory, HOSTNAME);
+    m_alertHelper.populateData(m_cluster);
+
+    Predicate yarnOrUnmappedPredicate = new PredicateBuilder().property(
+        AlertHistoryResourceProvider.ALERT_HISTORY_SERVICE_NAME).equals("YARN").or().property(
+        "AlertHistory/foo").equals("bar").toPredicate();
+
+    AlertHistoryRequest request = new AlertHistoryRequest();
+    request.Predicate = yarnOrUnmappedPredicate;
+
+    // the in-memory evaluation may still match the other histories
+    List<AlertHistoryEntity> histories = m_dao.findAll(request);
+    assertEquals(3, histories.size());
+    assertEquals(3, m_dao.getCount(yarnOrUnmappedPredicate));
+
+    Predicate yarnPredicate = new PredicateBuilder().property(
+        AlertHistoryResourceProvider.ALERT_HISTORY_SERVICE_NAME).equals("YARN").toPredicate();
+    assertEquals(1, m_dao.getCount(yarnPredicate));
+    assertEquals(3, m_dao.getCount(null));
+
+    // a translated conjunct is still applied
+    Predicate hdfsAndUnmappedPredicate = new PredicateBuilder().property(
+        AlertHistoryResourceProvider.ALERT_HISTORY_SERVICE_NAME).equals("HDFS").and().property(
+        "AlertHistory/foo").equals("bar").toPredicate();
+
+    request.Predicate = hdfsAndUnmappedPredicate;
+    histories = m_dao.findAll(request);
+    assertEquals(2, histories.size());
+    assertEquals(2, m_dao.getCount(hdfsAndUnmappedPredicate));
+  }
+
   /**
    * Tests that JPA does the sorting work for us.
    *
@@ -1499,4 +1583,18 @@ public class AlertsDAOTest {
       binder.bind(ServiceUpdateEventPublisher.class).toInstance(serviceUpdateEventPublisher);
     }
   }
+
+  /**
+   * Merges an alert history and fails in the same transaction.
+   */
+  static class RollingBackAlertWriter {
+    @Inject
+    private AlertsDAO m_alertsDao;
+
+    @Transactional
+    public void mergeAndFail(AlertHistoryEntity history) {
+      m_alertsDao.merge(history);
+      throw new IllegalStateException("rollback");
+    }
+  }
 }
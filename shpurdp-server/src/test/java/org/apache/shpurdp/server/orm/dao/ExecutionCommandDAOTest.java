@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.orm.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.shpurdp.server.H2DatabaseCleaner;
+import org.apache.shpurdp.server.orm.GuiceJpaInitializer;
+import org.apache.shpurdp.server.orm.InMemoryDefaultTestModule;
+import org.apache.shpurdp.server.orm.entities.ExecutionCommandFragmentEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Tests the storage of execution commands by {@link ExecutionCommandDAO}.
+ */
+public class ExecutionCommandDAOTest {
+
+  private Injector injector;
+  private ExecutionCommandDAO executionCommandDAO;
+
+  @Before
+  public void setup() throws Exception {
+    injector = Guice.createInjector(new InMemoryDefaultTestModule());
+    injector.getInstance(GuiceJpaInitializer.class);
+    executionCommandDAO = injector.getInstance(ExecutionCommandDAO.class);
+  }
+
+  @After
+  public void teardown() throws Exception {
+    H2DatabaseCleaner.clearDatabaseAndStopPersistenceService(injector);
+  }
+
+  @Test
+  public void testSharedFragmentsAreStoredOnce() {
+    String first = createCommand(1L, "h1");
+    String second = createCommand(2L, "h2");
+
+    byte[] firstCommand = executionCommandDAO.toCommand(10L, first);
+    byte[] secondCommand = executionCommandDAO.toCommand(10L, second);
+
+    assertTrue(firstCommand.length < first.length());
+    assertEquals(JsonParser.parseString(first), JsonParser.parseString(executionCommandDAO.toJson(10L, firstCommand)));
+    assertEquals(JsonParser.parseString(second), JsonParser.parseString(executionCommandDAO.toJson(10L, secondCommand)));
+
+    EntityManager entityManager = injector.getProvider(EntityManager.class).get();
+    List<ExecutionCommandFragmentEntity> fragments = entityManager.createQuery(
+        "SELECT fragment FROM ExecutionCommandFragmentEntity fragment", ExecutionCommandFragmentEntity.class).getResultList();
+    assertEquals(1, fragments.size());
+    assertEquals(Long.valueOf(10L), fragments.get(0).getRequestId());
+    assertEquals(64, fragments.get(0).getFragmentHash().length());
+  }
+
+  @Test
+  public void testUncompressedCommandIsReturnedAsIs() {
+    String json = createCommand(1L, "h1");
+    assertEquals(json, executionCommandDAO.toJson(10L, json.getBytes()));
+  }
+
+  private String createCommand(long taskId, String hostName) {
+    JsonArray hosts = new JsonArray();
+    for (int i = 0; i < 200; i++) {
+      hosts.add("c6401-" + i + ".shpurdp.apache.org");
+    }
+    JsonObject clusterHostInfo = new JsonObject();
+    clusterHostInfo.add("all_hosts", hosts);
+
+    JsonObject command = new JsonObject();
+    command.addProperty("taskId", taskId);
+    command.addProperty("hostname", hostName);
+    command.add("clusterHostInfo", clusterHostInfo);
+    command.add("roleParams", new JsonObject());
+    return command.toString();
+  }
+}
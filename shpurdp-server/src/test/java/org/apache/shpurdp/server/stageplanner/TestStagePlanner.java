@@ -23,6 +23,7 @@ import static org.mockito.Mockito.when;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.shpurdp.server.ShpurdpException;
 import org.apache.shpurdp.server.H2DatabaseCleaner;
@@ -33,6 +34,7 @@ import org.apache.shpurdp.server.actionmanager.Stage;
 import org.apache.shpurdp.server.actionmanager.StageFactory;
 import org.apache.shpurdp.server.metadata.RoleCommandOrder;
 import org.apache.shpurdp.server.metadata.RoleCommandOrderProvider;
+import org.apache.shpurdp.server.metadata.RoleCommandPair;
 import org.apache.shpurdp.server.orm.GuiceJpaInitializer;
 import org.apache.shpurdp.server.orm.InMemoryDefaultTestModule;
 import org.apache.shpurdp.server.state.Service;
@@ -48,6 +50,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Guice;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
@@ -295,6 +298,49 @@ public class TestStagePlanner {
     assertEquals(3, outStages.size());
   }
 
+  @Test
+  public void testStagePlanIsCached() throws Throwable {
+    ClusterImpl cluster = mock(ClusterImpl.class);
+    when(cluster.getCurrentStackVersion()).thenReturn(new StackId("HDP-2.0.6"));
+
+    Service hbaseService = mock(Service.class);
+    when(hbaseService.getDesiredStackId()).thenReturn(new StackId("HDP-2.0.6"));
+    Service zkService = mock(Service.class);
+    when(zkService.getDesiredStackId()).thenReturn(new StackId("HDP-2.0.6"));
+
+    when(cluster.getServices()).thenReturn(ImmutableMap.<String, Service>builder()
+        .put("HBASE", hbaseService)
+        .put("ZOOKEEPER", zkService)
+        .build());
+
+    RoleCommandOrder rco = roleCommandOrderProvider.getRoleCommandOrder(cluster);
+    long now = System.currentTimeMillis();
+    for (String hostname : new String[] {"host1", "host2"}) {
+      RoleGraph rg = roleGraphFactory.createNew(rco);
+      Stage stage = StageUtils.getATestStage(1, 1, hostname, "", "");
+      stage.addHostRoleExecutionCommand(hostname, Role.HBASE_MASTER,
+          RoleCommand.START, new ServiceComponentHostStartEvent("HBASE_MASTER",
+              hostname, now), "cluster1", "HBASE", false, false);
+      stage.addHostRoleExecutionCommand(hostname, Role.ZOOKEEPER_SERVER,
+          RoleCommand.START, new ServiceComponentHostStartEvent("ZOOKEEPER_SERVER",
+              hostname, now), "cluster1", "ZOOKEEPER", false, false);
+      rg.build(stage);
+      List<Stage> outStages = rg.getStages();
+      assertEquals(3, outStages.size());
+      Assert.assertNotNull(outStages.get(2).getHostRoleCommand(hostname, Role.HBASE_MASTER.name()));
+    }
+
+    // the plan of the same role commands is not computed again
+    Set<RoleCommandPair> roleCommands = ImmutableSet.of(
+        new RoleCommandPair(Role.NAMENODE, RoleCommand.INSTALL),
+        new RoleCommandPair(Role.HBASE_MASTER, RoleCommand.START),
+        new RoleCommandPair(Role.ZOOKEEPER_SERVER, RoleCommand.START));
+    List<List<Role>> plan = rco.getStagePlan(roleCommands, () -> {
+      throw new ShpurdpException("Stage plan was not cached");
+    });
+    assertEquals(3, plan.size());
+  }
+
   @Test
   public void testRestartStagePlan() throws Throwable {
     ClusterImpl cluster = mock(ClusterImpl.class);
@@ -18,6 +18,7 @@
 package org.apache.shpurdp.server.state.alerts;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -33,8 +34,10 @@ import org.apache.shpurdp.server.H2DatabaseCleaner;
 import org.apache.shpurdp.server.controller.RootComponent;
 import org.apache.shpurdp.server.controller.RootService;
 import org.apache.shpurdp.server.events.AlertReceivedEvent;
+import org.apache.shpurdp.server.configuration.Configuration;
 import org.apache.shpurdp.server.events.AlertStateChangeEvent;
 import org.apache.shpurdp.server.events.listeners.alerts.AlertReceivedListener;
+import org.apache.shpurdp.server.events.listeners.alerts.AlertWriteBatcher;
 import org.apache.shpurdp.server.orm.GuiceJpaInitializer;
 import org.apache.shpurdp.server.orm.InMemoryDefaultTestModule;
 import org.apache.shpurdp.server.orm.OrmTestHelper;
@@ -90,7 +93,11 @@ public class AlertReceivedListenerTest {
 
   @Before
   public void setup() throws Exception {
-    m_injector = Guice.createInjector(new InMemoryDefaultTestModule());
+    setup(new InMemoryDefaultTestModule());
+  }
+
+  private void setup(InMemoryDefaultTestModule module) throws Exception {
+    m_injector = Guice.createInjector(module);
     m_injector.getInstance(GuiceJpaInitializer.class);
     m_injector.getInstance(UnitOfWork.class).begin();
 
@@ -950,4 +957,67 @@ public class AlertReceivedListenerTest {
 
     assertEquals(1, m_dao.findCurrent().size());
   }
+
+  /**
+   * Tests that alerts received within the batch window are applied on top of
+   * the pending ones and that neither the persisted nor the pending alerts are
+   * changed before the write.
+   */
+  @Test
+  public void testAlertsWithinBatchWindow() throws Exception {
+    teardown();
+    InMemoryDefaultTestModule module = new InMemoryDefaultTestModule();
+    module.getProperties().setProperty(Configuration.ALERTS_WRITE_BATCH_WINDOW.getKey(), "600000");
+    setup(module);
+
+    String definitionName = ALERT_DEFINITION + "1";
+    long clusterId = m_cluster.getClusterId();
+    Alert alert = new Alert(definitionName, null, "HDFS", "NAMENODE", HOST1, AlertState.OK);
+    alert.setClusterId(clusterId);
+    alert.setLabel(ALERT_LABEL);
+    alert.setText("HDFS NAMENODE is OK");
+    alert.setTimestamp(1L);
+
+    AlertReceivedListener listener = m_injector.getInstance(AlertReceivedListener.class);
+    AlertWriteBatcher batcher = m_injector.getInstance(AlertWriteBatcher.class);
+    AlertReceivedEvent event = new AlertReceivedEvent(clusterId, alert);
+
+    // new alerts are created right away
+    listener.onAlertEvent(event);
+    assertEquals(1, m_dao.findCurrent().size());
+
+    // the persisted alert is not changed until the write
+    alert.setTimestamp(2L);
+    listener.onAlertEvent(event);
+    AlertCurrentEntity persisted = m_dao.findCurrent().get(0);
+    assertEquals(1L, (long) persisted.getOccurrences());
+    assertEquals(1L, (long) persisted.getLatestTimestamp());
+    assertEquals(2L, (long) batcher.getPendingAlert(clusterId, definitionName, HOST1).getOccurrences());
+
+    // the pending alert is not changed by its copies
+    AlertCurrentEntity pending = batcher.getPendingAlert(clusterId, definitionName, HOST1);
+    pending.setOccurrences(100L);
+    assertEquals(2L, (long) batcher.getPendingAlert(clusterId, definitionName, HOST1).getOccurrences());
+
+    // state changes are applied on top of the pending alert
+    alert.setState(AlertState.WARNING);
+    alert.setTimestamp(3L);
+    listener.onAlertEvent(event);
+    alert.setTimestamp(4L);
+    listener.onAlertEvent(event);
+    assertEquals(1L, (long) m_dao.findCurrent().get(0).getOccurrences());
+    assertEquals(AlertState.OK, m_dao.findCurrent().get(0).getAlertHistory().getAlertState());
+    assertEquals(1, m_dao.findAll().size());
+
+    batcher.write();
+
+    List<AlertCurrentEntity> allCurrent = m_dao.findCurrent();
+    assertEquals(1, allCurrent.size());
+    assertEquals(AlertState.WARNING, allCurrent.get(0).getAlertHistory().getAlertState());
+    assertEquals(2L, (long) allCurrent.get(0).getOccurrences());
+    assertEquals(4L, (long) allCurrent.get(0).getLatestTimestamp());
+    assertEquals(3L, (long) allCurrent.get(0).getOriginalTimestamp());
+    assertEquals(2, m_dao.findAll().size());
+    assertNull(batcher.getPendingAlert(clusterId, definitionName, HOST1));
+  }
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.shpurdp.server.state.cluster;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.shpurdp.server.configuration.Configuration;
+import org.apache.shpurdp.server.events.HostsRemovedEvent;
+import org.apache.shpurdp.server.events.publishers.ShpurdpEventPublisher;
+import org.apache.shpurdp.server.state.Cluster;
+import org.apache.shpurdp.server.state.Host;
+import org.apache.shpurdp.server.topology.TopologyManager;
+import org.apache.shpurdp.server.utils.StageUtils;
+import org.easymock.EasyMockSupport;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link ClusterHostInfoSnapshotService}.
+ */
+public class ClusterHostInfoSnapshotServiceTest extends EasyMockSupport {
+
+  private final AtomicLong topologyVersion = new AtomicLong();
+  private final Map<String, Collection<String>> pendingHostComponents = new HashMap<>();
+  private String rack = "/rack1";
+
+  private Cluster cluster;
+
+  @Before
+  public void setup() {
+    TopologyManager topologyManager = createNiceMock(TopologyManager.class);
+    expect(topologyManager.getPendingHostComponents()).andAnswer(() -> new HashMap<>(pendingHostComponents)).anyTimes();
+    StageUtils.setTopologyManager(topologyManager);
+    StageUtils.setConfiguration(new Configuration(new Properties()));
+
+    Host host = createNiceMock(Host.class);
+    expect(host.getHostName()).andReturn("h1").anyTimes();
+    expect(host.getCurrentPingPort()).andReturn(8670).anyTimes();
+    expect(host.getRackInfo()).andAnswer(() -> rack).anyTimes();
+    expect(host.getIPv4()).andReturn("10.0.0.1").anyTimes();
+
+    cluster = createNiceMock(Cluster.class);
+    expect(cluster.getClusterId()).andReturn(1L).anyTimes();
+    expect(cluster.getClusterName()).andReturn("c1").anyTimes();
+    expect(cluster.getHosts()).andReturn(Collections.singletonList(host)).anyTimes();
+    expect(cluster.getServices()).andReturn(Collections.emptyMap()).anyTimes();
+    expect(cluster.getTopologyVersion()).andAnswer(topologyVersion::get).anyTimes();
+
+    replayAll();
+  }
+
+  @Test
+  public void testSnapshotIsSharedUntilTopologyChanges() throws Exception {
+    ClusterHostInfoSnapshotService service = new ClusterHostInfoSnapshotService(new ShpurdpEventPublisher());
+
+    ClusterHostInfoSnapshot snapshot = service.getSnapshot(cluster);
+    assertSame(snapshot, service.getSnapshot(cluster));
+    assertSame(snapshot, service.findSnapshot(snapshot.getJson()));
+    assertEquals(Collections.singleton("h1"), snapshot.getClusterHostInfo().get("all_hosts"));
+    assertEquals(StageUtils.getGson().toJson(StageUtils.getClusterHostInfo(cluster)), snapshot.getJson());
+
+    // a host component was added
+    topologyVersion.incrementAndGet();
+    ClusterHostInfoSnapshot newSnapshot = service.getSnapshot(cluster);
+    assertNotSame(snapshot, newSnapshot);
+    assertTrue(newSnapshot.getVersion() > snapshot.getVersion());
+
+    // host attributes are part of the structure
+    rack = "/rack2";
+    snapshot = newSnapshot;
+    newSnapshot = service.getSnapshot(cluster);
+    assertNotSame(snapshot, newSnapshot);
+    assertEquals(Collections.singleton("/rack2:0"), newSnapshot.getClusterHostInfo().get("all_racks"));
+
+    // so are the host components pending in the topology manager
+    pendingHostComponents.put("h1", new HashSet<>(Collections.singleton("NAMENODE")));
+    snapshot = newSnapshot;
+    newSnapshot = service.getSnapshot(cluster);
+    assertNotSame(snapshot, newSnapshot);
+    assertEquals(Collections.singleton("0"), newSnapshot.getClusterHostInfo().get("namenode_hosts"));
+
+    service.onHostsRemoved(new HostsRemovedEvent(Collections.singleton("h2"), Collections.singleton(2L)));
+    assertNull(service.findSnapshot(newSnapshot.getJson()));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSnapshotIsImmutable() throws Exception {
+    ClusterHostInfoSnapshotService service = new ClusterHostInfoSnapshotService(new ShpurdpEventPublisher());
+    service.getSnapshot(cluster).getClusterHostInfo().get("all_hosts").add("h2");
+  }
+}
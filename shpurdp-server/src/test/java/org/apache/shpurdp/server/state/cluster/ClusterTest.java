@@ -1109,6 +1109,12 @@ public class ClusterTest {
     // Single serviceConfigVersion for multiple configs
     Assert.assertEquals(1, serviceConfigVersions.size());
     Assert.assertEquals(Long.valueOf(1), serviceConfigVersions.get(0).getVersion());
+    // the history of a single service is read without the other services
+    List<ServiceConfigVersionResponse> hdfsConfigVersions = c1.getServiceConfigVersions("HDFS");
+    Assert.assertEquals(1, hdfsConfigVersions.size());
+    Assert.assertEquals(Long.valueOf(1), hdfsConfigVersions.get(0).getVersion());
+    Assert.assertTrue(hdfsConfigVersions.get(0).getIsCurrent());
+    Assert.assertEquals(0, c1.getServiceConfigVersions("YARN").size());
     Assert.assertEquals(2, c1.getDesiredConfigs().size());
     Assert.assertEquals("version1", c1.getDesiredConfigByType("hdfs-site").getTag());
     Assert.assertEquals("version2", c1.getDesiredConfigByType("core-site").getTag());
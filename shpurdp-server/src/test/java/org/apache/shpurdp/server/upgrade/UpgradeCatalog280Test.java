@@ -18,6 +18,7 @@
 package org.apache.shpurdp.server.upgrade;
 
 
+import static org.apache.shpurdp.server.upgrade.UpgradeCatalog280.EXECUTION_COMMAND_FRAGMENT_TABLE;
 import static org.apache.shpurdp.server.upgrade.UpgradeCatalog280.SHPURDP_CONFIGURATION_PROPERTY_VALUE_COLUMN;
 import static org.apache.shpurdp.server.upgrade.UpgradeCatalog280.SHPURDP_CONFIGURATION_TABLE;
 import static org.apache.shpurdp.server.upgrade.UpgradeCatalog280.HOST_COMPONENT_STATE_TABLE;
@@ -29,6 +30,8 @@ import static org.easymock.EasyMock.newCapture;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 
+import java.util.List;
+
 import org.apache.shpurdp.server.orm.DBAccessor;
 import org.easymock.Capture;
 import org.easymock.CaptureType;
@@ -74,6 +77,13 @@ public class UpgradeCatalog280Test {
     dbAccessor.alterColumn(eq(SHPURDP_CONFIGURATION_TABLE), capture(alterPropertyValueColumnCapture));
     expectLastCall().once();  
 
+    Capture<List<DBAccessor.DBColumnInfo>> fragmentColumns = newCapture();
+    dbAccessor.createTable(eq(EXECUTION_COMMAND_FRAGMENT_TABLE), capture(fragmentColumns));
+    expectLastCall().once();
+    dbAccessor.addPKConstraint(eq(EXECUTION_COMMAND_FRAGMENT_TABLE), eq("PK_execution_command_fragment"),
+        eq("request_id"), eq("fragment_hash"));
+    expectLastCall().once();
+
     replay(dbAccessor, injector);
 
     UpgradeCatalog280 upgradeCatalog280 = new UpgradeCatalog280(injector);
@@ -105,6 +115,12 @@ public class UpgradeCatalog280Test {
     Assert.assertEquals((Integer) 4000, alterPropertyValueColumn.getLength());
     Assert.assertFalse(alterPropertyValueColumn.isNullable());
 
+    List<DBAccessor.DBColumnInfo> capturedFragmentColumns = fragmentColumns.getValue();
+    Assert.assertEquals(3, capturedFragmentColumns.size());
+    Assert.assertEquals("fragment_hash", capturedFragmentColumns.get(1).getName());
+    Assert.assertEquals((Integer) 64, capturedFragmentColumns.get(1).getLength());
+    Assert.assertEquals(byte[].class, capturedFragmentColumns.get(2).getType());
+
     verify(dbAccessor);
   }
 }